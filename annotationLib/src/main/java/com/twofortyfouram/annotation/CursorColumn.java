@@ -0,0 +1,49 @@
+/*
+ * android-annotation
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maps a field of a {@link CursorModel} to a database column.
+ * <p>
+ * Supported field types are {@code long}, {@code int}, {@code short}, {@code double},
+ * {@code float}, {@code boolean}, their boxed equivalents, {@code String}, and {@code byte[]}.
+ * Primitive fields are not null.  Other fields are nullable unless annotated {@code @NonNull}.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface CursorColumn {
+
+    /**
+     * Name of the column.
+     */
+    String value();
+
+    /**
+     * Whether the column is the autoincrement primary key of the row, typically
+     * {@code BaseColumns._ID}.  At most one column may be the key, and it must be a {@code long}.
+     * The key is omitted when writing ContentValues, since it is assigned by the database.
+     */
+    boolean isKey() default false;
+}
@@ -0,0 +1,49 @@
+/*
+ * android-annotation
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a model class whose instances are read from and written to a database row.  The memento
+ * annotation processor generates, in the same package as the annotated class:
+ * <ul>
+ * <li>{@code <Name>CursorParser}, a Cursor parser that resolves column indices once per Cursor
+ * and reads columns with primitive getters.</li>
+ * <li>{@code <Name>ContentValuesWriter}, which writes an instance to ContentValues.</li>
+ * <li>{@code <Name>Table}, which declares the table, if {@link #tableName()} is set.</li>
+ * </ul>
+ * <p>
+ * Columns are declared with {@link CursorColumn} on non-private fields.  The annotated class must
+ * have a non-private constructor whose parameters match the types of the annotated fields in
+ * declaration order.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface CursorModel {
+
+    /**
+     * Name of the table to declare.  If empty, no table declaration is generated.
+     */
+    String tableName() default "";
+}
@@ -21,6 +21,8 @@ import android.content.ContentResolver;
 import android.database.Cursor;
 import android.database.MatrixCursor;
 import android.net.Uri;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
 import android.provider.BaseColumns;
 import androidx.annotation.NonNull;
 import androidx.test.core.app.ApplicationProvider;
@@ -61,6 +63,25 @@ public final class BaseColumnsContractTest {
                 is(0));
     }
 
+    @Test(expected = OperationCanceledException.class)
+    @SmallTest
+    public void getCountForUri_canceled() {
+        final String authority = "testauthority"; //$NON-NLS
+        final Uri uri = new Uri.Builder().scheme(ContentResolver.SCHEME_CONTENT)
+                .authority(authority).path("test").build(); //$NON-NLS
+        final MockableContentProvider mockableContentProvider = MockableContentProvider
+                .newMockProvider(ApplicationProvider.getApplicationContext(), authority);
+
+        mockableContentProvider.addQueryResult(BaseColumnsCursorFixture.newCountCursor(0));
+
+        @NonNull final CancellationSignal cancellationSignal = new CancellationSignal();
+        cancellationSignal.cancel();
+
+        BaseColumnsContract
+                .getCountForUri(mockableContentProvider.getContext().getContentResolver(), uri,
+                        null, null, cancellationSignal); //throws
+    }
+
     @Test(expected = UnsupportedOperationException.class)
     @SmallTest
     public void getCountForUri_multiple_rows() {
@@ -0,0 +1,104 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.contract;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.os.Bundle;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import com.twofortyfouram.memento.internal.QueryStringUtil;
+import com.twofortyfouram.test.provider.MockableContentProvider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.twofortyfouram.test.matcher.ClassNotInstantiableMatcher.notInstantiable;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+@RunWith(AndroidJUnit4.class)
+public final class ChangeLogContractTest {
+
+    private static final String MOCK_CONTENT_PROVIDER_AUTHORITY =
+            "com.twofortyfouram.memento.test.provider"; //NON-NLS
+
+    @Test
+    @SmallTest
+    public void nonInstantiable() {
+        assertThat(ChangeLogContract.class, notInstantiable());
+    }
+
+    @Test
+    @SmallTest
+    public void newChangesSinceUri() {
+        @NonNull final Uri uri = ChangeLogContract
+                .newChangesSinceUri(MOCK_CONTENT_PROVIDER_AUTHORITY, 42);
+
+        assertThat(uri.getAuthority(), is(MOCK_CONTENT_PROVIDER_AUTHORITY));
+        assertThat(uri.getPathSegments(), contains(ChangeLogContract.PATH_CHANGE_LOG));
+        assertThat(QueryStringUtil.getChangesSince(uri), is(42L));
+    }
+
+    @Test
+    @SmallTest
+    public void callCompact() {
+        @NonNull final MockableContentProvider mockableContentProvider = getMockableContentProvider();
+
+        {
+            final Bundle result = new Bundle();
+            result.putInt(ChangeLogContract.RESULT_EXTRA_INT_COUNT, 3);
+            mockableContentProvider.addCallResult(result);
+        }
+
+        assertThat(ChangeLogContract.callCompact(mockableContentProvider.getContext(),
+                getContentAuthorityUri(), 7), is(3));
+
+        assertThat(mockableContentProvider.getCallCount(), is(1));
+
+        @Nullable final MockableContentProvider.CallParams callParams = mockableContentProvider
+                .getCallParams();
+        assertThat(callParams, notNullValue());
+        assertThat(callParams.getMethod(), is(ChangeLogContract.METHOD_COMPACT));
+        assertThat(callParams.getArg(), is(getContentAuthorityUri().toString()));
+        assertThat(callParams.getExtras().getLong(ChangeLogContract.EXTRA_LONG_SEQUENCE), is(7L));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    @SmallTest
+    public void callCompact_incompatible_provider() {
+        @NonNull final MockableContentProvider mockableContentProvider = getMockableContentProvider();
+
+        ChangeLogContract.callCompact(mockableContentProvider.getContext(),
+                getContentAuthorityUri(), 0);
+    }
+
+    @NonNull
+    private MockableContentProvider getMockableContentProvider() {
+        return MockableContentProvider.newMockProvider(ApplicationProvider.getApplicationContext(),
+                MOCK_CONTENT_PROVIDER_AUTHORITY);
+    }
+
+    @NonNull
+    private static Uri getContentAuthorityUri() {
+        return new Uri.Builder().scheme(ContentResolver.SCHEME_CONTENT).authority
+                (MOCK_CONTENT_PROVIDER_AUTHORITY).build();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.contract;
+
+import android.net.Uri;
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.twofortyfouram.test.matcher.ClassNotInstantiableMatcher.notInstantiable;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+@RunWith(AndroidJUnit4.class)
+public final class ChangePayloadContractTest {
+
+    @SmallTest
+    @Test
+    public void nonInstantiable() {
+        assertThat(ChangePayloadContract.class, notInstantiable());
+    }
+
+    @SmallTest
+    @Test
+    public void withPayload() {
+        @NonNull final Uri uri = Uri.parse("content://foo/bar"); //$NON-NLS
+        @NonNull final Uri result = ChangePayloadContract
+                .withPayload(uri, ChangePayloadContract.OPERATION_DELETE, -2);
+
+        assertThat(result.getPath(), is(uri.getPath()));
+        assertThat(ChangePayloadContract.getOperation(result),
+                is(ChangePayloadContract.OPERATION_DELETE));
+        assertThat(ChangePayloadContract.getRowDelta(result), is(-2));
+    }
+
+    @SmallTest
+    @Test
+    public void getRowDelta_missing() {
+        assertThat(ChangePayloadContract.getRowDelta(Uri.parse("content://foo/bar")), //$NON-NLS
+                nullValue());
+    }
+
+    @SmallTest
+    @Test
+    public void getRowDelta_invalid() {
+        @NonNull final Uri uri = Uri.parse("content://foo/bar").buildUpon() //$NON-NLS
+                .appendQueryParameter(ChangePayloadContract.QUERY_STRING_ROW_DELTA, "baz") //$NON-NLS
+                .build();
+
+        assertThat(ChangePayloadContract.getRowDelta(uri), nullValue());
+    }
+
+    @SmallTest
+    @Test
+    public void withPayload_change_time() {
+        @NonNull final Uri uri = Uri.parse("content://foo/bar"); //$NON-NLS
+        @NonNull final Uri result = ChangePayloadContract
+                .withPayload(uri, ChangePayloadContract.OPERATION_INSERT, 1, 1234L);
+
+        assertThat(result.getPath(), is(uri.getPath()));
+        assertThat(ChangePayloadContract.getRowDelta(result), is(1));
+        assertThat(ChangePayloadContract.getChangeRealTimeMillis(result), is(1234L));
+    }
+
+    @SmallTest
+    @Test
+    public void getChangeRealTimeMillis_missing() {
+        assertThat(ChangePayloadContract.getChangeRealTimeMillis(ChangePayloadContract
+                        .withPayload(Uri.parse("content://foo/bar"), //$NON-NLS
+                                ChangePayloadContract.OPERATION_INSERT, 1)),
+                nullValue());
+    }
+
+    @SmallTest
+    @Test
+    public void getChangeRealTimeMillis_invalid() {
+        @NonNull final Uri uri = Uri.parse("content://foo/bar").buildUpon() //$NON-NLS
+                .appendQueryParameter(ChangePayloadContract.QUERY_STRING_CHANGE_REAL_TIME_MILLIS,
+                        "baz") //$NON-NLS
+                .build();
+
+        assertThat(ChangePayloadContract.getChangeRealTimeMillis(uri), nullValue());
+    }
+}
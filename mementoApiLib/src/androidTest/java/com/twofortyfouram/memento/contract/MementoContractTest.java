@@ -17,6 +17,7 @@
 
 package com.twofortyfouram.memento.contract;
 
+import android.database.sqlite.SQLiteDatabase;
 import android.net.Uri;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
@@ -72,4 +73,103 @@ public final class MementoContractTest {
 
         assertThat(QueryStringUtil.getLimit(result.build()), is("5")); //$NON-NLS
     }
+
+    @Test
+    @SmallTest
+    public void addSearchQuery() {
+        final Uri.Builder builder = new Uri.Builder();
+
+        final Uri.Builder result = MementoContract.addSearchQuery(builder, "foo*"); //$NON-NLS
+
+        assertThat(QueryStringUtil.getSearchQuery(result.build()), is("foo*")); //$NON-NLS
+    }
+
+    @Test
+    @SmallTest
+    public void addSearchQuery_same_object() {
+        final Uri.Builder builder = new Uri.Builder();
+
+        final Uri.Builder result = MementoContract.addSearchQuery(builder, "foo"); //$NON-NLS
+
+        assertThat(builder, sameInstance(result));
+    }
+
+    @Test
+    @SmallTest
+    public void addConflictAlgorithm() {
+        final Uri.Builder builder = new Uri.Builder();
+
+        final Uri.Builder result = MementoContract.addConflictAlgorithm(builder,
+                SQLiteDatabase.CONFLICT_IGNORE);
+
+        assertThat(builder, sameInstance(result));
+        assertThat(QueryStringUtil.getConflictAlgorithm(result.build()),
+                is(SQLiteDatabase.CONFLICT_IGNORE));
+    }
+
+    @Test(expected = AssertionError.class)
+    @SmallTest
+    public void addConflictAlgorithm_out_of_range() {
+        MementoContract.addConflictAlgorithm(new Uri.Builder(), -1);
+    }
+
+    @Test
+    @SmallTest
+    public void addIds() {
+        final Uri.Builder builder = new Uri.Builder();
+
+        final Uri.Builder result = MementoContract.addIds(builder, new long[]{5L, 1L});
+
+        assertThat(builder, sameInstance(result));
+        assertThat(QueryStringUtil.getIds(result.build()), is(new long[]{5L, 1L}));
+    }
+
+    @Test
+    @SmallTest
+    public void addTimeRange() {
+        final Uri.Builder builder = new Uri.Builder();
+
+        final Uri.Builder result = MementoContract.addTimeRange(builder, 1L, 2L);
+
+        assertThat(builder, sameInstance(result));
+        assertThat(QueryStringUtil.getTimeRangeStart(result.build()), is(1L));
+        assertThat(QueryStringUtil.getTimeRangeEnd(result.build()), is(2L));
+    }
+
+    @Test(expected = AssertionError.class)
+    @SmallTest
+    public void addTimeRange_end_before_start() {
+        MementoContract.addTimeRange(new Uri.Builder(), 2L, 1L);
+    }
+
+    @Test
+    @SmallTest
+    public void addBoundingBox() {
+        final Uri.Builder builder = new Uri.Builder();
+
+        final Uri.Builder result = MementoContract.addBoundingBox(builder, -1, 1, 2.5, 2.5);
+
+        assertThat(builder, sameInstance(result));
+        assertThat(QueryStringUtil.getBoundingBox(result.build()),
+                is(new double[]{-1, 1, 2.5, 2.5}));
+    }
+
+    @Test
+    @SmallTest
+    public void jsonExtract() {
+        assertThat(MementoContract.jsonExtract("json", "$.priority"), //$NON-NLS
+                is("json_extract(json, '$.priority')")); //$NON-NLS
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @SmallTest
+    public void jsonExtract_missing_root() {
+        MementoContract.jsonExtract("json", "priority"); //$NON-NLS
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @SmallTest
+    public void jsonExtract_quote() {
+        MementoContract.jsonExtract("json", "$.a') OR ('1"); //$NON-NLS
+    }
 }
@@ -20,10 +20,12 @@ package com.twofortyfouram.memento.internal;
 
 import android.app.SearchManager;
 import android.content.ContentResolver;
+import android.database.sqlite.SQLiteDatabase;
 import android.net.Uri;
 import androidx.test.filters.SmallTest;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
+import com.twofortyfouram.memento.contract.ChangeLogContract;
 import com.twofortyfouram.memento.contract.MementoContract;
 
 import org.junit.Test;
@@ -116,4 +118,236 @@ public final class QueryStringUtilTest {
         assertThat(QueryStringUtil.getLimit(uri), nullValue());
     }
 
+    @Test
+    @SmallTest
+    public void getConflictAlgorithm_missing() {
+        final Uri uri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority("com.authority") //$NON-NLS
+                .appendPath("bork") //$NON-NLS
+                .build();
+
+        assertThat(QueryStringUtil.getConflictAlgorithm(uri), nullValue());
+    }
+
+    @Test
+    @SmallTest
+    public void getConflictAlgorithm_replace() {
+        final Uri uri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority("com.authority") //$NON-NLS
+                .appendPath("bork") //$NON-NLS
+                .appendQueryParameter(MementoContract.QUERY_STRING_CONFLICT_ALGORITHM,
+                        Integer.toString(SQLiteDatabase.CONFLICT_REPLACE))
+                .build();
+
+        assertThat(QueryStringUtil.getConflictAlgorithm(uri), is(SQLiteDatabase.CONFLICT_REPLACE));
+    }
+
+    @Test
+    @SmallTest
+    public void getConflictAlgorithm_out_of_range() {
+        final Uri uri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority("com.authority") //$NON-NLS
+                .appendPath("bork") //$NON-NLS
+                .appendQueryParameter(MementoContract.QUERY_STRING_CONFLICT_ALGORITHM, "6") //$NON-NLS
+                .build();
+
+        assertThat(QueryStringUtil.getConflictAlgorithm(uri), nullValue());
+    }
+
+    @Test
+    @SmallTest
+    public void getConflictAlgorithm_non_integer() {
+        final Uri uri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority("com.authority") //$NON-NLS
+                .appendPath("bork") //$NON-NLS
+                .appendQueryParameter(MementoContract.QUERY_STRING_CONFLICT_ALGORITHM, "foo") //$NON-NLS
+                .build();
+
+        assertThat(QueryStringUtil.getConflictAlgorithm(uri), nullValue());
+    }
+
+    @Test
+    @SmallTest
+    public void getIds_missing() {
+        final Uri uri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority("com.authority") //$NON-NLS
+                .appendPath("bork") //$NON-NLS
+                .build();
+
+        assertThat(QueryStringUtil.getIds(uri), nullValue());
+    }
+
+    @Test
+    @SmallTest
+    public void getIds() {
+        final Uri uri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority("com.authority") //$NON-NLS
+                .appendPath("bork") //$NON-NLS
+                .appendQueryParameter(MementoContract.QUERY_STRING_IDS, "3,-1,2") //$NON-NLS
+                .build();
+
+        assertThat(QueryStringUtil.getIds(uri), is(new long[]{3L, -1L, 2L}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @SmallTest
+    public void getIds_empty() {
+        final Uri uri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority("com.authority") //$NON-NLS
+                .appendPath("bork") //$NON-NLS
+                .appendQueryParameter(MementoContract.QUERY_STRING_IDS, "") //$NON-NLS
+                .build();
+
+        QueryStringUtil.getIds(uri);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @SmallTest
+    public void getIds_non_integer() {
+        final Uri uri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority("com.authority") //$NON-NLS
+                .appendPath("bork") //$NON-NLS
+                .appendQueryParameter(MementoContract.QUERY_STRING_IDS, "1,foo") //$NON-NLS
+                .build();
+
+        QueryStringUtil.getIds(uri);
+    }
+
+    @Test
+    @SmallTest
+    public void getTimeRange_missing() {
+        final Uri uri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority("com.authority") //$NON-NLS
+                .appendPath("bork") //$NON-NLS
+                .build();
+
+        assertThat(QueryStringUtil.getTimeRangeStart(uri), nullValue());
+        assertThat(QueryStringUtil.getTimeRangeEnd(uri), nullValue());
+    }
+
+    @Test
+    @SmallTest
+    public void getTimeRange() {
+        final Uri uri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority("com.authority") //$NON-NLS
+                .appendPath("bork") //$NON-NLS
+                .appendQueryParameter(MementoContract.QUERY_STRING_TIME_RANGE_START, "-5") //$NON-NLS
+                .appendQueryParameter(MementoContract.QUERY_STRING_TIME_RANGE_END, "1600000000000") //$NON-NLS
+                .build();
+
+        assertThat(QueryStringUtil.getTimeRangeStart(uri), is(-5L));
+        assertThat(QueryStringUtil.getTimeRangeEnd(uri), is(1600000000000L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @SmallTest
+    public void getTimeRangeStart_non_integer() {
+        final Uri uri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority("com.authority") //$NON-NLS
+                .appendPath("bork") //$NON-NLS
+                .appendQueryParameter(MementoContract.QUERY_STRING_TIME_RANGE_START, "foo") //$NON-NLS
+                .build();
+
+        QueryStringUtil.getTimeRangeStart(uri);
+    }
+
+    @Test
+    @SmallTest
+    public void getBoundingBox() {
+        final Uri uri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority("com.authority") //$NON-NLS
+                .appendPath("bork") //$NON-NLS
+                .appendQueryParameter(MementoContract.QUERY_STRING_BOUNDING_BOX, "-1.5,2,3,3") //$NON-NLS
+                .build();
+
+        assertThat(QueryStringUtil.getBoundingBox(uri), is(new double[]{-1.5, 2, 3, 3}));
+    }
+
+    @Test
+    @SmallTest
+    public void getBoundingBox_missing() {
+        final Uri uri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority("com.authority") //$NON-NLS
+                .appendPath("bork") //$NON-NLS
+                .build();
+
+        assertThat(QueryStringUtil.getBoundingBox(uri), nullValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @SmallTest
+    public void getBoundingBox_wrong_count() {
+        final Uri uri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority("com.authority") //$NON-NLS
+                .appendPath("bork") //$NON-NLS
+                .appendQueryParameter(MementoContract.QUERY_STRING_BOUNDING_BOX, "1,2,3") //$NON-NLS
+                .build();
+
+        QueryStringUtil.getBoundingBox(uri);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @SmallTest
+    public void getBoundingBox_nan() {
+        final Uri uri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority("com.authority") //$NON-NLS
+                .appendPath("bork") //$NON-NLS
+                .appendQueryParameter(MementoContract.QUERY_STRING_BOUNDING_BOX, "1,2,NaN,4") //$NON-NLS
+                .build();
+
+        QueryStringUtil.getBoundingBox(uri);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @SmallTest
+    public void getBoundingBox_min_greater_than_max() {
+        final Uri uri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority("com.authority") //$NON-NLS
+                .appendPath("bork") //$NON-NLS
+                .appendQueryParameter(MementoContract.QUERY_STRING_BOUNDING_BOX, "2,1,3,4") //$NON-NLS
+                .build();
+
+        QueryStringUtil.getBoundingBox(uri);
+    }
+
+    @Test
+    @SmallTest
+    public void getChangesSince_missing() {
+        final Uri uri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority("com.authority") //$NON-NLS
+                .appendPath(ChangeLogContract.PATH_CHANGE_LOG)
+                .build();
+
+        assertThat(QueryStringUtil.getChangesSince(uri), is(0L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @SmallTest
+    public void getChangesSince_invalid() {
+        final Uri uri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority("com.authority") //$NON-NLS
+                .appendPath(ChangeLogContract.PATH_CHANGE_LOG)
+                .appendQueryParameter(ChangeLogContract.QUERY_STRING_SINCE, "bork") //$NON-NLS
+                .build();
+
+        QueryStringUtil.getChangesSince(uri);
+    }
 }
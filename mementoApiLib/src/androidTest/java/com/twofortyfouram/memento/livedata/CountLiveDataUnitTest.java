@@ -20,17 +20,20 @@ package com.twofortyfouram.memento.livedata;
 import android.content.ContentResolver;
 import android.database.Cursor;
 import android.net.Uri;
+import android.os.SystemClock;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.Observer;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
 import androidx.test.platform.app.InstrumentationRegistry;
+import com.twofortyfouram.memento.contract.ChangePayloadContract;
 import com.twofortyfouram.memento.test.BaseColumnsCursorFixture;
 import com.twofortyfouram.test.provider.MockableContentProvider;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.Collections;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -66,4 +69,91 @@ public final class CountLiveDataUnitTest {
             countLiveData.removeObserver(observer);
         });
     }
+
+    @Test
+    @SmallTest
+    public void change_before_load_recounts() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            @NonNull final String authority = "foo"; //$NON-NLS
+
+            @NonNull final MockableContentProvider provider = MockableContentProvider.newMockProvider(ApplicationProvider.getApplicationContext(), authority);
+            provider.addQueryResult(BaseColumnsCursorFixture.newCountCursor(3));
+            provider.addQueryResult(BaseColumnsCursorFixture.newCountCursor(4));
+
+            @NonNull final Uri uri = new Uri.Builder().scheme(ContentResolver.SCHEME_CONTENT).authority(authority).build();
+            @NonNull final CountLiveData countLiveData = new CountLiveData(provider.getContext(), false, uri, null, null);
+
+            // The change started before the load, so the loaded count may already include it
+            final long changeRealTimeMillis = SystemClock.elapsedRealtime() - 1;
+
+            final Observer<Integer> observer = o -> {
+            };
+            countLiveData.observeForever(observer);
+            assertThat(countLiveData.getValue(), is(3));
+
+            countLiveData.onChange(Collections.singletonList(ChangePayloadContract
+                    .withPayload(uri, ChangePayloadContract.OPERATION_INSERT, 1,
+                            changeRealTimeMillis)));
+
+            assertThat(countLiveData.getValue(), is(4));
+            assertThat(provider.getQueryCount(), is(2));
+
+            countLiveData.removeObserver(observer);
+        });
+    }
+
+    @Test
+    @SmallTest
+    public void change_after_load_applies_delta() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            @NonNull final String authority = "foo"; //$NON-NLS
+
+            @NonNull final MockableContentProvider provider = MockableContentProvider.newMockProvider(ApplicationProvider.getApplicationContext(), authority);
+            provider.addQueryResult(BaseColumnsCursorFixture.newCountCursor(3));
+
+            @NonNull final Uri uri = new Uri.Builder().scheme(ContentResolver.SCHEME_CONTENT).authority(authority).build();
+            @NonNull final CountLiveData countLiveData = new CountLiveData(provider.getContext(), false, uri, null, null);
+
+            final Observer<Integer> observer = o -> {
+            };
+            countLiveData.observeForever(observer);
+            assertThat(countLiveData.getValue(), is(3));
+
+            SystemClock.sleep(2);
+            countLiveData.onChange(Collections.singletonList(ChangePayloadContract
+                    .withPayload(uri, ChangePayloadContract.OPERATION_INSERT, 1,
+                            SystemClock.elapsedRealtime())));
+
+            assertThat(countLiveData.getValue(), is(4));
+            assertThat(provider.getQueryCount(), is(1));
+
+            countLiveData.removeObserver(observer);
+        });
+    }
+
+    @Test
+    @SmallTest
+    public void change_without_time_recounts() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            @NonNull final String authority = "foo"; //$NON-NLS
+
+            @NonNull final MockableContentProvider provider = MockableContentProvider.newMockProvider(ApplicationProvider.getApplicationContext(), authority);
+            provider.addQueryResult(BaseColumnsCursorFixture.newCountCursor(3));
+            provider.addQueryResult(BaseColumnsCursorFixture.newCountCursor(5));
+
+            @NonNull final Uri uri = new Uri.Builder().scheme(ContentResolver.SCHEME_CONTENT).authority(authority).build();
+            @NonNull final CountLiveData countLiveData = new CountLiveData(provider.getContext(), false, uri, null, null);
+
+            final Observer<Integer> observer = o -> {
+            };
+            countLiveData.observeForever(observer);
+
+            countLiveData.onChange(Collections.singletonList(ChangePayloadContract
+                    .withPayload(uri, ChangePayloadContract.OPERATION_INSERT, 1)));
+
+            assertThat(countLiveData.getValue(), is(5));
+
+            countLiveData.removeObserver(observer);
+        });
+    }
 }
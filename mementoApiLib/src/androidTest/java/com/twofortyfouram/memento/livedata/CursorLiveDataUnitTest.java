@@ -30,6 +30,8 @@ import com.twofortyfouram.test.provider.MockableContentProvider;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -118,4 +120,34 @@ public final class CursorLiveDataUnitTest {
             assertThat(cursor.isClosed(), is(true));
         });
     }
+
+    @Test
+    @SmallTest
+    public void canceled_load_cursor_closed() {
+        @NonNull final String authority = "foo"; //$NON-NLS
+        @NonNull final MockableContentProvider provider = MockableContentProvider.newMockProvider(ApplicationProvider.getApplicationContext(), authority);
+        @NonNull final MatrixCursor cursor = new MatrixCursor(new String[]{"foo"});
+        provider.addQueryResult(cursor);
+
+        @NonNull final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+        @NonNull final CursorLiveData cursorLiveData = new CursorLiveData(provider.getContext(), tasks::add, new Uri.Builder().scheme(ContentResolver.SCHEME_CONTENT).authority(authority).build(), null, null, null, null);
+
+        @NonNull final AtomicInteger observerCount = new AtomicInteger(0);
+        final Observer<Cursor> observer = o -> {
+            observerCount.incrementAndGet();
+        };
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            cursorLiveData.observeForever(observer);
+
+            // The query completes, but the load is canceled before its result is delivered
+            tasks.remove().run();
+            cursorLiveData.removeObserver(observer);
+        });
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        assertThat(observerCount.get(), is(0));
+        assertThat(cursorLiveData.isLoadedYet(), is(false));
+        assertThat(cursor.isClosed(), is(true));
+    }
 }
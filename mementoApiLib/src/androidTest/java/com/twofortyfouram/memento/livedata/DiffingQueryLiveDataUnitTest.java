@@ -0,0 +1,216 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.livedata;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Observer;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.filters.SmallTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.twofortyfouram.memento.util.KeyedCursorParser;
+import com.twofortyfouram.test.provider.MockableContentProvider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.twofortyfouram.assertion.CursorAssertions.assertCursorOpen;
+import static com.twofortyfouram.assertion.CursorAssertions.assertCursorPositionValid;
+import static com.twofortyfouram.test.internal.Assertions.assertNotNull;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@RunWith(androidx.test.ext.junit.runners.AndroidJUnit4.class)
+public final class DiffingQueryLiveDataUnitTest {
+
+    @Test
+    @SmallTest
+    public void newDiff_initial() {
+        @NonNull final QueryDiff<String> diff = DiffingQueryLiveData.newDiff(new TestCursorParser(),
+                QueryDiff.<String>empty(), newCursor(new Object[][]{{1L, "a"}, {2L, "b"}}));
+
+        assertThat(diff.getItems(), contains("a", "b"));
+        assertThat(diff.getKeys(), is(new long[]{1L, 2L}));
+        assertThat(diff.getInsertedKeys(), is(new long[]{1L, 2L}));
+        assertThat(diff.getRemovedKeys().length, is(0));
+        assertThat(diff.getChangedKeys().length, is(0));
+        assertThat(diff.isMoved(), is(false));
+        assertThat(diff.isUnchanged(), is(false));
+    }
+
+    @Test
+    @SmallTest
+    public void newDiff_null_cursor() {
+        @NonNull final QueryDiff<String> previous = DiffingQueryLiveData.newDiff(
+                new TestCursorParser(), QueryDiff.<String>empty(),
+                newCursor(new Object[][]{{1L, "a"}}));
+
+        @NonNull final QueryDiff<String> diff = DiffingQueryLiveData.newDiff(new TestCursorParser(),
+                previous, null);
+
+        assertThat(diff.getItems(), empty());
+        assertThat(diff.getRemovedKeys(), is(new long[]{1L}));
+    }
+
+    @Test
+    @SmallTest
+    public void newDiff_unchanged() {
+        @NonNull final QueryDiff<String> previous = DiffingQueryLiveData.newDiff(
+                new TestCursorParser(), QueryDiff.<String>empty(),
+                newCursor(new Object[][]{{1L, "a"}, {2L, "b"}}));
+
+        @NonNull final QueryDiff<String> diff = DiffingQueryLiveData.newDiff(new TestCursorParser(),
+                previous, newCursor(new Object[][]{{1L, "a"}, {2L, "b"}}));
+
+        assertThat(diff.isUnchanged(), is(true));
+        assertThat(diff.getItems().get(0), sameInstance(previous.getItems().get(0)));
+        assertThat(diff.getItems().get(1), sameInstance(previous.getItems().get(1)));
+    }
+
+    @Test
+    @SmallTest
+    public void newDiff_insert_remove_change() {
+        @NonNull final QueryDiff<String> previous = DiffingQueryLiveData.newDiff(
+                new TestCursorParser(), QueryDiff.<String>empty(),
+                newCursor(new Object[][]{{1L, "a"}, {2L, "b"}, {3L, "c"}}));
+
+        @NonNull final QueryDiff<String> diff = DiffingQueryLiveData.newDiff(new TestCursorParser(),
+                previous, newCursor(new Object[][]{{1L, "a"}, {3L, "c2"}, {4L, "d"}}));
+
+        assertThat(diff.getItems(), contains("a", "c2", "d"));
+        assertThat(diff.getItems().get(0), sameInstance(previous.getItems().get(0)));
+        assertThat(diff.getInsertedKeys(), is(new long[]{4L}));
+        assertThat(diff.getRemovedKeys(), is(new long[]{2L}));
+        assertThat(diff.getChangedKeys(), is(new long[]{3L}));
+        assertThat(diff.isMoved(), is(false));
+    }
+
+    @Test
+    @SmallTest
+    public void newDiff_moved() {
+        @NonNull final QueryDiff<String> previous = DiffingQueryLiveData.newDiff(
+                new TestCursorParser(), QueryDiff.<String>empty(),
+                newCursor(new Object[][]{{1L, "a"}, {2L, "b"}}));
+
+        @NonNull final QueryDiff<String> diff = DiffingQueryLiveData.newDiff(new TestCursorParser(),
+                previous, newCursor(new Object[][]{{2L, "b"}, {1L, "a"}}));
+
+        assertThat(diff.isMoved(), is(true));
+        assertThat(diff.getChangedKeys().length, is(0));
+        assertThat(diff.isUnchanged(), is(false));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    @SmallTest
+    public void newDiff_duplicate_key() {
+        @NonNull final QueryDiff<String> previous = DiffingQueryLiveData.newDiff(
+                new TestCursorParser(), QueryDiff.<String>empty(),
+                newCursor(new Object[][]{{1L, "a"}}));
+
+        DiffingQueryLiveData.newDiff(new TestCursorParser(), previous,
+                newCursor(new Object[][]{{1L, "a"}, {1L, "b"}}));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    @SmallTest
+    public void newDiff_duplicate_previous_key() {
+        @NonNull final QueryDiff<String> previous = new QueryDiff<>(Arrays.asList("a", "b"),
+                new long[]{1L, 1L}, new long[]{1L, 1L}, new long[0], new long[0], false);
+
+        DiffingQueryLiveData.newDiff(new TestCursorParser(), previous,
+                newCursor(new Object[][]{{2L, "c"}}));
+    }
+
+    @Test
+    @SmallTest
+    public void reload_unchanged_not_published() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            @NonNull final String authority = "foo"; //$NON-NLS
+
+            @NonNull final MockableContentProvider provider = MockableContentProvider
+                    .newMockProvider(ApplicationProvider.getApplicationContext(), authority);
+            provider.addQueryResult(newCursor(new Object[][]{{1L, "a"}}));
+            provider.addQueryResult(newCursor(new Object[][]{{1L, "a"}}));
+            provider.addQueryResult(newCursor(new Object[][]{{1L, "b"}}));
+
+            @NonNull final DiffingQueryLiveData<String> liveData = new DiffingQueryLiveData<>(
+                    provider.getContext(), false, new TestCursorParser(),
+                    new Uri.Builder().scheme(ContentResolver.SCHEME_CONTENT).authority(authority)
+                            .build(), null, null, null, null, null);
+
+            @NonNull final AtomicInteger observerCount = new AtomicInteger(0);
+            final Observer<QueryDiff<String>> observer = o -> {
+                observerCount.incrementAndGet();
+            };
+
+            liveData.observeForever(observer);
+            assertThat(observerCount.get(), is(1));
+
+            // Reactivating triggers a reload
+            liveData.removeObserver(observer);
+            liveData.observeForever(observer);
+            assertThat(liveData.getLoadCount(), is(2));
+            assertThat(liveData.getUnchangedResultCount(), is(1));
+
+            liveData.removeObserver(observer);
+            liveData.observeForever(observer);
+            assertThat(liveData.getLoadCount(), is(3));
+            assertThat(liveData.getValue().getChangedKeys(), is(new long[]{1L}));
+            assertThat(liveData.getValue().getItems(), contains("b"));
+
+            liveData.removeObserver(observer);
+        });
+    }
+
+    @NonNull
+    private static Cursor newCursor(@NonNull final Object[][] rows) {
+        @NonNull final MatrixCursor cursor = new MatrixCursor(new String[]{"_id", "value"});
+        for (@NonNull final Object[] row : rows) {
+            cursor.addRow(row);
+        }
+
+        return cursor;
+    }
+
+    private static final class TestCursorParser implements KeyedCursorParser<String> {
+
+        @Override
+        public long getKey(@NonNull final Cursor cursor) {
+            assertNotNull(cursor, "cursor"); //$NON-NLS
+            assertCursorOpen(cursor);
+            assertCursorPositionValid(cursor);
+
+            return cursor.getLong(0);
+        }
+
+        @Override
+        public String newObject(@NonNull final Cursor cursor) {
+            assertNotNull(cursor, "cursor"); //$NON-NLS
+            assertCursorOpen(cursor);
+            assertCursorPositionValid(cursor);
+
+            // New instance, so that reuse can be verified by identity
+            return new String(cursor.getString(1));
+        }
+    }
+}
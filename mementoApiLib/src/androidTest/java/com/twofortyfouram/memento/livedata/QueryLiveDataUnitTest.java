@@ -32,6 +32,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.util.Collection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.twofortyfouram.assertion.CursorAssertions.assertCursorOpen;
@@ -94,6 +96,75 @@ public final class QueryLiveDataUnitTest {
         });
     }
 
+    @Test
+    @SmallTest
+    public void superseded_load_not_run() {
+        @NonNull final String authority = "foo"; //$NON-NLS
+        @NonNull final MockableContentProvider provider = MockableContentProvider.newMockProvider(ApplicationProvider.getApplicationContext(), authority);
+        @NonNull final MatrixCursor cursor = new MatrixCursor(new String[]{"foo"});
+        cursor.addRow(new String[] {"bar"});
+        provider.addQueryResult(cursor);
+
+        @NonNull final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+        @NonNull final QueryLiveData<String> queryLiveData = new QueryLiveData<>(provider.getContext(), tasks::add, new TestCursorParser(), new Uri.Builder().scheme(ContentResolver.SCHEME_CONTENT).authority(authority).build(), null, null, null, null, null);
+
+        @NonNull final AtomicInteger observerCount = new AtomicInteger(0);
+        final Observer<Collection<String>> observer = o -> {
+            observerCount.incrementAndGet();
+        };
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            queryLiveData.observeForever(observer);
+
+            // Reactivating supersedes the first load before it starts
+            queryLiveData.removeObserver(observer);
+            queryLiveData.observeForever(observer);
+        });
+
+        assertThat(tasks, hasSize(2));
+        for (@NonNull final Runnable task : tasks) {
+            task.run();
+        }
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        assertThat(provider.getQueryCount(), is(1));
+        assertThat(observerCount.get(), is(1));
+        assertThat(queryLiveData.getValue(), hasSize(1));
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> queryLiveData.removeObserver(observer));
+    }
+
+    @Test
+    @SmallTest
+    public void canceled_load_not_published() {
+        @NonNull final String authority = "foo"; //$NON-NLS
+        @NonNull final MockableContentProvider provider = MockableContentProvider.newMockProvider(ApplicationProvider.getApplicationContext(), authority);
+        @NonNull final MatrixCursor cursor = new MatrixCursor(new String[]{"foo"});
+        cursor.addRow(new String[] {"bar"});
+        provider.addQueryResult(cursor);
+
+        @NonNull final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+        @NonNull final QueryLiveData<String> queryLiveData = new QueryLiveData<>(provider.getContext(), tasks::add, new TestCursorParser(), new Uri.Builder().scheme(ContentResolver.SCHEME_CONTENT).authority(authority).build(), null, null, null, null, null);
+
+        @NonNull final AtomicInteger observerCount = new AtomicInteger(0);
+        final Observer<Collection<String>> observer = o -> {
+            observerCount.incrementAndGet();
+        };
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            queryLiveData.observeForever(observer);
+
+            // The query completes, but the load is canceled before its result is delivered
+            tasks.remove().run();
+            queryLiveData.removeObserver(observer);
+        });
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        assertThat(provider.getQueryCount(), is(1));
+        assertThat(observerCount.get(), is(0));
+        assertThat(queryLiveData.getValue(), nullValue());
+    }
+
     private static final class TestCursorParser implements CursorParser<String> {
 
         public String newObject(@NonNull final Cursor cursor) {
@@ -0,0 +1,188 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.reactive;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.os.Build;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.filters.SdkSuppress;
+import androidx.test.filters.SmallTest;
+import com.twofortyfouram.memento.util.CursorParser;
+import com.twofortyfouram.test.provider.MockableContentProvider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+@RunWith(androidx.test.ext.junit.runners.AndroidJUnit4.class)
+@SdkSuppress(minSdkVersion = Build.VERSION_CODES.R)
+public final class QueryPublisherTest {
+
+    @NonNull
+    private static final String AUTHORITY = "foo"; //$NON-NLS
+
+    @SmallTest
+    @Test
+    public void subscribe_chunks_on_demand() {
+        @NonNull final MatrixCursor cursor = newCursor("a", "b", "c", "d", "e"); //$NON-NLS
+        @NonNull final RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        newPublisher(cursor, 2).subscribe(subscriber);
+        assertThat(subscriber.mChunks, empty());
+
+        subscriber.mSubscription.request(1);
+        assertThat(subscriber.mChunks, hasSize(1));
+        assertThat(subscriber.mChunks.get(0).getItems(), contains("a", "b")); //$NON-NLS
+        assertThat(subscriber.mChunks.get(0).isFirst(), is(true));
+        assertThat(subscriber.mChunks.get(0).isLast(), is(false));
+        assertThat(cursor.isClosed(), is(false));
+
+        subscriber.mSubscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.mChunks, hasSize(3));
+        assertThat(subscriber.mChunks.get(1).getItems(), contains("c", "d")); //$NON-NLS
+        assertThat(subscriber.mChunks.get(2).getItems(), contains("e")); //$NON-NLS
+        assertThat(subscriber.mChunks.get(2).isLast(), is(true));
+        assertThat(subscriber.mChunks.get(2).getGeneration(), is(1));
+        assertThat(subscriber.mIsComplete, is(true));
+        assertThat(subscriber.mError, nullValue());
+        assertThat(cursor.isClosed(), is(true));
+    }
+
+    @SmallTest
+    @Test
+    public void subscribe_empty() {
+        @NonNull final RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        newPublisher(null, 2).subscribe(subscriber);
+        subscriber.mSubscription.request(1);
+
+        assertThat(subscriber.mChunks, hasSize(1));
+        assertThat(subscriber.mChunks.get(0).getItems(), empty());
+        assertThat(subscriber.mChunks.get(0).isFirst(), is(true));
+        assertThat(subscriber.mChunks.get(0).isLast(), is(true));
+        assertThat(subscriber.mIsComplete, is(true));
+    }
+
+    @SmallTest
+    @Test
+    public void cancel_closes_cursor() {
+        @NonNull final MatrixCursor cursor = newCursor("a", "b", "c"); //$NON-NLS
+        @NonNull final RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        newPublisher(cursor, 1).subscribe(subscriber);
+        subscriber.mSubscription.request(1);
+        subscriber.mSubscription.cancel();
+        subscriber.mSubscription.request(1);
+
+        assertThat(subscriber.mChunks, hasSize(1));
+        assertThat(subscriber.mIsComplete, is(false));
+        assertThat(cursor.isClosed(), is(true));
+    }
+
+    @SmallTest
+    @Test
+    public void request_non_positive() {
+        @NonNull final RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        newPublisher(newCursor("a"), 1).subscribe(subscriber); //$NON-NLS
+        subscriber.mSubscription.request(0);
+
+        assertThat(subscriber.mChunks, empty());
+        assertThat(subscriber.mError instanceof IllegalArgumentException, is(true));
+    }
+
+    @NonNull
+    private static QueryPublisher<String> newPublisher(@Nullable final Cursor queryResult,
+                                                       final int chunkSize) {
+        @NonNull final MockableContentProvider provider = MockableContentProvider
+                .newMockProvider(ApplicationProvider.getApplicationContext(), AUTHORITY);
+        provider.addQueryResult(queryResult);
+
+        // Run synchronously, so that signals are delivered before request() returns
+        return new QueryPublisher<>(provider.getContext(), Runnable::run, new StringParser(),
+                new Uri.Builder().scheme(ContentResolver.SCHEME_CONTENT).authority(AUTHORITY)
+                        .build(), null, null, null, null, null, chunkSize, false);
+    }
+
+    @NonNull
+    private static MatrixCursor newCursor(@NonNull final String... values) {
+        @NonNull final MatrixCursor cursor = new MatrixCursor(new String[]{"value"}); //$NON-NLS
+        for (@NonNull final String value : values) {
+            cursor.addRow(new Object[]{value});
+        }
+
+        return cursor;
+    }
+
+    private static final class StringParser implements CursorParser<String> {
+
+        @NonNull
+        @Override
+        public String newObject(@NonNull final Cursor cursor) {
+            return cursor.getString(0);
+        }
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<QueryChunk<String>> {
+
+        @NonNull
+        private final List<QueryChunk<String>> mChunks = new ArrayList<>();
+
+        @Nullable
+        private Flow.Subscription mSubscription = null;
+
+        @Nullable
+        private Throwable mError = null;
+
+        private boolean mIsComplete = false;
+
+        @Override
+        public void onSubscribe(@NonNull final Flow.Subscription subscription) {
+            mSubscription = subscription;
+        }
+
+        @Override
+        public void onNext(@NonNull final QueryChunk<String> item) {
+            mChunks.add(item);
+        }
+
+        @Override
+        public void onError(@NonNull final Throwable throwable) {
+            mError = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            mIsComplete = true;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.util;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.net.Uri;
+import android.provider.Settings;
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.filters.SmallTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+@RunWith(androidx.test.ext.junit.runners.AndroidJUnit4.class)
+public final class ContentObserverHubTest {
+
+    @SmallTest
+    @Test
+    public void getInstance_same_resolver() {
+        @NonNull final ContentResolver resolver = ApplicationProvider.getApplicationContext()
+                .getContentResolver();
+
+        assertThat(ContentObserverHub.getInstance(resolver),
+                sameInstance(ContentObserverHub.getInstance(resolver)));
+    }
+
+    @SmallTest
+    @Test
+    public void getInstance_resolver_not_retained() throws InterruptedException {
+        @NonNull final WeakReference<ContentResolver> resolverRef = newHubResolver(
+                ApplicationProvider.getApplicationContext());
+
+        for (int x = 0; x < 20 && null != resolverRef.get(); x++) {
+            Runtime.getRuntime().gc();
+            Thread.sleep(10);
+        }
+
+        assertThat(resolverRef.get(), nullValue());
+    }
+
+    @NonNull
+    private static WeakReference<ContentResolver> newHubResolver(@NonNull final Context context) {
+        @NonNull final ContentResolver resolver = new ContentResolver(context) {
+        };
+        ContentObserverHub.getInstance(resolver);
+
+        return new WeakReference<>(resolver);
+    }
+
+    @SmallTest
+    @Test
+    public void isRelated() {
+        @NonNull final Uri base = Uri.parse("content://foo/bar"); //$NON-NLS
+
+        assertThat(ContentObserverHub.isRelated(base, base), is(true));
+        assertThat(ContentObserverHub.isRelated(base, Uri.parse("content://foo/bar/1")), //$NON-NLS
+                is(true));
+        assertThat(ContentObserverHub.isRelated(base, Uri.parse("content://foo")), //$NON-NLS
+                is(true));
+        assertThat(ContentObserverHub.isRelated(base, Uri.parse("content://foo/baz")), //$NON-NLS
+                is(false));
+        assertThat(ContentObserverHub.isRelated(base, Uri.parse("content://foo/barbaz")), //$NON-NLS
+                is(false));
+        assertThat(ContentObserverHub.isRelated(base, Uri.parse("content://other/bar")), //$NON-NLS
+                is(false));
+    }
+
+    @SmallTest
+    @Test
+    public void register_single_observer_per_authority() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            @NonNull final ContentObserverHub hub = ContentObserverHub.getInstance(
+                    ApplicationProvider.getApplicationContext().getContentResolver());
+            final int initialObserverCount = hub.getObserverCount();
+
+            @NonNull final ContentObserverHub.Listener first = uris -> {
+            };
+            @NonNull final ContentObserverHub.Listener second = uris -> {
+            };
+
+            hub.register(Settings.System.CONTENT_URI, first);
+            hub.register(Settings.Secure.CONTENT_URI, second);
+            assertThat(hub.getObserverCount(), is(initialObserverCount + 1));
+
+            hub.unregister(first);
+            assertThat(hub.getObserverCount(), is(initialObserverCount + 1));
+
+            hub.unregister(second);
+            assertThat(hub.getObserverCount(), is(initialObserverCount));
+        });
+    }
+
+    @SmallTest
+    @Test(expected = IllegalStateException.class)
+    public void register_twice() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            @NonNull final ContentObserverHub hub = ContentObserverHub.getInstance(
+                    ApplicationProvider.getApplicationContext().getContentResolver());
+            @NonNull final ContentObserverHub.Listener listener = uris -> {
+            };
+
+            hub.register(Settings.System.CONTENT_URI, listener);
+            try {
+                hub.register(Settings.System.CONTENT_URI, listener);
+            } finally {
+                hub.unregister(listener);
+            }
+        });
+    }
+
+    @SmallTest
+    @Test
+    public void dispatch_coalesced() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            @NonNull final ContentObserverHub hub = ContentObserverHub.getInstance(
+                    ApplicationProvider.getApplicationContext().getContentResolver());
+
+            @NonNull final AtomicInteger systemCount = new AtomicInteger(0);
+            @NonNull final AtomicInteger secureCount = new AtomicInteger(0);
+            @NonNull final List<Uri> systemUris = new ArrayList<>();
+            @NonNull final ContentObserverHub.Listener system = uris -> {
+                systemCount.incrementAndGet();
+                systemUris.addAll(uris);
+            };
+            @NonNull final ContentObserverHub.Listener secure = uris -> secureCount.incrementAndGet();
+
+            hub.register(Settings.System.CONTENT_URI, system);
+            hub.register(Settings.Secure.CONTENT_URI, secure);
+            try {
+                hub.onChange(Uri.withAppendedPath(Settings.System.CONTENT_URI, "foo")); //$NON-NLS
+                hub.onChange(Uri.withAppendedPath(Settings.System.CONTENT_URI, "bar")); //$NON-NLS
+                hub.dispatchPending();
+
+                assertThat(systemCount.get(), is(1));
+                assertThat(systemUris, hasSize(2));
+                assertThat(secureCount.get(), is(0));
+            } finally {
+                hub.unregister(system);
+                hub.unregister(secure);
+            }
+        });
+    }
+}
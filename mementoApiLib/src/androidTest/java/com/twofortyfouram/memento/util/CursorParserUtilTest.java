@@ -0,0 +1,206 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.util;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import androidx.annotation.NonNull;
+import androidx.test.filters.SmallTest;
+import com.twofortyfouram.test.matcher.ClassNotInstantiableMatcher;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+@RunWith(androidx.test.ext.junit.runners.AndroidJUnit4.class)
+public final class CursorParserUtilTest {
+
+    @SmallTest
+    @Test
+    public void notInstantiable() {
+        assertThat(CursorParserUtil.class, ClassNotInstantiableMatcher.notInstantiable());
+    }
+
+    @SmallTest
+    @Test
+    public void parseAll_empty() {
+        assertThat(CursorParserUtil.parseAll(newCursor(0), new TestIndexedCursorParser()),
+                empty());
+    }
+
+    @SmallTest
+    @Test
+    public void parseAll_resolves_indices_once() {
+        @NonNull final TestIndexedCursorParser parser = new TestIndexedCursorParser();
+
+        @NonNull final List<String> result = CursorParserUtil.parseAll(newCursor(3), parser);
+
+        assertThat(result, contains("0", "1", "2"));
+        assertThat(parser.mResolveCount.get(), is(1));
+    }
+
+    @SmallTest
+    @Test
+    public void newObject_caches_indices() {
+        @NonNull final TestIndexedCursorParser parser = new TestIndexedCursorParser();
+        @NonNull final Cursor cursor = newCursor(3);
+
+        while (cursor.moveToNext()) {
+            parser.newObject(cursor);
+        }
+        assertThat(parser.mResolveCount.get(), is(1));
+
+        @NonNull final Cursor otherCursor = newCursor(1);
+        otherCursor.moveToFirst();
+        parser.newObject(otherCursor);
+        assertThat(parser.mResolveCount.get(), is(2));
+    }
+
+    @SmallTest
+    @Test
+    public void parseAll_sink_sequential() {
+        @NonNull final List<String> sink = new ArrayList<>();
+        sink.add("existing"); //$NON-NLS
+
+        CursorParserUtil.parseAll(newCursor(2), new TestIndexedCursorParser(), sink, null);
+
+        assertThat(sink, contains("existing", "0", "1")); //$NON-NLS
+    }
+
+    @SmallTest
+    @Test
+    public void parseAll_sink_parallel() {
+        final int count = CursorParserUtil.PARALLEL_THRESHOLD * 2;
+        @NonNull final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            @NonNull final List<String> sink = new ArrayList<>();
+            CursorParserUtil.parseAll(newCursor(count), new TestIndexedCursorParser(), sink,
+                    executor);
+
+            assertThat(sink, hasSize(count));
+            for (int i = 0; i < count; i++) {
+                assertThat(sink.get(i), is(Integer.toString(i)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @SmallTest
+    @Test
+    public void parseAll_sink_parallel_executor_not_running() {
+        final int count = CursorParserUtil.PARALLEL_THRESHOLD * 2;
+
+        // Simulates calling from the only thread of the executor, which can't run the tasks
+        @NonNull final List<Runnable> queued = new ArrayList<>();
+        @NonNull final List<String> sink = new ArrayList<>();
+        CursorParserUtil.parseAll(newCursor(count), new TestIndexedCursorParser(), sink,
+                queued::add);
+
+        assertThat(sink, hasSize(count));
+        for (int i = 0; i < count; i++) {
+            assertThat(sink.get(i), is(Integer.toString(i)));
+        }
+
+        // Running the queued tasks later must not parse or publish again
+        for (@NonNull final Runnable runnable : queued) {
+            runnable.run();
+        }
+        assertThat(sink, hasSize(count));
+    }
+
+    @SmallTest
+    @Test(expected = OperationCanceledException.class)
+    public void parseAll_canceled() {
+        @NonNull final CancellationSignal cancellationSignal = new CancellationSignal();
+        cancellationSignal.cancel();
+
+        CursorParserUtil.parseAll(newCursor(1), new TestIndexedCursorParser(),
+                cancellationSignal);
+    }
+
+    @SmallTest
+    @Test
+    public void parseAll_canceled_while_parsing() {
+        @NonNull final CancellationSignal cancellationSignal = new CancellationSignal();
+        @NonNull final AtomicInteger parseCount = new AtomicInteger(0);
+        @NonNull final CursorParser<String> parser = cursor -> {
+            if (10 == parseCount.incrementAndGet()) {
+                cancellationSignal.cancel();
+            }
+
+            return "foo"; //$NON-NLS
+        };
+
+        try {
+            CursorParserUtil.parseAll(newCursor(CursorParserUtil.CANCELLATION_CHECK_INTERVAL * 10),
+                    parser, cancellationSignal);
+            fail();
+        } catch (final OperationCanceledException e) {
+            // Expected exception
+        }
+
+        // Parsing stops at the next check rather than continuing through the result
+        assertThat(parseCount.get(), is(CursorParserUtil.CANCELLATION_CHECK_INTERVAL));
+    }
+
+    @NonNull
+    private static Cursor newCursor(final int count) {
+        @NonNull final MatrixCursor cursor = new MatrixCursor(new String[]{"_id", "value"}, //$NON-NLS
+                count);
+        for (int i = 0; i < count; i++) {
+            cursor.addRow(new Object[]{i, Integer.toString(i)});
+        }
+
+        return cursor;
+    }
+
+    private static final class TestIndexedCursorParser
+            extends IndexedCursorParser<String, Integer> {
+
+        @NonNull
+        private final AtomicInteger mResolveCount = new AtomicInteger(0);
+
+        @NonNull
+        @Override
+        public Integer newColumnIndices(@NonNull final Cursor cursor) {
+            mResolveCount.incrementAndGet();
+
+            return cursor.getColumnIndexOrThrow("value"); //$NON-NLS
+        }
+
+        @NonNull
+        @Override
+        public String newObject(@NonNull final Cursor cursor, @NonNull final Integer indices) {
+            return cursor.getString(indices);
+        }
+    }
+}
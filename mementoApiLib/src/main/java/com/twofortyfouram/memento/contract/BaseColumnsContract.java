@@ -21,16 +21,21 @@ import android.content.ContentProvider;
 import android.content.ContentResolver;
 import android.database.Cursor;
 import android.net.Uri;
+import android.os.Bundle;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
 import android.provider.BaseColumns;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.twofortyfouram.annotation.Incubating;
 import com.twofortyfouram.annotation.Slow;
 import com.twofortyfouram.annotation.Slow.Speed;
 import com.twofortyfouram.log.Lumberjack;
 
 import net.jcip.annotations.ThreadSafe;
 
+import static com.twofortyfouram.assertion.Assertions.assertNotEmpty;
 import static com.twofortyfouram.assertion.Assertions.assertNotNull;
 
 /**
@@ -51,6 +56,79 @@ public final class BaseColumnsContract {
     @NonNull
     public static final String SORT_ORDER_DESCENDING_BY_ID = BaseColumns._ID + " DESC"; //$NON-NLS
 
+    /**
+     * Method supported by the {@link ContentProvider#call(String, String, Bundle)} interface for
+     * querying a single column, with the values returned as a primitive array rather than a
+     * Cursor.  This method is restricted to being performed within the same package as the
+     * content provider.  The arg is the Uri to query.
+     *
+     * @see #EXTRA_STRING_COLUMN_NAME
+     * @see #EXTRA_INT_FIELD_TYPE
+     * @see #queryLongColumn(ContentResolver, Uri, String, String, String[], String)
+     * @see #queryDoubleColumn(ContentResolver, Uri, String, String, String[], String)
+     * @see #queryStringColumn(ContentResolver, Uri, String, String, String[], String)
+     */
+    @NonNull
+    @Incubating
+    public static final String METHOD_QUERY_COLUMN
+            = "com.twofortyfouram.memento.method.QUERY_COLUMN"; //$NON-NLS
+
+    /**
+     * Type: {@code String}.
+     * <p>
+     * Column to query.
+     */
+    @NonNull
+    @Incubating
+    public static final String EXTRA_STRING_COLUMN_NAME
+            = "com.twofortyfouram.memento.extra.STRING_COLUMN_NAME"; //$NON-NLS
+
+    /**
+     * Type: {@code int}.
+     * <p>
+     * Type of the result, which is one of {@link Cursor#FIELD_TYPE_INTEGER},
+     * {@link Cursor#FIELD_TYPE_FLOAT}, or {@link Cursor#FIELD_TYPE_STRING}.
+     */
+    @NonNull
+    @Incubating
+    public static final String EXTRA_INT_FIELD_TYPE
+            = "com.twofortyfouram.memento.extra.INT_FIELD_TYPE"; //$NON-NLS
+
+    /**
+     * Type: {@code String}.
+     */
+    @NonNull
+    @Incubating
+    public static final String EXTRA_STRING_SELECTION
+            = "com.twofortyfouram.memento.extra.STRING_SELECTION"; //$NON-NLS
+
+    /**
+     * Type: {@code String[]}.
+     */
+    @NonNull
+    @Incubating
+    public static final String EXTRA_STRING_ARRAY_SELECTION_ARGS
+            = "com.twofortyfouram.memento.extra.STRING_ARRAY_SELECTION_ARGS"; //$NON-NLS
+
+    /**
+     * Type: {@code String}.
+     */
+    @NonNull
+    @Incubating
+    public static final String EXTRA_STRING_SORT_ORDER
+            = "com.twofortyfouram.memento.extra.STRING_SORT_ORDER"; //$NON-NLS
+
+    /**
+     * Type: {@code long[]}, {@code double[]}, or {@code String[]}, as per
+     * {@link #EXTRA_INT_FIELD_TYPE}.
+     * <p>
+     * Values of the column, in the order of the rows.
+     */
+    @NonNull
+    @Incubating
+    public static final String RESULT_EXTRA_ARRAY_VALUES
+            = "com.twofortyfouram.memento.extra.ARRAY_VALUES"; //$NON-NLS
+
     /**
      * This method should work for any content provider that correctly supports {@link
      * BaseColumns#_COUNT}.
@@ -95,10 +173,40 @@ public final class BaseColumnsContract {
         assertNotNull(resolver, "resolver"); //$NON-NLS-1$
         assertNotNull(uri, "uri"); //$NON-NLS-1$
 
+        return getCountForUri(resolver, uri, selection, selectionArgs, null);
+    }
+
+    /**
+     * This method should work for any content provider that correctly supports {@link
+     * BaseColumns#_COUNT}.
+     *
+     * @param resolver           Content resolver.
+     * @param uri                URI to count.
+     * @param selection          Optional selection.
+     * @param selectionArgs      Optional arguments for {@code selection}.
+     * @param cancellationSignal Optional signal to cancel the query.
+     * @return The number of rows for {@code uri}.
+     * @throws NullPointerException          If the content provider returned a null cursor.
+     *                                       Memento will not cause this exception, but other
+     *                                       providers might.
+     * @throws UnsupportedOperationException If the content provider doesn't support querying for
+     *                                       count, either by returning too many rows or by not
+     *                                       returning a valid _COUNT column in the result cursor.
+     * @throws OperationCanceledException    If {@code cancellationSignal} was canceled.
+     */
+    @Slow(Speed.MILLISECONDS)
+    public static int getCountForUri(@NonNull final ContentResolver resolver,
+                                     @NonNull final Uri uri, @Nullable final String selection,
+                                     @Nullable String[] selectionArgs,
+                                     @Nullable final CancellationSignal cancellationSignal) {
+        assertNotNull(resolver, "resolver"); //$NON-NLS-1$
+        assertNotNull(uri, "uri"); //$NON-NLS-1$
+
         int result = 0;
 
         try (@Nullable final Cursor cursor = resolver
-                .query(uri, PROJECTION_COUNT, selection, selectionArgs, null)) {
+                .query(uri, PROJECTION_COUNT, selection, selectionArgs, null,
+                        cancellationSignal)) {
             if (null != cursor) {
                 final int cursorCount = cursor.getCount();
 
@@ -134,6 +242,125 @@ public final class BaseColumnsContract {
         return result;
     }
 
+    /**
+     * Queries a single column as longs.  Unlike iterating a Cursor, no Cursor is returned to the
+     * caller and no values are boxed.
+     * <p>
+     * This method is restricted to being performed within the same package as the content provider.
+     *
+     * @param resolver      Content resolver.
+     * @param uri           URI to query.
+     * @param columnName    Column to query.
+     * @param selection     Optional selection.
+     * @param selectionArgs Optional arguments for {@code selection}.
+     * @param sortOrder     Optional sort order.
+     * @return The values of {@code columnName}.
+     * @throws IllegalStateException If a value is null, which can't be represented.  Exclude
+     *                               null values with {@code selection}.
+     */
+    @NonNull
+    @Incubating
+    @Slow(Speed.MILLISECONDS)
+    public static long[] queryLongColumn(@NonNull final ContentResolver resolver,
+                                         @NonNull final Uri uri,
+                                         @NonNull final String columnName,
+                                         @Nullable final String selection,
+                                         @Nullable final String[] selectionArgs,
+                                         @Nullable final String sortOrder) {
+        return assertNotNull(callQueryColumn(resolver, uri, columnName, Cursor.FIELD_TYPE_INTEGER,
+                selection, selectionArgs, sortOrder).getLongArray(RESULT_EXTRA_ARRAY_VALUES),
+                "values"); //$NON-NLS
+    }
+
+    /**
+     * Queries a single column as doubles.  Unlike iterating a Cursor, no Cursor is returned to
+     * the caller and no values are boxed.
+     * <p>
+     * This method is restricted to being performed within the same package as the content provider.
+     *
+     * @param resolver      Content resolver.
+     * @param uri           URI to query.
+     * @param columnName    Column to query.
+     * @param selection     Optional selection.
+     * @param selectionArgs Optional arguments for {@code selection}.
+     * @param sortOrder     Optional sort order.
+     * @return The values of {@code columnName}.
+     * @throws IllegalStateException If a value is null, which can't be represented.  Exclude
+     *                               null values with {@code selection}.
+     */
+    @NonNull
+    @Incubating
+    @Slow(Speed.MILLISECONDS)
+    public static double[] queryDoubleColumn(@NonNull final ContentResolver resolver,
+                                             @NonNull final Uri uri,
+                                             @NonNull final String columnName,
+                                             @Nullable final String selection,
+                                             @Nullable final String[] selectionArgs,
+                                             @Nullable final String sortOrder) {
+        return assertNotNull(callQueryColumn(resolver, uri, columnName, Cursor.FIELD_TYPE_FLOAT,
+                selection, selectionArgs, sortOrder).getDoubleArray(RESULT_EXTRA_ARRAY_VALUES),
+                "values"); //$NON-NLS
+    }
+
+    /**
+     * Queries a single column as strings.  Unlike iterating a Cursor, no Cursor is returned to
+     * the caller.
+     * <p>
+     * This method is restricted to being performed within the same package as the content provider.
+     *
+     * @param resolver      Content resolver.
+     * @param uri           URI to query.
+     * @param columnName    Column to query.
+     * @param selection     Optional selection.
+     * @param selectionArgs Optional arguments for {@code selection}.
+     * @param sortOrder     Optional sort order.
+     * @return The values of {@code columnName}.  Null values are returned as null.
+     */
+    @NonNull
+    @Incubating
+    @Slow(Speed.MILLISECONDS)
+    public static String[] queryStringColumn(@NonNull final ContentResolver resolver,
+                                             @NonNull final Uri uri,
+                                             @NonNull final String columnName,
+                                             @Nullable final String selection,
+                                             @Nullable final String[] selectionArgs,
+                                             @Nullable final String sortOrder) {
+        return assertNotNull(callQueryColumn(resolver, uri, columnName, Cursor.FIELD_TYPE_STRING,
+                selection, selectionArgs, sortOrder).getStringArray(RESULT_EXTRA_ARRAY_VALUES),
+                "values"); //$NON-NLS
+    }
+
+    @NonNull
+    @Slow(Speed.MILLISECONDS)
+    private static Bundle callQueryColumn(@NonNull final ContentResolver resolver,
+                                          @NonNull final Uri uri,
+                                          @NonNull final String columnName,
+                                          final int fieldType,
+                                          @Nullable final String selection,
+                                          @Nullable final String[] selectionArgs,
+                                          @Nullable final String sortOrder) {
+        assertNotNull(resolver, "resolver"); //$NON-NLS-1$
+        assertNotNull(uri, "uri"); //$NON-NLS-1$
+        assertNotEmpty(columnName, "columnName"); //$NON-NLS-1$
+
+        @NonNull final Bundle extras = new Bundle();
+        extras.putString(EXTRA_STRING_COLUMN_NAME, columnName);
+        extras.putInt(EXTRA_INT_FIELD_TYPE, fieldType);
+        extras.putString(EXTRA_STRING_SELECTION, selection);
+        extras.putStringArray(EXTRA_STRING_ARRAY_SELECTION_ARGS, selectionArgs);
+        extras.putString(EXTRA_STRING_SORT_ORDER, sortOrder);
+
+        // The authority is taken from uri, which is also passed as the arg
+        @Nullable final Bundle result = resolver.call(uri, METHOD_QUERY_COLUMN, uri.toString(),
+                extras);
+        if (null == result) {
+            throw new UnsupportedOperationException(
+                    "Content Provider does not support column queries"); //$NON-NLS
+        }
+
+        return result;
+    }
+
     /**
      * Private constructor prevents instantiation.
      *
@@ -0,0 +1,173 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.contract;
+
+import android.content.ContentProvider;
+import android.content.ContentValues;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Bundle;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.twofortyfouram.annotation.Incubating;
+import com.twofortyfouram.annotation.Slow;
+import com.twofortyfouram.spackle.ContextUtil;
+import net.jcip.annotations.ThreadSafe;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Contract for deleting or updating a list of rows by {@code _id} with a single
+ * {@link ContentProvider#call(String, String, Bundle)}.  This avoids both an operation per row
+ * and a hand-built {@code IN} clause that may exceed the SQLite limit on bound variables.
+ * <p>
+ * The ids are applied in a single transaction, and a single content change notification is sent
+ * for the table.
+ */
+@ThreadSafe
+@Incubating
+public final class BulkContract {
+
+    /**
+     * Method supported by the {@link ContentProvider#call(String, String, Bundle)} interface for
+     * deleting rows by id.  This method is restricted to being performed within the same package
+     * as the content provider.  The arg is the table Uri, which must not be an id Uri.
+     *
+     * @see #EXTRA_LONG_ARRAY_IDS
+     * @see #RESULT_EXTRA_INT_COUNT
+     * @see #callDeleteByIds(Context, Uri, long[])
+     */
+    @NonNull
+    public static final String METHOD_DELETE_BY_IDS
+            = "com.twofortyfouram.memento.method.DELETE_BY_IDS"; //$NON-NLS
+
+    /**
+     * Method supported by the {@link ContentProvider#call(String, String, Bundle)} interface for
+     * updating rows by id.  This method is restricted to being performed within the same package
+     * as the content provider.  The arg is the table Uri, which must not be an id Uri.
+     *
+     * @see #EXTRA_LONG_ARRAY_IDS
+     * @see #EXTRA_PARCELABLE_CONTENT_VALUES
+     * @see #RESULT_EXTRA_INT_COUNT
+     * @see #callUpdateByIds(Context, Uri, ContentValues, long[])
+     */
+    @NonNull
+    public static final String METHOD_UPDATE_BY_IDS
+            = "com.twofortyfouram.memento.method.UPDATE_BY_IDS"; //$NON-NLS
+
+    /**
+     * Type: {@code long[]}.
+     * <p>
+     * Ids of the rows to delete or update.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_ARRAY_IDS
+            = "com.twofortyfouram.memento.extra.LONG_ARRAY_IDS"; //$NON-NLS
+
+    /**
+     * Type: {@code ContentValues}.
+     * <p>
+     * Values to update the rows with.
+     */
+    @NonNull
+    public static final String EXTRA_PARCELABLE_CONTENT_VALUES
+            = "com.twofortyfouram.memento.extra.PARCELABLE_CONTENT_VALUES"; //$NON-NLS
+
+    /**
+     * Type: {@code int}.
+     * <p>
+     * Number of rows deleted or updated.
+     */
+    @NonNull
+    public static final String RESULT_EXTRA_INT_COUNT
+            = "com.twofortyfouram.memento.extra.INT_COUNT"; //$NON-NLS
+
+    /**
+     * Deletes the rows of {@code uri} with the given ids.
+     * <p>
+     * This method is restricted to being performed within the same package as the content provider.
+     *
+     * @param context Application context.
+     * @param uri     Table Uri.  Query string parameters of {@link MementoContract} are honored.
+     * @param ids     Ids of the rows to delete.
+     * @return The number of rows deleted.
+     */
+    @Slow(Slow.Speed.MILLISECONDS)
+    public static int callDeleteByIds(@NonNull final Context context, @NonNull final Uri uri,
+                                      @NonNull final long[] ids) {
+        assertNotNull(context, "context"); //$NON-NLS
+        assertNotNull(uri, "uri"); //$NON-NLS
+        assertNotNull(ids, "ids"); //$NON-NLS
+
+        @NonNull final Bundle extras = new Bundle();
+        extras.putLongArray(EXTRA_LONG_ARRAY_IDS, ids);
+
+        return call(context, uri, METHOD_DELETE_BY_IDS, extras);
+    }
+
+    /**
+     * Updates the rows of {@code uri} with the given ids.
+     * <p>
+     * This method is restricted to being performed within the same package as the content provider.
+     *
+     * @param context Application context.
+     * @param uri     Table Uri.  Query string parameters of {@link MementoContract} are honored.
+     * @param values  Values to update the rows with.
+     * @param ids     Ids of the rows to update.
+     * @return The number of rows updated.
+     */
+    @Slow(Slow.Speed.MILLISECONDS)
+    public static int callUpdateByIds(@NonNull final Context context, @NonNull final Uri uri,
+                                      @NonNull final ContentValues values,
+                                      @NonNull final long[] ids) {
+        assertNotNull(context, "context"); //$NON-NLS
+        assertNotNull(uri, "uri"); //$NON-NLS
+        assertNotNull(values, "values"); //$NON-NLS
+        assertNotNull(ids, "ids"); //$NON-NLS
+
+        @NonNull final Bundle extras = new Bundle();
+        extras.putLongArray(EXTRA_LONG_ARRAY_IDS, ids);
+        extras.putParcelable(EXTRA_PARCELABLE_CONTENT_VALUES, values);
+
+        return call(context, uri, METHOD_UPDATE_BY_IDS, extras);
+    }
+
+    @Slow(Slow.Speed.MILLISECONDS)
+    private static int call(@NonNull final Context context, @NonNull final Uri uri,
+                            @NonNull final String method, @NonNull final Bundle extras) {
+        @NonNull final Context ctx = ContextUtil.cleanContext(context);
+
+        // The authority is taken from uri, which is also passed as the arg
+        @Nullable final Bundle result = ctx.getContentResolver()
+                .call(uri, method, uri.toString(), extras);
+        if (null == result) {
+            throw new IllegalStateException("Provider does not support bulk operations"); //$NON-NLS
+        }
+
+        return result.getInt(RESULT_EXTRA_INT_COUNT);
+    }
+
+    /**
+     * Private constructor prevents instantiation.
+     *
+     * @throws UnsupportedOperationException because this class cannot be instantiated.
+     */
+    private BulkContract() {
+        throw new UnsupportedOperationException("This class is non-instantiable"); //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.contract;
+
+import android.content.ContentProvider;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Bundle;
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.twofortyfouram.annotation.Incubating;
+import com.twofortyfouram.annotation.Slow;
+import com.twofortyfouram.spackle.ContextUtil;
+import net.jcip.annotations.ThreadSafe;
+
+import static com.twofortyfouram.assertion.Assertions.assertInRangeInclusive;
+import static com.twofortyfouram.assertion.Assertions.assertNotEmpty;
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Contract for the change log, which records every insert, update, and delete of the tables the
+ * ContentProvider tracks.  Each entry is written by the same transaction as the change it
+ * records, so entries are never lost or recorded for a change that was rolled back.
+ * <p>
+ * To synchronize, a client queries the entries after the last sequence number it has processed
+ * via {@link #newChangesSinceUri(String, long)}, reads the current state of the changed rows, and
+ * then compacts the log via {@link #callCompact(Context, Uri, long)}.
+ */
+@ThreadSafe
+@Incubating
+public final class ChangeLogContract {
+
+    /**
+     * Path of the change log Uri.
+     *
+     * @see #newChangesSinceUri(String, long)
+     */
+    @NonNull
+    public static final String PATH_CHANGE_LOG = "memento_change_log"; //$NON-NLS
+
+    /**
+     * Optional long query string argument for the change log Uri.  Only entries with a sequence
+     * number greater than this are returned.
+     */
+    @NonNull
+    public static final String QUERY_STRING_SINCE
+            = "com.twofortyfouram.memento.change_log_since"; //$NON-NLS
+
+    /**
+     * Type: {@code long}.
+     * <p>
+     * Sequence number of the entry.  Sequence numbers increase in the order changes are
+     * committed and are never reused, even after compaction.
+     */
+    @NonNull
+    public static final String COLUMN_LONG_SEQUENCE = "seq"; //$NON-NLS
+
+    /**
+     * Type: {@code String}.
+     * <p>
+     * Name of the table that changed.
+     */
+    @NonNull
+    public static final String COLUMN_STRING_TABLE_NAME = "table_name"; //$NON-NLS
+
+    /**
+     * Type: {@code long}.
+     * <p>
+     * {@code _id} of the row that changed.
+     */
+    @NonNull
+    public static final String COLUMN_LONG_ROW_ID = "row_id"; //$NON-NLS
+
+    /**
+     * Type: {@code String}.
+     * <p>
+     * Operation of the change, one of {@link ChangePayloadContract#OPERATION_INSERT},
+     * {@link ChangePayloadContract#OPERATION_UPDATE}, or
+     * {@link ChangePayloadContract#OPERATION_DELETE}.
+     */
+    @NonNull
+    public static final String COLUMN_STRING_OPERATION = "operation"; //$NON-NLS
+
+    /**
+     * Method supported by the {@link ContentProvider#call(String, String, Bundle)} interface for
+     * compacting the change log.  This method is restricted to being performed within the same
+     * package as the content provider.  The arg is a Uri of the content provider.
+     *
+     * @see #EXTRA_LONG_SEQUENCE
+     * @see #RESULT_EXTRA_INT_COUNT
+     * @see #callCompact(Context, Uri, long)
+     */
+    @NonNull
+    public static final String METHOD_COMPACT
+            = "com.twofortyfouram.memento.method.COMPACT_CHANGE_LOG"; //$NON-NLS
+
+    /**
+     * Type: {@code long}.
+     * <p>
+     * Sequence number through which the entries have been processed.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_SEQUENCE
+            = "com.twofortyfouram.memento.extra.LONG_SEQUENCE"; //$NON-NLS
+
+    /**
+     * Type: {@code int}.
+     * <p>
+     * Number of entries removed.
+     */
+    @NonNull
+    public static final String RESULT_EXTRA_INT_COUNT
+            = "com.twofortyfouram.memento.extra.INT_COUNT"; //$NON-NLS
+
+    /**
+     * The Uri is restricted to being queried within the same package as the content provider.
+     *
+     * @param authority Authority of the content provider.
+     * @param sequence  Sequence number after which to return entries, or 0 for all entries.
+     * @return Uri to query the entries of the change log after {@code sequence}, in the order of
+     * {@link #COLUMN_LONG_SEQUENCE}.
+     */
+    @NonNull
+    public static Uri newChangesSinceUri(@NonNull final String authority,
+                                         @IntRange(from = 0) final long sequence) {
+        assertNotEmpty(authority, "authority"); //$NON-NLS
+        assertInRangeInclusive(sequence, 0, Long.MAX_VALUE, "sequence"); //$NON-NLS
+
+        //noinspection CallToNumericToString
+        return new Uri.Builder().scheme(ContentResolver.SCHEME_CONTENT).authority(authority)
+                .appendPath(PATH_CHANGE_LOG)
+                .appendQueryParameter(QUERY_STRING_SINCE, Long.toString(sequence)).build();
+    }
+
+    /**
+     * Compacts the change log.  Entries through {@code sequence} are removed, and of the
+     * remaining entries only the latest for each row is kept.  Because a client reads the current
+     * state of each changed row, the latest entry is sufficient.
+     * <p>
+     * This method is restricted to being performed within the same package as the content provider.
+     *
+     * @param context  Application context.
+     * @param uri      A Uri of the content provider.
+     * @param sequence Sequence number through which the entries have been processed, or 0 to
+     *                 only coalesce entries.
+     * @return The number of entries removed.
+     */
+    @Slow(Slow.Speed.MILLISECONDS)
+    public static int callCompact(@NonNull final Context context, @NonNull final Uri uri,
+                                  @IntRange(from = 0) final long sequence) {
+        assertNotNull(context, "context"); //$NON-NLS
+        assertNotNull(uri, "uri"); //$NON-NLS
+        assertInRangeInclusive(sequence, 0, Long.MAX_VALUE, "sequence"); //$NON-NLS
+
+        @NonNull final Context ctx = ContextUtil.cleanContext(context);
+
+        @NonNull final Bundle extras = new Bundle();
+        extras.putLong(EXTRA_LONG_SEQUENCE, sequence);
+
+        // The authority is taken from uri, which is also passed as the arg
+        @Nullable final Bundle result = ctx.getContentResolver()
+                .call(uri, METHOD_COMPACT, uri.toString(), extras);
+        if (null == result) {
+            throw new IllegalStateException("Provider does not support the change log"); //$NON-NLS
+        }
+
+        return result.getInt(RESULT_EXTRA_INT_COUNT);
+    }
+
+    /**
+     * Private constructor prevents instantiation.
+     *
+     * @throws UnsupportedOperationException because this class cannot be instantiated.
+     */
+    private ChangeLogContract() {
+        throw new UnsupportedOperationException("This class is non-instantiable"); //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.contract;
+
+import android.content.ContentResolver;
+import android.database.ContentObserver;
+import android.net.Uri;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.twofortyfouram.annotation.Incubating;
+import net.jcip.annotations.ThreadSafe;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Contract for change payloads, which describe what changed in a content change notification.
+ * <p>
+ * When enabled by the provider, the Uri delivered to
+ * {@link ContentObserver#onChange(boolean, Uri)} carries query parameters describing the
+ * operation and the net change in the number of rows.  Because {@link ContentResolver} matches
+ * observers by path only, observers that ignore the payload are unaffected.
+ * <p>
+ * A payload is only a hint.  Observers must treat a missing payload as "anything may have
+ * changed."
+ */
+@ThreadSafe
+@Incubating
+public final class ChangePayloadContract {
+
+    /**
+     * Query parameter for the operation that caused the change.
+     *
+     * @see #OPERATION_INSERT
+     * @see #OPERATION_UPDATE
+     * @see #OPERATION_DELETE
+     * @see #OPERATION_MIXED
+     */
+    @NonNull
+    public static final String QUERY_STRING_OPERATION
+            = "com.twofortyfouram.memento.change_operation"; //$NON-NLS
+
+    /**
+     * Query parameter for the net change in the number of rows at the notified Uri.
+     */
+    @NonNull
+    public static final String QUERY_STRING_ROW_DELTA
+            = "com.twofortyfouram.memento.change_row_delta"; //$NON-NLS
+
+    /**
+     * Query parameter for a lower bound on when the change was committed, in
+     * {@link SystemClock#elapsedRealtime()} milliseconds.  Because that clock is shared by all
+     * processes on the device, observers can compare it to the time their own last query
+     * completed: a change that started after a query completed cannot be reflected in that
+     * query's result.
+     */
+    @NonNull
+    public static final String QUERY_STRING_CHANGE_REAL_TIME_MILLIS
+            = "com.twofortyfouram.memento.change_real_time_millis"; //$NON-NLS
+
+    @NonNull
+    public static final String OPERATION_INSERT = "insert"; //$NON-NLS
+
+    @NonNull
+    public static final String OPERATION_UPDATE = "update"; //$NON-NLS
+
+    @NonNull
+    public static final String OPERATION_DELETE = "delete"; //$NON-NLS
+
+    /**
+     * Operation for several coalesced changes of different types, for example within a batch.
+     */
+    @NonNull
+    public static final String OPERATION_MIXED = "mixed"; //$NON-NLS
+
+    /**
+     * @param uri       Uri to notify.
+     * @param operation Operation that caused the change.
+     * @param rowDelta  Net change in the number of rows at {@code uri}.
+     * @return A copy of {@code uri} with the payload appended.
+     */
+    @NonNull
+    public static Uri withPayload(@NonNull final Uri uri, @NonNull final String operation,
+                                  final int rowDelta) {
+        assertNotNull(uri, "uri"); //$NON-NLS
+        assertNotNull(operation, "operation"); //$NON-NLS
+
+        return uri.buildUpon()
+                .appendQueryParameter(QUERY_STRING_OPERATION, operation)
+                .appendQueryParameter(QUERY_STRING_ROW_DELTA, Integer.toString(rowDelta))
+                .build();
+    }
+
+    /**
+     * @param uri                   Uri to notify.
+     * @param operation             Operation that caused the change.
+     * @param rowDelta              Net change in the number of rows at {@code uri}.
+     * @param changeRealTimeMillis  Lower bound on when the change was committed, in
+     *                              {@link SystemClock#elapsedRealtime()} milliseconds.
+     * @return A copy of {@code uri} with the payload appended.
+     */
+    @NonNull
+    public static Uri withPayload(@NonNull final Uri uri, @NonNull final String operation,
+                                  final int rowDelta, final long changeRealTimeMillis) {
+        return withPayload(uri, operation, rowDelta).buildUpon()
+                .appendQueryParameter(QUERY_STRING_CHANGE_REAL_TIME_MILLIS,
+                        Long.toString(changeRealTimeMillis))
+                .build();
+    }
+
+    /**
+     * @param uri Uri received by a {@link ContentObserver}.
+     * @return The operation of the payload, or null if {@code uri} has no payload.
+     */
+    @Nullable
+    public static String getOperation(@NonNull final Uri uri) {
+        assertNotNull(uri, "uri"); //$NON-NLS
+
+        return uri.getQueryParameter(QUERY_STRING_OPERATION);
+    }
+
+    /**
+     * @param uri Uri received by a {@link ContentObserver}.
+     * @return The row delta of the payload, or null if {@code uri} has no valid payload.
+     */
+    @Nullable
+    public static Integer getRowDelta(@NonNull final Uri uri) {
+        assertNotNull(uri, "uri"); //$NON-NLS
+
+        @Nullable final String rowDelta = uri.getQueryParameter(QUERY_STRING_ROW_DELTA);
+        if (null == rowDelta) {
+            return null;
+        }
+
+        try {
+            return Integer.valueOf(rowDelta);
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param uri Uri received by a {@link ContentObserver}.
+     * @return The lower bound on when the change was committed, in
+     * {@link SystemClock#elapsedRealtime()} milliseconds, or null if {@code uri} has no valid
+     * change time.
+     */
+    @Nullable
+    public static Long getChangeRealTimeMillis(@NonNull final Uri uri) {
+        assertNotNull(uri, "uri"); //$NON-NLS
+
+        @Nullable final String changeRealTimeMillis = uri
+                .getQueryParameter(QUERY_STRING_CHANGE_REAL_TIME_MILLIS);
+        if (null == changeRealTimeMillis) {
+            return null;
+        }
+
+        try {
+            return Long.valueOf(changeRealTimeMillis);
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Private constructor prevents instantiation.
+     *
+     * @throws UnsupportedOperationException because this class cannot be instantiated.
+     */
+    private ChangePayloadContract() {
+        throw new UnsupportedOperationException("This class is non-instantiable"); //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.contract;
+
+import android.content.ContentProvider;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Bundle;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.twofortyfouram.annotation.Incubating;
+import com.twofortyfouram.annotation.Slow;
+import com.twofortyfouram.spackle.ContextUtil;
+import net.jcip.annotations.ThreadSafe;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Contract for reporting metrics of the idle-time database maintenance of a Memento provider.
+ * <p>
+ * The result of {@link #METHOD_GET_MAINTENANCE_METRICS} contains one Bundle per task, keyed by
+ * the {@code TASK_*} constants.  Each of those Bundles contains the {@code EXTRA_LONG_*} keys of
+ * this contract.  Metrics are kept in memory, so they reset when the provider's process restarts.
+ */
+@ThreadSafe
+@Incubating
+public final class MaintenanceContract {
+
+    /**
+     * Method supported by the {@link ContentProvider#call(String, String, Bundle)} interface for
+     * reading maintenance metrics.  This method is restricted to being performed within the same
+     * package as the content provider.  Neither the arg nor extras are used.  If the provider
+     * doesn't run maintenance, the result is an empty Bundle.
+     *
+     * @see #callGetMaintenanceMetrics(Context, Uri)
+     */
+    @NonNull
+    public static final String METHOD_GET_MAINTENANCE_METRICS
+            = "com.twofortyfouram.memento.method.GET_MAINTENANCE_METRICS"; //$NON-NLS
+
+    /**
+     * Task that runs {@code PRAGMA wal_checkpoint}.  Its last result is the number of WAL frames
+     * checkpointed.
+     */
+    @NonNull
+    public static final String TASK_WAL_CHECKPOINT = "wal_checkpoint"; //$NON-NLS
+
+    /**
+     * Task that runs {@code PRAGMA incremental_vacuum}.  Its last result is the number of pages
+     * freed.
+     */
+    @NonNull
+    public static final String TASK_INCREMENTAL_VACUUM = "incremental_vacuum"; //$NON-NLS
+
+    /**
+     * Task that runs {@code PRAGMA optimize} or {@code ANALYZE}.  Its last result is always 0.
+     */
+    @NonNull
+    public static final String TASK_OPTIMIZE = "optimize"; //$NON-NLS
+
+    /**
+     * Number of times the task ran successfully.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_RUN_COUNT
+            = "com.twofortyfouram.memento.extra.LONG_RUN_COUNT"; //$NON-NLS
+
+    /**
+     * Number of times the task failed.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_FAILURE_COUNT
+            = "com.twofortyfouram.memento.extra.LONG_FAILURE_COUNT"; //$NON-NLS
+
+    /**
+     * Number of times the task was deferred because its maintenance run was out of budget or
+     * interrupted by provider activity.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_DEFERRED_COUNT
+            = "com.twofortyfouram.memento.extra.LONG_DEFERRED_COUNT"; //$NON-NLS
+
+    /**
+     * Total time spent running the task.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_TOTAL_DURATION_MILLIS
+            = "com.twofortyfouram.memento.extra.LONG_TOTAL_DURATION_MILLIS"; //$NON-NLS
+
+    /**
+     * Time spent by the last run of the task.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_LAST_DURATION_MILLIS
+            = "com.twofortyfouram.memento.extra.LONG_LAST_DURATION_MILLIS"; //$NON-NLS
+
+    /**
+     * Task-specific result of the last run of the task.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_LAST_RESULT
+            = "com.twofortyfouram.memento.extra.LONG_LAST_RESULT"; //$NON-NLS
+
+    /**
+     * Reads the maintenance metrics of the provider at {@code authority}.
+     * <p>
+     * This method is restricted to being performed within the same package as the content provider.
+     *
+     * @param context   Application context.
+     * @param authority Uri of the provider's authority.
+     * @return Bundle of metrics as described by this contract, or null if the provider does not
+     * support this method.
+     */
+    @Nullable
+    @Slow(Slow.Speed.MILLISECONDS)
+    public static Bundle callGetMaintenanceMetrics(@NonNull final Context context,
+                                                   @NonNull final Uri authority) {
+        assertNotNull(context, "context"); //$NON-NLS
+        assertNotNull(authority, "authority"); //$NON-NLS
+
+        @NonNull final Context ctx = ContextUtil.cleanContext(context);
+
+        return ctx.getContentResolver().call(authority, METHOD_GET_MAINTENANCE_METRICS, null,
+                null);
+    }
+
+    /**
+     * Private constructor prevents instantiation.
+     *
+     * @throws UnsupportedOperationException because this class cannot be instantiated.
+     */
+    private MaintenanceContract() {
+        throw new UnsupportedOperationException("This class is non-instantiable"); //$NON-NLS-1$
+    }
+}
@@ -18,12 +18,16 @@
 package com.twofortyfouram.memento.contract;
 
 import android.app.SearchManager;
+import android.database.sqlite.SQLiteDatabase;
 import android.net.Uri;
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
+import androidx.annotation.Size;
 import net.jcip.annotations.ThreadSafe;
 
 import static com.twofortyfouram.assertion.Assertions.assertInRangeInclusive;
+import static com.twofortyfouram.assertion.Assertions.assertNotEmpty;
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
 
 @ThreadSafe
 public interface MementoContract {
@@ -35,6 +39,66 @@ public interface MementoContract {
     String QUERY_STRING_IS_SUPPRESS_NOTIFICATION
             = "com.twofortyfouram.memento.is_suppress_notification"; //$NON-NLS
 
+    /**
+     * Query string argument containing a full-text search query.  This is required when querying
+     * a Uri that the ContentProvider has configured for full-text search, and is otherwise
+     * ignored.  The value uses the SQLite full-text search query syntax.
+     */
+    @NonNull
+    String QUERY_STRING_SEARCH_QUERY
+            = "com.twofortyfouram.memento.search_query"; //$NON-NLS
+
+    /**
+     * Optional query string argument containing a comma separated list of {@code _id} values to
+     * query.  Rows are returned in the order of the list, and the list should not contain
+     * duplicates.  This is not supported for id Uris, full-text search Uris, or with a sort order,
+     * a limit or offset, or a {@link android.provider.BaseColumns#_COUNT} projection.
+     */
+    @NonNull
+    String QUERY_STRING_IDS
+            = "com.twofortyfouram.memento.ids"; //$NON-NLS
+
+    /**
+     * Optional int query string argument to override the conflict algorithm of an insert or
+     * update, which is otherwise chosen by the ContentProvider.  The value is one of the
+     * {@code CONFLICT} constants in {@link SQLiteDatabase}.
+     */
+    @NonNull
+    String QUERY_STRING_CONFLICT_ALGORITHM
+            = "com.twofortyfouram.memento.conflict_algorithm"; //$NON-NLS
+
+    /**
+     * Optional long query string argument for the inclusive start of a time range, in
+     * milliseconds since the Unix epoch.  For a Uri that the ContentProvider has partitioned by
+     * time, queries, updates, and deletes are restricted to the range and only read or write the
+     * partitions overlapping it.  This is ignored for other Uris.
+     *
+     * @see #QUERY_STRING_TIME_RANGE_END
+     */
+    @NonNull
+    String QUERY_STRING_TIME_RANGE_START
+            = "com.twofortyfouram.memento.time_range_start"; //$NON-NLS
+
+    /**
+     * Optional long query string argument for the exclusive end of a time range, in milliseconds
+     * since the Unix epoch.
+     *
+     * @see #QUERY_STRING_TIME_RANGE_START
+     */
+    @NonNull
+    String QUERY_STRING_TIME_RANGE_END
+            = "com.twofortyfouram.memento.time_range_end"; //$NON-NLS
+
+    /**
+     * Query string argument containing a bounding box as a comma separated list of the minimum
+     * x, maximum x, minimum y, and maximum y.  This is required when querying a Uri that the
+     * ContentProvider has configured for bounding box queries, and is otherwise ignored.  Rows
+     * whose bounding box intersects this box are returned.
+     */
+    @NonNull
+    String QUERY_STRING_BOUNDING_BOX
+            = "com.twofortyfouram.memento.bounding_box"; //$NON-NLS
+
     /**
      * Mutates the query string to include {@link MementoContract#QUERY_STRING_IS_SUPPRESS_NOTIFICATION}
      * set to true.
@@ -72,4 +136,142 @@ public interface MementoContract {
         return builder.appendQueryParameter(SearchManager.SUGGEST_PARAMETER_LIMIT,
                 Integer.toString(limit));
     }
+
+    /**
+     * Mutates the query string to include {@link MementoContract#QUERY_STRING_SEARCH_QUERY} set to
+     * {@code searchQuery}.
+     *
+     * Calling this method multiple times on the same builder has undefined behavior.
+     *
+     * @param builder     Builder to mutate.
+     * @param searchQuery Full-text search query, for example {@code "foo*"}.
+     * @return Same object as {@code builder}, mutated with the query string parameter.
+     */
+    @NonNull
+    static Uri.Builder addSearchQuery(@NonNull final Uri.Builder builder,
+            @NonNull final String searchQuery) {
+        assertNotEmpty(searchQuery, "searchQuery"); //$NON-NLS
+
+        return builder.appendQueryParameter(QUERY_STRING_SEARCH_QUERY, searchQuery);
+    }
+
+    /**
+     * Mutates the query string to include {@link MementoContract#QUERY_STRING_IDS} set to
+     * {@code ids}, so that a single query returns the rows for all of {@code ids}.
+     *
+     * Calling this method multiple times on the same builder has undefined behavior.
+     *
+     * @param builder Builder to mutate.
+     * @param ids     Ids of the rows to query, in the order the rows should be returned.
+     * @return Same object as {@code builder}, mutated with the query string parameter.
+     */
+    @NonNull
+    static Uri.Builder addIds(@NonNull final Uri.Builder builder,
+            @NonNull @Size(min = 1) final long[] ids) {
+        assertNotNull(ids, "ids"); //$NON-NLS
+        assertInRangeInclusive(ids.length, 1, Integer.MAX_VALUE, "ids.length"); //$NON-NLS
+
+        @NonNull final StringBuilder value = new StringBuilder(ids.length * 8);
+        for (int x = 0; x < ids.length; x++) {
+            if (0 < x) {
+                value.append(',');
+            }
+            value.append(ids[x]);
+        }
+
+        return builder.appendQueryParameter(QUERY_STRING_IDS, value.toString());
+    }
+
+    /**
+     * Mutates the query string to include {@link MementoContract#QUERY_STRING_CONFLICT_ALGORITHM}
+     * set to {@code conflictAlgorithm}.
+     *
+     * Calling this method multiple times on the same builder has undefined behavior.
+     *
+     * @param builder           Builder to mutate.
+     * @param conflictAlgorithm One of the {@code CONFLICT} constants in {@link SQLiteDatabase}.
+     * @return Same object as {@code builder}, mutated with the query string parameter.
+     */
+    @NonNull
+    static Uri.Builder addConflictAlgorithm(@NonNull final Uri.Builder builder,
+            @IntRange(from = SQLiteDatabase.CONFLICT_NONE, to = SQLiteDatabase.CONFLICT_REPLACE)
+            final int conflictAlgorithm) {
+        assertInRangeInclusive(conflictAlgorithm, SQLiteDatabase.CONFLICT_NONE,
+                SQLiteDatabase.CONFLICT_REPLACE, "conflictAlgorithm"); //$NON-NLS
+
+        //noinspection CallToNumericToString
+        return builder.appendQueryParameter(QUERY_STRING_CONFLICT_ALGORITHM,
+                Integer.toString(conflictAlgorithm));
+    }
+
+    /**
+     * Mutates the query string to include {@link MementoContract#QUERY_STRING_TIME_RANGE_START}
+     * and {@link MementoContract#QUERY_STRING_TIME_RANGE_END}.
+     *
+     * Calling this method multiple times on the same builder has undefined behavior.
+     *
+     * @param builder     Builder to mutate.
+     * @param startMillis Inclusive start of the range, in milliseconds since the Unix epoch.
+     * @param endMillis   Exclusive end of the range, in milliseconds since the Unix epoch.
+     * @return Same object as {@code builder}, mutated with the query string parameters.
+     */
+    @NonNull
+    static Uri.Builder addTimeRange(@NonNull final Uri.Builder builder, final long startMillis,
+            final long endMillis) {
+        assertInRangeInclusive(endMillis, startMillis, Long.MAX_VALUE, "endMillis"); //$NON-NLS
+
+        //noinspection CallToNumericToString
+        return builder
+                .appendQueryParameter(QUERY_STRING_TIME_RANGE_START, Long.toString(startMillis))
+                .appendQueryParameter(QUERY_STRING_TIME_RANGE_END, Long.toString(endMillis));
+    }
+
+    /**
+     * Mutates the query string to include {@link MementoContract#QUERY_STRING_BOUNDING_BOX}.  To
+     * look up the rows containing a point, pass the point as both the minimum and the maximum.
+     *
+     * Calling this method multiple times on the same builder has undefined behavior.
+     *
+     * @param builder Builder to mutate.
+     * @param minX    Minimum x of the box.
+     * @param maxX    Maximum x of the box.
+     * @param minY    Minimum y of the box.
+     * @param maxY    Maximum y of the box.
+     * @return Same object as {@code builder}, mutated with the query string parameter.
+     */
+    @NonNull
+    static Uri.Builder addBoundingBox(@NonNull final Uri.Builder builder, final double minX,
+            final double maxX, final double minY, final double maxY) {
+        assertInRangeInclusive(maxX, minX, Double.MAX_VALUE, "maxX"); //$NON-NLS
+        assertInRangeInclusive(maxY, minY, Double.MAX_VALUE, "maxY"); //$NON-NLS
+
+        return builder.appendQueryParameter(QUERY_STRING_BOUNDING_BOX,
+                minX + "," + maxX + "," + minY + "," + maxY); //$NON-NLS
+    }
+
+    /**
+     * Builds a {@code json_extract} expression for filtering or sorting on a field of a JSON text
+     * column, for example in the selection or sort order of a query.  SQLite only uses an
+     * expression index when the query repeats the indexed expression exactly, so the same
+     * expression should be used both to declare the index and to query it.
+     *
+     * @param columnName Name of the column containing JSON text.
+     * @param jsonPath   SQLite JSON path of the field, for example {@code "$.priority"}.
+     * @return Expression extracting {@code jsonPath} from {@code columnName}.
+     * @throws IllegalArgumentException If {@code jsonPath} does not start with {@code $} or
+     *                                  contains a single quote.
+     */
+    @NonNull
+    static String jsonExtract(@NonNull final String columnName, @NonNull final String jsonPath) {
+        assertNotEmpty(columnName, "columnName"); //$NON-NLS
+        assertNotEmpty(jsonPath, "jsonPath"); //$NON-NLS
+
+        // The path is inlined rather than bound, so that the expression can appear in an index
+        if (!jsonPath.startsWith("$") || jsonPath.contains("'")) { //$NON-NLS
+            throw new IllegalArgumentException(
+                    "jsonPath must start with $ and must not contain a single quote"); //$NON-NLS
+        }
+
+        return "json_extract(" + columnName + ", '" + jsonPath + "')"; //$NON-NLS
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.contract;
+
+import android.content.ContentProvider;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Bundle;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.twofortyfouram.annotation.Incubating;
+import com.twofortyfouram.annotation.Slow;
+import com.twofortyfouram.spackle.ContextUtil;
+import net.jcip.annotations.ThreadSafe;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Contract for reporting metrics of how a Memento provider opened its database.
+ * <p>
+ * The result of {@link #METHOD_GET_OPEN_METRICS} contains the {@code EXTRA_*} keys of this
+ * contract.  Durations are for the most recent open of the database, while counts accumulate.
+ * Metrics are kept in memory, so they reset when the provider's process restarts.
+ */
+@ThreadSafe
+@Incubating
+public final class OpenContract {
+
+    /**
+     * Method supported by the {@link ContentProvider#call(String, String, Bundle)} interface for
+     * reading open metrics.  This method is restricted to being performed within the same package
+     * as the content provider.  Neither the arg nor extras are used.  Calling this method does not
+     * open the database, so the result is an empty Bundle until the database has been opened.
+     *
+     * @see #callGetOpenMetrics(Context, Uri)
+     */
+    @NonNull
+    public static final String METHOD_GET_OPEN_METRICS
+            = "com.twofortyfouram.memento.method.GET_OPEN_METRICS"; //$NON-NLS
+
+    /**
+     * Number of times the database was opened.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_OPEN_COUNT
+            = "com.twofortyfouram.memento.extra.LONG_OPEN_COUNT"; //$NON-NLS
+
+    /**
+     * True if the database was opened in the background right after the provider was created,
+     * rather than by the first caller.
+     */
+    @NonNull
+    public static final String EXTRA_BOOLEAN_IS_WARM_OPEN
+            = "com.twofortyfouram.memento.extra.BOOLEAN_IS_WARM_OPEN"; //$NON-NLS
+
+    /**
+     * Time spent by the open helper opening the database, which includes creating or upgrading
+     * the schema and recovering the write-ahead log.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_OPEN_DURATION_MILLIS
+            = "com.twofortyfouram.memento.extra.LONG_OPEN_DURATION_MILLIS"; //$NON-NLS
+
+    /**
+     * Time spent applying the provider's configuration, creating the change log triggers, and
+     * checking for pending table migrations.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_CONFIGURE_DURATION_MILLIS
+            = "com.twofortyfouram.memento.extra.LONG_CONFIGURE_DURATION_MILLIS"; //$NON-NLS
+
+    /**
+     * Time spent compiling the provider's hot statements.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_PREPARE_DURATION_MILLIS
+            = "com.twofortyfouram.memento.extra.LONG_PREPARE_DURATION_MILLIS"; //$NON-NLS
+
+    /**
+     * Number of hot statements compiled successfully.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_PREPARED_STATEMENT_COUNT
+            = "com.twofortyfouram.memento.extra.LONG_PREPARED_STATEMENT_COUNT"; //$NON-NLS
+
+    /**
+     * Number of callers that blocked on an in-flight background open.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_WAIT_COUNT
+            = "com.twofortyfouram.memento.extra.LONG_WAIT_COUNT"; //$NON-NLS
+
+    /**
+     * Total time callers spent blocked on an in-flight background open.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_TOTAL_WAIT_DURATION_MILLIS
+            = "com.twofortyfouram.memento.extra.LONG_TOTAL_WAIT_DURATION_MILLIS"; //$NON-NLS
+
+    /**
+     * Reads the open metrics of the provider at {@code authority}.
+     * <p>
+     * This method is restricted to being performed within the same package as the content provider.
+     *
+     * @param context   Application context.
+     * @param authority Uri of the provider's authority.
+     * @return Bundle of metrics as described by this contract, or null if the provider does not
+     * support this method.
+     */
+    @Nullable
+    @Slow(Slow.Speed.MILLISECONDS)
+    public static Bundle callGetOpenMetrics(@NonNull final Context context,
+                                            @NonNull final Uri authority) {
+        assertNotNull(context, "context"); //$NON-NLS
+        assertNotNull(authority, "authority"); //$NON-NLS
+
+        @NonNull final Context ctx = ContextUtil.cleanContext(context);
+
+        return ctx.getContentResolver().call(authority, METHOD_GET_OPEN_METRICS, null, null);
+    }
+
+    /**
+     * Private constructor prevents instantiation.
+     *
+     * @throws UnsupportedOperationException because this class cannot be instantiated.
+     */
+    private OpenContract() {
+        throw new UnsupportedOperationException("This class is non-instantiable"); //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.contract;
+
+import android.content.ContentProvider;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Bundle;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.twofortyfouram.annotation.Incubating;
+import com.twofortyfouram.annotation.Slow;
+import com.twofortyfouram.spackle.ContextUtil;
+import net.jcip.annotations.ThreadSafe;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Contract for retention of a Uri that the ContentProvider has partitioned by time.  Rows of such
+ * a Uri are stored in one table per time bucket, so old rows are removed by dropping whole
+ * bucket tables.  Unlike a {@code DELETE}, dropping a table does not depend on the number of rows
+ * in it and does not hold up other writers while pages are rewritten.
+ */
+@ThreadSafe
+@Incubating
+public final class PartitionContract {
+
+    /**
+     * Method supported by the {@link ContentProvider#call(String, String, Bundle)} interface for
+     * dropping the partitions that end at or before a cutoff time.  This method is restricted to
+     * being performed within the same package as the content provider.  The arg is the
+     * partitioned Uri.
+     *
+     * @see #EXTRA_LONG_CUTOFF_MILLIS
+     * @see #RESULT_EXTRA_INT_COUNT
+     * @see #callDropPartitions(Context, Uri, long)
+     */
+    @NonNull
+    public static final String METHOD_DROP_PARTITIONS
+            = "com.twofortyfouram.memento.method.DROP_PARTITIONS"; //$NON-NLS
+
+    /**
+     * Type: {@code long}.
+     * <p>
+     * Cutoff time in milliseconds since the Unix epoch.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_CUTOFF_MILLIS
+            = "com.twofortyfouram.memento.extra.LONG_CUTOFF_MILLIS"; //$NON-NLS
+
+    /**
+     * Type: {@code int}.
+     * <p>
+     * Number of partitions dropped.
+     */
+    @NonNull
+    public static final String RESULT_EXTRA_INT_COUNT
+            = "com.twofortyfouram.memento.extra.INT_COUNT"; //$NON-NLS
+
+    /**
+     * Drops the partitions of {@code uri} that only contain rows older than
+     * {@code cutoffMillis}.  The partition containing {@code cutoffMillis} is kept whole, so rows
+     * older than the cutoff may remain until their partition ends.
+     * <p>
+     * This method is restricted to being performed within the same package as the content provider.
+     *
+     * @param context      Application context.
+     * @param uri          Partitioned Uri.
+     * @param cutoffMillis Cutoff time in milliseconds since the Unix epoch.
+     * @return The number of partitions dropped.
+     */
+    @Slow(Slow.Speed.MILLISECONDS)
+    public static int callDropPartitions(@NonNull final Context context, @NonNull final Uri uri,
+                                         final long cutoffMillis) {
+        assertNotNull(context, "context"); //$NON-NLS
+        assertNotNull(uri, "uri"); //$NON-NLS
+
+        @NonNull final Context ctx = ContextUtil.cleanContext(context);
+
+        @NonNull final Bundle extras = new Bundle();
+        extras.putLong(EXTRA_LONG_CUTOFF_MILLIS, cutoffMillis);
+
+        // The authority is taken from uri, which is also passed as the arg
+        @Nullable final Bundle result = ctx.getContentResolver()
+                .call(uri, METHOD_DROP_PARTITIONS, uri.toString(), extras);
+        if (null == result) {
+            throw new IllegalStateException("Provider does not support partitions"); //$NON-NLS
+        }
+
+        return result.getInt(RESULT_EXTRA_INT_COUNT);
+    }
+
+    /**
+     * Private constructor prevents instantiation.
+     *
+     * @throws UnsupportedOperationException because this class cannot be instantiated.
+     */
+    private PartitionContract() {
+        throw new UnsupportedOperationException("This class is non-instantiable"); //$NON-NLS-1$
+    }
+}
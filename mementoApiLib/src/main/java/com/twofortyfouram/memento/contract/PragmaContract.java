@@ -0,0 +1,154 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.contract;
+
+import android.content.ContentProvider;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Bundle;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.twofortyfouram.annotation.Incubating;
+import com.twofortyfouram.annotation.Slow;
+import com.twofortyfouram.spackle.ContextUtil;
+import net.jcip.annotations.ThreadSafe;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Contract for reporting the effective SQLite configuration of a Memento provider, for example to
+ * compare tuning experiments across devices.  Values are read back from SQLite rather than echoed
+ * from the requested configuration, so they reflect caps and defaults applied by SQLite and by the
+ * Android framework.
+ * <p>
+ * Values are read from the primary connection of the provider's database.  When write-ahead
+ * logging is enabled, the Android framework also reads on additional connections, whose cache
+ * size, mmap size, and temp store are the SQLite defaults rather than the values reported here.
+ * {@link #RESULT_EXTRA_BOOLEAN_IS_PRIMARY_CONNECTION_ONLY} reports whether this is the case.
+ */
+@ThreadSafe
+@Incubating
+public final class PragmaContract {
+
+    /**
+     * Method supported by the {@link ContentProvider#call(String, String, Bundle)} interface for
+     * reading the effective PRAGMA values of the primary connection of the provider's database.
+     * This method is restricted to being performed within the same package as the content
+     * provider.  Neither the arg nor extras are used.
+     *
+     * @see #callGetPragmas(Context, Uri)
+     */
+    @NonNull
+    public static final String METHOD_GET_PRAGMAS
+            = "com.twofortyfouram.memento.method.GET_PRAGMAS"; //$NON-NLS
+
+    /**
+     * Effective journal mode, in lower case as reported by SQLite.  For example "wal".
+     */
+    @NonNull
+    public static final String RESULT_EXTRA_STRING_JOURNAL_MODE
+            = "com.twofortyfouram.memento.extra.STRING_JOURNAL_MODE"; //$NON-NLS
+
+    /**
+     * Effective synchronous level, where 0 is OFF, 1 is NORMAL, 2 is FULL, and 3 is EXTRA.
+     */
+    @NonNull
+    public static final String RESULT_EXTRA_INT_SYNCHRONOUS
+            = "com.twofortyfouram.memento.extra.INT_SYNCHRONOUS"; //$NON-NLS
+
+    /**
+     * Effective maximum memory-mapped I/O size in bytes.
+     */
+    @NonNull
+    public static final String RESULT_EXTRA_LONG_MMAP_SIZE
+            = "com.twofortyfouram.memento.extra.LONG_MMAP_SIZE"; //$NON-NLS
+
+    /**
+     * Effective cache size, in pages if positive or in KiB if negative.
+     */
+    @NonNull
+    public static final String RESULT_EXTRA_LONG_CACHE_SIZE
+            = "com.twofortyfouram.memento.extra.LONG_CACHE_SIZE"; //$NON-NLS
+
+    /**
+     * Effective temp store, where 0 is DEFAULT, 1 is FILE, and 2 is MEMORY.
+     */
+    @NonNull
+    public static final String RESULT_EXTRA_INT_TEMP_STORE
+            = "com.twofortyfouram.memento.extra.INT_TEMP_STORE"; //$NON-NLS
+
+    /**
+     * Effective WAL auto-checkpoint threshold in pages.
+     */
+    @NonNull
+    public static final String RESULT_EXTRA_INT_WAL_AUTOCHECKPOINT
+            = "com.twofortyfouram.memento.extra.INT_WAL_AUTOCHECKPOINT"; //$NON-NLS
+
+    /**
+     * Effective page size in bytes.
+     */
+    @NonNull
+    public static final String RESULT_EXTRA_INT_PAGE_SIZE
+            = "com.twofortyfouram.memento.extra.INT_PAGE_SIZE"; //$NON-NLS
+
+    /**
+     * Effective locking mode, in lower case as reported by SQLite.  For example "normal".
+     */
+    @NonNull
+    public static final String RESULT_EXTRA_STRING_LOCKING_MODE
+            = "com.twofortyfouram.memento.extra.STRING_LOCKING_MODE"; //$NON-NLS
+
+    /**
+     * True if the values of this contract only apply to the primary connection, because
+     * write-ahead logging is enabled and the Android framework reads on additional connections.
+     */
+    @NonNull
+    public static final String RESULT_EXTRA_BOOLEAN_IS_PRIMARY_CONNECTION_ONLY
+            = "com.twofortyfouram.memento.extra.BOOLEAN_IS_PRIMARY_CONNECTION_ONLY"; //$NON-NLS
+
+    /**
+     * Reads the effective PRAGMA values of the provider at {@code authority}.
+     * <p>
+     * This method is restricted to being performed within the same package as the content provider.
+     *
+     * @param context   Application context.
+     * @param authority Uri of the provider's authority.
+     * @return Bundle containing the {@code RESULT_EXTRA_*} keys of this contract, or null if the
+     * provider does not support this method.
+     */
+    @Nullable
+    @Slow(Slow.Speed.MILLISECONDS)
+    public static Bundle callGetPragmas(@NonNull final Context context,
+                                        @NonNull final Uri authority) {
+        assertNotNull(context, "context"); //$NON-NLS
+        assertNotNull(authority, "authority"); //$NON-NLS
+
+        @NonNull final Context ctx = ContextUtil.cleanContext(context);
+
+        return ctx.getContentResolver().call(authority, METHOD_GET_PRAGMAS, null, null);
+    }
+
+    /**
+     * Private constructor prevents instantiation.
+     *
+     * @throws UnsupportedOperationException because this class cannot be instantiated.
+     */
+    private PragmaContract() {
+        throw new UnsupportedOperationException("This class is non-instantiable"); //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.contract;
+
+import android.content.ContentProvider;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.CursorWindow;
+import android.database.MergeCursor;
+import android.net.Uri;
+import android.os.Bundle;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.Size;
+import com.twofortyfouram.annotation.Incubating;
+import com.twofortyfouram.annotation.Slow;
+import com.twofortyfouram.memento.internal.CursorWindowCursor;
+import com.twofortyfouram.spackle.ContextUtil;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.twofortyfouram.assertion.Assertions.assertNoNullElements;
+import static com.twofortyfouram.assertion.Assertions.assertNotEmpty;
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Contract for running several queries in a single read transaction with a single
+ * {@link ContentProvider#call(String, String, Bundle)}, so that the results are consistent with
+ * each other and only one round trip is made.
+ * <p>
+ * Queries are described by Bundles created with {@link #newCursorQuery(Uri, String[], String,
+ * String[], String)} or {@link #newLongQuery(Uri, String[], String, String[], String)}.  Results
+ * are returned in the same order, and are read with {@link #getCursor(Bundle)} or
+ * {@link #getLong(Bundle)} respectively.
+ * <p>
+ * Cursor results are returned in full as {@link CursorWindow}s, so this is intended for the small
+ * to medium result sets needed to render a screen rather than for paging through large tables.
+ */
+@ThreadSafe
+@Incubating
+public final class SnapshotContract {
+
+    /**
+     * Method supported by the {@link ContentProvider#call(String, String, Bundle)} interface for
+     * running a list of queries in a single read transaction.  This method is restricted to being
+     * performed within the same package as the content provider.
+     *
+     * @see #EXTRA_ARRAY_LIST_OF_BUNDLE_QUERIES
+     * @see #RESULT_EXTRA_ARRAY_LIST_OF_BUNDLE_RESULTS
+     * @see #callQuerySnapshot(Context, Uri, ArrayList)
+     */
+    @NonNull
+    public static final String METHOD_QUERY_SNAPSHOT
+            = "com.twofortyfouram.memento.method.QUERY_SNAPSHOT"; //$NON-NLS
+
+    /**
+     * Type: {@code ArrayList<Bundle>}.
+     * <p>
+     * Queries to run.
+     */
+    @NonNull
+    public static final String EXTRA_ARRAY_LIST_OF_BUNDLE_QUERIES
+            = "com.twofortyfouram.memento.extra.ARRAY_LIST_OF_BUNDLE_QUERIES"; //$NON-NLS
+
+    /**
+     * Type: {@code ArrayList<Bundle>}.
+     * <p>
+     * Results of the queries, in the same order as
+     * {@link #EXTRA_ARRAY_LIST_OF_BUNDLE_QUERIES}.
+     */
+    @NonNull
+    public static final String RESULT_EXTRA_ARRAY_LIST_OF_BUNDLE_RESULTS
+            = "com.twofortyfouram.memento.extra.ARRAY_LIST_OF_BUNDLE_RESULTS"; //$NON-NLS
+
+    /**
+     * Type: {@code Uri}.
+     */
+    @NonNull
+    public static final String QUERY_EXTRA_PARCELABLE_URI
+            = "com.twofortyfouram.memento.extra.PARCELABLE_URI"; //$NON-NLS
+
+    /**
+     * Type: {@code String[]}.
+     */
+    @NonNull
+    public static final String QUERY_EXTRA_STRING_ARRAY_PROJECTION
+            = "com.twofortyfouram.memento.extra.STRING_ARRAY_PROJECTION"; //$NON-NLS
+
+    /**
+     * Type: {@code String}.
+     */
+    @NonNull
+    public static final String QUERY_EXTRA_STRING_SELECTION
+            = "com.twofortyfouram.memento.extra.STRING_SELECTION"; //$NON-NLS
+
+    /**
+     * Type: {@code String[]}.
+     */
+    @NonNull
+    public static final String QUERY_EXTRA_STRING_ARRAY_SELECTION_ARGS
+            = "com.twofortyfouram.memento.extra.STRING_ARRAY_SELECTION_ARGS"; //$NON-NLS
+
+    /**
+     * Type: {@code String}.
+     */
+    @NonNull
+    public static final String QUERY_EXTRA_STRING_SORT_ORDER
+            = "com.twofortyfouram.memento.extra.STRING_SORT_ORDER"; //$NON-NLS
+
+    /**
+     * Type: {@code boolean}.
+     * <p>
+     * True if only the first column of the first row is returned, as a long.
+     */
+    @NonNull
+    public static final String QUERY_EXTRA_BOOLEAN_IS_LONG
+            = "com.twofortyfouram.memento.extra.BOOLEAN_IS_LONG"; //$NON-NLS
+
+    /**
+     * Type: {@code String[]}.
+     * <p>
+     * Column names of a Cursor result.
+     */
+    @NonNull
+    public static final String RESULT_EXTRA_STRING_ARRAY_COLUMN_NAMES
+            = "com.twofortyfouram.memento.extra.STRING_ARRAY_COLUMN_NAMES"; //$NON-NLS
+
+    /**
+     * Type: {@code ArrayList<CursorWindow>}.
+     * <p>
+     * Rows of a Cursor result.  Each window starts at position 0, and the windows are in order.
+     */
+    @NonNull
+    public static final String RESULT_EXTRA_ARRAY_LIST_OF_CURSOR_WINDOW_WINDOWS
+            = "com.twofortyfouram.memento.extra.ARRAY_LIST_OF_CURSOR_WINDOW_WINDOWS"; //$NON-NLS
+
+    /**
+     * Type: {@code long}.
+     * <p>
+     * Value of a long result.  Absent if the query returned no rows or a null value.
+     */
+    @NonNull
+    public static final String RESULT_EXTRA_LONG_VALUE
+            = "com.twofortyfouram.memento.extra.LONG_VALUE"; //$NON-NLS
+
+    /**
+     * @return A query whose result is read with {@link #getCursor(Bundle)}.
+     */
+    @NonNull
+    public static Bundle newCursorQuery(@NonNull final Uri uri,
+                                        @Nullable final String[] projection,
+                                        @Nullable final String selection,
+                                        @Nullable final String[] selectionArgs,
+                                        @Nullable final String sortOrder) {
+        return newQuery(uri, projection, selection, selectionArgs, sortOrder, false);
+    }
+
+    /**
+     * For example, a query with the projection {@code _count} returns the count of rows.
+     *
+     * @return A query whose result is read with {@link #getLong(Bundle)}.
+     */
+    @NonNull
+    public static Bundle newLongQuery(@NonNull final Uri uri,
+                                      @Nullable final String[] projection,
+                                      @Nullable final String selection,
+                                      @Nullable final String[] selectionArgs,
+                                      @Nullable final String sortOrder) {
+        return newQuery(uri, projection, selection, selectionArgs, sortOrder, true);
+    }
+
+    @NonNull
+    private static Bundle newQuery(@NonNull final Uri uri,
+                                   @Nullable final String[] projection,
+                                   @Nullable final String selection,
+                                   @Nullable final String[] selectionArgs,
+                                   @Nullable final String sortOrder,
+                                   final boolean isLong) {
+        assertNotNull(uri, "uri"); //$NON-NLS
+
+        @NonNull final Bundle query = new Bundle();
+        query.putParcelable(QUERY_EXTRA_PARCELABLE_URI, uri);
+        query.putStringArray(QUERY_EXTRA_STRING_ARRAY_PROJECTION, projection);
+        query.putString(QUERY_EXTRA_STRING_SELECTION, selection);
+        query.putStringArray(QUERY_EXTRA_STRING_ARRAY_SELECTION_ARGS, selectionArgs);
+        query.putString(QUERY_EXTRA_STRING_SORT_ORDER, sortOrder);
+        query.putBoolean(QUERY_EXTRA_BOOLEAN_IS_LONG, isLong);
+
+        return query;
+    }
+
+    /**
+     * Runs {@code queries} in a single read transaction.
+     * <p>
+     * This method is restricted to being performed within the same package as the content provider.
+     *
+     * @param context   Application context.
+     * @param authority Uri of the provider's authority.
+     * @param queries   Queries to run.
+     * @return Results, in the same order as {@code queries}.  Each Cursor result must be passed to
+     * {@link #getCursor(Bundle)} exactly once, as that transfers ownership of its windows.
+     */
+    @NonNull
+    @Slow(Slow.Speed.MILLISECONDS)
+    public static List<Bundle> callQuerySnapshot(@NonNull final Context context,
+                                                 @NonNull final Uri authority,
+                                                 @NonNull @Size(min = 1) final ArrayList<Bundle> queries) {
+        assertNotNull(context, "context"); //$NON-NLS
+        assertNotNull(authority, "authority"); //$NON-NLS
+        assertNotEmpty(queries, "queries"); //$NON-NLS
+        assertNoNullElements(queries, "queries"); //$NON-NLS
+
+        @NonNull final Context ctx = ContextUtil.cleanContext(context);
+
+        @NonNull final Bundle extras = new Bundle();
+        extras.putParcelableArrayList(EXTRA_ARRAY_LIST_OF_BUNDLE_QUERIES, queries);
+
+        @Nullable final Bundle result = ctx.getContentResolver().call(authority,
+                METHOD_QUERY_SNAPSHOT, null, extras);
+        if (null == result) {
+            throw new IllegalStateException("Provider does not support snapshot queries"); //$NON-NLS
+        }
+
+        return assertNotNull(result.<Bundle>getParcelableArrayList(
+                RESULT_EXTRA_ARRAY_LIST_OF_BUNDLE_RESULTS), "results"); //$NON-NLS
+    }
+
+    /**
+     * @param result Result of a query created with
+     *               {@link #newCursorQuery(Uri, String[], String, String[], String)}.
+     * @return A Cursor over the result, which the caller must close.
+     */
+    @NonNull
+    public static Cursor getCursor(@NonNull final Bundle result) {
+        assertNotNull(result, "result"); //$NON-NLS
+
+        @NonNull final String[] columnNames = assertNotNull(
+                result.getStringArray(RESULT_EXTRA_STRING_ARRAY_COLUMN_NAMES), "columnNames"); //$NON-NLS
+        @NonNull final ArrayList<CursorWindow> windows = assertNotNull(
+                result.<CursorWindow>getParcelableArrayList(
+                        RESULT_EXTRA_ARRAY_LIST_OF_CURSOR_WINDOW_WINDOWS), "windows"); //$NON-NLS
+
+        if (1 == windows.size()) {
+            return new CursorWindowCursor(columnNames, windows.get(0));
+        }
+
+        // An empty result still has one window, so this is only reached for large results
+        @NonNull final Cursor[] cursors = new Cursor[windows.size()];
+        for (int x = 0; x < cursors.length; x++) {
+            cursors[x] = new CursorWindowCursor(columnNames, windows.get(x));
+        }
+
+        return new MergeCursor(cursors);
+    }
+
+    /**
+     * @param result Result of a query created with
+     *               {@link #newLongQuery(Uri, String[], String, String[], String)}.
+     * @return The value of the first column of the first row, or null if there were no rows or
+     * the value was null.
+     */
+    @Nullable
+    public static Long getLong(@NonNull final Bundle result) {
+        assertNotNull(result, "result"); //$NON-NLS
+
+        return result.containsKey(RESULT_EXTRA_LONG_VALUE)
+                ? result.getLong(RESULT_EXTRA_LONG_VALUE) : null;
+    }
+
+    /**
+     * Private constructor prevents instantiation.
+     *
+     * @throws UnsupportedOperationException because this class cannot be instantiated.
+     */
+    private SnapshotContract() {
+        throw new UnsupportedOperationException("This class is non-instantiable"); //$NON-NLS-1$
+    }
+}
@@ -18,15 +18,20 @@
 package com.twofortyfouram.memento.contract;
 
 import android.content.ContentProvider;
+import android.content.ContentProviderClient;
+import android.content.ContentResolver;
 import android.content.Context;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.RemoteException;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import com.twofortyfouram.annotation.Incubating;
 import com.twofortyfouram.log.Lumberjack;
 import com.twofortyfouram.memento.api.BuildConfig;
+import com.twofortyfouram.memento.internal.ContentProviderClientCompat;
+import com.twofortyfouram.memento.internal.LocalTransactionRunner;
 import com.twofortyfouram.memento.util.Transactable;
 import com.twofortyfouram.spackle.ContextUtil;
 import net.jcip.annotations.ThreadSafe;
@@ -63,6 +68,12 @@ public final class TransactionContract {
             = "com.twofortyfouram.memento.extra.BUNDLE_ARGS"; //$NON-NLS
 
     /**
+     * If the provider runs in the calling process, {@code transactable} and {@code data} are
+     * handed to it directly, skipping the Bundle marshalling of
+     * {@link ContentResolver#call(Uri, String, String, Bundle)}.  In that case {@code data} is not
+     * copied, so changes made to it by {@code transactable} are visible to the caller.  Otherwise
+     * {@code transactable} is sent to the provider via {@link #METHOD_RUN_IN_TRANSACTION}.
+     *
      * @param context      Application context.
      * @param authority    Authority of the Content Provider.
      * @param transactable Transactable to execute.
@@ -81,9 +92,34 @@ public final class TransactionContract {
         assertNotNull(data, "data"); //$NON-NLS-1$
 
         @NonNull final Context ctx = ContextUtil.cleanContext(context);
+        @NonNull final ContentResolver resolver = ctx.getContentResolver();
+
+        @Nullable final ContentProviderClient client = resolver
+                .acquireContentProviderClient(authority);
+        if (null == client) {
+            // Let the resolver report the unknown authority
+            return resolver.call(authority, METHOD_RUN_IN_TRANSACTION, null,
+                    newCallBundle(transactable, data));
+        }
+
+        try {
+            @Nullable final ContentProvider localProvider = client.getLocalContentProvider();
+            if (localProvider instanceof LocalTransactionRunner) {
+                // Still checked, so that mistakes are caught before the provider is moved to another process
+                assertTransactableParcelable(transactable);
 
-        return ctx.getContentResolver().call(authority, METHOD_RUN_IN_TRANSACTION, null,
-                newCallBundle(transactable, data));
+                return ((LocalTransactionRunner) localProvider)
+                        .runLocalTransaction(transactable, data);
+            }
+
+            return client.call(METHOD_RUN_IN_TRANSACTION, null, newCallBundle(transactable, data));
+        } catch (final RemoteException e) {
+            // Consistent with ContentResolver.call(), as the provider's process has died
+            Lumberjack.w("Failed to run transaction %s", e); //$NON-NLS
+            return null;
+        } finally {
+            ContentProviderClientCompat.close(client);
+        }
     }
 
     @NonNull
@@ -93,6 +129,16 @@ public final class TransactionContract {
         assertNotNull(transactable, "transactable"); //$NON-NLS
         assertNotNull(dataBundle, "dataBundle"); //$NON-NLS
 
+        assertTransactableParcelable(transactable);
+
+        @NonNull final Bundle bundle = new Bundle();
+        bundle.putParcelable(EXTRA_BUNDLE_PARCELABLE_TRANSACTABLE, transactable);
+        bundle.putBundle(EXTRA_BUNDLE_TRANSACTABLE_DATA, dataBundle);
+
+        return bundle;
+    }
+
+    private static void assertTransactableParcelable(@NonNull final Transactable transactable) {
         /*
          * We don't want to run this all the time for production, but hopefully in debug it'll catch errors of non-static
          * Transactable objects.
@@ -115,12 +161,6 @@ public final class TransactionContract {
                 throw new AssertionError(Lumberjack.formatMessage("%s is missing CREATOR", transactableClass.getName())); //$NON-NLS
             }
         }
-
-        @NonNull final Bundle bundle = new Bundle();
-        bundle.putParcelable(EXTRA_BUNDLE_PARCELABLE_TRANSACTABLE, transactable);
-        bundle.putBundle(EXTRA_BUNDLE_TRANSACTABLE_DATA, dataBundle);
-
-        return bundle;
     }
 
     private TransactionContract() {
@@ -0,0 +1,140 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.contract;
+
+import android.content.ComponentCallbacks2;
+import android.content.ContentProvider;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.Debug;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.twofortyfouram.annotation.Incubating;
+import com.twofortyfouram.annotation.Slow;
+import com.twofortyfouram.spackle.ContextUtil;
+import net.jcip.annotations.ThreadSafe;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Contract for reporting metrics of how a Memento provider released memory in response to
+ * {@link ComponentCallbacks2#onTrimMemory(int)}.
+ * <p>
+ * The result of {@link #METHOD_GET_TRIM_MEMORY_METRICS} contains one Bundle per tier, keyed by
+ * the {@code TIER_*} constants.  Each of those Bundles contains the {@code EXTRA_LONG_*} keys of
+ * this contract.  Metrics are kept in memory, so they reset when the provider's process restarts.
+ */
+@ThreadSafe
+@Incubating
+public final class TrimMemoryContract {
+
+    /**
+     * Method supported by the {@link ContentProvider#call(String, String, Bundle)} interface for
+     * reading trim memory metrics.  This method is restricted to being performed within the same
+     * package as the content provider.  Neither the arg nor extras are used.
+     *
+     * @see #callGetTrimMemoryMetrics(Context, Uri)
+     */
+    @NonNull
+    public static final String METHOD_GET_TRIM_MEMORY_METRICS
+            = "com.twofortyfouram.memento.method.GET_TRIM_MEMORY_METRICS"; //$NON-NLS
+
+    /**
+     * Tier that runs {@code PRAGMA shrink_memory}.
+     */
+    @NonNull
+    public static final String TIER_SHRINK = "shrink"; //$NON-NLS
+
+    /**
+     * Tier that, in addition to {@link #TIER_SHRINK}, clears the statement caches of the
+     * connection pool and releases unused SQLite memory of the process.
+     */
+    @NonNull
+    public static final String TIER_RELEASE = "release"; //$NON-NLS
+
+    /**
+     * Number of times the tier ran.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_RUN_COUNT
+            = "com.twofortyfouram.memento.extra.LONG_RUN_COUNT"; //$NON-NLS
+
+    /**
+     * Total time spent running the tier.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_TOTAL_DURATION_MILLIS
+            = "com.twofortyfouram.memento.extra.LONG_TOTAL_DURATION_MILLIS"; //$NON-NLS
+
+    /**
+     * Time spent by the last run of the tier.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_LAST_DURATION_MILLIS
+            = "com.twofortyfouram.memento.extra.LONG_LAST_DURATION_MILLIS"; //$NON-NLS
+
+    /**
+     * Decrease of {@link Debug#getNativeHeapAllocatedSize()} over the last run of the tier.  The
+     * native heap is shared by the whole process, so this is approximate and may be negative if
+     * other threads allocated concurrently.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_LAST_NATIVE_HEAP_BYTES_RELEASED
+            = "com.twofortyfouram.memento.extra.LONG_LAST_NATIVE_HEAP_BYTES_RELEASED"; //$NON-NLS
+
+    /**
+     * Number of bytes that SQLite reported releasing in the last run of the tier, which is
+     * always 0 for {@link #TIER_SHRINK} because {@code PRAGMA shrink_memory} doesn't report it.
+     */
+    @NonNull
+    public static final String EXTRA_LONG_LAST_SQLITE_BYTES_RELEASED
+            = "com.twofortyfouram.memento.extra.LONG_LAST_SQLITE_BYTES_RELEASED"; //$NON-NLS
+
+    /**
+     * Reads the trim memory metrics of the provider at {@code authority}.
+     * <p>
+     * This method is restricted to being performed within the same package as the content provider.
+     *
+     * @param context   Application context.
+     * @param authority Uri of the provider's authority.
+     * @return Bundle of metrics as described by this contract, or null if the provider does not
+     * support this method.
+     */
+    @Nullable
+    @Slow(Slow.Speed.MILLISECONDS)
+    public static Bundle callGetTrimMemoryMetrics(@NonNull final Context context,
+                                                  @NonNull final Uri authority) {
+        assertNotNull(context, "context"); //$NON-NLS
+        assertNotNull(authority, "authority"); //$NON-NLS
+
+        @NonNull final Context ctx = ContextUtil.cleanContext(context);
+
+        return ctx.getContentResolver().call(authority, METHOD_GET_TRIM_MEMORY_METRICS, null,
+                null);
+    }
+
+    /**
+     * Private constructor prevents instantiation.
+     *
+     * @throws UnsupportedOperationException because this class cannot be instantiated.
+     */
+    private TrimMemoryContract() {
+        throw new UnsupportedOperationException("This class is non-instantiable"); //$NON-NLS-1$
+    }
+}
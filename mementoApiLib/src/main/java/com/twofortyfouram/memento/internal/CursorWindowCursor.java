@@ -0,0 +1,68 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.internal;
+
+import android.database.AbstractWindowedCursor;
+import android.database.CursorWindow;
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+import net.jcip.annotations.NotThreadSafe;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * A read-only Cursor over the rows of a single {@link CursorWindow}.  Closing the Cursor closes
+ * the window.
+ */
+@NotThreadSafe
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public final class CursorWindowCursor extends AbstractWindowedCursor {
+
+    @NonNull
+    private final String[] mColumnNames;
+
+    /**
+     * @param columnNames Names of the columns in {@code window}.
+     * @param window      Window whose start position is 0.  Ownership is transferred to this
+     *                    Cursor.
+     */
+    public CursorWindowCursor(@NonNull final String[] columnNames,
+                              @NonNull final CursorWindow window) {
+        assertNotNull(columnNames, "columnNames"); //$NON-NLS
+        assertNotNull(window, "window"); //$NON-NLS
+
+        if (0 != window.getStartPosition()) {
+            throw new IllegalArgumentException("window must start at position 0"); //$NON-NLS
+        }
+
+        mColumnNames = columnNames.clone();
+        setWindow(window);
+    }
+
+    @Override
+    public int getCount() {
+        return mWindow.getNumRows();
+    }
+
+    @Override
+    public String[] getColumnNames() {
+        // Not copied, because AbstractCursor calls this for every column lookup
+        //noinspection ReturnOfCollectionOrArrayField
+        return mColumnNames;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.internal;
+
+import android.os.Bundle;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import com.twofortyfouram.memento.util.Transactable;
+
+/**
+ * Implemented by a ContentProvider that can run a {@link Transactable} handed to it directly by a
+ * caller in the same process, without marshalling the {@link Transactable} into a Bundle.
+ * <p>
+ * This is not part of the public API of the library.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public interface LocalTransactionRunner {
+
+    /**
+     * @param transactable Transactable to execute.
+     * @param data         Data argument for {@code transactable}.  This is not copied, so
+     *                     {@code transactable} sees the caller's instance.
+     * @return The result of {@code transactable}.
+     */
+    @Nullable
+    Bundle runLocalTransaction(@NonNull Transactable transactable, @NonNull Bundle data);
+}
@@ -18,6 +18,7 @@
 package com.twofortyfouram.memento.internal;
 
 import android.app.SearchManager;
+import android.database.sqlite.SQLiteDatabase;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
@@ -27,6 +28,7 @@ import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 
 import com.twofortyfouram.log.Lumberjack;
+import com.twofortyfouram.memento.contract.ChangeLogContract;
 import com.twofortyfouram.memento.contract.MementoContract;
 import com.twofortyfouram.spackle.AndroidSdkVersion;
 
@@ -82,6 +84,192 @@ public final class QueryStringUtil {
         return queryStringParam;
     }
 
+    /**
+     * @param uri URI to check for {@link MementoContract#QUERY_STRING_SEARCH_QUERY}.
+     * @return The full-text search query, or null if {@code uri} doesn't have a non-empty query.
+     */
+    @Nullable
+    public static String getSearchQuery(@NonNull final Uri uri) {
+        assertNotNull(uri, "uri"); //$NON-NLS
+
+        @Nullable final String queryStringParam = getQueryString(uri,
+                MementoContract.QUERY_STRING_SEARCH_QUERY);
+
+        if (null == queryStringParam || 0 == queryStringParam.length()) {
+            return null;
+        }
+
+        return queryStringParam;
+    }
+
+    /**
+     * @param uri URI to check for {@link MementoContract#QUERY_STRING_IDS}.
+     * @return The ids, or null if {@code uri} doesn't have any.
+     * @throws IllegalArgumentException If the ids are not a comma separated list of longs.  Unlike
+     *                                  other parameters, invalid ids are not ignored because that
+     *                                  would select every row.
+     */
+    @Nullable
+    public static long[] getIds(@NonNull final Uri uri) {
+        assertNotNull(uri, "uri"); //$NON-NLS
+
+        @Nullable final String queryStringParam = getQueryString(uri,
+                MementoContract.QUERY_STRING_IDS);
+
+        if (null == queryStringParam) {
+            return null;
+        }
+
+        @NonNull final String[] segments = queryStringParam.split(",", -1); //$NON-NLS
+        @NonNull final long[] ids = new long[segments.length];
+        try {
+            for (int x = 0; x < segments.length; x++) {
+                ids[x] = Long.parseLong(segments[x]);
+            }
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException(Lumberjack.formatMessage(
+                    "%s is not a valid list of ids", queryStringParam), e); //$NON-NLS
+        }
+
+        return ids;
+    }
+
+    /**
+     * @param uri URI to check for {@link MementoContract#QUERY_STRING_CONFLICT_ALGORITHM}.
+     * @return The conflict algorithm, or null if {@code uri} doesn't have one.  If a non-parsable
+     * value or an out of bounds value, this method will return null.
+     */
+    @Nullable
+    public static Integer getConflictAlgorithm(@NonNull final Uri uri) {
+        assertNotNull(uri, "uri"); //$NON-NLS
+
+        @Nullable final String queryStringParam = getQueryString(uri,
+                MementoContract.QUERY_STRING_CONFLICT_ALGORITHM);
+
+        if (null == queryStringParam) {
+            return null;
+        }
+
+        final int intParam;
+        try {
+            intParam = Integer.parseInt(queryStringParam);
+        } catch (final NumberFormatException e) {
+            Lumberjack.e("%s is not a valid int", queryStringParam); //$NON-NLS
+
+            return null;
+        }
+
+        if (intParam < SQLiteDatabase.CONFLICT_NONE || intParam > SQLiteDatabase.CONFLICT_REPLACE) {
+            Lumberjack.e("%d is not a valid conflict algorithm", intParam); //$NON-NLS
+
+            return null;
+        }
+
+        return intParam;
+    }
+
+    /**
+     * @param uri URI to check for {@link MementoContract#QUERY_STRING_TIME_RANGE_START}.
+     * @return The start of the time range, or null if {@code uri} doesn't have one.
+     * @throws IllegalArgumentException If the value is not a long.  Like ids, an invalid range is
+     *                                  not ignored because that would select every row.
+     */
+    @Nullable
+    public static Long getTimeRangeStart(@NonNull final Uri uri) {
+        assertNotNull(uri, "uri"); //$NON-NLS
+
+        return getQueryStringLong(uri, MementoContract.QUERY_STRING_TIME_RANGE_START);
+    }
+
+    /**
+     * @param uri URI to check for {@link MementoContract#QUERY_STRING_TIME_RANGE_END}.
+     * @return The end of the time range, or null if {@code uri} doesn't have one.
+     * @throws IllegalArgumentException If the value is not a long.
+     */
+    @Nullable
+    public static Long getTimeRangeEnd(@NonNull final Uri uri) {
+        assertNotNull(uri, "uri"); //$NON-NLS
+
+        return getQueryStringLong(uri, MementoContract.QUERY_STRING_TIME_RANGE_END);
+    }
+
+    /**
+     * @param uri URI to check for {@link ChangeLogContract#QUERY_STRING_SINCE}.
+     * @return The sequence number after which to return change log entries, or 0 if {@code uri}
+     * doesn't have one.
+     * @throws IllegalArgumentException If the value is not a long.
+     */
+    public static long getChangesSince(@NonNull final Uri uri) {
+        assertNotNull(uri, "uri"); //$NON-NLS
+
+        @Nullable final Long since = getQueryStringLong(uri, ChangeLogContract.QUERY_STRING_SINCE);
+
+        return null == since ? 0 : since;
+    }
+
+    /**
+     * @param uri URI to check for {@link MementoContract#QUERY_STRING_BOUNDING_BOX}.
+     * @return The minimum x, maximum x, minimum y, and maximum y of the box, or null if
+     * {@code uri} doesn't have one.
+     * @throws IllegalArgumentException If the value is not four finite numbers, or a minimum is
+     *                                  greater than its maximum.
+     */
+    @Nullable
+    public static double[] getBoundingBox(@NonNull final Uri uri) {
+        assertNotNull(uri, "uri"); //$NON-NLS
+
+        @Nullable final String queryStringParam = getQueryString(uri,
+                MementoContract.QUERY_STRING_BOUNDING_BOX);
+
+        if (null == queryStringParam) {
+            return null;
+        }
+
+        @NonNull final String[] segments = queryStringParam.split(",", -1); //$NON-NLS
+        if (4 != segments.length) {
+            throw new IllegalArgumentException(Lumberjack.formatMessage(
+                    "%s is not a valid bounding box", queryStringParam)); //$NON-NLS
+        }
+
+        @NonNull final double[] box = new double[segments.length];
+        try {
+            for (int x = 0; x < segments.length; x++) {
+                box[x] = Double.parseDouble(segments[x]);
+
+                // The box is inlined into SQL, where NaN and infinity are not valid literals
+                if (Double.isNaN(box[x]) || Double.isInfinite(box[x])) {
+                    throw new NumberFormatException();
+                }
+            }
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException(Lumberjack.formatMessage(
+                    "%s is not a valid bounding box", queryStringParam), e); //$NON-NLS
+        }
+
+        if (box[0] > box[1] || box[2] > box[3]) {
+            throw new IllegalArgumentException(Lumberjack.formatMessage(
+                    "%s is not a valid bounding box", queryStringParam)); //$NON-NLS
+        }
+
+        return box;
+    }
+
+    @Nullable
+    private static Long getQueryStringLong(@NonNull final Uri uri, @NonNull final String key) {
+        @Nullable final String queryStringParam = getQueryString(uri, key);
+
+        if (null == queryStringParam) {
+            return null;
+        }
+
+        try {
+            return Long.valueOf(queryStringParam);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException(Lumberjack.formatMessage(
+                    "%s is not a valid long for %s", queryStringParam, key), e); //$NON-NLS
+        }
+    }
+
     private static boolean getQueryStringBoolean(@NonNull final Uri uri, @NonNull final String key,
             final boolean defaultValue) {
 
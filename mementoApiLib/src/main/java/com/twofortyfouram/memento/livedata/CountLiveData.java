@@ -18,22 +18,35 @@
 package com.twofortyfouram.memento.livedata;
 
 import android.content.Context;
-import android.database.ContentObserver;
 import android.net.Uri;
 import android.os.AsyncTask;
-import android.os.Handler;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.os.SystemClock;
 import androidx.annotation.*;
 import androidx.lifecycle.LiveData;
 import com.twofortyfouram.annotation.Incubating;
 import com.twofortyfouram.memento.api.BuildConfig;
 import com.twofortyfouram.memento.contract.BaseColumnsContract;
+import com.twofortyfouram.memento.contract.ChangePayloadContract;
+import com.twofortyfouram.memento.util.ContentObserverHub;
 import com.twofortyfouram.spackle.ContextUtil;
 import net.jcip.annotations.NotThreadSafe;
 
+import java.util.List;
+import java.util.concurrent.Executor;
+
 import static com.twofortyfouram.assertion.Assertions.assertNotNull;
 
 /**
  * Queries on a background thread and emits a count.
+ * <p>
+ * If change notifications carry a payload as per {@link ChangePayloadContract}, the count is
+ * adjusted locally instead of being requeried.  A full recount occurs if a payload is missing,
+ * refers to a different Uri, the count has a selection, or the change may already be reflected in
+ * the current count because it started before that count was published.
+ * <p>
+ * Queries are executed and canceled as described in {@link CursorLiveData}.
  */
 @NotThreadSafe
 @Incubating
@@ -44,6 +57,9 @@ public final class CountLiveData extends LiveData<Integer> {
 
     private final boolean mIsAsync;
 
+    @NonNull
+    private final Executor mExecutor;
+
     @NonNull
     private final Uri mUri;
 
@@ -54,10 +70,16 @@ public final class CountLiveData extends LiveData<Integer> {
     private final String[] mSelectionArgs;
 
     @Nullable
-    private ContentObserver mContentObserver = null;
+    private ContentObserverHub.Listener mChangeListener = null;
 
     @Nullable
-    private AsyncTask<Void, Void, Integer> mAsyncTask = null;
+    private LoadAsyncTask mAsyncTask = null;
+
+    /**
+     * {@link SystemClock#elapsedRealtime()} at which the most recent count was published, which
+     * is no earlier than when that count was read.
+     */
+    private long mLastLoadRealTimeMillis = 0;
 
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     @VisibleForTesting(otherwise = VisibleForTesting.PROTECTED)
@@ -65,12 +87,22 @@ public final class CountLiveData extends LiveData<Integer> {
                          @NonNull final Uri uri,
                          @Nullable final String selection,
                          @Nullable final String[] selectionArgs) {
+        this(context, isAsync, AsyncTask.SERIAL_EXECUTOR, uri, selection, selectionArgs);
+    }
+
+    private CountLiveData(@NonNull final Context context, final boolean isAsync,
+                          @NonNull final Executor executor,
+                          @NonNull final Uri uri,
+                          @Nullable final String selection,
+                          @Nullable final String[] selectionArgs) {
         assertNotNull(context, "context"); //$NON-NLS
+        assertNotNull(executor, "executor"); //$NON-NLS
         assertNotNull(uri, "uri"); //$NON-NLS
 
         mContext = ContextUtil.cleanContext(context);
 
         mIsAsync = isAsync;
+        mExecutor = executor;
 
         mUri = uri;
         mSelection = selection;
@@ -90,17 +122,26 @@ public final class CountLiveData extends LiveData<Integer> {
         this(context, true, uri, null, null);
     }
 
+    public CountLiveData(@NonNull final Context context,
+                         @NonNull final Executor executor,
+                         @NonNull final Uri uri,
+                         @Nullable final String selection,
+                         @Nullable final String[] selectionArgs) {
+        this(context, true, executor, uri, selection, selectionArgs);
+    }
+
     @Override
     protected void onActive() {
         super.onActive();
 
         try {
-            mContentObserver = new ContentObserverImpl(new Handler());
-            mContext.getContentResolver().registerContentObserver(mUri, true, mContentObserver);
+            mChangeListener = new ChangeListenerImpl();
+            ContentObserverHub.getInstance(mContext.getContentResolver())
+                    .register(mUri, mChangeListener);
         } catch (final SecurityException e) {
             if (BuildConfig.DEBUG) {
                 // Eat exception for automated tests
-                mContentObserver = null;
+                mChangeListener = null;
             } else {
                 throw e;
             }
@@ -113,68 +154,163 @@ public final class CountLiveData extends LiveData<Integer> {
     protected void onInactive() {
         super.onInactive();
 
-        if (null != mContentObserver) {
-            mContext.getContentResolver().unregisterContentObserver(mContentObserver);
+        if (null != mChangeListener) {
+            ContentObserverHub.getInstance(mContext.getContentResolver())
+                    .unregister(mChangeListener);
         }
+
+        cancelLoad();
     }
 
     private void loadData() {
         if (mIsAsync) {
-            mAsyncTask = new LoadAsyncTask().execute();
+            cancelLoad();
+
+            mAsyncTask = new LoadAsyncTask();
+            mAsyncTask.executeOnExecutor(mExecutor);
         }
         else {
-            onPostExecute(doInBackground());
+            onPostExecute(doInBackground(null));
+        }
+    }
+
+    private void cancelLoad() {
+        if (null != mAsyncTask) {
+            mAsyncTask.cancelLoad();
+            mAsyncTask = null;
         }
     }
 
+    /**
+     * @param cancellationSignal Optional signal to cancel the query.
+     * @return The count, or null if the query was canceled.
+     */
     @Nullable
     @WorkerThread
-    private Integer doInBackground() {
-
-        if (null == mSelection || null == mSelectionArgs) {
-            return BaseColumnsContract.getCountForUri(mContext.getContentResolver(), mUri);
-        }
-        else {
-            return BaseColumnsContract.getCountForUri(mContext.getContentResolver(), mUri, mSelection, mSelectionArgs);
+    private Integer doInBackground(@Nullable final CancellationSignal cancellationSignal) {
+        try {
+            if (null == mSelection || null == mSelectionArgs) {
+                return BaseColumnsContract.getCountForUri(mContext.getContentResolver(), mUri, null, null, cancellationSignal);
+            }
+            else {
+                return BaseColumnsContract.getCountForUri(mContext.getContentResolver(), mUri, mSelection, mSelectionArgs, cancellationSignal);
+            }
+        } catch (final OperationCanceledException e) {
+            return null;
         }
     }
 
     @MainThread
     private void onPostExecute(@NonNull final Integer count) {
+        mLastLoadRealTimeMillis = SystemClock.elapsedRealtime();
         setValue(count);
     }
 
+    /**
+     * @param uris Changed Uris.
+     */
+    @MainThread
+    @VisibleForTesting(otherwise = VisibleForTesting.PRIVATE)
+    /*package*/ void onChange(@NonNull final List<Uri> uris) {
+        @Nullable final Integer rowDelta = getRowDelta(uris);
+        if (null == rowDelta) {
+            loadData();
+        } else if (0 != rowDelta) {
+            setValue(getValue() + rowDelta);
+        }
+    }
+
     @NotThreadSafe
+    private final class ChangeListenerImpl implements ContentObserverHub.Listener {
+
+        @Override
+        public void onChange(@NonNull final List<Uri> uris) {
+            CountLiveData.this.onChange(uris);
+        }
+    }
+
+    /**
+     * Determines whether the count can be adjusted locally rather than requeried.
+     *
+     * @param uris Changed Uris.
+     * @return The net row delta of {@code uris}, or null if a full recount is needed.
+     */
+    @Nullable
     @MainThread
-    private final class ContentObserverImpl extends ContentObserver {
+    private Integer getRowDelta(@NonNull final List<Uri> uris) {
+        // Payload deltas only describe the table as a whole, so they don't apply to a selection.
+        // An in flight query may or may not already reflect the change.
+        // Notifications are delivered asynchronously, so a change may also be reported after a
+        // count that already includes it.  A delta is only applied if the change started after
+        // the last count was published; otherwise the count is reloaded.
+        if (null != mSelection || null != mAsyncTask || null == getValue()) {
+            return null;
+        }
+
+        int result = 0;
+        for (@NonNull final Uri uri : uris) {
+            @Nullable final Integer rowDelta = ChangePayloadContract.getRowDelta(uri);
+            if (null == rowDelta || !isSameTable(uri)) {
+                return null;
+            }
+
+            @Nullable final Long changeRealTimeMillis = ChangePayloadContract
+                    .getChangeRealTimeMillis(uri);
+            if (null == changeRealTimeMillis || changeRealTimeMillis <= mLastLoadRealTimeMillis) {
+                return null;
+            }
 
-        /**
-         * Creates a content observer.
-         *
-         * @param handler The handler to run {@link #onChange} on, or null if none.
-         */
-        public ContentObserverImpl(Handler handler) {
-            super(handler);
+            result += rowDelta;
         }
 
-        @Override
-        public void onChange(boolean selfChange, Uri uri) {
-            super.onChange(selfChange, uri);
+        if (0 > getValue() + result) {
+            return null;
+        }
 
-            loadData();
+        return result;
+    }
+
+    /**
+     * @param uri Changed Uri.
+     * @return True if {@code uri}, ignoring query parameters, is the Uri being counted or a row of
+     * it.
+     */
+    private boolean isSameTable(@NonNull final Uri uri) {
+        if (!mUri.getAuthority().equals(uri.getAuthority())) {
+            return false;
+        }
+
+        @NonNull final List<String> segments = mUri.getPathSegments();
+        @NonNull final List<String> changedSegments = uri.getPathSegments();
+        if (changedSegments.size() == segments.size() + 1) {
+            return changedSegments.subList(0, segments.size()).equals(segments);
         }
+
+        return changedSegments.equals(segments);
     }
 
     @NotThreadSafe
     private final class LoadAsyncTask extends AsyncTask<Void, Void, Integer> {
 
+        @NonNull
+        private final CancellationSignal mCancellationSignal = new CancellationSignal();
+
+        private void cancelLoad() {
+            mCancellationSignal.cancel();
+            cancel(false);
+        }
+
         @Override
         protected Integer doInBackground(final Void... voids) {
-            return CountLiveData.this.doInBackground();
+            return CountLiveData.this.doInBackground(mCancellationSignal);
         }
 
         @Override
         protected void onPostExecute(@NonNull final Integer count) {
+            if (mAsyncTask == this) {
+                mAsyncTask = null;
+            }
+
             CountLiveData.this.onPostExecute(count);
         }
     }
@@ -18,21 +18,24 @@
 package com.twofortyfouram.memento.livedata;
 
 import android.content.Context;
-import android.database.ContentObserver;
 import android.database.Cursor;
 import android.net.Uri;
 import android.os.AsyncTask;
-import android.os.Handler;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.WorkerThread;
 import androidx.lifecycle.LiveData;
 import com.twofortyfouram.annotation.Incubating;
-import com.twofortyfouram.log.Lumberjack;
 import com.twofortyfouram.memento.api.BuildConfig;
+import com.twofortyfouram.memento.util.ContentObserverHub;
 import com.twofortyfouram.spackle.ContextUtil;
 import net.jcip.annotations.NotThreadSafe;
 
+import java.util.List;
+import java.util.concurrent.Executor;
+
 import static com.twofortyfouram.assertion.Assertions.assertNotNull;
 
 /**
@@ -45,6 +48,12 @@ import static com.twofortyfouram.assertion.Assertions.assertNotNull;
  * <p>
  * Note this class doesn't deal with paging.
  * </p>
+ * <p>
+ * Queries run on an {@link Executor}, which defaults to {@link AsyncTask#SERIAL_EXECUTOR}.  Pass
+ * {@link AsyncTask#THREAD_POOL_EXECUTOR} to a constructor taking an executor to opt into parallel queries.
+ * When a change notification arrives while a query is still in progress, the superseded query
+ * is canceled via {@link CancellationSignal} and its Cursor is closed rather than emitted.
+ * </p>
  */
 @NotThreadSafe
 @Incubating
@@ -55,6 +64,9 @@ public final class CursorLiveData extends LiveData<Cursor> {
 
     private final boolean mIsAsync;
 
+    @NonNull
+    private final Executor mExecutor;
+
     @NonNull
     private final Uri mUri;
 
@@ -73,7 +85,7 @@ public final class CursorLiveData extends LiveData<Cursor> {
     private boolean mIsLoadedYet = false;
 
     @Nullable
-    private ContentObserver mContentObserver = null;
+    private ContentObserverHub.Listener mChangeListener = null;
 
     @Nullable
     private CursorAsyncTask mAsyncTask = null;
@@ -96,11 +108,44 @@ public final class CursorLiveData extends LiveData<Cursor> {
                                @Nullable final String selection,
                                @Nullable final String[] selectionArgs,
                                @Nullable final String orderBy) {
+        this(context, isAsync, AsyncTask.SERIAL_EXECUTOR, uri, projection, selection,
+                selectionArgs, orderBy);
+    }
+
+    /**
+     * @param context       Application context.
+     * @param executor      Executor to run queries on.
+     * @param uri           Uri to query.
+     * @param projection    Columns to return.
+     * @param selection     Optional selection arguments.
+     * @param selectionArgs Optional arguments for {@code selection}.
+     * @param orderBy       Optional orderby.
+     */
+    public CursorLiveData(@NonNull final Context context,
+                          @NonNull final Executor executor,
+                          @NonNull final Uri uri,
+                          @Nullable final String[] projection,
+                          @Nullable final String selection,
+                          @Nullable final String[] selectionArgs,
+                          @Nullable final String orderBy) {
+        this(context, true, executor, uri, projection, selection, selectionArgs, orderBy);
+    }
+
+    private CursorLiveData(@NonNull final Context context,
+                           final boolean isAsync,
+                           @NonNull final Executor executor,
+                           @NonNull final Uri uri,
+                           @Nullable final String[] projection,
+                           @Nullable final String selection,
+                           @Nullable final String[] selectionArgs,
+                           @Nullable final String orderBy) {
         assertNotNull(context, "context"); //$NON-NLS
+        assertNotNull(executor, "executor"); //$NON-NLS
         assertNotNull(uri, "uri"); //$NON-NLS
 
         mContext = ContextUtil.cleanContext(context);
         mIsAsync = isAsync;
+        mExecutor = executor;
 
         mUri = uri;
         mProjection = projection;
@@ -132,13 +177,14 @@ public final class CursorLiveData extends LiveData<Cursor> {
         super.onActive();
 
         try {
-            mContentObserver = new ContentObserverImpl(new Handler());
-            mContext.getContentResolver().registerContentObserver(mUri, true, mContentObserver);
+            mChangeListener = new ChangeListenerImpl();
+            ContentObserverHub.getInstance(mContext.getContentResolver())
+                    .register(mUri, mChangeListener);
         }
         catch (final SecurityException e) {
             if (BuildConfig.DEBUG) {
                 // Eat exception for automated tests
-                mContentObserver = null;
+                mChangeListener = null;
             }
             else {
                 throw e;
@@ -152,11 +198,14 @@ public final class CursorLiveData extends LiveData<Cursor> {
     protected void onInactive() {
         super.onInactive();
 
-        if (null != mContentObserver) {
-            mContext.getContentResolver().unregisterContentObserver(mContentObserver);
-            mContentObserver = null;
+        if (null != mChangeListener) {
+            ContentObserverHub.getInstance(mContext.getContentResolver())
+                    .unregister(mChangeListener);
+            mChangeListener = null;
         }
 
+        cancelLoad();
+
         @Nullable final Cursor cursor = getValue();
         if (null != cursor) {
             cursor.close();
@@ -168,12 +217,21 @@ public final class CursorLiveData extends LiveData<Cursor> {
 
     private void loadData() {
         if (mIsAsync) {
-            // Don't cancel the other async task, as the Cursor still needs to be closed.
+            // A canceled task closes its Cursor in onCancelled()
+            cancelLoad();
+
             mAsyncTask = new CursorAsyncTask();
-            mAsyncTask.execute();
+            mAsyncTask.executeOnExecutor(mExecutor);
         } else {
             // Kludge to make testing possible.  Might be able to refactor in the future with InstantTaskExecutorRule
-            onPostExecute(doInBackground());
+            onPostExecute(doInBackground(null));
+        }
+    }
+
+    private void cancelLoad() {
+        if (null != mAsyncTask) {
+            mAsyncTask.cancelLoad();
+            mAsyncTask = null;
         }
     }
 
@@ -184,19 +242,11 @@ public final class CursorLiveData extends LiveData<Cursor> {
         return mIsLoadedYet;
     }
 
-    private final class ContentObserverImpl extends ContentObserver {
-
-        public ContentObserverImpl(@NonNull final Handler handler) {
-            super(handler);
-        }
+    private final class ChangeListenerImpl implements ContentObserverHub.Listener {
 
         @Override
-        public void onChange(final boolean selfChange, @NonNull final Uri uri) {
-            super.onChange(selfChange, uri);
-
-            Lumberjack.v("uri=%s changed", uri); //$NON-NLS
-
-            if (mContentObserver != this) {
+        public void onChange(@NonNull final List<Uri> uris) {
+            if (mChangeListener != this) {
                 return;
             }
 
@@ -206,12 +256,23 @@ public final class CursorLiveData extends LiveData<Cursor> {
 
     @Nullable
     @WorkerThread
-    private Cursor doInBackground() {
-        @Nullable final Cursor cursor = mContext.getContentResolver().query(mUri, mProjection, mSelection, mSelectionArgs, mOrderBy);
+    private Cursor doInBackground(@Nullable final CancellationSignal cancellationSignal) {
+        @Nullable final Cursor cursor;
+        try {
+            cursor = mContext.getContentResolver().query(mUri, mProjection, mSelection,
+                    mSelectionArgs, mOrderBy, cancellationSignal);
+        } catch (final OperationCanceledException e) {
+            return null;
+        }
 
         if (null != cursor) {
-            // Apparently fills cursor window?
-            cursor.getCount();
+            try {
+                // Apparently fills cursor window?
+                cursor.getCount();
+            } catch (final OperationCanceledException e) {
+                cursor.close();
+                return null;
+            }
         }
 
         return cursor;
@@ -231,15 +292,35 @@ public final class CursorLiveData extends LiveData<Cursor> {
     @NotThreadSafe
     private final class CursorAsyncTask extends AsyncTask<Void, Void, Cursor> {
 
+        @NonNull
+        private final CancellationSignal mCancellationSignal = new CancellationSignal();
+
+        private void cancelLoad() {
+            mCancellationSignal.cancel();
+            cancel(false);
+        }
+
         @Override
         protected Cursor doInBackground(final Void... voids) {
-            return CursorLiveData.this.doInBackground();
+            return CursorLiveData.this.doInBackground(mCancellationSignal);
         }
 
         @Override
         protected void onPostExecute(@Nullable final Cursor cursor) {
+            if (mAsyncTask == this) {
+                mAsyncTask = null;
+            }
+
             CursorLiveData.this.onPostExecute(cursor);
         }
+
+        @Override
+        protected void onCancelled(@Nullable final Cursor cursor) {
+            // The query may have completed before it was canceled
+            if (null != cursor) {
+                cursor.close();
+            }
+        }
     }
 
 }
@@ -0,0 +1,423 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.livedata;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.AsyncTask;
+import android.util.LongSparseArray;
+import androidx.annotation.*;
+import androidx.lifecycle.LiveData;
+import com.twofortyfouram.annotation.Incubating;
+import com.twofortyfouram.memento.api.BuildConfig;
+import com.twofortyfouram.memento.contract.MementoContract;
+import com.twofortyfouram.memento.util.KeyedCursorParser;
+import com.twofortyfouram.memento.util.ContentObserverHub;
+import com.twofortyfouram.spackle.ContextUtil;
+import net.jcip.annotations.NotThreadSafe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Queries on a background thread and emits a {@link QueryDiff} describing the result and how it
+ * differs from the previous result.
+ * <p>
+ * Compared to {@link QueryLiveData}, this class:
+ * <ul>
+ * <li>Reuses previously parsed objects for rows that did not change, as determined by
+ * {@link KeyedCursorParser#isUnchanged(Cursor, Object)} or {@link Object#equals(Object)}.</li>
+ * <li>Does not emit a new value when a reload produces an identical result.</li>
+ * <li>Throttles reloads, so that at most one query is in flight and at most one more is pending.
+ * A burst of change notifications received while a query is in flight results in a single
+ * additional query.</li>
+ * </ul>
+ * <p>
+ * Queries run on an executor as described in {@link CursorLiveData}.  Simple counters are
+ * exposed to observe the effectiveness of throttling and diffing.
+ *
+ * @param <T> Type of the items.
+ */
+@NotThreadSafe
+@Incubating
+public final class DiffingQueryLiveData<T> extends LiveData<QueryDiff<T>> {
+
+    @NonNull
+    private final Context mContext;
+
+    private final boolean mIsAsync;
+
+    @NonNull
+    private final Executor mExecutor;
+
+    @NonNull
+    private final KeyedCursorParser<T> mCursorParser;
+
+    @NonNull
+    private final Uri mUri;
+
+    @Nullable
+    private final String[] mProjection;
+
+    @Nullable
+    private final String mSelection;
+
+    @Nullable
+    private final String[] mSelectionArgs;
+
+    @Nullable
+    private final String mOrderBy;
+
+    @Nullable
+    private final Integer mLimit;
+
+    @Nullable
+    private ContentObserverHub.Listener mChangeListener = null;
+
+    /**
+     * The most recent result, which is the basis for the next diff.  This is tracked separately
+     * from {@link #getValue()} because unchanged results are not published.
+     */
+    @NonNull
+    private QueryDiff<T> mLastResult = QueryDiff.empty();
+
+    /**
+     * Flag indicating whether a query is currently in flight.
+     */
+    private boolean mIsLoading = false;
+
+    /**
+     * Flag indicating whether another query should be performed once the in flight query completes.
+     */
+    private boolean mIsReloadPending = false;
+
+    private int mLoadCount = 0;
+
+    private int mSkippedReloadCount = 0;
+
+    private int mUnchangedResultCount = 0;
+
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    @VisibleForTesting(otherwise = VisibleForTesting.PROTECTED)
+    public DiffingQueryLiveData(@NonNull final Context context, final boolean isAsync,
+                                @NonNull final KeyedCursorParser<T> cursorParser,
+                                @NonNull final Uri uri,
+                                @Nullable final String[] projection,
+                                @Nullable final String selection,
+                                @Nullable final String[] selectionArgs,
+                                @Nullable final String orderBy, @Nullable final Integer limit) {
+        this(context, isAsync, AsyncTask.SERIAL_EXECUTOR, cursorParser, uri, projection,
+                selection, selectionArgs, orderBy, limit);
+    }
+
+    public DiffingQueryLiveData(@NonNull final Context context,
+                                @NonNull final Executor executor,
+                                @NonNull final KeyedCursorParser<T> cursorParser,
+                                @NonNull final Uri uri,
+                                @Nullable final String[] projection,
+                                @Nullable final String selection,
+                                @Nullable final String[] selectionArgs,
+                                @Nullable final String orderBy, @Nullable final Integer limit) {
+        this(context, true, executor, cursorParser, uri, projection, selection, selectionArgs,
+                orderBy, limit);
+    }
+
+    private DiffingQueryLiveData(@NonNull final Context context, final boolean isAsync,
+                                 @NonNull final Executor executor,
+                                 @NonNull final KeyedCursorParser<T> cursorParser,
+                                 @NonNull final Uri uri,
+                                 @Nullable final String[] projection,
+                                 @Nullable final String selection,
+                                 @Nullable final String[] selectionArgs,
+                                 @Nullable final String orderBy, @Nullable final Integer limit) {
+        assertNotNull(context, "context"); //$NON-NLS
+        assertNotNull(executor, "executor"); //$NON-NLS
+        assertNotNull(cursorParser, "cursorParser"); //$NON-NLS
+        assertNotNull(uri, "uri"); //$NON-NLS
+
+        mContext = ContextUtil.cleanContext(context);
+
+        mCursorParser = cursorParser;
+
+        mIsAsync = isAsync;
+        mExecutor = executor;
+
+        mUri = uri;
+        mProjection = projection;
+        mSelection = selection;
+        mSelectionArgs = selectionArgs;
+        mOrderBy = orderBy;
+        mLimit = limit;
+    }
+
+    public DiffingQueryLiveData(@NonNull final Context context,
+                                @NonNull final KeyedCursorParser<T> cursorParser,
+                                @NonNull final Uri uri,
+                                @Nullable final String[] projection,
+                                @Nullable final String selection,
+                                @Nullable final String[] selectionArgs,
+                                @Nullable final String orderBy, @Nullable final Integer limit) {
+        this(context, true, cursorParser, uri, projection, selection, selectionArgs, orderBy,
+                limit);
+    }
+
+    @Override
+    protected void onActive() {
+        super.onActive();
+
+        try {
+            mChangeListener = new ChangeListenerImpl();
+            ContentObserverHub.getInstance(mContext.getContentResolver())
+                    .register(mUri, mChangeListener);
+        } catch (final SecurityException e) {
+            if (BuildConfig.DEBUG) {
+                // Eat exception for automated tests
+                mChangeListener = null;
+            } else {
+                throw e;
+            }
+        }
+
+        loadData();
+    }
+
+    @Override
+    protected void onInactive() {
+        super.onInactive();
+
+        if (null != mChangeListener) {
+            ContentObserverHub.getInstance(mContext.getContentResolver())
+                    .unregister(mChangeListener);
+        }
+    }
+
+    /**
+     * @return The number of queries performed.
+     */
+    @MainThread
+    public int getLoadCount() {
+        return mLoadCount;
+    }
+
+    /**
+     * @return The number of reload requests that were absorbed by an already pending reload.
+     */
+    @MainThread
+    public int getSkippedReloadCount() {
+        return mSkippedReloadCount;
+    }
+
+    /**
+     * @return The number of queries whose result was identical to the previous result and
+     * therefore was not published.
+     */
+    @MainThread
+    public int getUnchangedResultCount() {
+        return mUnchangedResultCount;
+    }
+
+    @MainThread
+    private void loadData() {
+        if (mIsLoading) {
+            if (mIsReloadPending) {
+                mSkippedReloadCount++;
+            } else {
+                mIsReloadPending = true;
+            }
+            return;
+        }
+
+        mIsLoading = true;
+        mLoadCount++;
+
+        @NonNull final QueryDiff<T> previous = mLastResult;
+        if (mIsAsync) {
+            new LoadAsyncTask(previous).executeOnExecutor(mExecutor);
+        } else {
+            onPostExecute(doInBackground(previous));
+        }
+    }
+
+    @NonNull
+    @WorkerThread
+    private QueryDiff<T> doInBackground(@NonNull final QueryDiff<T> previous) {
+        @NonNull final Uri uri;
+        if (null == mLimit) {
+            uri = mUri;
+        } else {
+            uri = MementoContract.addLimit(mUri.buildUpon(), mLimit).build();
+        }
+
+        try (@Nullable final Cursor cursor = mContext.getContentResolver()
+                .query(uri, mProjection, mSelection, mSelectionArgs, mOrderBy)) {
+            if (null != cursor) {
+                return newDiff(mCursorParser, previous, cursor);
+            }
+        }
+
+        return newDiff(mCursorParser, previous, null);
+    }
+
+    @MainThread
+    private void onPostExecute(@NonNull final QueryDiff<T> result) {
+        mIsLoading = false;
+        mLastResult = result;
+
+        if (result.isUnchanged() && null != getValue()) {
+            mUnchangedResultCount++;
+        } else {
+            setValue(result);
+        }
+
+        if (mIsReloadPending) {
+            mIsReloadPending = false;
+            loadData();
+        }
+    }
+
+    /**
+     * @param parser   Parser for the cursor.
+     * @param previous Previous result.
+     * @param cursor   Cursor for the new result, or null if the query failed.
+     * @param <T>      Type of the items.
+     * @return Diff between {@code previous} and the contents of {@code cursor}.
+     * @throws IllegalStateException If the keys of {@code previous} or {@code cursor} are not
+     *                               unique, as required by {@link KeyedCursorParser#getKey(Cursor)}.
+     */
+    @NonNull
+    @WorkerThread
+    @VisibleForTesting
+    /*package*/ static <T> QueryDiff<T> newDiff(@NonNull final KeyedCursorParser<T> parser,
+                                                @NonNull final QueryDiff<T> previous,
+                                                @Nullable final Cursor cursor) {
+        @NonNull final List<T> previousItems = previous.getItems();
+        @NonNull final long[] previousKeys = previous.getKeysInternal();
+
+        @NonNull final LongSparseArray<Integer> previousPositions
+                = new LongSparseArray<>(previousKeys.length);
+        for (int i = 0; i < previousKeys.length; i++) {
+            if (0 <= previousPositions.indexOfKey(previousKeys[i])) {
+                throw new IllegalStateException(
+                        "previous result has duplicate key " + previousKeys[i]); //$NON-NLS
+            }
+            previousPositions.put(previousKeys[i], i);
+        }
+
+        final int count = null == cursor ? 0 : cursor.getCount();
+        @NonNull final List<T> items = new ArrayList<>(count);
+        @NonNull final long[] keys = new long[count];
+        @NonNull final long[] insertedKeys = new long[count];
+        @NonNull final long[] changedKeys = new long[count];
+        int insertedCount = 0;
+        int changedCount = 0;
+        int retainedCount = 0;
+        int lastPreviousPosition = -1;
+        boolean isMoved = false;
+
+        @NonNull final LongSparseArray<Boolean> currentKeys = new LongSparseArray<>(count);
+        if (null != cursor) {
+            cursor.moveToPosition(-1);
+            for (int i = 0; cursor.moveToNext(); i++) {
+                final long key = parser.getKey(cursor);
+                if (null != currentKeys.get(key)) {
+                    // Otherwise a previous row would be retained twice and removals miscounted
+                    throw new IllegalStateException(
+                            "result has duplicate key " + key + "; keys must be unique"); //$NON-NLS
+                }
+                currentKeys.put(key, Boolean.TRUE);
+                keys[i] = key;
+
+                @Nullable final Integer previousPosition = previousPositions.get(key);
+                if (null == previousPosition) {
+                    insertedKeys[insertedCount++] = key;
+                    items.add(parser.newObject(cursor));
+                    continue;
+                }
+
+                retainedCount++;
+                if (previousPosition < lastPreviousPosition) {
+                    isMoved = true;
+                }
+                lastPreviousPosition = previousPosition;
+
+                @NonNull final T previousItem = previousItems.get(previousPosition);
+                if (parser.isUnchanged(cursor, previousItem)) {
+                    items.add(previousItem);
+                } else {
+                    @NonNull final T item = parser.newObject(cursor);
+                    if (item.equals(previousItem)) {
+                        items.add(previousItem);
+                    } else {
+                        changedKeys[changedCount++] = key;
+                        items.add(item);
+                    }
+                }
+            }
+        }
+
+        @NonNull final long[] removedKeys = new long[previousKeys.length - retainedCount];
+        if (0 != removedKeys.length) {
+            int removedCount = 0;
+            for (final long key : previousKeys) {
+                if (null == currentKeys.get(key)) {
+                    removedKeys[removedCount++] = key;
+                }
+            }
+        }
+
+        return new QueryDiff<>(Collections.unmodifiableList(items), keys,
+                Arrays.copyOf(insertedKeys, insertedCount), removedKeys,
+                Arrays.copyOf(changedKeys, changedCount), isMoved);
+    }
+
+    private final class ChangeListenerImpl implements ContentObserverHub.Listener {
+
+        @Override
+        public void onChange(@NonNull final List<Uri> uris) {
+            loadData();
+        }
+    }
+
+    @NotThreadSafe
+    private final class LoadAsyncTask extends AsyncTask<Void, Void, QueryDiff<T>> {
+
+        @NonNull
+        private final QueryDiff<T> mPrevious;
+
+        LoadAsyncTask(@NonNull final QueryDiff<T> previous) {
+            mPrevious = previous;
+        }
+
+        @Override
+        protected QueryDiff<T> doInBackground(final Void... voids) {
+            return DiffingQueryLiveData.this.doInBackground(mPrevious);
+        }
+
+        @Override
+        protected void onPostExecute(@NonNull final QueryDiff<T> result) {
+            DiffingQueryLiveData.this.onPostExecute(result);
+        }
+    }
+
+}
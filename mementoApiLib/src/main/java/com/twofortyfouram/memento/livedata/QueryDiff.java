@@ -0,0 +1,170 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.livedata;
+
+import androidx.annotation.NonNull;
+import com.twofortyfouram.annotation.Incubating;
+import com.twofortyfouram.memento.util.KeyedCursorParser;
+import net.jcip.annotations.Immutable;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * The result of a query, along with how it differs from the previous result of the same query.
+ * Rows are compared by the key provided by {@link KeyedCursorParser#getKey(android.database.Cursor)}.
+ * Items for rows that did not change are the same instances as in the previous result.
+ *
+ * @param <T> Type of the items.
+ * @see DiffingQueryLiveData
+ */
+@Immutable
+@Incubating
+public final class QueryDiff<T> {
+
+    @NonNull
+    private static final long[] EMPTY_KEYS = new long[0];
+
+    /**
+     * Items in query order.
+     */
+    @NonNull
+    private final List<T> mItems;
+
+    /**
+     * Keys of {@link #mItems}, in the same order.
+     */
+    @NonNull
+    private final long[] mKeys;
+
+    @NonNull
+    private final long[] mInsertedKeys;
+
+    @NonNull
+    private final long[] mRemovedKeys;
+
+    @NonNull
+    private final long[] mChangedKeys;
+
+    private final boolean mIsMoved;
+
+    /**
+     * @param items        Unmodifiable list of items in query order.
+     * @param keys         Keys of {@code items}, in the same order.  This array is not copied.
+     * @param insertedKeys Keys present in this result but not in the previous result.  This array
+     *                     is not copied.
+     * @param removedKeys  Keys present in the previous result but not in this result.  This array
+     *                     is not copied.
+     * @param changedKeys  Keys present in both results whose items are not equal.  This array is
+     *                     not copied.
+     * @param isMoved      True if the relative order of keys present in both results changed.
+     */
+    /*package*/ QueryDiff(@NonNull final List<T> items, @NonNull final long[] keys,
+                          @NonNull final long[] insertedKeys, @NonNull final long[] removedKeys,
+                          @NonNull final long[] changedKeys, final boolean isMoved) {
+        assertNotNull(items, "items"); //$NON-NLS
+        assertNotNull(keys, "keys"); //$NON-NLS
+        assertNotNull(insertedKeys, "insertedKeys"); //$NON-NLS
+        assertNotNull(removedKeys, "removedKeys"); //$NON-NLS
+        assertNotNull(changedKeys, "changedKeys"); //$NON-NLS
+
+        mItems = items;
+        mKeys = keys;
+        mInsertedKeys = insertedKeys;
+        mRemovedKeys = removedKeys;
+        mChangedKeys = changedKeys;
+        mIsMoved = isMoved;
+    }
+
+    /**
+     * @param <T> Type of the items.
+     * @return A diff with no items, representing the state before the first query.
+     */
+    @NonNull
+    /*package*/ static <T> QueryDiff<T> empty() {
+        return new QueryDiff<>(Collections.<T>emptyList(), EMPTY_KEYS, EMPTY_KEYS, EMPTY_KEYS,
+                EMPTY_KEYS, false);
+    }
+
+    /**
+     * @return Unmodifiable list of items in query order.
+     */
+    @NonNull
+    public List<T> getItems() {
+        //noinspection ReturnOfCollectionOrArrayField
+        return mItems;
+    }
+
+    /**
+     * @return Keys of {@link #getItems()}, in the same order.
+     */
+    @NonNull
+    public long[] getKeys() {
+        return mKeys.clone();
+    }
+
+    /**
+     * @return Keys present in this result but not in the previous result.
+     */
+    @NonNull
+    public long[] getInsertedKeys() {
+        return mInsertedKeys.clone();
+    }
+
+    /**
+     * @return Keys present in the previous result but not in this result.
+     */
+    @NonNull
+    public long[] getRemovedKeys() {
+        return mRemovedKeys.clone();
+    }
+
+    /**
+     * @return Keys present in both results whose items changed.
+     */
+    @NonNull
+    public long[] getChangedKeys() {
+        return mChangedKeys.clone();
+    }
+
+    /**
+     * @return True if the relative order of items present in both results changed.
+     */
+    public boolean isMoved() {
+        return mIsMoved;
+    }
+
+    /**
+     * @return True if this result is identical to the previous result.
+     */
+    public boolean isUnchanged() {
+        return 0 == mInsertedKeys.length && 0 == mRemovedKeys.length
+                && 0 == mChangedKeys.length && !mIsMoved;
+    }
+
+    /**
+     * @return Keys of {@link #getItems()} without a defensive copy.
+     */
+    @NonNull
+    /*package*/ long[] getKeysInternal() {
+        //noinspection ReturnOfCollectionOrArrayField
+        return mKeys;
+    }
+}
@@ -18,23 +18,25 @@
 package com.twofortyfouram.memento.livedata;
 
 import android.content.Context;
-import android.database.ContentObserver;
 import android.database.Cursor;
 import android.net.Uri;
 import android.os.AsyncTask;
-import android.os.Handler;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
 import androidx.annotation.*;
 import androidx.lifecycle.LiveData;
 import com.twofortyfouram.annotation.Incubating;
 import com.twofortyfouram.memento.api.BuildConfig;
 import com.twofortyfouram.memento.contract.MementoContract;
 import com.twofortyfouram.memento.util.CursorParser;
+import com.twofortyfouram.memento.util.CursorParserUtil;
+import com.twofortyfouram.memento.util.ContentObserverHub;
 import com.twofortyfouram.spackle.ContextUtil;
 import net.jcip.annotations.NotThreadSafe;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import static com.twofortyfouram.assertion.Assertions.assertNotNull;
 
@@ -42,6 +44,8 @@ import static com.twofortyfouram.assertion.Assertions.assertNotNull;
  * Queries on a background thread and emits a collection of objects.  Note this class is best used for small
  * queries rather than large ones.  It is highly recommended to use a limit or query arguments to reduce the number
  * of results returned.
+ * <p>
+ * Queries are executed and canceled as described in {@link CursorLiveData}.
  *
  * @param <T>
  */
@@ -54,6 +58,9 @@ public final class QueryLiveData<T> extends LiveData<List<T>> {
 
     private final boolean mIsAsync;
 
+    @NonNull
+    private final Executor mExecutor;
+
     @NonNull
     private final CursorParser<T> mCursorParser;
 
@@ -76,10 +83,10 @@ public final class QueryLiveData<T> extends LiveData<List<T>> {
     private final Integer mLimit;
 
     @Nullable
-    private ContentObserver mContentObserver = null;
+    private ContentObserverHub.Listener mChangeListener = null;
 
     @Nullable
-    private AsyncTask<Void, Void, List<T>> mAsyncTask = null;
+    private LoadAsyncTask mAsyncTask = null;
 
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     @VisibleForTesting(otherwise = VisibleForTesting.PROTECTED)
@@ -90,7 +97,31 @@ public final class QueryLiveData<T> extends LiveData<List<T>> {
                          @Nullable final String selection,
                          @Nullable final String[] selectionArgs,
                          @Nullable final String orderBy, @Nullable final Integer limit) {
+        this(context, isAsync, AsyncTask.SERIAL_EXECUTOR, cursorParser, uri, projection,
+                selection, selectionArgs, orderBy, limit);
+    }
+
+    public QueryLiveData(@NonNull final Context context, @NonNull final Executor executor,
+                         @NonNull final CursorParser<T> cursorParser,
+                         @NonNull final Uri uri,
+                         @Nullable final String[] projection,
+                         @Nullable final String selection,
+                         @Nullable final String[] selectionArgs,
+                         @Nullable final String orderBy, @Nullable final Integer limit) {
+        this(context, true, executor, cursorParser, uri, projection, selection, selectionArgs,
+                orderBy, limit);
+    }
+
+    private QueryLiveData(@NonNull final Context context, final boolean isAsync,
+                          @NonNull final Executor executor,
+                          @NonNull final CursorParser<T> cursorParser,
+                          @NonNull final Uri uri,
+                          @Nullable final String[] projection,
+                          @Nullable final String selection,
+                          @Nullable final String[] selectionArgs,
+                          @Nullable final String orderBy, @Nullable final Integer limit) {
         assertNotNull(context, "context"); //$NON-NLS
+        assertNotNull(executor, "executor"); //$NON-NLS
         assertNotNull(cursorParser, "providerParser"); //$NON-NLS
         assertNotNull(uri, "uri"); //$NON-NLS
 
@@ -99,6 +130,7 @@ public final class QueryLiveData<T> extends LiveData<List<T>> {
         mCursorParser = cursorParser;
 
         mIsAsync = isAsync;
+        mExecutor = executor;
 
         mUri = uri;
         mProjection = projection;
@@ -122,12 +154,13 @@ public final class QueryLiveData<T> extends LiveData<List<T>> {
         super.onActive();
 
         try {
-            mContentObserver = new ContentObserverImpl(new Handler());
-            mContext.getContentResolver().registerContentObserver(mUri, true, mContentObserver);
+            mChangeListener = new ChangeListenerImpl();
+            ContentObserverHub.getInstance(mContext.getContentResolver())
+                    .register(mUri, mChangeListener);
         } catch (final SecurityException e) {
             if (BuildConfig.DEBUG) {
                 // Eat exception for automated tests
-                mContentObserver = null;
+                mChangeListener = null;
             } else {
                 throw e;
             }
@@ -140,23 +173,40 @@ public final class QueryLiveData<T> extends LiveData<List<T>> {
     protected void onInactive() {
         super.onInactive();
 
-        if (null != mContentObserver) {
-            mContext.getContentResolver().unregisterContentObserver(mContentObserver);
+        if (null != mChangeListener) {
+            ContentObserverHub.getInstance(mContext.getContentResolver())
+                    .unregister(mChangeListener);
         }
+
+        cancelLoad();
     }
 
     private void loadData() {
         if (mIsAsync) {
-            mAsyncTask = new LoadAsyncTask().execute();
+            cancelLoad();
+
+            mAsyncTask = new LoadAsyncTask();
+            mAsyncTask.executeOnExecutor(mExecutor);
         }
         else {
-            onPostExecute(doInBackground());
+            onPostExecute(doInBackground(null));
         }
     }
 
-    @NonNull
+    private void cancelLoad() {
+        if (null != mAsyncTask) {
+            mAsyncTask.cancelLoad();
+            mAsyncTask = null;
+        }
+    }
+
+    /**
+     * @param cancellationSignal Optional signal to cancel the query.
+     * @return Parsed items, or null if the query was canceled.
+     */
+    @Nullable
     @WorkerThread
-    private List<T> doInBackground() {
+    private List<T> doInBackground(@Nullable final CancellationSignal cancellationSignal) {
         @NonNull final Uri uri;
         if (null == mLimit) {
             uri = mUri;
@@ -165,17 +215,12 @@ public final class QueryLiveData<T> extends LiveData<List<T>> {
             uri = MementoContract.addLimit(mUri.buildUpon(), mLimit).build();
         }
 
-        try (@Nullable final Cursor cursor = mContext.getContentResolver().query(uri, mProjection, mSelection, mSelectionArgs, mOrderBy)) {
+        try (@Nullable final Cursor cursor = mContext.getContentResolver().query(uri, mProjection, mSelection, mSelectionArgs, mOrderBy, cancellationSignal)) {
             if (null != cursor) {
-
-                @NonNull final List<T> items = new ArrayList<>(cursor.getCount());
-                cursor.moveToPosition(-1);
-                while (cursor.moveToNext()) {
-                    items.add(mCursorParser.newObject(cursor));
-                }
-
-                return Collections.unmodifiableList(items);
+                return CursorParserUtil.parseAll(cursor, mCursorParser, cancellationSignal);
             }
+        } catch (final OperationCanceledException e) {
+            return null;
         }
 
         return Collections.emptyList();
@@ -185,21 +230,10 @@ public final class QueryLiveData<T> extends LiveData<List<T>> {
         setValue(list);
     }
 
-    private final class ContentObserverImpl extends ContentObserver {
-
-        /**
-         * Creates a content observer.
-         *
-         * @param handler The handler to run {@link #onChange} on, or null if none.
-         */
-        public ContentObserverImpl(Handler handler) {
-            super(handler);
-        }
+    private final class ChangeListenerImpl implements ContentObserverHub.Listener {
 
         @Override
-        public void onChange(boolean selfChange, Uri uri) {
-            super.onChange(selfChange, uri);
-
+        public void onChange(@NonNull final List<Uri> uris) {
             loadData();
         }
     }
@@ -207,13 +241,25 @@ public final class QueryLiveData<T> extends LiveData<List<T>> {
     @NotThreadSafe
     private final class LoadAsyncTask extends AsyncTask<Void, Void, List<T>> {
 
+        @NonNull
+        private final CancellationSignal mCancellationSignal = new CancellationSignal();
+
+        private void cancelLoad() {
+            mCancellationSignal.cancel();
+            cancel(false);
+        }
+
         @Override
         protected List<T> doInBackground(final Void... voids) {
-            return QueryLiveData.this.doInBackground();
+            return QueryLiveData.this.doInBackground(mCancellationSignal);
         }
 
         @Override
         protected void onPostExecute(@NonNull final List<T> list) {
+            if (mAsyncTask == this) {
+                mAsyncTask = null;
+            }
+
             QueryLiveData.this.onPostExecute(list);
         }
     }
@@ -0,0 +1,95 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.reactive;
+
+import androidx.annotation.NonNull;
+import com.twofortyfouram.annotation.Incubating;
+import net.jcip.annotations.Immutable;
+
+import java.util.List;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * A chunk of consecutive rows of a query result, emitted by {@link QueryPublisher}.
+ * <p>
+ * A query result is emitted as one or more chunks.  The first chunk of a result has
+ * {@link #isFirst()} set and the last chunk has {@link #isLast()} set.  An empty result is emitted
+ * as a single empty chunk that is both first and last.  When the query is re-run after a content
+ * change, the chunks of the new result have a higher {@link #getGeneration()}.
+ *
+ * @param <T> Type of the items.
+ */
+@Immutable
+@Incubating
+public final class QueryChunk<T> {
+
+    @NonNull
+    private final List<T> mItems;
+
+    private final int mGeneration;
+
+    private final boolean mIsFirst;
+
+    private final boolean mIsLast;
+
+    /**
+     * @param items      Unmodifiable list of items in query order.
+     * @param generation Count of query executions, starting at 1.
+     * @param isFirst    True if this is the first chunk of the result.
+     * @param isLast     True if this is the last chunk of the result.
+     */
+    /*package*/ QueryChunk(@NonNull final List<T> items, final int generation,
+                           final boolean isFirst, final boolean isLast) {
+        assertNotNull(items, "items"); //$NON-NLS
+
+        mItems = items;
+        mGeneration = generation;
+        mIsFirst = isFirst;
+        mIsLast = isLast;
+    }
+
+    /**
+     * @return Unmodifiable list of items in query order.
+     */
+    @NonNull
+    public List<T> getItems() {
+        return mItems;
+    }
+
+    /**
+     * @return Count of query executions that produced this chunk, starting at 1.
+     */
+    public int getGeneration() {
+        return mGeneration;
+    }
+
+    /**
+     * @return True if this is the first chunk of a query result.
+     */
+    public boolean isFirst() {
+        return mIsFirst;
+    }
+
+    /**
+     * @return True if this is the last chunk of a query result.
+     */
+    public boolean isLast() {
+        return mIsLast;
+    }
+}
@@ -0,0 +1,455 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.reactive;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.os.AsyncTask;
+import android.os.Build;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.annotation.WorkerThread;
+import com.twofortyfouram.annotation.Incubating;
+import com.twofortyfouram.memento.contract.MementoContract;
+import com.twofortyfouram.memento.util.CursorParser;
+import com.twofortyfouram.spackle.ContextUtil;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.twofortyfouram.assertion.Assertions.assertInRangeInclusive;
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Publishes the result of a query as a stream of {@link QueryChunk}s, reading rows lazily from an
+ * open Cursor as subscribers request them.  Unlike
+ * {@link com.twofortyfouram.memento.livedata.QueryLiveData}, the full result is never held in
+ * memory, which makes this class suitable for large queries such as exports.
+ * <p>
+ * Each unit of demand requested via {@link Flow.Subscription#request(long)} is one chunk of up to
+ * {@code chunkSize} rows.  Rows are only parsed when there is outstanding demand, and the Cursor is
+ * held open between requests.  Cancelling the subscription cancels a query in progress and closes
+ * the Cursor.
+ * <p>
+ * When observing changes, the query is re-run after a content change notification for the Uri and
+ * its result is emitted with a new {@link QueryChunk#getGeneration()}.  A change arriving while a
+ * result is still being emitted causes the query to be re-run once that result has been emitted
+ * in full; multiple changes in the meantime are coalesced.  Because rows are read lazily, a result
+ * may reflect changes made while it was being read, as with any Cursor.  When not observing
+ * changes, the subscriber is completed after the first result.
+ * <p>
+ * Each subscriber has its own query and Cursor.  Signals to a subscriber are serialized and are
+ * delivered on the {@link Executor}.
+ *
+ * @param <T> Type of the items.
+ */
+@ThreadSafe
+@Incubating
+@RequiresApi(Build.VERSION_CODES.R)
+public final class QueryPublisher<T> implements Flow.Publisher<QueryChunk<T>> {
+
+    @NonNull
+    private final Context mContext;
+
+    @NonNull
+    private final Executor mExecutor;
+
+    @NonNull
+    private final CursorParser<T> mCursorParser;
+
+    @NonNull
+    private final Uri mUri;
+
+    @Nullable
+    private final String[] mProjection;
+
+    @Nullable
+    private final String mSelection;
+
+    @Nullable
+    private final String[] mSelectionArgs;
+
+    @Nullable
+    private final String mOrderBy;
+
+    @Nullable
+    private final Integer mLimit;
+
+    private final int mChunkSize;
+
+    private final boolean mIsObservingChanges;
+
+    /**
+     * @param context            Application context.
+     * @param cursorParser       Parser for rows of the query.
+     * @param uri                Uri to query.
+     * @param projection         Optional projection.
+     * @param selection          Optional selection.
+     * @param selectionArgs      Optional selection arguments.
+     * @param orderBy            Optional sort order.
+     * @param limit              Optional limit.
+     * @param chunkSize          Maximum number of rows per chunk.
+     * @param isObservingChanges True to re-run the query on content changes, false to complete
+     *                           after the first result.
+     */
+    public QueryPublisher(@NonNull final Context context,
+                          @NonNull final CursorParser<T> cursorParser,
+                          @NonNull final Uri uri,
+                          @Nullable final String[] projection,
+                          @Nullable final String selection,
+                          @Nullable final String[] selectionArgs,
+                          @Nullable final String orderBy, @Nullable final Integer limit,
+                          @IntRange(from = 1) final int chunkSize,
+                          final boolean isObservingChanges) {
+        this(context, AsyncTask.THREAD_POOL_EXECUTOR, cursorParser, uri, projection, selection,
+                selectionArgs, orderBy, limit, chunkSize, isObservingChanges);
+    }
+
+    /**
+     * @param context            Application context.
+     * @param executor           Executor to query, parse, and signal subscribers on.
+     * @param cursorParser       Parser for rows of the query.
+     * @param uri                Uri to query.
+     * @param projection         Optional projection.
+     * @param selection          Optional selection.
+     * @param selectionArgs      Optional selection arguments.
+     * @param orderBy            Optional sort order.
+     * @param limit              Optional limit.
+     * @param chunkSize          Maximum number of rows per chunk.
+     * @param isObservingChanges True to re-run the query on content changes, false to complete
+     *                           after the first result.
+     */
+    public QueryPublisher(@NonNull final Context context, @NonNull final Executor executor,
+                          @NonNull final CursorParser<T> cursorParser,
+                          @NonNull final Uri uri,
+                          @Nullable final String[] projection,
+                          @Nullable final String selection,
+                          @Nullable final String[] selectionArgs,
+                          @Nullable final String orderBy, @Nullable final Integer limit,
+                          @IntRange(from = 1) final int chunkSize,
+                          final boolean isObservingChanges) {
+        assertNotNull(context, "context"); //$NON-NLS
+        assertNotNull(executor, "executor"); //$NON-NLS
+        assertNotNull(cursorParser, "cursorParser"); //$NON-NLS
+        assertNotNull(uri, "uri"); //$NON-NLS
+        assertInRangeInclusive(chunkSize, 1, Integer.MAX_VALUE, "chunkSize"); //$NON-NLS
+
+        mContext = ContextUtil.cleanContext(context);
+        mExecutor = executor;
+        mCursorParser = cursorParser;
+
+        mUri = uri;
+        mProjection = projection;
+        mSelection = selection;
+        mSelectionArgs = selectionArgs;
+        mOrderBy = orderBy;
+        mLimit = limit;
+
+        mChunkSize = chunkSize;
+        mIsObservingChanges = isObservingChanges;
+    }
+
+    @Override
+    public void subscribe(@NonNull final Flow.Subscriber<? super QueryChunk<T>> subscriber) {
+        assertNotNull(subscriber, "subscriber"); //$NON-NLS
+
+        @NonNull final QuerySubscription subscription = new QuerySubscription(subscriber);
+        if (mIsObservingChanges) {
+            try {
+                mContext.getContentResolver().registerContentObserver(mUri, true,
+                        subscription.mContentObserver);
+            } catch (final SecurityException e) {
+                // Rule 1.9 requires onSubscribe before onError, which the drain loop delivers
+                subscription.mError = e;
+                subscription.mIsCanceled = true;
+            }
+        }
+
+        subscriber.onSubscribe(subscription);
+
+        if (subscription.mIsCanceled) {
+            subscription.drain();
+        }
+    }
+
+    /**
+     * State of a single subscriber.  Cursor state is only accessed from the drain loop, which is
+     * serialized by {@link #mWorkInProgress}.
+     */
+    @ThreadSafe
+    private final class QuerySubscription implements Flow.Subscription {
+
+        @NonNull
+        private final Flow.Subscriber<? super QueryChunk<T>> mSubscriber;
+
+        /**
+         * Outstanding demand, in chunks.
+         */
+        @NonNull
+        private final AtomicLong mRequested = new AtomicLong(0);
+
+        /**
+         * Count of drain requests.  The thread that increments this from zero runs the drain loop.
+         */
+        @NonNull
+        private final AtomicInteger mWorkInProgress = new AtomicInteger(0);
+
+        @NonNull
+        private final ContentObserver mContentObserver = new ContentObserver(null) {
+            @Override
+            public void onChange(final boolean selfChange) {
+                mIsReloadPending = true;
+                drain();
+            }
+        };
+
+        private volatile boolean mIsCanceled = false;
+
+        private volatile boolean mIsReloadPending = true;
+
+        @Nullable
+        private volatile CancellationSignal mCancellationSignal = null;
+
+        @Nullable
+        private volatile Throwable mError = null;
+
+        /*
+         * The following fields are confined to the drain loop.
+         */
+
+        @Nullable
+        private Cursor mCursor = null;
+
+        private int mGeneration = 0;
+
+        private boolean mIsFirst = false;
+
+        private boolean mIsTerminated = false;
+
+        QuerySubscription(@NonNull final Flow.Subscriber<? super QueryChunk<T>> subscriber) {
+            mSubscriber = subscriber;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (0 >= n) {
+                // Reactive Streams rule 3.9
+                mError = new IllegalArgumentException("n must be positive"); //$NON-NLS
+                mIsCanceled = true;
+            } else {
+                long current;
+                long next;
+                do {
+                    current = mRequested.get();
+                    next = current + n;
+                    if (0 > next) {
+                        next = Long.MAX_VALUE;
+                    }
+                } while (!mRequested.compareAndSet(current, next));
+            }
+
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            mIsCanceled = true;
+
+            @Nullable final CancellationSignal cancellationSignal = mCancellationSignal;
+            if (null != cancellationSignal) {
+                cancellationSignal.cancel();
+            }
+
+            drain();
+        }
+
+        private void drain() {
+            if (0 == mWorkInProgress.getAndIncrement()) {
+                mExecutor.execute(this::drainLoop);
+            }
+        }
+
+        @WorkerThread
+        private void drainLoop() {
+            try {
+                int missed = 1;
+                do {
+                    emitRequested();
+                    missed = mWorkInProgress.addAndGet(-missed);
+                } while (0 != missed);
+            } catch (final RuntimeException | Error e) {
+                // The subscriber threw, which violates rule 2.13; stop emitting and clean up
+                mIsCanceled = true;
+                terminate();
+                throw e;
+            }
+        }
+
+        @WorkerThread
+        private void emitRequested() {
+            long emitted = 0;
+            final long requested = mRequested.get();
+
+            while (!mIsTerminated) {
+                if (mIsCanceled) {
+                    @Nullable final Throwable error = mError;
+                    terminate();
+                    if (null != error) {
+                        mSubscriber.onError(error);
+                    }
+                    break;
+                }
+
+                if (null == mCursor && !mIsReloadPending) {
+                    if (0 < mGeneration && !mIsObservingChanges) {
+                        terminate();
+                        mSubscriber.onComplete();
+                    }
+                    break;
+                }
+
+                if (emitted == requested) {
+                    break;
+                }
+
+                if (null == mCursor) {
+                    mIsReloadPending = false;
+                    try {
+                        mCursor = query();
+                    } catch (final OperationCanceledException e) {
+                        continue;
+                    } catch (final RuntimeException e) {
+                        terminate();
+                        mSubscriber.onError(e);
+                        break;
+                    }
+                    mGeneration++;
+                    mIsFirst = true;
+                }
+
+                @NonNull final QueryChunk<T> chunk;
+                try {
+                    chunk = nextChunk();
+                } catch (final RuntimeException e) {
+                    terminate();
+                    mSubscriber.onError(e);
+                    break;
+                }
+
+                mSubscriber.onNext(chunk);
+                emitted++;
+            }
+
+            if (0 != emitted && Long.MAX_VALUE != requested) {
+                mRequested.addAndGet(-emitted);
+            }
+        }
+
+        /**
+         * @return A Cursor for the query, or an empty Cursor if the provider returned null.
+         */
+        @NonNull
+        @WorkerThread
+        private Cursor query() {
+            @NonNull final Uri uri;
+            if (null == mLimit) {
+                uri = mUri;
+            } else {
+                uri = MementoContract.addLimit(mUri.buildUpon(), mLimit).build();
+            }
+
+            @NonNull final CancellationSignal cancellationSignal = new CancellationSignal();
+            mCancellationSignal = cancellationSignal;
+            if (mIsCanceled) {
+                throw new OperationCanceledException();
+            }
+
+            try {
+                @Nullable final Cursor cursor = mContext.getContentResolver().query(uri,
+                        mProjection, mSelection, mSelectionArgs, mOrderBy, cancellationSignal);
+
+                if (null == cursor) {
+                    return new MatrixCursor(new String[0], 0);
+                }
+
+                return cursor;
+            } finally {
+                mCancellationSignal = null;
+            }
+        }
+
+        /**
+         * Parses up to {@link #mChunkSize} rows from {@link #mCursor}, closing the Cursor after
+         * the last row.
+         */
+        @NonNull
+        @WorkerThread
+        private QueryChunk<T> nextChunk() {
+            @NonNull final Cursor cursor = mCursor;
+
+            @NonNull final List<T> items = new ArrayList<>(Math.min(mChunkSize,
+                    Math.max(0, cursor.getCount() - cursor.getPosition() - 1)));
+            while (items.size() < mChunkSize && cursor.moveToNext()) {
+                items.add(mCursorParser.newObject(cursor));
+            }
+
+            final boolean isLast = cursor.isLast() || cursor.isAfterLast();
+            if (isLast) {
+                cursor.close();
+                mCursor = null;
+            }
+
+            final boolean isFirst = mIsFirst;
+            mIsFirst = false;
+
+            return new QueryChunk<>(Collections.unmodifiableList(items), mGeneration, isFirst,
+                    isLast);
+        }
+
+        @WorkerThread
+        private void terminate() {
+            if (mIsTerminated) {
+                return;
+            }
+            mIsTerminated = true;
+
+            if (null != mCursor) {
+                mCursor.close();
+                mCursor = null;
+            }
+
+            if (mIsObservingChanges) {
+                mContext.getContentResolver().unregisterContentObserver(mContentObserver);
+            }
+        }
+    }
+}
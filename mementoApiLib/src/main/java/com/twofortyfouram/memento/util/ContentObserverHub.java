@@ -0,0 +1,329 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.util;
+
+import android.content.ContentResolver;
+import android.database.ContentObserver;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.twofortyfouram.annotation.Incubating;
+import com.twofortyfouram.log.Lumberjack;
+import net.jcip.annotations.NotThreadSafe;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Multiplexes content change notifications to many in-process listeners while registering only a
+ * single {@link ContentObserver} per authority with the system.
+ * <p>
+ * A listener registered for a Uri is notified when a change is reported for that Uri, for one of
+ * its descendants, or for one of its ancestors.  This mirrors the matching of
+ * {@link ContentResolver#registerContentObserver(Uri, boolean, ContentObserver)} with
+ * {@code notifyForDescendants} set to true.
+ * <p>
+ * Notifications that arrive together are coalesced: changes are collected and dispatched in a
+ * single pass posted to the main thread, so each listener is called at most once per pass
+ * regardless of how many matching Uris changed.  Each listener receives every matching Uri of the
+ * pass, including duplicates, so that payloads as per
+ * {@link com.twofortyfouram.memento.contract.ChangePayloadContract} are not lost.
+ * <p>
+ * This class must only be used from the main thread, with the exception of
+ * {@link #getInstance(ContentResolver)}.
+ */
+@NotThreadSafe
+@Incubating
+public final class ContentObserverHub {
+
+    /**
+     * Map of resolver to hub.  Hubs are keyed by resolver so that tests with mock resolvers are
+     * isolated from the application's resolver.  Hubs only hold their resolver weakly, otherwise
+     * the value would keep its key reachable and entries would never be evicted.
+     */
+    @NonNull
+    private static final Map<ContentResolver, ContentObserverHub> sHubs = new WeakHashMap<>();
+
+    @NonNull
+    private final WeakReference<ContentResolver> mResolver;
+
+    @NonNull
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Map of authority to the observer registered with the system for that authority.
+     */
+    @NonNull
+    private final Map<String, AuthorityObserver> mObservers = new HashMap<>();
+
+    /**
+     * Map of listener to the Uri it is interested in.
+     */
+    @NonNull
+    private final Map<Listener, Uri> mListeners = new IdentityHashMap<>();
+
+    /**
+     * Uris changed since the last dispatch, in the order received.
+     */
+    @NonNull
+    private final List<Uri> mPendingUris = new ArrayList<>();
+
+    @NonNull
+    private final Runnable mDispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            dispatchPending();
+        }
+    };
+
+    private boolean mIsDispatchPending = false;
+
+    /**
+     * @param resolver Content resolver to register observers with.
+     * @return The hub for {@code resolver}.
+     */
+    @NonNull
+    public static ContentObserverHub getInstance(@NonNull final ContentResolver resolver) {
+        assertNotNull(resolver, "resolver"); //$NON-NLS
+
+        synchronized (sHubs) {
+            @Nullable ContentObserverHub hub = sHubs.get(resolver);
+            if (null == hub) {
+                hub = new ContentObserverHub(resolver);
+                sHubs.put(resolver, hub);
+            }
+
+            return hub;
+        }
+    }
+
+    private ContentObserverHub(@NonNull final ContentResolver resolver) {
+        mResolver = new WeakReference<>(resolver);
+    }
+
+    /**
+     * Registers {@code listener} for changes to {@code uri}.
+     *
+     * @param uri      Uri to observe.
+     * @param listener Listener to notify.
+     * @throws IllegalStateException If {@code listener} is already registered, or if the resolver
+     *                               of this hub is no longer reachable.
+     * @throws SecurityException     If the system refuses to register an observer for the
+     *                               authority of {@code uri}.  In that case, {@code listener} is
+     *                               not registered.
+     */
+    @MainThread
+    public void register(@NonNull final Uri uri, @NonNull final Listener listener) {
+        assertNotNull(uri, "uri"); //$NON-NLS
+        assertNotNull(listener, "listener"); //$NON-NLS
+
+        if (mListeners.containsKey(listener)) {
+            throw new IllegalStateException("listener is already registered"); //$NON-NLS
+        }
+
+        @NonNull final String authority = assertNotNull(uri.getAuthority(), "uri.getAuthority()"); //$NON-NLS
+
+        @Nullable AuthorityObserver observer = mObservers.get(authority);
+        if (null == observer) {
+            @Nullable final ContentResolver resolver = mResolver.get();
+            if (null == resolver) {
+                throw new IllegalStateException("The resolver of this hub was garbage collected"); //$NON-NLS
+            }
+
+            observer = new AuthorityObserver(authority);
+
+            // May throw SecurityException, in which case no state has been modified yet
+            resolver.registerContentObserver(observer.mAuthorityUri, true, observer);
+            mObservers.put(authority, observer);
+        }
+
+        observer.mListenerCount++;
+        mListeners.put(listener, uri);
+    }
+
+    /**
+     * Unregisters {@code listener}.  If {@code listener} is not registered, this method has no
+     * effect.
+     *
+     * @param listener Listener to unregister.
+     */
+    @MainThread
+    public void unregister(@NonNull final Listener listener) {
+        assertNotNull(listener, "listener"); //$NON-NLS
+
+        @Nullable final Uri uri = mListeners.remove(listener);
+        if (null == uri) {
+            return;
+        }
+
+        @NonNull final String authority = uri.getAuthority();
+        @NonNull final AuthorityObserver observer = mObservers.get(authority);
+
+        observer.mListenerCount--;
+        if (0 == observer.mListenerCount) {
+            @Nullable final ContentResolver resolver = mResolver.get();
+            if (null != resolver) {
+                resolver.unregisterContentObserver(observer);
+            }
+            mObservers.remove(authority);
+        }
+    }
+
+    /**
+     * @return The number of observers registered with the system.
+     */
+    @MainThread
+    public int getObserverCount() {
+        return mObservers.size();
+    }
+
+    /**
+     * @return The number of registered listeners.
+     */
+    @MainThread
+    public int getListenerCount() {
+        return mListeners.size();
+    }
+
+    @MainThread
+    @VisibleForTesting
+    /*package*/ void onChange(@NonNull final Uri uri) {
+        mPendingUris.add(uri);
+
+        if (!mIsDispatchPending) {
+            mIsDispatchPending = true;
+            mHandler.post(mDispatchRunnable);
+        }
+    }
+
+    @MainThread
+    @VisibleForTesting
+    /*package*/ void dispatchPending() {
+        mIsDispatchPending = false;
+
+        if (mPendingUris.isEmpty()) {
+            return;
+        }
+
+        @NonNull final List<Uri> changedUris = new ArrayList<>(mPendingUris);
+        mPendingUris.clear();
+
+        // Listeners may unregister themselves or others while being notified
+        @NonNull final List<Listener> listeners = new ArrayList<>(mListeners.keySet());
+        for (@NonNull final Listener listener : listeners) {
+            @Nullable final Uri listenerUri = mListeners.get(listener);
+            if (null == listenerUri) {
+                continue;
+            }
+
+            @Nullable List<Uri> matchingUris = null;
+            for (@NonNull final Uri changedUri : changedUris) {
+                if (isRelated(listenerUri, changedUri)) {
+                    if (null == matchingUris) {
+                        matchingUris = new ArrayList<>();
+                    }
+                    matchingUris.add(changedUri);
+                }
+            }
+
+            if (null != matchingUris) {
+                listener.onChange(Collections.unmodifiableList(matchingUris));
+            }
+        }
+    }
+
+    /**
+     * @param first  Uri to compare.
+     * @param second Uri to compare.
+     * @return True if {@code first} and {@code second} have the same authority and the path
+     * segments of one are a prefix of the path segments of the other.
+     */
+    @VisibleForTesting
+    /*package*/ static boolean isRelated(@NonNull final Uri first, @NonNull final Uri second) {
+        @Nullable final String authority = first.getAuthority();
+        if (null == authority || !authority.equals(second.getAuthority())) {
+            return false;
+        }
+
+        @NonNull final List<String> firstSegments = first.getPathSegments();
+        @NonNull final List<String> secondSegments = second.getPathSegments();
+        final int commonLength = Math.min(firstSegments.size(), secondSegments.size());
+        for (int i = 0; i < commonLength; i++) {
+            if (!firstSegments.get(i).equals(secondSegments.get(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Callback for content changes.
+     */
+    public interface Listener {
+
+        /**
+         * Called when the Uri the listener is registered for, or a related Uri, changed.
+         *
+         * @param uris The changed Uris, in the order the changes were received.  Never empty.
+         */
+        @MainThread
+        void onChange(@NonNull List<Uri> uris);
+    }
+
+    @NotThreadSafe
+    private final class AuthorityObserver extends ContentObserver {
+
+        @NonNull
+        private final Uri mAuthorityUri;
+
+        private int mListenerCount = 0;
+
+        AuthorityObserver(@NonNull final String authority) {
+            super(mHandler);
+
+            mAuthorityUri = new Uri.Builder().scheme(ContentResolver.SCHEME_CONTENT)
+                    .authority(authority).build();
+        }
+
+        @Override
+        public void onChange(final boolean selfChange) {
+            onChange(selfChange, null);
+        }
+
+        @Override
+        public void onChange(final boolean selfChange, @Nullable final Uri uri) {
+            Lumberjack.v("uri=%s changed", uri); //$NON-NLS
+
+            // Older platform versions may not provide the Uri; treat as a change to everything
+            ContentObserverHub.this.onChange(null == uri ? mAuthorityUri : uri);
+        }
+    }
+}
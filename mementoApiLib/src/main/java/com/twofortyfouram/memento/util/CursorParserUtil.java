@@ -0,0 +1,265 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.util;
+
+import android.database.Cursor;
+import android.database.CursorWindow;
+import android.database.DatabaseUtils;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import com.twofortyfouram.annotation.Incubating;
+import com.twofortyfouram.annotation.Slow;
+import com.twofortyfouram.memento.internal.CursorWindowCursor;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Utilities for parsing every row of a Cursor.
+ */
+@ThreadSafe
+@Incubating
+public final class CursorParserUtil {
+
+    /**
+     * Minimum number of rows before {@link #parseAll(Cursor, CursorParser, Collection, Executor)}
+     * parses in parallel.  Below this, copying rows into separate windows costs more than it
+     * saves.
+     */
+    /*package*/ static final int PARALLEL_THRESHOLD = 2000;
+
+    /**
+     * Number of rows parsed between checks of a {@link CancellationSignal}.
+     */
+    /*package*/ static final int CANCELLATION_CHECK_INTERVAL = 64;
+
+    /**
+     * Parses every row of {@code cursor}.  The Cursor position is reset before parsing and is
+     * left after the last row.
+     *
+     * @param cursor Cursor to parse.
+     * @param parser Parser for the rows.
+     * @param <T>    Type of the parsed objects.
+     * @return Unmodifiable list of parsed objects, in Cursor order.
+     */
+    @NonNull
+    @WorkerThread
+    @Slow(Slow.Speed.MILLISECONDS)
+    public static <T> List<T> parseAll(@NonNull final Cursor cursor,
+                                       @NonNull final CursorParser<T> parser) {
+        return parseAll(cursor, parser, (CancellationSignal) null);
+    }
+
+    /**
+     * Parses every row of {@code cursor}, checking {@code cancellationSignal} every
+     * {@link #CANCELLATION_CHECK_INTERVAL} rows so that a superseded load stops parsing.  The
+     * Cursor position is reset before parsing.
+     *
+     * @param cursor             Cursor to parse.
+     * @param parser             Parser for the rows.
+     * @param cancellationSignal Optional signal to cancel parsing.
+     * @param <T>                Type of the parsed objects.
+     * @return Unmodifiable list of parsed objects, in Cursor order.
+     * @throws OperationCanceledException If {@code cancellationSignal} is canceled.
+     */
+    @NonNull
+    @WorkerThread
+    @Slow(Slow.Speed.MILLISECONDS)
+    public static <T> List<T> parseAll(@NonNull final Cursor cursor,
+                                       @NonNull final CursorParser<T> parser,
+                                       @Nullable final CancellationSignal cancellationSignal) {
+        assertNotNull(cursor, "cursor"); //$NON-NLS
+        assertNotNull(parser, "parser"); //$NON-NLS
+
+        @NonNull final List<T> result = new ArrayList<>(cursor.getCount());
+        parseRange(cursor, parser, result, cancellationSignal);
+
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Parses every row of {@code cursor} into {@code sink}.  If {@code sink} is an
+     * {@link ArrayList}, its capacity is increased up front.
+     * <p>
+     * If {@code executor} is provided and the Cursor is large, rows are copied into
+     * {@link CursorWindow}-sized chunks on the calling thread and the chunks are parsed in
+     * parallel on {@code executor}.  This trades additional memory for the copies against
+     * parsing time, so it is only worthwhile for parsers doing significant work per row.
+     * Objects are added to {@code sink} in Cursor order on the calling thread.
+     * <p>
+     * Because chunks are parsed concurrently, {@code parser} must be thread-safe when
+     * {@code executor} is provided.  The calling thread also parses any chunk that
+     * {@code executor} has not yet started rather than blocking on it, so it is safe to call this
+     * from a thread of {@code executor} itself, including a serial executor.
+     *
+     * @param cursor   Cursor to parse.
+     * @param parser   Parser for the rows.
+     * @param sink     Collection to add the parsed objects to.
+     * @param executor Optional executor for parallel parsing.
+     * @param <T>      Type of the parsed objects.
+     */
+    @WorkerThread
+    @Slow(Slow.Speed.MILLISECONDS)
+    public static <T> void parseAll(@NonNull final Cursor cursor,
+                                    @NonNull final CursorParser<T> parser,
+                                    @NonNull final Collection<? super T> sink,
+                                    @Nullable final Executor executor) {
+        assertNotNull(cursor, "cursor"); //$NON-NLS
+        assertNotNull(parser, "parser"); //$NON-NLS
+        assertNotNull(sink, "sink"); //$NON-NLS
+
+        final int count = cursor.getCount();
+        if (sink instanceof ArrayList) {
+            ((ArrayList<? super T>) sink).ensureCapacity(sink.size() + count);
+        }
+
+        if (null == executor || PARALLEL_THRESHOLD > count) {
+            parseRange(cursor, parser, sink, null);
+        } else {
+            parseParallel(cursor, parser, sink, executor);
+        }
+    }
+
+    private static <T> void parseRange(@NonNull final Cursor cursor,
+                                       @NonNull final CursorParser<T> parser,
+                                       @NonNull final Collection<? super T> sink,
+                                       @Nullable final CancellationSignal cancellationSignal) {
+        cursor.moveToPosition(-1);
+
+        if (parser instanceof IndexedCursorParser) {
+            @SuppressWarnings("unchecked")
+            final IndexedCursorParser<T, Object> indexedParser
+                    = (IndexedCursorParser<T, Object>) parser;
+            @Nullable Object indices = null;
+            while (cursor.moveToNext()) {
+                throwIfCanceled(cursor, cancellationSignal);
+                if (null == indices) {
+                    indices = indexedParser.newColumnIndices(cursor);
+                }
+                sink.add(indexedParser.newObject(cursor, indices));
+            }
+        } else {
+            while (cursor.moveToNext()) {
+                throwIfCanceled(cursor, cancellationSignal);
+                sink.add(parser.newObject(cursor));
+            }
+        }
+    }
+
+    private static void throwIfCanceled(@NonNull final Cursor cursor,
+                                        @Nullable final CancellationSignal cancellationSignal) {
+        if (null != cancellationSignal
+                && 0 == cursor.getPosition() % CANCELLATION_CHECK_INTERVAL) {
+            cancellationSignal.throwIfCanceled();
+        }
+    }
+
+    private static <T> void parseParallel(@NonNull final Cursor cursor,
+                                          @NonNull final CursorParser<T> parser,
+                                          @NonNull final Collection<? super T> sink,
+                                          @NonNull final Executor executor) {
+        @NonNull final String[] columnNames = cursor.getColumnNames();
+        @NonNull final List<FutureTask<List<T>>> tasks = new ArrayList<>();
+
+        try {
+            final int count = cursor.getCount();
+            int position = 0;
+            while (position < count) {
+                @NonNull final CursorWindow window = new CursorWindow(
+                        CursorParserUtil.class.getSimpleName());
+                final int rows;
+                try {
+                    DatabaseUtils.cursorFillWindow(cursor, position, window);
+                    rows = window.getNumRows();
+                } catch (final RuntimeException e) {
+                    window.close();
+                    throw e;
+                }
+
+                if (0 == rows) {
+                    // A single row too large for a window; let the sequential path report it
+                    window.close();
+                    break;
+                }
+
+                window.setStartPosition(0);
+                @NonNull final Cursor chunk = new CursorWindowCursor(columnNames, window);
+
+                // Each task owns its chunk.  Tasks are never canceled, so chunks are always closed.
+                @NonNull final FutureTask<List<T>> task = new FutureTask<>(() -> {
+                    try {
+                        @NonNull final List<T> result = new ArrayList<>(rows);
+                        parseRange(chunk, parser, result, null);
+                        return result;
+                    } finally {
+                        chunk.close();
+                    }
+                });
+                tasks.add(task);
+                executor.execute(task);
+
+                position += rows;
+            }
+
+            for (@NonNull final FutureTask<List<T>> task : tasks) {
+                /*
+                 * Run the task here if the executor hasn't started it yet, which is a no-op
+                 * otherwise.  Blocking instead could deadlock when the calling thread is the one
+                 * that would run it.
+                 */
+                task.run();
+                sink.addAll(task.get());
+            }
+
+            if (position < count) {
+                cursor.moveToPosition(position - 1);
+                while (cursor.moveToNext()) {
+                    sink.add(parser.newObject(cursor));
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Private constructor prevents instantiation.
+     *
+     * @throws UnsupportedOperationException because this class cannot be instantiated.
+     */
+    private CursorParserUtil() {
+        throw new UnsupportedOperationException("This class is non-instantiable"); //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.util;
+
+import android.database.Cursor;
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A {@link CursorParser} that resolves column indices once per Cursor rather than once per row.
+ * <p>
+ * Subclasses resolve the columns they need in {@link #newColumnIndices(Cursor)}, typically via
+ * {@link Cursor#getColumnIndexOrThrow(String)}, and read rows in
+ * {@link #newObject(Cursor, Object)}.  When used as a plain {@link CursorParser}, the most
+ * recently resolved indices are cached and reused for as long as the same Cursor is passed in.
+ * {@link CursorParserUtil#parseAll(Cursor, CursorParser)} bypasses the cache and resolves the
+ * indices exactly once.
+ *
+ * @param <T> Type of the parsed object.
+ * @param <I> Type holding the resolved column indices.  Instances must be immutable.
+ */
+@ThreadSafe
+public abstract class IndexedCursorParser<T, I> implements CursorParser<T> {
+
+    /**
+     * Cache of the indices of the most recently seen Cursor.
+     */
+    @Nullable
+    private volatile IndexCache<I> mIndexCache = null;
+
+    /**
+     * Resolves the column indices of {@code cursor}.  This method will not mutate the Cursor or
+     * move the Cursor position.
+     *
+     * @param cursor Cursor from a query to a contract this parser can handle.
+     * @return Column indices for {@code cursor}.
+     * @throws IllegalArgumentException If a required column is missing.
+     */
+    @NonNull
+    @AnyThread
+    public abstract I newColumnIndices(@NonNull final Cursor cursor);
+
+    /**
+     * Extracts an object from a Cursor using previously resolved column indices.  This method
+     * will not mutate the Cursor or move the Cursor position.
+     *
+     * @param cursor  Cursor positioned to a row that is ready to be read.
+     * @param indices Indices previously returned by {@link #newColumnIndices(Cursor)} for a
+     *                Cursor with the same columns.
+     * @return a new Object.
+     */
+    @NonNull
+    @AnyThread
+    public abstract T newObject(@NonNull final Cursor cursor, @NonNull final I indices);
+
+    @NonNull
+    @Override
+    public final T newObject(@NonNull final Cursor cursor) {
+        return newObject(cursor, getColumnIndices(cursor));
+    }
+
+    /**
+     * Subclasses may use this to read columns in other methods, such as
+     * {@link KeyedCursorParser#getKey(Cursor)}, without resolving indices for every row.
+     *
+     * @param cursor Cursor to resolve indices for.
+     * @return Cached indices if {@code cursor} was the most recently seen Cursor, otherwise newly
+     * resolved indices.
+     */
+    @NonNull
+    @AnyThread
+    protected final I getColumnIndices(@NonNull final Cursor cursor) {
+        @Nullable final IndexCache<I> cache = mIndexCache;
+        if (null != cache && cache.mCursor == cursor) {
+            return cache.mIndices;
+        }
+
+        @NonNull final I indices = newColumnIndices(cursor);
+        mIndexCache = new IndexCache<>(cursor, indices);
+
+        return indices;
+    }
+
+    @Immutable
+    private static final class IndexCache<I> {
+
+        @NonNull
+        private final Cursor mCursor;
+
+        @NonNull
+        private final I mIndices;
+
+        IndexCache(@NonNull final Cursor cursor, @NonNull final I indices) {
+            mCursor = cursor;
+            mIndices = indices;
+        }
+    }
+}
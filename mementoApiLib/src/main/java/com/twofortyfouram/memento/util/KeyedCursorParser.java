@@ -0,0 +1,65 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.util;
+
+import android.database.Cursor;
+import android.provider.BaseColumns;
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A {@link CursorParser} that can identify rows by a stable key, allowing the results of two
+ * queries to be compared row by row.
+ *
+ * @param <T> Type of the parsed object.
+ */
+@ThreadSafe
+public interface KeyedCursorParser<T> extends CursorParser<T> {
+
+    /**
+     * Extracts the key of a row from a Cursor.  The key must uniquely identify the row within a
+     * result set and must not change when the row is updated.  Typically this is
+     * {@link BaseColumns#_ID}.  This method will not mutate the Cursor or move the Cursor
+     * position.
+     *
+     * @param cursor Cursor from a query to a contract this parser can handle.
+     * @return The key of the row.
+     * @throws AssertionError If the cursor is closed or the cursor is out of range.
+     */
+    @AnyThread
+    long getKey(@NonNull final Cursor cursor);
+
+    /**
+     * Optionally determines whether the row at the current Cursor position is unchanged compared
+     * to an object previously parsed for the same key, without parsing the row.  For example, an
+     * implementation could compare a version or modification timestamp column.  This method will
+     * not mutate the Cursor or move the Cursor position.
+     * <p>
+     * The default implementation returns false, which causes the row to be parsed and then
+     * compared with {@link Object#equals(Object)}.
+     *
+     * @param cursor   Cursor from a query to a contract this parser can handle.
+     * @param previous Object previously parsed for the key of the current row.
+     * @return True if the row is known to be unchanged, so that {@code previous} can be reused.
+     */
+    @AnyThread
+    default boolean isUnchanged(@NonNull final Cursor cursor, @NonNull final T previous) {
+        return false;
+    }
+}
@@ -45,6 +45,7 @@ dependencies {
     implementation(projects.spackleLib)
 
     androidTestImplementation(libs.androidx.sqlite.framework)
+    androidTestAnnotationProcessor(projects.mementoProcessorLib)
 
     androidTestImplementation(libs.androidx.espresso.core)
     androidTestImplementation(libs.androidx.espresso.intents)
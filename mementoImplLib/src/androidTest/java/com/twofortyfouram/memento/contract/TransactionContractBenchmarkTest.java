@@ -0,0 +1,158 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.contract;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.Parcel;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import com.twofortyfouram.log.Lumberjack;
+import com.twofortyfouram.memento.test.main_process.provider.ContentProviderUtil;
+import com.twofortyfouram.memento.util.Transactable;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Compares the latency of {@link TransactionContract#runInTransaction(Context, Uri, Transactable, Bundle)}, which
+ * hands the Transactable directly to a provider in the same process, with sending the Transactable through
+ * {@link ContentResolver#call(Uri, String, String, Bundle)}.  Results are logged rather than asserted, as timings
+ * vary between devices.
+ */
+@RunWith(AndroidJUnit4.class)
+public final class TransactionContractBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 50;
+
+    private static final int MEASURED_ITERATIONS = 500;
+
+    @LargeTest
+    @Test
+    public void runInTransaction_local_versus_call() {
+        @NonNull final Context context = ApplicationProvider.getApplicationContext();
+        @NonNull final Uri authority = ContentProviderUtil.getContentAuthorityUri(context);
+        @NonNull final ContentResolver resolver = context.getContentResolver();
+
+        @NonNull final Bundle data = new Bundle();
+        data.putString(NoOpTransactable.EXTRA_STRING_VALUE, "test_value"); //$NON-NLS
+
+        @NonNull final Runnable local = () -> assertResult(TransactionContract.runInTransaction(context, authority,
+                new NoOpTransactable(), data));
+
+        @NonNull final Runnable call = () -> {
+            @NonNull final Bundle extras = new Bundle();
+            extras.putParcelable(TransactionContract.EXTRA_BUNDLE_PARCELABLE_TRANSACTABLE, new NoOpTransactable());
+            extras.putBundle(TransactionContract.EXTRA_BUNDLE_TRANSACTABLE_DATA, data);
+
+            assertResult(resolver.call(authority, TransactionContract.METHOD_RUN_IN_TRANSACTION, null, extras));
+        };
+
+        // Approximates the additional cost when the provider is in another process
+        @NonNull final Runnable callWithParcel = () -> {
+            @NonNull final Bundle extras = new Bundle();
+            extras.putParcelable(TransactionContract.EXTRA_BUNDLE_PARCELABLE_TRANSACTABLE, new NoOpTransactable());
+            extras.putBundle(TransactionContract.EXTRA_BUNDLE_TRANSACTABLE_DATA, data);
+
+            @NonNull final Parcel parcel = Parcel.obtain();
+            try {
+                parcel.writeBundle(extras);
+                parcel.setDataPosition(0);
+                @NonNull final Bundle unparceled = parcel.readBundle(NoOpTransactable.class.getClassLoader());
+
+                assertResult(resolver.call(authority, TransactionContract.METHOD_RUN_IN_TRANSACTION, null,
+                        unparceled));
+            } finally {
+                parcel.recycle();
+            }
+        };
+
+        final long localNanos = measureMedianNanos(local);
+        final long callNanos = measureMedianNanos(call);
+        final long callWithParcelNanos = measureMedianNanos(callWithParcel);
+
+        Lumberjack.always("runInTransaction median: local=%d ns, call=%d ns, call with parcel=%d ns", //$NON-NLS
+                localNanos, callNanos, callWithParcelNanos);
+    }
+
+    private static long measureMedianNanos(@NonNull final Runnable runnable) {
+        for (int x = 0; x < WARMUP_ITERATIONS; x++) {
+            runnable.run();
+        }
+
+        @NonNull final long[] durations = new long[MEASURED_ITERATIONS];
+        for (int x = 0; x < MEASURED_ITERATIONS; x++) {
+            final long start = System.nanoTime();
+            runnable.run();
+            durations[x] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(durations);
+
+        return durations[MEASURED_ITERATIONS / 2];
+    }
+
+    private static void assertResult(@Nullable final Bundle result) {
+        assertThat(result.getString(NoOpTransactable.EXTRA_STRING_VALUE), is("test_value")); //$NON-NLS
+    }
+
+    public static final class NoOpTransactable implements Transactable {
+
+        @NonNull
+        public static final String EXTRA_STRING_VALUE = "value"; //$NON-NLS
+
+        public static final Creator<NoOpTransactable> CREATOR = new Creator<NoOpTransactable>() {
+            @Override
+            public NoOpTransactable createFromParcel(final Parcel parcel) {
+                return new NoOpTransactable();
+            }
+
+            @Override
+            public NoOpTransactable[] newArray(final int size) {
+                return new NoOpTransactable[size];
+            }
+        };
+
+        @Nullable
+        @Override
+        public Bundle runInTransaction(@NonNull final Context context, @NonNull final Bundle bundle) {
+            @NonNull final Bundle result = new Bundle();
+            result.putString(EXTRA_STRING_VALUE, bundle.getString(EXTRA_STRING_VALUE));
+
+            return result;
+        }
+
+        @Override
+        public int describeContents() {
+            return 0;
+        }
+
+        @Override
+        public void writeToParcel(final Parcel parcel, final int flags) {
+        }
+    }
+}
@@ -18,11 +18,13 @@
 package com.twofortyfouram.memento.internal;
 
 import android.content.ContentResolver;
+import android.content.ContentUris;
 import android.content.Intent;
 import android.database.ContentObserver;
 import android.net.Uri;
 import android.os.Handler;
 import android.os.HandlerThread;
+import android.os.SystemClock;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.test.core.app.ApplicationProvider;
@@ -30,6 +32,7 @@ import androidx.test.filters.MediumTest;
 import androidx.test.filters.SmallTest;
 import android.text.format.DateUtils;
 
+import com.twofortyfouram.memento.contract.ChangePayloadContract;
 import com.twofortyfouram.memento.test.main_process.contract.TestTableOneContract;
 import com.twofortyfouram.spackle.HandlerThreadFactory;
 import com.twofortyfouram.spackle.HandlerThreadFactory.ThreadPriority;
@@ -41,12 +44,17 @@ import org.junit.runner.RunWith;
 
 import java.util.Collection;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -220,6 +228,172 @@ public final class ContentChangeNotificationQueueTest {
         }
     }
 
+    @MediumTest
+    @Test
+    public void onContentChanged_batch_payload_coalesced() throws InterruptedException {
+        final Uri uri = buildUri();
+
+        final HandlerThread thread = HandlerThreadFactory
+                .newHandlerThread(UUID.randomUUID().toString(), ThreadPriority.DEFAULT);
+        try {
+            final CountDownLatch latch = new CountDownLatch(1);
+            final AtomicReference<Uri> notifiedUri = new AtomicReference<>();
+            final ContentObserver observer = new ContentObserver(new Handler(thread.getLooper())) {
+                @Override
+                public void onChange(final boolean selfChange, final Uri uri) {
+                    super.onChange(selfChange, uri);
+
+                    notifiedUri.set(uri);
+                    latch.countDown();
+                }
+            };
+            ApplicationProvider.getApplicationContext().getContentResolver()
+                    .registerContentObserver(uri, true, observer);
+
+            final ContentChangeNotificationQueue queue = new ContentChangeNotificationQueue(
+                    ApplicationProvider.getApplicationContext(), false, null);
+            queue.startBatch();
+            queue.onContentChanged(uri, ChangePayloadContract.OPERATION_INSERT, 1);
+            queue.onContentChanged(uri, ChangePayloadContract.OPERATION_INSERT, 1);
+            queue.onContentChanged(uri, ChangePayloadContract.OPERATION_DELETE, -3);
+            queue.endBatch(true);
+
+            assertTrue(latch.await(500, TimeUnit.MILLISECONDS));
+            assertThat(ChangePayloadContract.getOperation(notifiedUri.get()),
+                    is(ChangePayloadContract.OPERATION_MIXED));
+            assertThat(ChangePayloadContract.getRowDelta(notifiedUri.get()), is(-1));
+        } finally {
+            thread.quit();
+        }
+    }
+
+    @MediumTest
+    @Test
+    public void onContentChanged_batch_payload_missing() throws InterruptedException {
+        final Uri uri = buildUri();
+
+        final HandlerThread thread = HandlerThreadFactory
+                .newHandlerThread(UUID.randomUUID().toString(), ThreadPriority.DEFAULT);
+        try {
+            final CountDownLatch latch = new CountDownLatch(1);
+            final AtomicReference<Uri> notifiedUri = new AtomicReference<>();
+            final ContentObserver observer = new ContentObserver(new Handler(thread.getLooper())) {
+                @Override
+                public void onChange(final boolean selfChange, final Uri uri) {
+                    super.onChange(selfChange, uri);
+
+                    notifiedUri.set(uri);
+                    latch.countDown();
+                }
+            };
+            ApplicationProvider.getApplicationContext().getContentResolver()
+                    .registerContentObserver(uri, true, observer);
+
+            final ContentChangeNotificationQueue queue = new ContentChangeNotificationQueue(
+                    ApplicationProvider.getApplicationContext(), false, null);
+            queue.startBatch();
+            queue.onContentChanged(uri, ChangePayloadContract.OPERATION_INSERT, 1);
+            queue.onContentChanged(uri);
+            queue.endBatch(true);
+
+            assertTrue(latch.await(500, TimeUnit.MILLISECONDS));
+            assertThat(ChangePayloadContract.getRowDelta(notifiedUri.get()), nullValue());
+        } finally {
+            thread.quit();
+        }
+    }
+
+    @MediumTest
+    @Test
+    public void onRowChanged_batch_under_limit() throws InterruptedException {
+        final Uri uri = buildUri();
+        final Collection<Uri> notifiedUris = observeBatch(uri, 2, queue -> {
+            queue.onRowChanged(uri, 1, ChangePayloadContract.OPERATION_INSERT, 1);
+            queue.onRowChanged(uri, 2, ChangePayloadContract.OPERATION_DELETE, -1);
+        });
+
+        assertThat(notifiedUris, hasSize(2));
+        for (final Uri notifiedUri : notifiedUris) {
+            assertThat(notifiedUri.getPathSegments(), hasSize(uri.getPathSegments().size() + 1));
+        }
+    }
+
+    @MediumTest
+    @Test
+    public void onRowChanged_batch_over_limit() throws InterruptedException {
+        final Uri uri = buildUri();
+        final Collection<Uri> notifiedUris = observeBatch(uri, 1, queue -> {
+            queue.onRowChanged(uri, 1, ChangePayloadContract.OPERATION_INSERT, 1);
+            queue.onRowChanged(uri, 2, ChangePayloadContract.OPERATION_INSERT, 1);
+        });
+
+        assertThat(notifiedUris, hasSize(1));
+        final Uri notifiedUri = notifiedUris.iterator().next();
+        assertThat(notifiedUri.getPath(), is(uri.getPath()));
+        assertThat(ChangePayloadContract.getRowDelta(notifiedUri), is(2));
+    }
+
+    @MediumTest
+    @Test
+    public void onRowChanged_batch_payload_disabled() throws InterruptedException {
+        final Uri uri = buildUri();
+        final Collection<Uri> notifiedUris = observeBatch(uri, 1, false, queue -> {
+            queue.onRowChanged(uri, 1, ChangePayloadContract.OPERATION_INSERT, 1);
+        });
+
+        assertThat(notifiedUris, hasSize(1));
+        assertThat(notifiedUris.iterator().next(), is(ContentUris.withAppendedId(uri, 1)));
+    }
+
+    @MediumTest
+    @Test
+    public void onRowChanged_batch_over_limit_payload_disabled() throws InterruptedException {
+        final Uri uri = buildUri();
+        final Collection<Uri> notifiedUris = observeBatch(uri, 1, false, queue -> {
+            queue.onRowChanged(uri, 1, ChangePayloadContract.OPERATION_INSERT, 1);
+            queue.onRowChanged(uri, 2, ChangePayloadContract.OPERATION_INSERT, 1);
+        });
+
+        assertThat(notifiedUris, hasSize(1));
+        assertThat(notifiedUris.iterator().next(), is(uri));
+    }
+
+    @MediumTest
+    @Test
+    public void onContentChanged_batch_change_time_before_changes() throws InterruptedException {
+        final Uri uri = buildUri();
+        final long beforeRealTimeMillis = SystemClock.elapsedRealtime();
+        final AtomicLong afterStartRealTimeMillis = new AtomicLong();
+        final Collection<Uri> notifiedUris = observeBatch(uri, Integer.MAX_VALUE, queue -> {
+            afterStartRealTimeMillis.set(SystemClock.elapsedRealtime());
+            SystemClock.sleep(2);
+            queue.onContentChanged(uri, ChangePayloadContract.OPERATION_INSERT, 1);
+        });
+
+        assertThat(notifiedUris, hasSize(1));
+        final Long changeRealTimeMillis = ChangePayloadContract
+                .getChangeRealTimeMillis(notifiedUris.iterator().next());
+        assertThat(changeRealTimeMillis, notNullValue());
+        assertTrue(beforeRealTimeMillis <= changeRealTimeMillis);
+        assertTrue(afterStartRealTimeMillis.get() >= changeRealTimeMillis);
+    }
+
+    @SmallTest
+    @Test
+    public void intent_payload_plain_uri() {
+        final Uri uri = buildUri();
+        final ReceiverContextWrapper context = new ReceiverContextWrapper(
+                ApplicationProvider.getApplicationContext());
+
+        final ContentChangeNotificationQueue queue = new ContentChangeNotificationQueue(context,
+                false, null);
+        queue.onContentChanged(uri, ChangePayloadContract.OPERATION_INSERT, 1);
+
+        final Collection<SentIntent> intents = context.getAndClearSentIntents();
+        assertThat(intents.size(), is(1));
+        assertThat(intents.iterator().next().getIntent().getData(), is(uri));
+    }
+
     @SmallTest
     @Test
     public void intent_no_batch_no_permission_exported() {
@@ -252,6 +426,69 @@ public final class ContentChangeNotificationQueueTest {
         assertIntentNotification(true, false, null, false, buildUri());
     }
 
+    /**
+     * Performs a batch and collects the resulting notifications.
+     *
+     * @param uri      Uri to observe, including descendants.
+     * @param rowLimit Row limit of the queue.
+     * @param batch    Changes to make within the batch.
+     * @return Uris notified within a short time after the batch.
+     */
+    @NonNull
+    private Collection<Uri> observeBatch(@NonNull final Uri uri, final int rowLimit,
+            @NonNull final BatchChanges batch)
+            throws InterruptedException {
+        return observeBatch(uri, rowLimit, true, batch);
+    }
+
+    /**
+     * Performs a batch and collects the resulting notifications.
+     *
+     * @param uri              Uri to observe, including descendants.
+     * @param rowLimit         Row limit of the queue.
+     * @param isPayloadEnabled True if the queue attaches payloads.
+     * @param batch            Changes to make within the batch.
+     * @return Uris notified within a short time after the batch.
+     */
+    @NonNull
+    private Collection<Uri> observeBatch(@NonNull final Uri uri, final int rowLimit,
+            final boolean isPayloadEnabled, @NonNull final BatchChanges batch)
+            throws InterruptedException {
+        final HandlerThread thread = HandlerThreadFactory
+                .newHandlerThread(UUID.randomUUID().toString(), ThreadPriority.DEFAULT);
+        try {
+            final Collection<Uri> notifiedUris = new ConcurrentLinkedQueue<>();
+            final ContentObserver observer = new ContentObserver(new Handler(thread.getLooper())) {
+                @Override
+                public void onChange(final boolean selfChange, final Uri uri) {
+                    super.onChange(selfChange, uri);
+
+                    notifiedUris.add(uri);
+                }
+            };
+            ApplicationProvider.getApplicationContext().getContentResolver()
+                    .registerContentObserver(uri, true, observer);
+
+            try {
+                final ContentChangeNotificationQueue queue = new ContentChangeNotificationQueue(
+                        ApplicationProvider.getApplicationContext(), false, null, rowLimit,
+                        isPayloadEnabled);
+                queue.startBatch();
+                batch.apply(queue);
+                queue.endBatch(true);
+
+                Thread.sleep(500);
+            } finally {
+                ApplicationProvider.getApplicationContext().getContentResolver()
+                        .unregisterContentObserver(observer);
+            }
+
+            return notifiedUris;
+        } finally {
+            thread.quit();
+        }
+    }
+
     @NonNull
     private static Uri buildUri() {
         final Uri.Builder builder = new Uri.Builder();
@@ -325,4 +562,9 @@ public final class ContentChangeNotificationQueueTest {
             assertThat(intent.getData(), is(changedUri));
         }
     }
+
+    private interface BatchChanges {
+
+        void apply(@NonNull final ContentChangeNotificationQueue queue);
+    }
 }
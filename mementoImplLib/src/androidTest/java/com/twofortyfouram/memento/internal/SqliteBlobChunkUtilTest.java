@@ -0,0 +1,52 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.twofortyfouram.memento.internal;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.twofortyfouram.test.matcher.ClassNotInstantiableMatcher.notInstantiable;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(AndroidJUnit4.class)
+public final class SqliteBlobChunkUtilTest {
+
+    @SmallTest
+    @Test
+    public void nonInstantiable() {
+        assertThat(SqliteBlobChunkUtil.class, notInstantiable());
+    }
+
+    @SmallTest
+    @Test
+    public void newCreateDeleteTrigger() {
+        assertThat(SqliteBlobChunkUtil.newCreateDeleteTrigger("history"), //$NON-NLS
+                is("CREATE TRIGGER IF NOT EXISTS memento_blob_chunk_history_delete AFTER DELETE ON history BEGIN DELETE FROM memento_blob_chunk WHERE table_name = 'history' AND row_id = old._id; END")); //$NON-NLS
+    }
+
+    @SmallTest
+    @Test
+    public void newValueArgs() {
+        assertThat(SqliteBlobChunkUtil.newValueArgs("history", "data", 5L), //$NON-NLS
+                is(new Object[]{"history", "data", 5L})); //$NON-NLS
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.internal;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import com.twofortyfouram.memento.model.SqliteConfiguration;
+import com.twofortyfouram.memento.model.SqliteConfigurationBuilder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(AndroidJUnit4.class)
+public final class SqliteConfiguringCallbackTest {
+
+    @NonNull
+    private static final String DB_FILE_NAME = "configuring_callback_test.sqlite3"; //$NON-NLS
+
+    private static final int PAGE_SIZE_BYTES = 16384;
+
+    @Before
+    public void setUp() {
+        ApplicationProvider.getApplicationContext().deleteDatabase(DB_FILE_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        ApplicationProvider.getApplicationContext().deleteDatabase(DB_FILE_NAME);
+    }
+
+    @SmallTest
+    @Test
+    public void version() {
+        assertThat(new SqliteConfiguringCallback(new SqliteConfigurationBuilder().build(),
+                new CallbackImpl(new AtomicInteger())).version, is(CallbackImpl.VERSION));
+    }
+
+    @SmallTest
+    @Test
+    public void onConfigure_page_size_before_create() {
+        @NonNull final Context context = ApplicationProvider.getApplicationContext();
+        @NonNull final AtomicInteger pageSizeAtCreate = new AtomicInteger();
+        @NonNull final SqliteConfiguration configuration = new SqliteConfigurationBuilder()
+                .setPageSizeBytes(PAGE_SIZE_BYTES)
+                .setJournalMode(SqliteConfiguration.JournalMode.WAL)
+                .build();
+
+        @NonNull final SupportSQLiteOpenHelper openHelper = new FrameworkSQLiteOpenHelperFactory()
+                .create(SupportSQLiteOpenHelper.Configuration.builder(context)
+                        .name(DB_FILE_NAME)
+                        .callback(new SqliteConfiguringCallback(configuration,
+                                new CallbackImpl(pageSizeAtCreate)))
+                        .build());
+        try {
+            @NonNull final SupportSQLiteDatabase database = openHelper.getWritableDatabase();
+
+            assertThat(pageSizeAtCreate.get(), is(PAGE_SIZE_BYTES));
+            assertThat(queryPageSize(database), is(PAGE_SIZE_BYTES));
+        } finally {
+            openHelper.close();
+        }
+    }
+
+    private static int queryPageSize(@NonNull final SupportSQLiteDatabase database) {
+        try (@NonNull final Cursor cursor = database.query("PRAGMA page_size")) { //$NON-NLS
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+
+    private static final class CallbackImpl extends SupportSQLiteOpenHelper.Callback {
+
+        private static final int VERSION = 3;
+
+        @NonNull
+        private final AtomicInteger mPageSizeAtCreate;
+
+        CallbackImpl(@NonNull final AtomicInteger pageSizeAtCreate) {
+            super(VERSION);
+            mPageSizeAtCreate = pageSizeAtCreate;
+        }
+
+        @Override
+        public void onCreate(@NonNull final SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE test (value TEXT)"); //$NON-NLS
+            mPageSizeAtCreate.set(queryPageSize(db));
+        }
+
+        @Override
+        public void onUpgrade(@NonNull final SupportSQLiteDatabase db, final int oldVersion,
+                              final int newVersion) {
+        }
+    }
+}
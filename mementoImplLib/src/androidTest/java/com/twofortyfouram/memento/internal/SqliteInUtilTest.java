@@ -0,0 +1,82 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.internal;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.twofortyfouram.test.matcher.ClassNotInstantiableMatcher.notInstantiable;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(AndroidJUnit4.class)
+public final class SqliteInUtilTest {
+
+    @SmallTest
+    @Test
+    public void nonInstantiable() {
+        assertThat(SqliteInUtil.class, notInstantiable());
+    }
+
+    @SmallTest
+    @Test
+    public void newInSelection_one() {
+        assertThat(SqliteInUtil.newInSelection("_id", 1), is("_id IN (?)")); //$NON-NLS
+    }
+
+    @SmallTest
+    @Test
+    public void newInSelection_three() {
+        assertThat(SqliteInUtil.newInSelection("_id", 3), is("_id IN (?,?,?)")); //$NON-NLS
+    }
+
+    @SmallTest
+    @Test(expected = AssertionError.class)
+    public void newInSelection_too_many() {
+        SqliteInUtil.newInSelection("_id", SqliteInUtil.MAX_CHUNK_SIZE + 1); //$NON-NLS
+    }
+
+    @SmallTest
+    @Test
+    public void newInSelectionArgs() {
+        assertThat(SqliteInUtil.newInSelectionArgs(new long[]{1L, 2L, 3L, 4L}, 1, 2),
+                is(new Object[]{2L, 3L}));
+    }
+
+    @SmallTest
+    @Test(expected = AssertionError.class)
+    public void newInSelectionArgs_out_of_bounds() {
+        SqliteInUtil.newInSelectionArgs(new long[]{1L, 2L}, 1, 2);
+    }
+
+    @SmallTest
+    @Test
+    public void getChunkSize() {
+        assertThat(SqliteInUtil.getChunkSize(1000, 0), is(SqliteInUtil.MAX_CHUNK_SIZE));
+        assertThat(SqliteInUtil.getChunkSize(1000, SqliteInUtil.MAX_CHUNK_SIZE * 2), is(2));
+    }
+
+    @SmallTest
+    @Test
+    public void newCaseOrderBy() {
+        assertThat(SqliteInUtil.newCaseOrderBy("_id", new long[]{7L, 5L, 9L}, 1, 2), //$NON-NLS
+                is("CASE _id WHEN 5 THEN 0 WHEN 9 THEN 1 END")); //$NON-NLS
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.internal;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Bundle;
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.MediumTest;
+import androidx.test.filters.SmallTest;
+import com.twofortyfouram.memento.contract.MaintenanceContract;
+import com.twofortyfouram.memento.model.SqliteMaintenancePolicy;
+import com.twofortyfouram.memento.model.SqliteMaintenancePolicyBuilder;
+import com.twofortyfouram.spackle.Clock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public final class SqliteMaintenanceSchedulerTest {
+
+    @NonNull
+    private static final String DB_FILE_NAME = "maintenance_test.sqlite3"; //$NON-NLS
+
+    @NonNull
+    private static final String TABLE_NAME = "maintenance"; //$NON-NLS
+
+    @NonNull
+    private static final String COLUMN_VALUE = "value"; //$NON-NLS
+
+    private SupportSQLiteOpenHelper mOpenHelper;
+
+    @Before
+    public void setUp() {
+        @NonNull final Context context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_FILE_NAME);
+
+        mOpenHelper = new FrameworkSQLiteOpenHelperFactory().create(
+                SupportSQLiteOpenHelper.Configuration.builder(context)
+                        .name(DB_FILE_NAME)
+                        .callback(new SupportSQLiteOpenHelper.Callback(1) {
+                            @Override
+                            public void onConfigure(@NonNull final SupportSQLiteDatabase db) {
+                                // Must be set before any table is created
+                                db.execSQL("PRAGMA auto_vacuum = INCREMENTAL"); //$NON-NLS
+                                db.enableWriteAheadLogging();
+                            }
+
+                            @Override
+                            public void onCreate(@NonNull final SupportSQLiteDatabase db) {
+                                db.execSQL("CREATE TABLE " + TABLE_NAME + " (" //$NON-NLS
+                                        + COLUMN_VALUE + " TEXT)"); //$NON-NLS
+                            }
+
+                            @Override
+                            public void onUpgrade(@NonNull final SupportSQLiteDatabase db,
+                                                  final int oldVersion, final int newVersion) {
+                            }
+                        })
+                        .build());
+    }
+
+    @After
+    public void tearDown() {
+        mOpenHelper.close();
+        ApplicationProvider.getApplicationContext().deleteDatabase(DB_FILE_NAME);
+    }
+
+    @MediumTest
+    @Test
+    public void runMaintenance_all_tasks() {
+        fillAndEmptyTable();
+
+        @NonNull final SqliteMaintenanceScheduler scheduler = new SqliteMaintenanceScheduler(
+                new SqliteMaintenancePolicyBuilder().setTimeBudgetMillis(Long.MAX_VALUE).build(),
+                mOpenHelper::getWritableDatabase);
+
+        assertFalse(scheduler.runMaintenance());
+
+        @NonNull final Bundle metrics = scheduler.getMetrics();
+        @NonNull final Bundle checkpoint = metrics.getBundle(MaintenanceContract.TASK_WAL_CHECKPOINT);
+        @NonNull final Bundle vacuum = metrics.getBundle(MaintenanceContract.TASK_INCREMENTAL_VACUUM);
+        @NonNull final Bundle optimize = metrics.getBundle(MaintenanceContract.TASK_OPTIMIZE);
+
+        assertThat(checkpoint.getLong(MaintenanceContract.EXTRA_LONG_RUN_COUNT), is(1L));
+        assertThat(checkpoint.getLong(MaintenanceContract.EXTRA_LONG_LAST_RESULT), greaterThan(0L));
+        assertThat(vacuum.getLong(MaintenanceContract.EXTRA_LONG_RUN_COUNT), is(1L));
+        assertThat(vacuum.getLong(MaintenanceContract.EXTRA_LONG_LAST_RESULT), greaterThan(0L));
+        assertThat(optimize.getLong(MaintenanceContract.EXTRA_LONG_RUN_COUNT), is(1L));
+
+        // Statistics are only refreshed once per interval
+        assertFalse(scheduler.runMaintenance());
+        assertThat(scheduler.getMetrics().getBundle(MaintenanceContract.TASK_OPTIMIZE)
+                .getLong(MaintenanceContract.EXTRA_LONG_RUN_COUNT), is(1L));
+        assertThat(scheduler.getMetrics().getBundle(MaintenanceContract.TASK_WAL_CHECKPOINT)
+                .getLong(MaintenanceContract.EXTRA_LONG_RUN_COUNT), is(2L));
+    }
+
+    @SmallTest
+    @Test
+    public void runMaintenance_over_budget() {
+        @NonNull final SqliteMaintenancePolicy policy = new SqliteMaintenancePolicyBuilder()
+                .setTimeBudgetMillis(1)
+                .build();
+
+        // Every reading of the clock advances it past the budget
+        @NonNull final Clock clock = new Clock() {
+            private long mRealTimeMillis = 0;
+
+            @Override
+            public long getWallTimeMillis() {
+                return getRealTimeMillis();
+            }
+
+            @Override
+            public long getRealTimeMillis() {
+                mRealTimeMillis += 10;
+                return mRealTimeMillis;
+            }
+        };
+
+        @NonNull final SqliteMaintenanceScheduler scheduler = new SqliteMaintenanceScheduler(
+                policy, mOpenHelper::getWritableDatabase, clock);
+
+        assertTrue(scheduler.runMaintenance());
+        assertThat(getCount(scheduler, MaintenanceContract.TASK_WAL_CHECKPOINT,
+                MaintenanceContract.EXTRA_LONG_RUN_COUNT), is(1L));
+        assertThat(getCount(scheduler, MaintenanceContract.TASK_INCREMENTAL_VACUUM,
+                MaintenanceContract.EXTRA_LONG_DEFERRED_COUNT), is(1L));
+        assertThat(getCount(scheduler, MaintenanceContract.TASK_OPTIMIZE,
+                MaintenanceContract.EXTRA_LONG_DEFERRED_COUNT), is(1L));
+
+        // The next run resumes with the deferred tasks
+        assertTrue(scheduler.runMaintenance());
+        assertThat(getCount(scheduler, MaintenanceContract.TASK_WAL_CHECKPOINT,
+                MaintenanceContract.EXTRA_LONG_DEFERRED_COUNT), is(1L));
+        assertThat(getCount(scheduler, MaintenanceContract.TASK_OPTIMIZE,
+                MaintenanceContract.EXTRA_LONG_DEFERRED_COUNT), is(2L));
+    }
+
+    private void fillAndEmptyTable() {
+        @NonNull final SupportSQLiteDatabase database = mOpenHelper.getWritableDatabase();
+
+        @NonNull final ContentValues values = new ContentValues();
+        values.put(COLUMN_VALUE, new String(new char[1024]).replace('\0', 'a'));
+
+        database.beginTransaction();
+        try {
+            for (int x = 0; x < 1000; x++) {
+                database.insert(TABLE_NAME, SQLiteDatabase.CONFLICT_NONE, values);
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+
+        database.delete(TABLE_NAME, null, null);
+    }
+
+    private static long getCount(@NonNull final SqliteMaintenanceScheduler scheduler,
+                                 @NonNull final String task, @NonNull final String key) {
+        return scheduler.getMetrics().getBundle(task).getLong(key);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.internal;
+
+import android.os.Bundle;
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import com.twofortyfouram.memento.contract.OpenContract;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public final class SqliteOpenMetricsTest {
+
+    @SmallTest
+    @Test
+    public void toBundle_not_opened() {
+        assertTrue(new SqliteOpenMetrics().toBundle().isEmpty());
+    }
+
+    @SmallTest
+    @Test
+    public void toBundle() {
+        @NonNull final SqliteOpenMetrics metrics = new SqliteOpenMetrics();
+        metrics.onWaited(5);
+        metrics.onOpened(10, true);
+        metrics.onConfigured(20);
+        metrics.onPrepared(30, 2);
+        metrics.onWaited(7);
+
+        @NonNull final Bundle bundle = metrics.toBundle();
+        assertThat(bundle.getLong(OpenContract.EXTRA_LONG_OPEN_COUNT), is(1L));
+        assertTrue(bundle.getBoolean(OpenContract.EXTRA_BOOLEAN_IS_WARM_OPEN));
+        assertThat(bundle.getLong(OpenContract.EXTRA_LONG_OPEN_DURATION_MILLIS), is(10L));
+        assertThat(bundle.getLong(OpenContract.EXTRA_LONG_CONFIGURE_DURATION_MILLIS), is(20L));
+        assertThat(bundle.getLong(OpenContract.EXTRA_LONG_PREPARE_DURATION_MILLIS), is(30L));
+        assertThat(bundle.getLong(OpenContract.EXTRA_LONG_PREPARED_STATEMENT_COUNT), is(2L));
+        assertThat(bundle.getLong(OpenContract.EXTRA_LONG_WAIT_COUNT), is(2L));
+        assertThat(bundle.getLong(OpenContract.EXTRA_LONG_TOTAL_WAIT_DURATION_MILLIS), is(12L));
+    }
+
+    @SmallTest
+    @Test
+    public void onOpened_resets_durations() {
+        @NonNull final SqliteOpenMetrics metrics = new SqliteOpenMetrics();
+        metrics.onOpened(10, true);
+        metrics.onConfigured(20);
+        metrics.onOpened(15, false);
+
+        @NonNull final Bundle bundle = metrics.toBundle();
+        assertThat(bundle.getLong(OpenContract.EXTRA_LONG_OPEN_COUNT), is(2L));
+        assertFalse(bundle.getBoolean(OpenContract.EXTRA_BOOLEAN_IS_WARM_OPEN));
+        assertThat(bundle.getLong(OpenContract.EXTRA_LONG_OPEN_DURATION_MILLIS), is(15L));
+        assertThat(bundle.getLong(OpenContract.EXTRA_LONG_CONFIGURE_DURATION_MILLIS), is(0L));
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.internal;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.twofortyfouram.test.matcher.ClassNotInstantiableMatcher.notInstantiable;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+@RunWith(AndroidJUnit4.class)
+public final class SqlitePartitionUtilTest {
+
+    /**
+     * Monday, October 19, 2026 UTC.
+     */
+    private static final long BUCKET_START = 1792368000000L;
+
+    @SmallTest
+    @Test
+    public void nonInstantiable() {
+        assertThat(SqlitePartitionUtil.class, notInstantiable());
+    }
+
+    @SmallTest
+    @Test
+    public void newPartitionTableName() {
+        assertThat(SqlitePartitionUtil.newPartitionTableName("history", BUCKET_START), //$NON-NLS
+                is("history_20261019")); //$NON-NLS
+    }
+
+    @SmallTest
+    @Test
+    public void getBucketStart() {
+        assertThat(SqlitePartitionUtil.getBucketStart("history", "history_20261019"), //$NON-NLS
+                is(BUCKET_START));
+    }
+
+    @SmallTest
+    @Test
+    public void getBucketStart_not_partition() {
+        assertThat(SqlitePartitionUtil.getBucketStart("history", "history"), //$NON-NLS
+                nullValue());
+        assertThat(SqlitePartitionUtil.getBucketStart("history", "history_foo"), //$NON-NLS
+                nullValue());
+        assertThat(SqlitePartitionUtil.getBucketStart("history", "history_20261399"), //$NON-NLS
+                nullValue());
+        assertThat(SqlitePartitionUtil.getBucketStart("history", "other_20261019"), //$NON-NLS
+                nullValue());
+        assertThat(SqlitePartitionUtil.getBucketStart("history", "history_x_20261019"), //$NON-NLS
+                nullValue());
+    }
+
+    @SmallTest
+    @Test
+    public void newCreatePartitionTable() {
+        assertThat(SqlitePartitionUtil.newCreatePartitionTable(
+                "CREATE TABLE history (_id INTEGER PRIMARY KEY, time INTEGER)", //$NON-NLS
+                "history_20261019"), //$NON-NLS
+                is("CREATE TABLE history_20261019 (_id INTEGER PRIMARY KEY, time INTEGER)")); //$NON-NLS
+    }
+
+    @SmallTest
+    @Test
+    public void newCreatePartitionIndex() {
+        assertThat(SqlitePartitionUtil.newCreatePartitionIndex(
+                "CREATE INDEX history_time_index ON history(time)", //$NON-NLS
+                "history_time_index", "history_20261019"), //$NON-NLS
+                is("CREATE INDEX history_20261019_history_time_index ON history_20261019(time)")); //$NON-NLS
+    }
+
+    @SmallTest
+    @Test
+    public void newCreatePartitionIndex_unique() {
+        assertThat(SqlitePartitionUtil.newCreatePartitionIndex(
+                "create unique index key_index on history (key)", //$NON-NLS
+                "key_index", "history_20261019"), //$NON-NLS
+                is("CREATE UNIQUE INDEX history_20261019_key_index ON history_20261019(key)")); //$NON-NLS
+    }
+
+    @SmallTest
+    @Test
+    public void newCreatePartitionIndex_unique_in_name() {
+        assertThat(SqlitePartitionUtil.newCreatePartitionIndex(
+                "CREATE INDEX unique_key_index ON history_unique(key)", //$NON-NLS
+                "unique_key_index", "history_20261019"), //$NON-NLS
+                is("CREATE INDEX history_20261019_unique_key_index ON history_20261019(key)")); //$NON-NLS
+    }
+
+    @SmallTest
+    @Test
+    public void isUniqueIndex() {
+        assertThat(SqlitePartitionUtil.isUniqueIndex(
+                "CREATE UNIQUE INDEX key_index ON history(key)"), is(true)); //$NON-NLS
+        assertThat(SqlitePartitionUtil.isUniqueIndex(
+                "create\n\tunique index key_index on history (key)"), is(true)); //$NON-NLS
+        assertThat(SqlitePartitionUtil.isUniqueIndex(
+                "CREATE INDEX unique_index ON history(key)"), is(false)); //$NON-NLS
+        assertThat(SqlitePartitionUtil.isUniqueIndex(
+                "CREATE INDEX IF NOT EXISTS key_index ON history(uniquekey)"), //$NON-NLS
+                is(false));
+    }
+
+    @SmallTest
+    @Test
+    public void newTimeRangeSelection() {
+        assertThat(SqlitePartitionUtil.newTimeRangeSelection("time", null, null), //$NON-NLS
+                nullValue());
+        assertThat(SqlitePartitionUtil.newTimeRangeSelection("time", 1L, null), //$NON-NLS
+                is("time >= 1")); //$NON-NLS
+        assertThat(SqlitePartitionUtil.newTimeRangeSelection("time", null, 2L), //$NON-NLS
+                is("time < 2")); //$NON-NLS
+        assertThat(SqlitePartitionUtil.newTimeRangeSelection("time", 1L, 2L), //$NON-NLS
+                is("time >= 1 AND time < 2")); //$NON-NLS
+    }
+
+    @SmallTest
+    @Test
+    public void newUnionAll() {
+        assertThat(SqlitePartitionUtil.newUnionAll(Arrays.asList("SELECT 1", "SELECT 2")), //$NON-NLS
+                is("SELECT 1 UNION ALL SELECT 2")); //$NON-NLS
+    }
+
+    @SmallTest
+    @Test
+    public void newUnionAll_nested() {
+        final List<String> selects = new ArrayList<>();
+        for (int x = 0; x <= SqlitePartitionUtil.MAX_COMPOUND_SELECT; x++) {
+            selects.add("SELECT 1"); //$NON-NLS
+        }
+
+        final String result = SqlitePartitionUtil.newUnionAll(selects);
+
+        assertThat(result.startsWith("SELECT * FROM (SELECT 1 UNION ALL"), is(true)); //$NON-NLS
+        assertThat(result.endsWith(") UNION ALL SELECT * FROM (SELECT 1)"), is(true)); //$NON-NLS
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.internal;
+
+import android.os.Bundle;
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import com.twofortyfouram.memento.contract.TrimMemoryContract;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(AndroidJUnit4.class)
+public final class SqliteTrimMemoryMetricsTest {
+
+    @SmallTest
+    @Test
+    public void toBundle_not_trimmed() {
+        @NonNull final Bundle bundle = new SqliteTrimMemoryMetrics().toBundle();
+
+        assertThat(bundle.getBundle(TrimMemoryContract.TIER_SHRINK)
+                .getLong(TrimMemoryContract.EXTRA_LONG_RUN_COUNT), is(0L));
+        assertThat(bundle.getBundle(TrimMemoryContract.TIER_RELEASE)
+                .getLong(TrimMemoryContract.EXTRA_LONG_RUN_COUNT), is(0L));
+    }
+
+    @SmallTest
+    @Test
+    public void toBundle() {
+        @NonNull final SqliteTrimMemoryMetrics metrics = new SqliteTrimMemoryMetrics();
+        metrics.onTrimmed(TrimMemoryContract.TIER_RELEASE, 10, 100, 50);
+        metrics.onTrimmed(TrimMemoryContract.TIER_RELEASE, 20, -5, 0);
+        metrics.onTrimmed(TrimMemoryContract.TIER_SHRINK, 3, 7, 0);
+
+        @NonNull final Bundle release = metrics.toBundle()
+                .getBundle(TrimMemoryContract.TIER_RELEASE);
+        assertThat(release.getLong(TrimMemoryContract.EXTRA_LONG_RUN_COUNT), is(2L));
+        assertThat(release.getLong(TrimMemoryContract.EXTRA_LONG_TOTAL_DURATION_MILLIS), is(30L));
+        assertThat(release.getLong(TrimMemoryContract.EXTRA_LONG_LAST_DURATION_MILLIS), is(20L));
+        assertThat(release.getLong(TrimMemoryContract.EXTRA_LONG_LAST_NATIVE_HEAP_BYTES_RELEASED),
+                is(-5L));
+        assertThat(release.getLong(TrimMemoryContract.EXTRA_LONG_LAST_SQLITE_BYTES_RELEASED),
+                is(0L));
+
+        @NonNull final Bundle shrink = metrics.toBundle()
+                .getBundle(TrimMemoryContract.TIER_SHRINK);
+        assertThat(shrink.getLong(TrimMemoryContract.EXTRA_LONG_RUN_COUNT), is(1L));
+        assertThat(shrink.getLong(TrimMemoryContract.EXTRA_LONG_LAST_NATIVE_HEAP_BYTES_RELEASED),
+                is(7L));
+    }
+
+    @SmallTest
+    @Test(expected = IllegalArgumentException.class)
+    public void onTrimmed_unknown_tier() {
+        new SqliteTrimMemoryMetrics().onTrimmed("foo", 0, 0, 0); //$NON-NLS
+    }
+}
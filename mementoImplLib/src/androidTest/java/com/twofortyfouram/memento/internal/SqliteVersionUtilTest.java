@@ -0,0 +1,88 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.internal;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.twofortyfouram.test.matcher.ClassNotInstantiableMatcher.notInstantiable;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(AndroidJUnit4.class)
+public final class SqliteVersionUtilTest {
+
+    @SmallTest
+    @Test
+    public void nonInstantiable() {
+        assertThat(SqliteVersionUtil.class, notInstantiable());
+    }
+
+    @SmallTest
+    @Test
+    public void parseVersion() {
+        assertThat(SqliteVersionUtil.parseVersion("3.24.0"), is(SqliteVersionUtil.VERSION_UPSERT)); //$NON-NLS
+        assertThat(SqliteVersionUtil.parseVersion("3.35.5"), is(3035005)); //$NON-NLS
+        assertThat(SqliteVersionUtil.parseVersion("3.8.10.2"), is(3008010)); //$NON-NLS
+    }
+
+    @SmallTest
+    @Test(expected = IllegalArgumentException.class)
+    public void parseVersion_too_short() {
+        SqliteVersionUtil.parseVersion("3.24"); //$NON-NLS
+    }
+
+    @SmallTest
+    @Test(expected = IllegalArgumentException.class)
+    public void parseVersion_not_a_number() {
+        SqliteVersionUtil.parseVersion("3.x.0"); //$NON-NLS
+    }
+
+    @SmallTest
+    @Test
+    public void queryVersion() {
+        final SupportSQLiteOpenHelper helper = new FrameworkSQLiteOpenHelperFactory().create(
+                SupportSQLiteOpenHelper.Configuration
+                        .builder(ApplicationProvider.getApplicationContext())
+                        .callback(new SupportSQLiteOpenHelper.Callback(1) {
+                            @Override
+                            public void onCreate(final SupportSQLiteDatabase db) {
+                            }
+
+                            @Override
+                            public void onUpgrade(final SupportSQLiteDatabase db,
+                                                  final int oldVersion, final int newVersion) {
+                            }
+                        })
+                        .build());
+        try {
+            // Every supported Android version ships at least SQLite 3.7
+            assertThat(SqliteVersionUtil.queryVersion(helper.getWritableDatabase()),
+                    greaterThanOrEqualTo(3007000));
+        } finally {
+            helper.close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.model;
+
+import android.content.ContentValues;
+import android.database.MatrixCursor;
+import androidx.annotation.NonNull;
+import androidx.test.filters.SmallTest;
+import com.twofortyfouram.memento.util.CursorParserUtil;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Tests the classes generated for {@link TestCursorModel}.
+ */
+@RunWith(androidx.test.ext.junit.runners.AndroidJUnit4.class)
+public final class CursorModelTest {
+
+    @SmallTest
+    @Test
+    public void cursorParser_parseAll() {
+        @NonNull final MatrixCursor cursor = new MatrixCursor(TestCursorModelCursorParser.PROJECTION);
+        cursor.addRow(new Object[]{1L, "foo", "bar", 2, 1}); //$NON-NLS
+        cursor.addRow(new Object[]{2L, "baz", null, 3, null}); //$NON-NLS
+
+        @NonNull final List<TestCursorModel> models = CursorParserUtil
+                .parseAll(cursor, new TestCursorModelCursorParser());
+
+        assertThat(models, hasSize(2));
+        assertThat(models.get(0).mId, is(1L));
+        assertThat(models.get(0).mName, is("foo")); //$NON-NLS
+        assertThat(models.get(0).mNote, is("bar")); //$NON-NLS
+        assertThat(models.get(0).mCount, is(2));
+        assertThat(models.get(0).mIsFlagged, is(true));
+        assertThat(models.get(1).mNote, nullValue());
+        assertThat(models.get(1).mIsFlagged, nullValue());
+    }
+
+    @SmallTest
+    @Test
+    public void cursorParser_getKey() {
+        @NonNull final MatrixCursor cursor = new MatrixCursor(new String[]{"count", "is_flagged", //$NON-NLS
+                "note", "name", "_id"}); //$NON-NLS
+        cursor.addRow(new Object[]{2, 0, null, "foo", 42L}); //$NON-NLS
+        cursor.moveToFirst();
+
+        @NonNull final TestCursorModelCursorParser parser = new TestCursorModelCursorParser();
+
+        assertThat(parser.getKey(cursor), is(42L));
+        assertThat(parser.newObject(cursor).mIsFlagged, is(false));
+    }
+
+    @SmallTest
+    @Test
+    public void contentValuesWriter() {
+        @NonNull final ContentValues values = TestCursorModelContentValuesWriter
+                .newContentValues(new TestCursorModel(1L, "foo", null, 2, true)); //$NON-NLS
+
+        assertThat(values.size(), is(4));
+        assertThat(values.containsKey("_id"), is(false)); //$NON-NLS
+        assertThat(values.getAsString("name"), is("foo")); //$NON-NLS
+        assertThat(values.containsKey("note"), is(true)); //$NON-NLS
+        assertThat(values.getAsString("note"), nullValue()); //$NON-NLS
+        assertThat(values.getAsInteger("count"), is(2)); //$NON-NLS
+        assertThat(values.getAsBoolean("is_flagged"), is(true)); //$NON-NLS
+    }
+
+    @SmallTest
+    @Test
+    public void table_build() {
+        assertThat(TestCursorModelTable.newTableBuilder().build(),
+                is("CREATE TABLE cursor_model (_id INTEGER PRIMARY KEY AUTOINCREMENT, " //$NON-NLS
+                        + "name TEXT NOT NULL, note TEXT, count INTEGER NOT NULL, " //$NON-NLS
+                        + "is_flagged INTEGER)")); //$NON-NLS
+    }
+}
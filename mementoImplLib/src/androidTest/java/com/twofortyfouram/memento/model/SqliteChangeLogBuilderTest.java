@@ -0,0 +1,57 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.model;
+
+import androidx.test.filters.SmallTest;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+@RunWith(androidx.test.ext.junit.runners.AndroidJUnit4.class)
+public final class SqliteChangeLogBuilderTest {
+
+    @SmallTest
+    @Test
+    public void setTableName_recycle() {
+        final SqliteChangeLogBuilder builder = new SqliteChangeLogBuilder();
+
+        assertThat(builder.setTableName("test_table"), sameInstance(builder)); //$NON-NLS-1$
+    }
+
+    @SmallTest
+    @Test
+    public void build() {
+        final SqliteChangeLogBuilder builder = new SqliteChangeLogBuilder();
+        builder.setTableName("test_table"); //$NON-NLS-1$
+
+        assertThat(builder.build(), contains(
+                "CREATE TABLE IF NOT EXISTS memento_change_log (seq INTEGER PRIMARY KEY AUTOINCREMENT, table_name TEXT NOT NULL, row_id INTEGER NOT NULL, operation TEXT NOT NULL)", //$NON-NLS-1$
+                "CREATE TRIGGER IF NOT EXISTS test_table_change_log_after_insert AFTER INSERT ON test_table BEGIN INSERT INTO memento_change_log(table_name, row_id, operation) VALUES ('test_table', new._id, 'insert'); END", //$NON-NLS-1$
+                "CREATE TRIGGER IF NOT EXISTS test_table_change_log_after_delete AFTER DELETE ON test_table BEGIN INSERT INTO memento_change_log(table_name, row_id, operation) VALUES ('test_table', old._id, 'delete'); END", //$NON-NLS-1$
+                "CREATE TRIGGER IF NOT EXISTS test_table_change_log_after_update AFTER UPDATE ON test_table BEGIN INSERT INTO memento_change_log(table_name, row_id, operation) SELECT 'test_table', old._id, 'delete' WHERE old._id != new._id; INSERT INTO memento_change_log(table_name, row_id, operation) VALUES ('test_table', new._id, 'update'); END")); //$NON-NLS-1$
+    }
+
+    @SmallTest
+    @Test(expected = IllegalStateException.class)
+    public void build_missing_table() {
+        new SqliteChangeLogBuilder().build();
+    }
+}
@@ -245,4 +245,26 @@ public final class SqliteColumnBuilderTest {
         assertThat(builder.build(),
                 is("test_column INTEGER CHECK(test_column IN(\"0\", \"1\"))")); //$NON-NLS-1$
     }
+
+    @SmallTest
+    @Test
+    public void setGeneratedAs_recycle() {
+        final SqliteColumnBuilder builder = new SqliteColumnBuilder();
+
+        assertThat(builder.setGeneratedAs("json_extract(json, '$.priority')"), //$NON-NLS-1$
+                sameInstance(builder));
+    }
+
+    @SmallTest
+    @Test
+    public void buildGenerated() {
+        final SqliteColumnBuilder builder = new SqliteColumnBuilder();
+
+        builder.setName("priority"); //$NON-NLS-1$
+        builder.setType(SqliteStorageClass.INTEGER);
+        builder.setGeneratedAs("json_extract(json, '$.priority')"); //$NON-NLS-1$
+
+        assertThat(builder.build(),
+                is("priority INTEGER GENERATED ALWAYS AS (json_extract(json, '$.priority')) VIRTUAL")); //$NON-NLS-1$
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.model;
+
+import androidx.annotation.NonNull;
+import androidx.test.filters.SmallTest;
+import com.twofortyfouram.memento.model.SqliteConfiguration.JournalMode;
+import com.twofortyfouram.memento.model.SqliteConfiguration.LockingMode;
+import com.twofortyfouram.memento.model.SqliteConfiguration.Synchronous;
+import com.twofortyfouram.memento.model.SqliteConfiguration.TempStore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+@RunWith(androidx.test.ext.junit.runners.AndroidJUnit4.class)
+public final class SqliteConfigurationBuilderTest {
+
+    @SmallTest
+    @Test
+    public void setJournalMode_recycle() {
+        final SqliteConfigurationBuilder builder = new SqliteConfigurationBuilder();
+
+        assertThat(builder.setJournalMode(JournalMode.WAL), sameInstance(builder));
+    }
+
+    @SmallTest
+    @Test
+    public void build_empty() {
+        @NonNull final SqliteConfiguration configuration = new SqliteConfigurationBuilder().build();
+
+        assertThat(configuration.getJournalMode(), nullValue());
+        assertThat(configuration.getSynchronous(), nullValue());
+        assertThat(configuration.getCacheSize(), nullValue());
+        assertThat(configuration.getMmapSizeBytes(), nullValue());
+        assertThat(configuration.getTempStore(), nullValue());
+        assertThat(configuration.getWalAutocheckpointPages(), nullValue());
+        assertThat(configuration.getPageSizeBytes(), nullValue());
+        assertThat(configuration.getLockingMode(), nullValue());
+    }
+
+    @SmallTest
+    @Test
+    public void build_all() {
+        @NonNull final SqliteConfiguration configuration = new SqliteConfigurationBuilder()
+                .setJournalMode(JournalMode.WAL)
+                .setSynchronous(Synchronous.NORMAL)
+                .setCacheSizePages(500)
+                .setMmapSizeBytes(1024 * 1024)
+                .setTempStore(TempStore.MEMORY)
+                .setWalAutocheckpointPages(2000)
+                .setPageSizeBytes(8192)
+                .setLockingMode(LockingMode.NORMAL)
+                .build();
+
+        assertThat(configuration.getJournalMode(), is(JournalMode.WAL));
+        assertThat(configuration.getSynchronous(), is(Synchronous.NORMAL));
+        assertThat(configuration.getCacheSize(), is(500L));
+        assertThat(configuration.getMmapSizeBytes(), is(1024L * 1024L));
+        assertThat(configuration.getTempStore(), is(TempStore.MEMORY));
+        assertThat(configuration.getWalAutocheckpointPages(), is(2000));
+        assertThat(configuration.getPageSizeBytes(), is(8192));
+        assertThat(configuration.getLockingMode(), is(LockingMode.NORMAL));
+    }
+
+    @SmallTest
+    @Test
+    public void setCacheSizeKibibytes_negative() {
+        @NonNull final SqliteConfiguration configuration = new SqliteConfigurationBuilder()
+                .setCacheSizeKibibytes(2000)
+                .build();
+
+        assertThat(configuration.getCacheSize(), is(-2000L));
+    }
+
+    @SmallTest
+    @Test(expected = IllegalArgumentException.class)
+    public void setPageSizeBytes_not_power_of_two() {
+        new SqliteConfigurationBuilder().setPageSizeBytes(1000);
+    }
+
+    @SmallTest
+    @Test(expected = IllegalArgumentException.class)
+    public void setPageSizeBytes_too_large() {
+        new SqliteConfigurationBuilder().setPageSizeBytes(131072);
+    }
+
+    @SmallTest
+    @Test(expected = IllegalStateException.class)
+    public void build_wal_autocheckpoint_without_wal() {
+        new SqliteConfigurationBuilder()
+                .setJournalMode(JournalMode.TRUNCATE)
+                .setWalAutocheckpointPages(1000)
+                .build();
+    }
+
+    @SmallTest
+    @Test(expected = IllegalStateException.class)
+    public void build_exclusive_locking_with_wal() {
+        new SqliteConfigurationBuilder()
+                .setJournalMode(JournalMode.WAL)
+                .setLockingMode(LockingMode.EXCLUSIVE)
+                .build();
+    }
+}
@@ -98,4 +98,52 @@ public final class SqliteIndexBuilderTest {
 
         builder.build();
     }
+
+    @SmallTest
+    @Test
+    public void setJsonPath_recycle() {
+        final SqliteIndexBuilder builder = new SqliteIndexBuilder();
+
+        assertThat(builder.setJsonPath("$.priority"), Matchers.sameInstance(builder)); //$NON-NLS-1$
+    }
+
+    @SmallTest
+    @Test
+    public void setJsonPath_build() {
+        final SqliteIndexBuilder builder = new SqliteIndexBuilder();
+
+        builder.setTableName("some_table"); //$NON-NLS-1$
+        builder.setColumnName("some_column"); //$NON-NLS-1$
+        builder.setJsonPath("$.options.priority"); //$NON-NLS-1$
+
+        assertThat(builder.build(), is(
+                "CREATE INDEX some_table_some_column_options_priority_index ON some_table(json_extract(some_column, '$.options.priority'))" //$NON-NLS-1$
+        ));
+    }
+
+    @SmallTest
+    @Test
+    public void setJsonPath_build_root() {
+        final SqliteIndexBuilder builder = new SqliteIndexBuilder();
+
+        builder.setTableName("some_table"); //$NON-NLS-1$
+        builder.setColumnName("some_column"); //$NON-NLS-1$
+        builder.setJsonPath("$"); //$NON-NLS-1$
+
+        assertThat(builder.build(), is(
+                "CREATE INDEX some_table_some_column_json_index ON some_table(json_extract(some_column, '$'))" //$NON-NLS-1$
+        ));
+    }
+
+    @SmallTest
+    @Test(expected = IllegalArgumentException.class)
+    public void setJsonPath_build_invalid() {
+        final SqliteIndexBuilder builder = new SqliteIndexBuilder();
+
+        builder.setTableName("some_table"); //$NON-NLS-1$
+        builder.setColumnName("some_column"); //$NON-NLS-1$
+        builder.setJsonPath("priority"); //$NON-NLS-1$
+
+        builder.build();
+    }
 }
@@ -22,6 +22,7 @@ import androidx.test.filters.SmallTest;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
@@ -89,4 +90,107 @@ public final class SqliteTableBuilderTest {
 
         builder.build();
     }
+
+    @SmallTest
+    @Test
+    public void setFullTextSearch_recycle() {
+        final SqliteTableBuilder builder = new SqliteTableBuilder();
+
+        assertThat(builder.setFullTextSearch(SqliteFtsVersion.FTS4, "test_table_fts", //$NON-NLS-1$
+                "test_column"), sameInstance(builder)); //$NON-NLS-1$
+    }
+
+    @SmallTest
+    @Test
+    public void buildFullTextSearch_fts4() {
+        final SqliteTableBuilder builder = new SqliteTableBuilder();
+
+        builder.setName("test_table"); //$NON-NLS-1$
+        builder.setFullTextSearch(SqliteFtsVersion.FTS4, "test_table_fts", //$NON-NLS-1$
+                "column_one", "column_two"); //$NON-NLS-1$ //$NON-NLS-2$
+
+        assertThat(builder.buildFullTextSearch(), contains(
+                "CREATE VIRTUAL TABLE test_table_fts USING fts4(content='test_table', column_one, column_two)", //$NON-NLS-1$
+                "CREATE TRIGGER test_table_fts_before_update BEFORE UPDATE ON test_table BEGIN DELETE FROM test_table_fts WHERE docid = old._id; END", //$NON-NLS-1$
+                "CREATE TRIGGER test_table_fts_before_delete BEFORE DELETE ON test_table BEGIN DELETE FROM test_table_fts WHERE docid = old._id; END", //$NON-NLS-1$
+                "CREATE TRIGGER test_table_fts_after_update AFTER UPDATE ON test_table BEGIN INSERT INTO test_table_fts(docid, column_one, column_two) VALUES (new._id, new.column_one, new.column_two); END", //$NON-NLS-1$
+                "CREATE TRIGGER test_table_fts_after_insert AFTER INSERT ON test_table BEGIN INSERT INTO test_table_fts(docid, column_one, column_two) VALUES (new._id, new.column_one, new.column_two); END")); //$NON-NLS-1$
+    }
+
+    @SmallTest
+    @Test
+    public void buildFullTextSearch_fts5() {
+        final SqliteTableBuilder builder = new SqliteTableBuilder();
+
+        builder.setName("test_table"); //$NON-NLS-1$
+        builder.setFullTextSearch(SqliteFtsVersion.FTS5, "test_table_fts", //$NON-NLS-1$
+                "column_one"); //$NON-NLS-1$
+
+        assertThat(builder.buildFullTextSearch(), contains(
+                "CREATE VIRTUAL TABLE test_table_fts USING fts5(column_one, content='test_table', content_rowid='_id')", //$NON-NLS-1$
+                "CREATE TRIGGER test_table_fts_after_insert AFTER INSERT ON test_table BEGIN INSERT INTO test_table_fts(rowid, column_one) VALUES (new._id, new.column_one); END", //$NON-NLS-1$
+                "CREATE TRIGGER test_table_fts_after_delete AFTER DELETE ON test_table BEGIN INSERT INTO test_table_fts(test_table_fts, rowid, column_one) VALUES ('delete', old._id, old.column_one); END", //$NON-NLS-1$
+                "CREATE TRIGGER test_table_fts_after_update AFTER UPDATE ON test_table BEGIN INSERT INTO test_table_fts(test_table_fts, rowid, column_one) VALUES ('delete', old._id, old.column_one); INSERT INTO test_table_fts(rowid, column_one) VALUES (new._id, new.column_one); END")); //$NON-NLS-1$
+    }
+
+    @SmallTest
+    @Test(expected = IllegalStateException.class)
+    public void buildFullTextSearch_not_set() {
+        final SqliteTableBuilder builder = new SqliteTableBuilder();
+        builder.setName("test_table"); //$NON-NLS-1$
+
+        builder.buildFullTextSearch();
+    }
+
+    @SmallTest
+    @Test
+    public void setSpatialIndex_recycle() {
+        final SqliteTableBuilder builder = new SqliteTableBuilder();
+
+        assertThat(builder.setSpatialIndex(SqliteSpatialIndexVersion.RTREE, //$NON-NLS-1$
+                "test_table_spatial", "a", "b", "c", "d"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+                sameInstance(builder));
+    }
+
+    @SmallTest
+    @Test
+    public void buildSpatialIndex_rtree() {
+        final SqliteTableBuilder builder = new SqliteTableBuilder();
+
+        builder.setName("test_table"); //$NON-NLS-1$
+        builder.setSpatialIndex(SqliteSpatialIndexVersion.RTREE, "test_table_spatial", //$NON-NLS-1$
+                "min_lon", "max_lon", "min_lat", "max_lat"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+        assertThat(builder.buildSpatialIndex(), contains(
+                "CREATE VIRTUAL TABLE test_table_spatial USING rtree(id, min_x, max_x, min_y, max_y)", //$NON-NLS-1$
+                "CREATE TRIGGER test_table_spatial_after_insert AFTER INSERT ON test_table BEGIN INSERT INTO test_table_spatial(id, min_x, max_x, min_y, max_y) VALUES (new._id, new.min_lon, new.max_lon, new.min_lat, new.max_lat); END", //$NON-NLS-1$
+                "CREATE TRIGGER test_table_spatial_after_delete AFTER DELETE ON test_table BEGIN DELETE FROM test_table_spatial WHERE id = old._id; END", //$NON-NLS-1$
+                "CREATE TRIGGER test_table_spatial_after_update AFTER UPDATE ON test_table BEGIN DELETE FROM test_table_spatial WHERE id = old._id; INSERT INTO test_table_spatial(id, min_x, max_x, min_y, max_y) VALUES (new._id, new.min_lon, new.max_lon, new.min_lat, new.max_lat); END")); //$NON-NLS-1$
+    }
+
+    @SmallTest
+    @Test
+    public void buildSpatialIndex_btree() {
+        final SqliteTableBuilder builder = new SqliteTableBuilder();
+
+        builder.setName("test_table"); //$NON-NLS-1$
+        builder.setSpatialIndex(SqliteSpatialIndexVersion.BTREE, "test_table_spatial", //$NON-NLS-1$
+                "min_lon", "max_lon", "min_lat", "max_lat"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+        assertThat(builder.buildSpatialIndex(), contains(
+                "CREATE TABLE test_table_spatial (id INTEGER PRIMARY KEY, min_x REAL NOT NULL, max_x REAL NOT NULL, min_y REAL NOT NULL, max_y REAL NOT NULL)", //$NON-NLS-1$
+                "CREATE INDEX test_table_spatial_index ON test_table_spatial(min_x, max_x)", //$NON-NLS-1$
+                "CREATE TRIGGER test_table_spatial_after_insert AFTER INSERT ON test_table BEGIN INSERT INTO test_table_spatial(id, min_x, max_x, min_y, max_y) VALUES (new._id, new.min_lon, new.max_lon, new.min_lat, new.max_lat); END", //$NON-NLS-1$
+                "CREATE TRIGGER test_table_spatial_after_delete AFTER DELETE ON test_table BEGIN DELETE FROM test_table_spatial WHERE id = old._id; END", //$NON-NLS-1$
+                "CREATE TRIGGER test_table_spatial_after_update AFTER UPDATE ON test_table BEGIN DELETE FROM test_table_spatial WHERE id = old._id; INSERT INTO test_table_spatial(id, min_x, max_x, min_y, max_y) VALUES (new._id, new.min_lon, new.max_lon, new.min_lat, new.max_lat); END")); //$NON-NLS-1$
+    }
+
+    @SmallTest
+    @Test(expected = IllegalStateException.class)
+    public void buildSpatialIndex_not_set() {
+        final SqliteTableBuilder builder = new SqliteTableBuilder();
+        builder.setName("test_table"); //$NON-NLS-1$
+
+        builder.buildSpatialIndex();
+    }
 }
@@ -0,0 +1,98 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.model;
+
+import androidx.annotation.NonNull;
+import androidx.test.filters.SmallTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+@RunWith(androidx.test.ext.junit.runners.AndroidJUnit4.class)
+public final class SqliteTableMigrationBuilderTest {
+
+    @SmallTest
+    @Test
+    public void recycle() {
+        final SqliteTableMigrationBuilder builder = new SqliteTableMigrationBuilder();
+
+        assertThat(builder.setExistingTableName("test_table"), sameInstance(builder)); //$NON-NLS-1$
+        assertThat(builder.setNewTable(newTable("test_table")), sameInstance(builder)); //$NON-NLS-1$
+        assertThat(builder.renameColumn("a", "b"), sameInstance(builder)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertThat(builder.setColumnExpression("c", "CAST(c AS INTEGER)"), //$NON-NLS-1$ //$NON-NLS-2$
+                sameInstance(builder));
+        assertThat(builder.addStatementAfterSwap("CREATE INDEX test_index ON test_table(b)"), //$NON-NLS-1$
+                sameInstance(builder));
+        assertThat(builder.setChunkSize(10), sameInstance(builder));
+    }
+
+    @SmallTest
+    @Test
+    public void build() {
+        @NonNull final SqliteTableBuilder newTable = newTable("test_table"); //$NON-NLS-1$
+        @NonNull final SqliteTableMigration migration = new SqliteTableMigrationBuilder()
+                .setExistingTableName("test_table") //$NON-NLS-1$
+                .setNewTable(newTable)
+                .build();
+
+        assertThat(migration.getTableName(), is("test_table")); //$NON-NLS-1$
+        assertThat(migration.getMigrationTableName(), is("test_table_migration")); //$NON-NLS-1$
+
+        // The new table is left as it was
+        assertThat(newTable.build(),
+                is("CREATE TABLE test_table (_id INTEGER PRIMARY KEY AUTOINCREMENT)")); //$NON-NLS-1$
+    }
+
+    @SmallTest
+    @Test(expected = IllegalStateException.class)
+    public void build_missing_existing_table() {
+        new SqliteTableMigrationBuilder().setNewTable(newTable("test_table")).build(); //$NON-NLS-1$
+    }
+
+    @SmallTest
+    @Test(expected = IllegalStateException.class)
+    public void build_missing_new_table() {
+        new SqliteTableMigrationBuilder().setExistingTableName("test_table").build(); //$NON-NLS-1$
+    }
+
+    @SmallTest
+    @Test(expected = IllegalStateException.class)
+    public void build_different_name() {
+        new SqliteTableMigrationBuilder()
+                .setExistingTableName("test_table") //$NON-NLS-1$
+                .setNewTable(newTable("other_table")) //$NON-NLS-1$
+                .build();
+    }
+
+    @SmallTest
+    @Test(expected = IllegalArgumentException.class)
+    public void setChunkSize_zero() {
+        new SqliteTableMigrationBuilder().setChunkSize(0);
+    }
+
+    @NonNull
+    private static SqliteTableBuilder newTable(@NonNull final String name) {
+        return new SqliteTableBuilder().setName(name).addColumn(new SqliteColumnBuilder()
+                .setName("_id").setType(SqliteStorageClass.INTEGER) //$NON-NLS-1$
+                .setAutoincrementPrimaryKey());
+    }
+}
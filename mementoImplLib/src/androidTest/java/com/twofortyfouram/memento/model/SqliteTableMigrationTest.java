@@ -0,0 +1,185 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.model;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.MediumTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public final class SqliteTableMigrationTest {
+
+    @NonNull
+    private static final String DB_FILE_NAME = "migration_test.sqlite3"; //$NON-NLS
+
+    @NonNull
+    private static final String TABLE_NAME = "migration"; //$NON-NLS
+
+    private SupportSQLiteOpenHelper mOpenHelper;
+
+    @Before
+    public void setUp() {
+        @NonNull final Context context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_FILE_NAME);
+
+        mOpenHelper = new FrameworkSQLiteOpenHelperFactory().create(
+                SupportSQLiteOpenHelper.Configuration.builder(context)
+                        .name(DB_FILE_NAME)
+                        .callback(new SupportSQLiteOpenHelper.Callback(1) {
+                            @Override
+                            public void onCreate(@NonNull final SupportSQLiteDatabase db) {
+                                db.execSQL("CREATE TABLE " + TABLE_NAME //$NON-NLS
+                                        + " (_id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, priority TEXT, obsolete TEXT)"); //$NON-NLS
+                            }
+
+                            @Override
+                            public void onUpgrade(@NonNull final SupportSQLiteDatabase db,
+                                                  final int oldVersion, final int newVersion) {
+                            }
+                        })
+                        .build());
+    }
+
+    @After
+    public void tearDown() {
+        mOpenHelper.close();
+        ApplicationProvider.getApplicationContext().deleteDatabase(DB_FILE_NAME);
+    }
+
+    @MediumTest
+    @Test
+    public void run_chunked_with_concurrent_writes() {
+        @NonNull final SupportSQLiteDatabase database = mOpenHelper.getWritableDatabase();
+        for (int x = 1; x <= 10; x++) {
+            insert(database, "name" + x, Integer.toString(x)); //$NON-NLS
+        }
+
+        @NonNull final SqliteTableMigration migration = newMigration();
+        assertFalse(migration.isPending(database));
+
+        migration.start(database);
+        assertTrue(migration.isPending(database));
+
+        // Starting again has no effect
+        migration.start(database);
+
+        assertThat(migration.copyChunk(database), is(4));
+
+        // Writes to rows already copied are kept in sync
+        @NonNull final ContentValues values = new ContentValues();
+        values.put("name", "updated"); //$NON-NLS
+        database.update(TABLE_NAME, SQLiteDatabase.CONFLICT_NONE, values, "_id = ?", //$NON-NLS
+                new Object[]{2});
+        database.delete(TABLE_NAME, "_id = ?", new Object[]{3}); //$NON-NLS
+
+        // Writes to rows not yet copied are picked up by later chunks
+        database.delete(TABLE_NAME, "_id = ?", new Object[]{10}); //$NON-NLS
+        insert(database, "name11", "11"); //$NON-NLS
+
+        assertThat(migration.copyChunk(database), is(4));
+        migration.finish(database);
+        assertFalse(migration.isPending(database));
+
+        try (@NonNull final Cursor cursor = database.query(
+                "SELECT _id, title, priority FROM " + TABLE_NAME + " ORDER BY _id")) { //$NON-NLS
+            assertThat(cursor.getCount(), is(9));
+
+            assertTrue(cursor.moveToPosition(1));
+            assertThat(cursor.getLong(0), is(2L));
+            assertThat(cursor.getString(1), is("updated")); //$NON-NLS
+            assertThat(cursor.getType(2), is(Cursor.FIELD_TYPE_INTEGER));
+            assertThat(cursor.getLong(2), is(2L));
+
+            assertTrue(cursor.moveToLast());
+            assertThat(cursor.getLong(0), is(11L));
+        }
+
+        // The index added after the swap exists, and ids are not reused
+        try (@NonNull final Cursor cursor = database.query(
+                "SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = 'migration_priority_index'")) { //$NON-NLS
+            assertThat(cursor.getCount(), is(1));
+        }
+        assertThat(insert(database, "name12", "12"), is(12L)); //$NON-NLS
+    }
+
+    @MediumTest
+    @Test
+    public void run() {
+        @NonNull final SupportSQLiteDatabase database = mOpenHelper.getWritableDatabase();
+        insert(database, "name", "1"); //$NON-NLS
+
+        @NonNull final SqliteTableMigration migration = newMigration();
+        migration.run(database);
+
+        assertFalse(migration.isPending(database));
+        try (@NonNull final Cursor cursor = database.query(
+                "SELECT title FROM " + TABLE_NAME)) { //$NON-NLS
+            assertTrue(cursor.moveToFirst());
+            assertThat(cursor.getString(0), is("name")); //$NON-NLS
+        }
+
+        // Finishing again has no effect
+        migration.finish(database);
+    }
+
+    @NonNull
+    private static SqliteTableMigration newMigration() {
+        return new SqliteTableMigrationBuilder()
+                .setExistingTableName(TABLE_NAME)
+                .setNewTable(new SqliteTableBuilder().setName(TABLE_NAME)
+                        .addColumn(new SqliteColumnBuilder().setName("_id") //$NON-NLS
+                                .setType(SqliteStorageClass.INTEGER).setAutoincrementPrimaryKey())
+                        .addColumn(new SqliteColumnBuilder().setName("title") //$NON-NLS
+                                .setType(SqliteStorageClass.TEXT))
+                        .addColumn(new SqliteColumnBuilder().setName("priority") //$NON-NLS
+                                .setType(SqliteStorageClass.INTEGER)))
+                .renameColumn("name", "title") //$NON-NLS
+                .setColumnExpression("priority", "CAST(priority AS INTEGER)") //$NON-NLS
+                .addStatementAfterSwap(
+                        "CREATE INDEX migration_priority_index ON migration(priority)") //$NON-NLS
+                .setChunkSize(4)
+                .build();
+    }
+
+    private static long insert(@NonNull final SupportSQLiteDatabase database,
+                               @NonNull final String name, @NonNull final String priority) {
+        @NonNull final ContentValues values = new ContentValues();
+        values.put("name", name); //$NON-NLS
+        values.put("priority", priority); //$NON-NLS
+        values.put("obsolete", "obsolete"); //$NON-NLS
+
+        return database.insert(TABLE_NAME, SQLiteDatabase.CONFLICT_NONE, values);
+    }
+}
@@ -19,7 +19,9 @@ package com.twofortyfouram.memento.model;
 
 
 import android.content.ContentResolver;
+import android.database.sqlite.SQLiteDatabase;
 import android.net.Uri;
+import android.text.format.DateUtils;
 import androidx.annotation.NonNull;
 import androidx.test.filters.SmallTest;
 
@@ -35,6 +37,7 @@ import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -206,4 +209,202 @@ public final class SqliteUriMatchTest {
             assertThat(match.isOperationAllowed(operation), is(true));
         }
     }
+
+    @Test
+    @SmallTest
+    public void isSearchUri_false() {
+        final SqliteUriMatch match = new SqliteUriMatch(getTestUri(), getTestUris(),
+                EnumSet.allOf(Operation.class), "test_table",
+                "test_mime",
+                false); //$NON-NLS-1$ //$NON-NLS-2$
+
+        assertFalse(match.isSearchUri());
+        assertThat(match.getFtsTableName(), nullValue());
+        assertThat(match.getFtsVersion(), nullValue());
+    }
+
+    @Test
+    @SmallTest
+    public void withFullTextSearch() {
+        final SqliteUriMatch match = new SqliteUriMatch(getTestUri(), getTestUris(),
+                EnumSet.of(Operation.QUERY), "test_table",
+                "test_mime",
+                false); //$NON-NLS-1$ //$NON-NLS-2$
+
+        final SqliteUriMatch searchMatch = match
+                .withFullTextSearch("test_table_fts", SqliteFtsVersion.FTS4); //$NON-NLS-1$
+
+        assertTrue(searchMatch.isSearchUri());
+        assertThat(searchMatch.getFtsTableName(), is("test_table_fts")); //$NON-NLS-1$
+        assertThat(searchMatch.getFtsVersion(), is(SqliteFtsVersion.FTS4));
+        assertThat(searchMatch.getTableName(), is("test_table")); //$NON-NLS-1$
+        assertThat(searchMatch.getMimeType(), is("test_mime")); //$NON-NLS-1$
+        assertThat(searchMatch.getBaseUri(), is(getTestUri()));
+        assertThat(searchMatch.isOperationAllowed(Operation.QUERY), is(true));
+        assertThat(searchMatch.isOperationAllowed(Operation.INSERT), is(false));
+
+        // Original is not mutated
+        assertFalse(match.isSearchUri());
+    }
+
+    @Test
+    @SmallTest
+    public void withBlobColumn() {
+        final SqliteUriMatch match = new SqliteUriMatch(getTestUri(), getTestUris(),
+                EnumSet.of(Operation.QUERY), "test_table",
+                "test_mime",
+                true); //$NON-NLS-1$ //$NON-NLS-2$
+
+        final SqliteUriMatch blobMatch = match.withBlobColumn("test_column"); //$NON-NLS-1$
+
+        assertTrue(blobMatch.isBlobUri());
+        assertThat(blobMatch.getBlobColumnName(), is("test_column")); //$NON-NLS-1$
+        assertThat(blobMatch.getTableName(), is("test_table")); //$NON-NLS-1$
+        assertTrue(blobMatch.isIdUri());
+
+        // Original is not mutated
+        assertFalse(match.isBlobUri());
+        assertThat(match.getBlobColumnName(), nullValue());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    @SmallTest
+    public void withBlobColumn_not_id() {
+        new SqliteUriMatch(getTestUri(), getTestUris(), EnumSet.of(Operation.QUERY),
+                "test_table", "test_mime", false) //$NON-NLS-1$ //$NON-NLS-2$
+                .withBlobColumn("test_column"); //$NON-NLS-1$
+    }
+
+    @Test
+    @SmallTest
+    public void getConflictAlgorithm_default() {
+        final SqliteUriMatch match = new SqliteUriMatch(getTestUri(), getTestUris(),
+                EnumSet.allOf(Operation.class), "test_table", "test_mime", //$NON-NLS-1$ //$NON-NLS-2$
+                false);
+
+        assertThat(match.getConflictAlgorithm(), is(SQLiteDatabase.CONFLICT_ABORT));
+        assertFalse(match.isUpsertUri());
+        assertThat(match.getUpsertColumnNames(), nullValue());
+    }
+
+    @Test
+    @SmallTest
+    public void withConflictAlgorithm() {
+        final SqliteUriMatch match = new SqliteUriMatch(getTestUri(), getTestUris(),
+                EnumSet.allOf(Operation.class), "test_table", "test_mime", //$NON-NLS-1$ //$NON-NLS-2$
+                false);
+
+        final SqliteUriMatch replaceMatch = match
+                .withConflictAlgorithm(SQLiteDatabase.CONFLICT_REPLACE);
+
+        assertThat(replaceMatch.getConflictAlgorithm(), is(SQLiteDatabase.CONFLICT_REPLACE));
+        assertThat(replaceMatch.getTableName(), is("test_table")); //$NON-NLS-1$
+
+        // Original is not mutated
+        assertThat(match.getConflictAlgorithm(), is(SQLiteDatabase.CONFLICT_ABORT));
+    }
+
+    @Test(expected = AssertionError.class)
+    @SmallTest
+    public void withConflictAlgorithm_out_of_range() {
+        new SqliteUriMatch(getTestUri(), getTestUris(), EnumSet.allOf(Operation.class),
+                "test_table", "test_mime", false) //$NON-NLS-1$ //$NON-NLS-2$
+                .withConflictAlgorithm(SQLiteDatabase.CONFLICT_REPLACE + 1);
+    }
+
+    @Test
+    @SmallTest
+    public void withUpsert() {
+        final SqliteUriMatch match = new SqliteUriMatch(getTestUri(), getTestUris(),
+                EnumSet.allOf(Operation.class), "test_table", "test_mime", //$NON-NLS-1$ //$NON-NLS-2$
+                false).withConflictAlgorithm(SQLiteDatabase.CONFLICT_FAIL);
+
+        final SqliteUriMatch upsertMatch = match.withUpsert("key_one", "key_two"); //$NON-NLS-1$ //$NON-NLS-2$
+
+        assertTrue(upsertMatch.isUpsertUri());
+        assertThat(upsertMatch.getUpsertColumnNames(), contains("key_one", "key_two")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertThat(upsertMatch.getConflictAlgorithm(), is(SQLiteDatabase.CONFLICT_FAIL));
+
+        // Original is not mutated
+        assertFalse(match.isUpsertUri());
+    }
+
+    @Test
+    @SmallTest
+    public void withTimePartitions() {
+        final SqliteUriMatch match = new SqliteUriMatch(getTestUri(), getTestUris(),
+                EnumSet.allOf(Operation.class), "test_table", "test_mime", //$NON-NLS-1$ //$NON-NLS-2$
+                false);
+
+        final SqliteUriMatch partitionedMatch = match.withTimePartitions("time", //$NON-NLS-1$
+                SqlitePartitionInterval.WEEKLY);
+
+        assertTrue(partitionedMatch.isPartitionedUri());
+        assertThat(partitionedMatch.getPartitionTimeColumnName(), is("time")); //$NON-NLS-1$
+        assertThat(partitionedMatch.getPartitionInterval(), is(SqlitePartitionInterval.WEEKLY));
+
+        // Original is not mutated
+        assertFalse(match.isPartitionedUri());
+        assertThat(match.getPartitionInterval(), nullValue());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    @SmallTest
+    public void withTimePartitions_id() {
+        new SqliteUriMatch(getTestUri(), getTestUris(), EnumSet.allOf(Operation.class),
+                "test_table", "test_mime", true) //$NON-NLS-1$ //$NON-NLS-2$
+                .withTimePartitions("time", SqlitePartitionInterval.DAILY); //$NON-NLS-1$
+    }
+
+    @Test
+    @SmallTest
+    public void partitionInterval_daily() {
+        final long dayStart = 1600000000000L - 1600000000000L % DateUtils.DAY_IN_MILLIS;
+
+        assertThat(SqlitePartitionInterval.DAILY.getBucketStart(dayStart), is(dayStart));
+        assertThat(SqlitePartitionInterval.DAILY.getBucketStart(dayStart + 1), is(dayStart));
+        assertThat(SqlitePartitionInterval.DAILY.getBucketEnd(dayStart),
+                is(dayStart + DateUtils.DAY_IN_MILLIS));
+        assertThat(SqlitePartitionInterval.DAILY.getBucketStart(-1),
+                is(-DateUtils.DAY_IN_MILLIS));
+    }
+
+    @Test
+    @SmallTest
+    public void partitionInterval_weekly() {
+        // Monday, January 5, 1970 UTC
+        final long monday = 4 * DateUtils.DAY_IN_MILLIS;
+
+        assertThat(SqlitePartitionInterval.WEEKLY.getBucketStart(monday), is(monday));
+        assertThat(SqlitePartitionInterval.WEEKLY.getBucketStart(monday - 1),
+                is(monday - DateUtils.WEEK_IN_MILLIS));
+        assertThat(SqlitePartitionInterval.WEEKLY.getBucketStart(
+                monday + DateUtils.WEEK_IN_MILLIS - 1), is(monday));
+    }
+
+    @Test
+    @SmallTest
+    public void withBoundingBox() {
+        final SqliteUriMatch match = new SqliteUriMatch(getTestUri(), getTestUris(),
+                EnumSet.of(Operation.QUERY), "test_table", "test_mime", //$NON-NLS-1$ //$NON-NLS-2$
+                false);
+
+        final SqliteUriMatch boxMatch = match.withBoundingBox("test_table_spatial"); //$NON-NLS-1$
+
+        assertTrue(boxMatch.isBoundingBoxUri());
+        assertThat(boxMatch.getSpatialTableName(), is("test_table_spatial")); //$NON-NLS-1$
+
+        // Original is not mutated
+        assertFalse(match.isBoundingBoxUri());
+        assertThat(match.getSpatialTableName(), nullValue());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    @SmallTest
+    public void withBoundingBox_search() {
+        new SqliteUriMatch(getTestUri(), getTestUris(), EnumSet.of(Operation.QUERY),
+                "test_table", "test_mime", false) //$NON-NLS-1$ //$NON-NLS-2$
+                .withFullTextSearch("test_table_fts", SqliteFtsVersion.FTS4) //$NON-NLS-1$
+                .withBoundingBox("test_table_spatial"); //$NON-NLS-1$
+    }
 }
@@ -0,0 +1,60 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.twofortyfouram.annotation.CursorColumn;
+import com.twofortyfouram.annotation.CursorModel;
+import net.jcip.annotations.Immutable;
+
+/**
+ * Model processed by the memento annotation processor for {@link CursorModelTest}.
+ */
+@Immutable
+@CursorModel(tableName = "cursor_model")
+/*package*/ final class TestCursorModel {
+
+    @CursorColumn(value = "_id", isKey = true) //$NON-NLS
+    /*package*/ final long mId;
+
+    @NonNull
+    @CursorColumn("name") //$NON-NLS
+    /*package*/ final String mName;
+
+    @Nullable
+    @CursorColumn("note") //$NON-NLS
+    /*package*/ final String mNote;
+
+    @CursorColumn("count") //$NON-NLS
+    /*package*/ final int mCount;
+
+    @Nullable
+    @CursorColumn("is_flagged") //$NON-NLS
+    /*package*/ final Boolean mIsFlagged;
+
+    /*package*/ TestCursorModel(final long id, @NonNull final String name,
+                                @Nullable final String note, final int count,
+                                @Nullable final Boolean isFlagged) {
+        mId = id;
+        mName = name;
+        mNote = note;
+        mCount = count;
+        mIsFlagged = isFlagged;
+    }
+}
@@ -17,6 +17,7 @@
 
 package com.twofortyfouram.memento.provider;
 
+import android.app.SearchManager;
 import android.content.*;
 import android.database.ContentObserver;
 import android.database.Cursor;
@@ -32,6 +33,9 @@ import androidx.test.filters.SmallTest;
 import com.twofortyfouram.annotation.Slow;
 import com.twofortyfouram.annotation.Slow.Speed;
 import com.twofortyfouram.memento.contract.*;
+import com.twofortyfouram.memento.test.main_process.contract.TestHistoryContract;
+import com.twofortyfouram.memento.test.main_process.contract.TestPluginInstanceContract;
+import com.twofortyfouram.memento.test.main_process.contract.TestRegionContract;
 import com.twofortyfouram.memento.test.main_process.contract.TestTableOneContract;
 import com.twofortyfouram.memento.test.main_process.provider.ContentProviderImpl;
 import com.twofortyfouram.memento.test.main_process.provider.ContentProviderUtil;
@@ -42,9 +46,17 @@ import com.twofortyfouram.spackle.HandlerThreadFactory.ThreadPriority;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
+import java.util.Random;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -672,6 +684,385 @@ public final class MementoContentProviderIntegrationTest {
         assertFalse(result.getBoolean(ExportContract.RESULT_EXTRA_BOOLEAN_IS_SUCCESS, false));
     }
 
+    @SmallTest
+    @Test
+    public void call_get_pragmas() {
+        final Bundle result = PragmaContract.callGetPragmas(ApplicationProvider.getApplicationContext(),
+                ContentProviderUtil.getContentAuthorityUri(ApplicationProvider.getApplicationContext()));
+
+        assertThat(result, notNullValue());
+
+        // Configured by ContentProviderImpl
+        assertThat(result.getInt(PragmaContract.RESULT_EXTRA_INT_SYNCHRONOUS), is(1));
+        assertThat(result.getInt(PragmaContract.RESULT_EXTRA_INT_TEMP_STORE), is(2));
+        assertThat(result.getLong(PragmaContract.RESULT_EXTRA_LONG_CACHE_SIZE),
+                is(-ContentProviderImpl.CACHE_SIZE_KIBIBYTES));
+
+        // Applied from onConfigure, before the database was created
+        assertThat(result.getInt(PragmaContract.RESULT_EXTRA_INT_PAGE_SIZE),
+                is(ContentProviderImpl.PAGE_SIZE_BYTES));
+
+        // Not configured, but always reported
+        assertThat(result.getString(PragmaContract.RESULT_EXTRA_STRING_JOURNAL_MODE), notNullValue());
+        assertThat(result.getString(PragmaContract.RESULT_EXTRA_STRING_LOCKING_MODE), is("normal")); //$NON-NLS-1$
+        assertThat(result.containsKey(
+                PragmaContract.RESULT_EXTRA_BOOLEAN_IS_PRIMARY_CONNECTION_ONLY), is(true));
+    }
+
+    @SmallTest
+    @Test
+    public void call_get_open_metrics() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final Uri authority = ContentProviderUtil.getContentAuthorityUri(context);
+
+        // Ensures the database has been opened
+        assertThat(PragmaContract.callGetPragmas(context, authority), notNullValue());
+
+        final Bundle result = OpenContract.callGetOpenMetrics(context, authority);
+
+        assertThat(result, notNullValue());
+
+        // Warm open and hot statements are enabled by ContentProviderImpl
+        assertThat(result.getLong(OpenContract.EXTRA_LONG_OPEN_COUNT), is(1L));
+        assertTrue(result.getBoolean(OpenContract.EXTRA_BOOLEAN_IS_WARM_OPEN));
+        assertThat(result.getLong(OpenContract.EXTRA_LONG_PREPARED_STATEMENT_COUNT), is(1L));
+        assertTrue(0 <= result.getLong(OpenContract.EXTRA_LONG_OPEN_DURATION_MILLIS));
+        assertTrue(0 <= result.getLong(OpenContract.EXTRA_LONG_TOTAL_WAIT_DURATION_MILLIS));
+    }
+
+    @MediumTest
+    @Test
+    public void call_delete_by_ids() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final long[] ids = insertRows(context, 1200);
+
+        // More ids than fit in a single chunk, plus an id that doesn't exist
+        final long[] idsToDelete = new long[1001];
+        System.arraycopy(ids, 0, idsToDelete, 0, 1000);
+        idsToDelete[1000] = -1;
+
+        assertThat(BulkContract.callDeleteByIds(context,
+                TestTableOneContract.getContentUri(context), idsToDelete), is(1000));
+
+        try (final Cursor cursor = context.getContentResolver().query(
+                TestTableOneContract.getContentUri(context), null, null, null, null)) {
+            assertThat(cursor.getCount(), is(200));
+        }
+    }
+
+    @MediumTest
+    @Test
+    public void call_update_by_ids() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final long[] ids = insertRows(context, 600);
+
+        final long[] idsToUpdate = new long[550];
+        System.arraycopy(ids, 50, idsToUpdate, 0, idsToUpdate.length);
+
+        assertThat(BulkContract.callUpdateByIds(context,
+                TestTableOneContract.getContentUri(context),
+                TestTableOneContract.getContentValues("updated"), idsToUpdate), //$NON-NLS-1$
+                is(550));
+
+        try (final Cursor cursor = context.getContentResolver().query(
+                TestTableOneContract.getContentUri(context), null,
+                TestTableOneContract.COLUMN_STRING_COLUMN_ONE + " = ?", //$NON-NLS-1$
+                new String[]{"updated"}, null)) { //$NON-NLS-1$
+            assertThat(cursor.getCount(), is(550));
+        }
+    }
+
+    @SmallTest
+    @Test
+    public void call_query_column() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final long[] ids = insertRows(context, 3);
+
+        assertThat(BaseColumnsContract.queryLongColumn(context.getContentResolver(),
+                TestTableOneContract.getContentUri(context), TestTableOneContract._ID, null, null,
+                BaseColumnsContract.SORT_ORDER_ASCENDING_BY_ID), is(ids));
+
+        assertThat(BaseColumnsContract.queryDoubleColumn(context.getContentResolver(),
+                TestTableOneContract.getContentUri(context), TestTableOneContract._ID,
+                TestTableOneContract._ID + " = ?", //$NON-NLS-1$
+                new String[]{Long.toString(ids[0])}, null), is(new double[]{ids[0]}));
+
+        assertThat(BaseColumnsContract.queryStringColumn(context.getContentResolver(),
+                TestTableOneContract.getContentUri(context),
+                TestTableOneContract.COLUMN_STRING_COLUMN_ONE, null, null,
+                BaseColumnsContract.SORT_ORDER_DESCENDING_BY_ID),
+                is(new String[]{"2", "1", "0"})); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    @SmallTest
+    @Test(expected = IllegalStateException.class)
+    public void call_query_column_null() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        insertRows(context, 1);
+
+        // A null value can't be represented in a primitive array
+        BaseColumnsContract.queryLongColumn(context.getContentResolver(),
+                TestTableOneContract.getContentUri(context),
+                TestTableOneContract.COLUMN_BLOB_COLUMN_TWO, null, null, null);
+    }
+
+    @MediumTest
+    @Test
+    public void query_ids() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final long[] ids = insertRows(context, 1200);
+
+        // More ids than fit in a single chunk, in reverse order, plus an id that doesn't exist
+        final long[] idsToQuery = new long[1001];
+        for (int x = 0; x < 1000; x++) {
+            idsToQuery[x] = ids[ids.length - 1 - x];
+        }
+        idsToQuery[1000] = -1;
+
+        final Uri uri = MementoContract.addIds(TestTableOneContract.getContentUri(context)
+                .buildUpon(), idsToQuery).build();
+        try (final Cursor cursor = context.getContentResolver().query(uri,
+                new String[]{TestTableOneContract._ID}, null, null, null)) {
+            assertThat(cursor.getCount(), is(1000));
+
+            while (cursor.moveToNext()) {
+                assertThat(cursor.getLong(0), is(idsToQuery[cursor.getPosition()]));
+            }
+        }
+
+        // The selection is combined with the ids
+        try (final Cursor cursor = context.getContentResolver().query(uri, null,
+                TestTableOneContract.COLUMN_STRING_COLUMN_ONE + " = ?", //$NON-NLS-1$
+                new String[]{"1199"}, null)) { //$NON-NLS-1$
+            assertThat(cursor.getCount(), is(1));
+        }
+    }
+
+    @SmallTest
+    @Test(expected = IllegalArgumentException.class)
+    public void query_ids_count() {
+        final Context context = ApplicationProvider.getApplicationContext();
+
+        // A count would be returned per chunk of ids
+        final Uri uri = MementoContract.addIds(TestTableOneContract.getContentUri(context)
+                .buildUpon(), new long[]{1L}).build();
+        context.getContentResolver().query(uri, new String[]{TestTableOneContract._COUNT}, null,
+                null, null);
+    }
+
+    @SmallTest
+    @Test(expected = IllegalArgumentException.class)
+    public void query_ids_limit() {
+        final Context context = ApplicationProvider.getApplicationContext();
+
+        // A limit would be applied per chunk of ids
+        final Uri uri = MementoContract.addIds(TestTableOneContract.getContentUri(context)
+                .buildUpon(), new long[]{1L})
+                .appendQueryParameter(SearchManager.SUGGEST_PARAMETER_LIMIT, "1") //$NON-NLS-1$
+                .build();
+        context.getContentResolver().query(uri, null, null, null, null);
+    }
+
+    @NonNull
+    private static long[] insertRows(@NonNull final Context context, final int count) {
+        final ContentResolver resolver = context.getContentResolver();
+        resolver.delete(TestTableOneContract.getContentUri(context), null, null);
+
+        final ContentValues[] values = new ContentValues[count];
+        for (int x = 0; x < count; x++) {
+            values[x] = TestTableOneContract.getContentValues(Integer.toString(x));
+        }
+        resolver.bulkInsert(TestTableOneContract.getContentUri(context), values);
+
+        final long[] ids = new long[count];
+        try (final Cursor cursor = resolver.query(TestTableOneContract.getContentUri(context),
+                new String[]{TestTableOneContract._ID}, null, null,
+                BaseColumnsContract.SORT_ORDER_ASCENDING_BY_ID)) {
+            assertThat(cursor.getCount(), is(count));
+
+            while (cursor.moveToNext()) {
+                ids[cursor.getPosition()] = cursor.getLong(0);
+            }
+        }
+
+        return ids;
+    }
+
+    @MediumTest
+    @Test
+    public void call_query_snapshot() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final ContentResolver resolver = context.getContentResolver();
+        resolver.delete(TestTableOneContract.getContentUri(context), null, null);
+        resolver.insert(TestTableOneContract.getContentUri(context),
+                TestTableOneContract.getContentValues("a")); //$NON-NLS-1$
+        resolver.insert(TestTableOneContract.getContentUri(context),
+                TestTableOneContract.getContentValues("b")); //$NON-NLS-1$
+
+        final ArrayList<Bundle> queries = new ArrayList<>();
+        queries.add(SnapshotContract.newCursorQuery(TestTableOneContract.getContentUri(context),
+                new String[]{TestTableOneContract.COLUMN_STRING_COLUMN_ONE}, null, null,
+                TestTableOneContract.COLUMN_STRING_COLUMN_ONE));
+        queries.add(SnapshotContract.newLongQuery(TestTableOneContract.getContentUri(context),
+                new String[]{TestTableOneContract._COUNT}, null, null, null));
+        queries.add(SnapshotContract.newCursorQuery(TestTableOneContract.getContentUri(context),
+                null, TestTableOneContract.COLUMN_STRING_COLUMN_ONE + " = ?", //$NON-NLS-1$
+                new String[]{"c"}, null)); //$NON-NLS-1$
+
+        final List<Bundle> results = SnapshotContract.callQuerySnapshot(context,
+                ContentProviderUtil.getContentAuthorityUri(context), queries);
+        assertThat(results.size(), is(3));
+
+        try (final Cursor cursor = SnapshotContract.getCursor(results.get(0))) {
+            assertThat(cursor.getCount(), is(2));
+            assertTrue(cursor.moveToFirst());
+            assertThat(cursor.getString(cursor.getColumnIndexOrThrow(
+                    TestTableOneContract.COLUMN_STRING_COLUMN_ONE)), is("a")); //$NON-NLS-1$
+            assertTrue(cursor.moveToNext());
+            assertThat(cursor.getString(cursor.getColumnIndexOrThrow(
+                    TestTableOneContract.COLUMN_STRING_COLUMN_ONE)), is("b")); //$NON-NLS-1$
+        }
+
+        assertThat(SnapshotContract.getLong(results.get(1)), is(2L));
+
+        try (final Cursor cursor = SnapshotContract.getCursor(results.get(2))) {
+            assertThat(cursor.getCount(), is(0));
+        }
+    }
+
+    @MediumTest
+    @Test
+    public void openFile_blob_write_and_read() throws IOException {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final ContentResolver resolver = context.getContentResolver();
+        resolver.delete(TestTableOneContract.getContentUri(context), null, null);
+
+        final Uri rowUri = resolver.insert(TestTableOneContract.getContentUri(context),
+                TestTableOneContract.getContentValues("test_value")); //$NON-NLS-1$
+        final Uri blobUri = TestTableOneContract.getBlobUri(context,
+                ContentUris.parseId(rowUri));
+
+        // Larger than a single chunk, and not a multiple of the chunk size
+        final byte[] expected = new byte[3 * 512 * 1024 + 17];
+        new Random(0).nextBytes(expected);
+
+        // The write is committed asynchronously after the stream is closed
+        final TestContentObserver observer = getNewRegisteredContentObserver(
+                TestTableOneContract.getContentUri(context), 1);
+        try {
+            try (OutputStream outputStream = resolver.openOutputStream(blobUri, "w")) { //$NON-NLS-1$
+                outputStream.write(expected);
+            }
+
+            observer.assertExpectedHits();
+        } finally {
+            observer.destroy();
+        }
+
+        final ByteArrayOutputStream actual = new ByteArrayOutputStream(expected.length);
+        try (InputStream inputStream = resolver.openInputStream(blobUri)) {
+            final byte[] buffer = new byte[8192];
+            int count;
+            while (-1 != (count = inputStream.read(buffer))) {
+                actual.write(buffer, 0, count);
+            }
+        }
+
+        assertArrayEquals(expected, actual.toByteArray());
+    }
+
+    @MediumTest
+    @Test
+    public void openFile_blob_write_append_nul_bytes() throws IOException {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final ContentResolver resolver = context.getContentResolver();
+        resolver.delete(TestTableOneContract.getContentUri(context), null, null);
+
+        final Uri rowUri = resolver.insert(TestTableOneContract.getContentUri(context),
+                TestTableOneContract.getContentValues("test_value")); //$NON-NLS-1$
+        final Uri blobUri = TestTableOneContract.getBlobUri(context,
+                ContentUris.parseId(rowUri));
+
+        // Embedded NUL bytes, spanning more than one chunk, which a TEXT value would truncate
+        final byte[] first = new byte[512 * 1024 + 3];
+        for (int i = 0; i < first.length; i++) {
+            first[i] = (byte) (i % 3);
+        }
+        final byte[] second = new byte[]{0, 'a', 0, 0, 'b', 0};
+
+        // Writes are committed asynchronously, so wait for each before the next
+        writeBlob(resolver, blobUri, "w", first); //$NON-NLS-1$
+        writeBlob(resolver, blobUri, "wa", second); //$NON-NLS-1$
+
+        final byte[] expected = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, expected, first.length, second.length);
+
+        final ByteArrayOutputStream actual = new ByteArrayOutputStream(expected.length);
+        try (InputStream inputStream = resolver.openInputStream(blobUri)) {
+            final byte[] buffer = new byte[8192];
+            int count;
+            while (-1 != (count = inputStream.read(buffer))) {
+                actual.write(buffer, 0, count);
+            }
+        }
+
+        assertArrayEquals(expected, actual.toByteArray());
+    }
+
+    @MediumTest
+    @Test
+    public void openFile_blob_deleted_with_row() throws IOException {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final ContentResolver resolver = context.getContentResolver();
+        resolver.delete(TestTableOneContract.getContentUri(context), null, null);
+
+        final Uri rowUri = resolver.insert(TestTableOneContract.getContentUri(context),
+                TestTableOneContract.getContentValues("test_value")); //$NON-NLS-1$
+        final long id = ContentUris.parseId(rowUri);
+        final Uri blobUri = TestTableOneContract.getBlobUri(context, id);
+        writeBlob(resolver, blobUri, "w", new byte[]{1, 2, 3}); //$NON-NLS-1$
+
+        // A new row with the same id must not see the chunks of the deleted row
+        assertThat(resolver.delete(rowUri, null, null), is(1));
+        final ContentValues values = TestTableOneContract.getContentValues("test_value"); //$NON-NLS-1$
+        values.put(TestTableOneContract._ID, id);
+        resolver.insert(TestTableOneContract.getContentUri(context), values);
+
+        try (InputStream inputStream = resolver.openInputStream(blobUri)) {
+            assertThat(inputStream.read(), is(-1));
+        }
+    }
+
+    @SmallTest
+    @Test(expected = FileNotFoundException.class)
+    public void openFile_blob_missing_row() throws IOException {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final ContentResolver resolver = context.getContentResolver();
+        resolver.delete(TestTableOneContract.getContentUri(context), null, null);
+
+        resolver.openInputStream(TestTableOneContract.getBlobUri(context, 1));
+    }
+
+    /**
+     * Writes {@code bytes} to {@code blobUri} and waits for the write to be committed.
+     */
+    private void writeBlob(@NonNull final ContentResolver resolver, @NonNull final Uri blobUri,
+                           @NonNull final String mode, @NonNull final byte[] bytes)
+            throws IOException {
+        final TestContentObserver observer = getNewRegisteredContentObserver(
+                TestTableOneContract.getContentUri(ApplicationProvider.getApplicationContext()),
+                1);
+        try {
+            try (OutputStream outputStream = resolver.openOutputStream(blobUri, mode)) {
+                outputStream.write(bytes);
+            }
+
+            observer.assertExpectedHits();
+        } finally {
+            observer.destroy();
+        }
+    }
+
     /**
      * Asserts that {@link TestTableOneContract} has {@code count} rows.
      *
@@ -796,4 +1187,287 @@ public final class MementoContentProviderIntegrationTest {
             mHandler.getLooper().quit();
         }
     }
+
+    @MediumTest
+    @Test
+    public void partitioned_insert_query_and_drop() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final ContentResolver resolver = context.getContentResolver();
+        final Uri uri = TestHistoryContract.getContentUri(context);
+        PartitionContract.callDropPartitions(context, uri, Long.MAX_VALUE);
+
+        // Three days, with two entries on the first day
+        final long dayOne = 1600000000000L - 1600000000000L % DateUtils.DAY_IN_MILLIS;
+        final long dayTwo = dayOne + DateUtils.DAY_IN_MILLIS;
+        final long dayThree = dayTwo + DateUtils.DAY_IN_MILLIS;
+        resolver.insert(uri, TestHistoryContract.getContentValues(dayOne, "a")); //$NON-NLS-1$
+        resolver.insert(uri, TestHistoryContract.getContentValues(dayOne + 1, "b")); //$NON-NLS-1$
+        resolver.insert(uri, TestHistoryContract.getContentValues(dayTwo, "c")); //$NON-NLS-1$
+        resolver.insert(uri, TestHistoryContract.getContentValues(dayThree, "d")); //$NON-NLS-1$
+
+        // Ids are unique across partitions
+        try (final Cursor cursor = resolver.query(uri, new String[]{TestHistoryContract._ID},
+                null, null, BaseColumnsContract.SORT_ORDER_ASCENDING_BY_ID)) {
+            assertThat(cursor.getCount(), is(4));
+
+            long previousId = Long.MIN_VALUE;
+            while (cursor.moveToNext()) {
+                assertTrue(previousId < cursor.getLong(0));
+                previousId = cursor.getLong(0);
+            }
+        }
+
+        final Uri rangeUri = MementoContract.addTimeRange(uri.buildUpon(), dayOne + 1,
+                dayThree).build();
+        try (final Cursor cursor = resolver.query(rangeUri,
+                new String[]{TestHistoryContract.COLUMN_STRING_VALUE}, null, null,
+                TestHistoryContract.COLUMN_LONG_TIME)) {
+            assertThat(cursor.getCount(), is(2));
+            cursor.moveToFirst();
+            assertThat(cursor.getString(0), is("b")); //$NON-NLS-1$
+            cursor.moveToNext();
+            assertThat(cursor.getString(0), is("c")); //$NON-NLS-1$
+        }
+
+        final ContentValues values = new ContentValues(1);
+        values.put(TestHistoryContract.COLUMN_STRING_VALUE, "updated"); //$NON-NLS-1$
+        assertThat(resolver.update(rangeUri, values, null, null), is(2));
+
+        // The partition containing the cutoff is kept
+        assertThat(PartitionContract.callDropPartitions(context, uri, dayTwo + 1), is(1));
+        try (final Cursor cursor = resolver.query(uri,
+                new String[]{TestHistoryContract.COLUMN_STRING_VALUE}, null, null,
+                TestHistoryContract.COLUMN_LONG_TIME)) {
+            assertThat(cursor.getCount(), is(2));
+            cursor.moveToFirst();
+            assertThat(cursor.getString(0), is("updated")); //$NON-NLS-1$
+            cursor.moveToNext();
+            assertThat(cursor.getString(0), is("d")); //$NON-NLS-1$
+        }
+
+        assertThat(resolver.delete(uri, null, null), is(2));
+        assertThat(PartitionContract.callDropPartitions(context, uri, Long.MAX_VALUE), is(2));
+    }
+
+    @MediumTest
+    @Test
+    public void partitioned_insert_id_not_reused_after_drop() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final ContentResolver resolver = context.getContentResolver();
+        final Uri uri = TestHistoryContract.getContentUri(context);
+        PartitionContract.callDropPartitions(context, uri, Long.MAX_VALUE);
+
+        final long dayOne = 1600000000000L - 1600000000000L % DateUtils.DAY_IN_MILLIS;
+        final long dayTwo = dayOne + DateUtils.DAY_IN_MILLIS;
+        final long firstId = ContentUris.parseId(resolver.insert(uri,
+                TestHistoryContract.getContentValues(dayOne, "a"))); //$NON-NLS-1$
+
+        // Dropping every bucket must not lower the sequence
+        assertThat(PartitionContract.callDropPartitions(context, uri, Long.MAX_VALUE), is(1));
+
+        final long secondId = ContentUris.parseId(resolver.insert(uri,
+                TestHistoryContract.getContentValues(dayTwo, "b"))); //$NON-NLS-1$
+        assertTrue(firstId < secondId);
+
+        assertThat(PartitionContract.callDropPartitions(context, uri, Long.MAX_VALUE), is(1));
+    }
+
+    @MediumTest
+    @Test
+    public void bounding_box_query() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final ContentResolver resolver = context.getContentResolver();
+        final Uri uri = TestRegionContract.getContentUri(context);
+
+        resolver.insert(uri, TestRegionContract.getContentValues(0, 10, 0, 10,
+                "southwest")); //$NON-NLS-1$
+        resolver.insert(uri, TestRegionContract.getContentValues(5, 15, 5, 15,
+                "center")); //$NON-NLS-1$
+        resolver.insert(uri, TestRegionContract.getContentValues(20, 30, 20, 30,
+                "northeast")); //$NON-NLS-1$
+
+        // Point lookup
+        final Uri pointUri = MementoContract.addBoundingBox(
+                TestRegionContract.getBoundingBoxUri(context).buildUpon(), 7, 7, 7, 7).build();
+        try (final Cursor cursor = resolver.query(pointUri,
+                new String[]{TestRegionContract.COLUMN_STRING_NAME}, null, null,
+                TestRegionContract.COLUMN_STRING_NAME)) {
+            assertThat(cursor.getCount(), is(2));
+            cursor.moveToFirst();
+            assertThat(cursor.getString(0), is("center")); //$NON-NLS-1$
+            cursor.moveToNext();
+            assertThat(cursor.getString(0), is("southwest")); //$NON-NLS-1$
+        }
+
+        // The shadow table follows updates and deletes of the base table
+        final ContentValues values = TestRegionContract.getContentValues(100, 110, 100, 110,
+                "center"); //$NON-NLS-1$
+        resolver.update(uri, values, TestRegionContract.COLUMN_STRING_NAME + " = ?", //$NON-NLS-1$
+                new String[]{"center"}); //$NON-NLS-1$
+        resolver.delete(uri, TestRegionContract.COLUMN_STRING_NAME + " = ?", //$NON-NLS-1$
+                new String[]{"northeast"}); //$NON-NLS-1$
+
+        final Uri boxUri = MementoContract.addBoundingBox(
+                TestRegionContract.getBoundingBoxUri(context).buildUpon(), 9, 105, 9, 105)
+                .build();
+        try (final Cursor cursor = resolver.query(boxUri, null, null, null,
+                TestRegionContract.COLUMN_STRING_NAME)) {
+            assertThat(cursor.getCount(), is(2));
+            cursor.moveToFirst();
+            assertThat(cursor.getString(cursor.getColumnIndexOrThrow(
+                    TestRegionContract.COLUMN_STRING_NAME)), is("center")); //$NON-NLS-1$
+            cursor.moveToNext();
+            assertThat(cursor.getString(cursor.getColumnIndexOrThrow(
+                    TestRegionContract.COLUMN_STRING_NAME)), is("southwest")); //$NON-NLS-1$
+        }
+
+        resolver.delete(uri, null, null);
+    }
+
+    @SmallTest
+    @Test(expected = IllegalArgumentException.class)
+    public void bounding_box_query_missing_box() {
+        final Context context = ApplicationProvider.getApplicationContext();
+
+        context.getContentResolver().query(TestRegionContract.getBoundingBoxUri(context), null,
+                null, null, null);
+    }
+
+    @MediumTest
+    @Test
+    public void json_field_selection_and_sort() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final ContentResolver resolver = context.getContentResolver();
+        final Uri uri = TestPluginInstanceContract.getContentUri(context);
+
+        resolver.insert(uri, TestPluginInstanceContract.getContentValues(
+                "{\"name\":\"a\",\"priority\":3,\"enabled\":true}")); //$NON-NLS-1$
+        resolver.insert(uri, TestPluginInstanceContract.getContentValues(
+                "{\"name\":\"b\",\"priority\":1,\"enabled\":false}")); //$NON-NLS-1$
+        resolver.insert(uri, TestPluginInstanceContract.getContentValues(
+                "{\"name\":\"c\",\"priority\":2,\"enabled\":true}")); //$NON-NLS-1$
+
+        final String name = MementoContract.jsonExtract(
+                TestPluginInstanceContract.COLUMN_STRING_JSON, "$.name"); //$NON-NLS-1$
+        final String enabled = MementoContract.jsonExtract(
+                TestPluginInstanceContract.COLUMN_STRING_JSON,
+                TestPluginInstanceContract.JSON_PATH_ENABLED);
+        final String priority = MementoContract.jsonExtract(
+                TestPluginInstanceContract.COLUMN_STRING_JSON,
+                TestPluginInstanceContract.JSON_PATH_PRIORITY);
+        try (final Cursor cursor = resolver.query(uri, new String[]{name},
+                enabled + " = ?", new String[]{"1"}, priority)) { //$NON-NLS-1$ //$NON-NLS-2$
+            assertThat(cursor.getCount(), is(2));
+            cursor.moveToFirst();
+            assertThat(cursor.getString(0), is("c")); //$NON-NLS-1$
+            cursor.moveToNext();
+            assertThat(cursor.getString(0), is("a")); //$NON-NLS-1$
+        }
+
+        assertThat(resolver.delete(uri, priority + " > ?", //$NON-NLS-1$
+                new String[]{"1"}), is(2)); //$NON-NLS-1$
+        assertThat(resolver.delete(uri, null, null), is(1));
+    }
+
+    @MediumTest
+    @Test
+    public void change_log_query_and_compact() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final ContentResolver resolver = context.getContentResolver();
+        final Uri uri = TestPluginInstanceContract.getContentUri(context);
+        final String authority = uri.getAuthority();
+        ChangeLogContract.callCompact(context, uri, Long.MAX_VALUE);
+
+        final Uri first = resolver.insert(uri,
+                TestPluginInstanceContract.getContentValues("{}")); //$NON-NLS-1$
+        final Uri second = resolver.insert(uri,
+                TestPluginInstanceContract.getContentValues("{}")); //$NON-NLS-1$
+        resolver.update(first, TestPluginInstanceContract.getContentValues(
+                "{\"priority\":1}"), null, null); //$NON-NLS-1$
+        resolver.delete(second, null, null);
+
+        final long firstId = ContentUris.parseId(first);
+        final long secondId = ContentUris.parseId(second);
+        final long updateSequence;
+        try (final Cursor cursor = resolver.query(
+                ChangeLogContract.newChangesSinceUri(authority, 0), null, null, null, null)) {
+            assertThat(cursor.getCount(), is(4));
+            assertChangeLogEntry(cursor, 0, firstId, ChangePayloadContract.OPERATION_INSERT);
+            assertChangeLogEntry(cursor, 1, secondId, ChangePayloadContract.OPERATION_INSERT);
+            assertChangeLogEntry(cursor, 2, firstId, ChangePayloadContract.OPERATION_UPDATE);
+            assertChangeLogEntry(cursor, 3, secondId, ChangePayloadContract.OPERATION_DELETE);
+
+            cursor.moveToPosition(2);
+            updateSequence = cursor.getLong(
+                    cursor.getColumnIndexOrThrow(ChangeLogContract.COLUMN_LONG_SEQUENCE));
+        }
+
+        // Only the latest entry of each row is kept
+        assertThat(ChangeLogContract.callCompact(context, uri, 0), is(2));
+
+        try (final Cursor cursor = resolver.query(
+                ChangeLogContract.newChangesSinceUri(authority, updateSequence), null, null, null,
+                null)) {
+            assertThat(cursor.getCount(), is(1));
+            assertChangeLogEntry(cursor, 0, secondId, ChangePayloadContract.OPERATION_DELETE);
+        }
+
+        assertThat(ChangeLogContract.callCompact(context, uri, updateSequence), is(1));
+        assertThat(resolver.delete(uri, null, null), is(1));
+        assertThat(ChangeLogContract.callCompact(context, uri, Long.MAX_VALUE), is(2));
+    }
+
+    private static void assertChangeLogEntry(@NonNull final Cursor cursor, final int position,
+                                             final long rowId, @NonNull final String operation) {
+        assertTrue(cursor.moveToPosition(position));
+        assertThat(cursor.getString(cursor.getColumnIndexOrThrow(
+                ChangeLogContract.COLUMN_STRING_TABLE_NAME)),
+                is(TestPluginInstanceContract.TABLE_NAME));
+        assertThat(cursor.getLong(cursor.getColumnIndexOrThrow(
+                ChangeLogContract.COLUMN_LONG_ROW_ID)), is(rowId));
+        assertThat(cursor.getString(cursor.getColumnIndexOrThrow(
+                ChangeLogContract.COLUMN_STRING_OPERATION)), is(operation));
+    }
+
+    @SmallTest
+    @Test(expected = IllegalArgumentException.class)
+    public void partitioned_insert_missing_time() {
+        final Context context = ApplicationProvider.getApplicationContext();
+
+        final ContentValues values = new ContentValues(1);
+        values.put(TestHistoryContract.COLUMN_STRING_VALUE, "a"); //$NON-NLS-1$
+        context.getContentResolver().insert(TestHistoryContract.getContentUri(context), values);
+    }
+
+    @SmallTest
+    @Test(expected = IllegalArgumentException.class)
+    public void partitioned_insert_id() {
+        final Context context = ApplicationProvider.getApplicationContext();
+
+        final ContentValues values = TestHistoryContract.getContentValues(0, "a"); //$NON-NLS-1$
+        values.put(TestHistoryContract._ID, 1L);
+        context.getContentResolver().insert(TestHistoryContract.getContentUri(context), values);
+    }
+
+    @SmallTest
+    @Test(expected = IllegalArgumentException.class)
+    public void partitioned_update_time() {
+        final Context context = ApplicationProvider.getApplicationContext();
+
+        final ContentValues values = new ContentValues(1);
+        values.put(TestHistoryContract.COLUMN_LONG_TIME, 0L);
+        context.getContentResolver().update(TestHistoryContract.getContentUri(context), values,
+                null, null);
+    }
+
+    @SmallTest
+    @Test(expected = IllegalArgumentException.class)
+    public void partitioned_update_by_ids_time() {
+        final Context context = ApplicationProvider.getApplicationContext();
+
+        final ContentValues values = new ContentValues(1);
+        values.put(TestHistoryContract.COLUMN_LONG_TIME, 0L);
+        BulkContract.callUpdateByIds(context, TestHistoryContract.getContentUri(context), values,
+                new long[]{1L});
+    }
 }
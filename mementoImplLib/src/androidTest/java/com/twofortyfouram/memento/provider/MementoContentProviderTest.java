@@ -19,6 +19,7 @@ package com.twofortyfouram.memento.provider;
 
 import android.content.*;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
 import android.net.Uri;
 import android.os.Build;
@@ -34,6 +35,7 @@ import androidx.test.rule.provider.ProviderTestRule;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import com.twofortyfouram.memento.contract.BaseColumnsContract;
 import com.twofortyfouram.memento.contract.MementoContract;
+import com.twofortyfouram.memento.contract.TrimMemoryContract;
 import com.twofortyfouram.memento.internal.ContentProviderClientCompat;
 import com.twofortyfouram.memento.test.main_process.contract.KeyValueContract;
 import com.twofortyfouram.memento.test.main_process.contract.LatestKeyValueContractView;
@@ -374,6 +376,91 @@ public final class MementoContentProviderTest {
         }
     }
 
+    @SmallTest
+    @Test
+    public void getTrimMemoryTier() {
+        assertThat(MementoContentProvider.getTrimMemoryTier(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE),
+                is(MementoContentProvider.TrimMemoryTier.NONE));
+        assertThat(MementoContentProvider.getTrimMemoryTier(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW),
+                is(MementoContentProvider.TrimMemoryTier.SHRINK));
+        assertThat(MementoContentProvider.getTrimMemoryTier(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL),
+                is(MementoContentProvider.TrimMemoryTier.RELEASE));
+        assertThat(MementoContentProvider.getTrimMemoryTier(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN),
+                is(MementoContentProvider.TrimMemoryTier.NONE));
+        assertThat(MementoContentProvider.getTrimMemoryTier(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND),
+                is(MementoContentProvider.TrimMemoryTier.SHRINK));
+        assertThat(MementoContentProvider.getTrimMemoryTier(ComponentCallbacks2.TRIM_MEMORY_MODERATE),
+                is(MementoContentProvider.TrimMemoryTier.RELEASE));
+        assertThat(MementoContentProvider.getTrimMemoryTier(ComponentCallbacks2.TRIM_MEMORY_COMPLETE),
+                is(MementoContentProvider.TrimMemoryTier.RELEASE));
+    }
+
+    @SmallTest
+    @Test
+    public void trimMemory_database_stays_open() {
+        @Nullable ContentProviderClient client = null;
+        try {
+            client = mProviderRule.getResolver()
+                    .acquireContentProviderClient(ContentProviderUtil.getContentAuthorityString(
+                            ApplicationProvider.getApplicationContext()));
+            final MementoContentProvider provider = (MementoContentProvider) client
+                    .getLocalContentProvider();
+
+            // Before the database is opened, there is nothing to shrink
+            provider.trimMemory(MementoContentProvider.TrimMemoryTier.SHRINK);
+
+            mProviderRule.getResolver().insert(TestTableOneContract.getContentUri(ApplicationProvider.getApplicationContext()),
+                    TestTableOneContract.getContentValues("test_value")); //$NON-NLS-1$
+
+            provider.trimMemory(MementoContentProvider.TrimMemoryTier.SHRINK);
+            provider.trimMemory(MementoContentProvider.TrimMemoryTier.RELEASE);
+
+            assertCount(1);
+        } finally {
+            if (null != client) {
+                ContentProviderClientCompat.close(client);
+            }
+        }
+    }
+
+    @SmallTest
+    @Test
+    public void trimMemory_metrics() {
+        @Nullable ContentProviderClient client = null;
+        try {
+            client = mProviderRule.getResolver()
+                    .acquireContentProviderClient(ContentProviderUtil.getContentAuthorityString(
+                            ApplicationProvider.getApplicationContext()));
+            final MementoContentProvider provider = (MementoContentProvider) client
+                    .getLocalContentProvider();
+
+            mProviderRule.getResolver().insert(TestTableOneContract.getContentUri(ApplicationProvider.getApplicationContext()),
+                    TestTableOneContract.getContentValues("test_value")); //$NON-NLS-1$
+
+            provider.trimMemory(MementoContentProvider.TrimMemoryTier.SHRINK);
+            provider.trimMemory(MementoContentProvider.TrimMemoryTier.RELEASE);
+            provider.trimMemory(MementoContentProvider.TrimMemoryTier.RELEASE);
+
+            // Statements are compiled again after the statement caches are cleared
+            assertCount(1);
+
+            final Bundle result = provider.call(TrimMemoryContract.METHOD_GET_TRIM_MEMORY_METRICS,
+                    null, null);
+            assertThat(result, notNullValue());
+            assertThat(result.getBundle(TrimMemoryContract.TIER_SHRINK)
+                    .getLong(TrimMemoryContract.EXTRA_LONG_RUN_COUNT), is(1L));
+
+            final Bundle release = result.getBundle(TrimMemoryContract.TIER_RELEASE);
+            assertThat(release.getLong(TrimMemoryContract.EXTRA_LONG_RUN_COUNT), is(2L));
+            assertTrue(0 <= release.getLong(TrimMemoryContract.EXTRA_LONG_TOTAL_DURATION_MILLIS));
+            assertTrue(0 <= release.getLong(TrimMemoryContract.EXTRA_LONG_LAST_SQLITE_BYTES_RELEASED));
+        } finally {
+            if (null != client) {
+                ContentProviderClientCompat.close(client);
+            }
+        }
+    }
+
     @SmallTest
     @Test
     public void query_count_empty() {
@@ -938,6 +1025,88 @@ public final class MementoContentProviderTest {
         assertThat(values, is(TestTableOneContract.getContentValues("test_value"))); //$NON-NLS-1$
     }
 
+    @SmallTest
+    @Test
+    public void insert_id_in_uri_upsert() {
+        final ContentResolver resolver = mProviderRule.getResolver();
+
+        final Uri uri = ContentUris
+                .withAppendedId(TestTableOneContract.getContentUri(ApplicationProvider.getApplicationContext()), 1234);
+        assertThat(resolver.insert(uri, TestTableOneContract.getContentValues("test_value")), //$NON-NLS-1$
+                is(uri));
+        assertThat(resolver.insert(uri, TestTableOneContract.getContentValues("test_value_updated")), //$NON-NLS-1$
+                is(uri));
+
+        try (final Cursor cursor = resolver.query(TestTableOneContract.getContentUri(ApplicationProvider.getApplicationContext()),
+                null, null, null, null)) {
+            assertThat(cursor.getCount(), is(1));
+
+            cursor.moveToFirst();
+
+            assertThat(cursor.getLong(cursor.getColumnIndexOrThrow(TestTableOneContract._ID)), is(1234L));
+            assertThat(cursor.getString(cursor
+                            .getColumnIndexOrThrow(TestTableOneContract.COLUMN_STRING_COLUMN_ONE)),
+                    is("test_value_updated")); //$NON-NLS-1$
+        }
+    }
+
+    @SmallTest
+    @Test
+    public void insert_id_in_uri_upsert_not_last_inserted() {
+        final ContentResolver resolver = mProviderRule.getResolver();
+
+        final Uri firstUri = ContentUris
+                .withAppendedId(TestTableOneContract.getContentUri(ApplicationProvider.getApplicationContext()), 1234);
+        final Uri secondUri = ContentUris
+                .withAppendedId(TestTableOneContract.getContentUri(ApplicationProvider.getApplicationContext()), 5678);
+        assertThat(resolver.insert(firstUri, TestTableOneContract.getContentValues("test_value")), //$NON-NLS-1$
+                is(firstUri));
+        assertThat(resolver.insert(secondUri, TestTableOneContract.getContentValues("test_value")), //$NON-NLS-1$
+                is(secondUri));
+
+        // The updated row is not the last inserted row, so its _id must not come from last_insert_rowid()
+        assertThat(resolver.insert(firstUri, TestTableOneContract.getContentValues("test_value_updated")), //$NON-NLS-1$
+                is(firstUri));
+
+        assertCount(2);
+        try (final Cursor cursor = resolver.query(firstUri, null, null, null, null)) {
+            assertThat(cursor.getCount(), is(1));
+
+            cursor.moveToFirst();
+
+            assertThat(cursor.getString(cursor
+                            .getColumnIndexOrThrow(TestTableOneContract.COLUMN_STRING_COLUMN_ONE)),
+                    is("test_value_updated")); //$NON-NLS-1$
+        }
+    }
+
+    @SmallTest
+    @Test
+    public void insert_conflict_algorithm_ignore() {
+        final ContentResolver resolver = mProviderRule.getResolver();
+
+        final Uri uri = ContentUris
+                .withAppendedId(TestTableOneContract.getContentUri(ApplicationProvider.getApplicationContext()), 1234);
+        assertThat(resolver.insert(uri, TestTableOneContract.getContentValues("test_value")), //$NON-NLS-1$
+                is(uri));
+
+        // The query string overrides the upsert of the match
+        final Uri ignoreUri = MementoContract.addConflictAlgorithm(uri.buildUpon(),
+                SQLiteDatabase.CONFLICT_IGNORE).build();
+        assertThat(resolver.insert(ignoreUri, TestTableOneContract.getContentValues("test_value_ignored")), //$NON-NLS-1$
+                nullValue());
+
+        try (final Cursor cursor = resolver.query(uri, null, null, null, null)) {
+            assertThat(cursor.getCount(), is(1));
+
+            cursor.moveToFirst();
+
+            assertThat(cursor.getString(cursor
+                            .getColumnIndexOrThrow(TestTableOneContract.COLUMN_STRING_COLUMN_ONE)),
+                    is("test_value")); //$NON-NLS-1$
+        }
+    }
+
     @SmallTest
     @Test
     public void update_init() {
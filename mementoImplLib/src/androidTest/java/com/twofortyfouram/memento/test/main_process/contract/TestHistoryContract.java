@@ -0,0 +1,148 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.test.main_process.contract;
+
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.net.Uri;
+import android.provider.BaseColumns;
+
+import com.twofortyfouram.memento.test.main_process.provider.ContentProviderUtil;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Contract for an append-only history table, partitioned by day.
+ */
+@ThreadSafe
+public final class TestHistoryContract implements BaseColumns {
+
+    /**
+     * Name of the template table.
+     */
+    @NonNull
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static final String TABLE_NAME = "history"; //$NON-NLS-1$
+
+    /**
+     * Mimetype for the entire directory.
+     */
+    @NonNull
+    public static final String MIMETYPE_DIR = ContentResolver.CURSOR_DIR_BASE_TYPE
+            + ContentProviderUtil.MIME_PROVIDER_NAME_PART + ".history"; //$NON-NLS-1$
+
+    /**
+     * Type: {@code long}.
+     * <p>
+     * Time of the entry in milliseconds since the Unix epoch.  Rows are partitioned by this
+     * column.
+     * <p>
+     * Constraints: This column cannot be null.
+     */
+    @NonNull
+    public static final String COLUMN_LONG_TIME = "time"; //$NON-NLS-1$
+
+    /**
+     * Type: {@code String}.
+     * <p>
+     * Value of the entry.
+     */
+    @NonNull
+    public static final String COLUMN_STRING_VALUE = "value"; //$NON-NLS-1$
+
+    /**
+     * Intrinsic lock for guarding {@link #sContentUri}.
+     */
+    @NonNull
+    private static final Object INTRINSIC_LOCK = new Object();
+
+    /**
+     * Content URI for {@link TestHistoryContract}.
+     *
+     * @see #getContentUri(Context)
+     */
+    @GuardedBy("INTRINSIC_LOCK")
+    @Nullable
+    @SuppressWarnings("StaticNonFinalField")
+    private static volatile Uri sContentUri = null;
+
+    /**
+     * @param context Application context.
+     * @return The content URI for {@link TestHistoryContract}.
+     */
+    @NonNull
+    public static Uri getContentUri(@NonNull final Context context) {
+        assertNotNull(context, "context"); //$NON-NLS-1$
+        /*
+         * Double-checked idiom for lazy initialization, Effective Java 2nd edition page 283.
+         */
+        @SuppressWarnings("FieldAccessNotGuarded")
+        @Nullable Uri contentUri = sContentUri;
+        if (null == contentUri) {
+            //noinspection SynchronizationOnStaticField
+            synchronized (INTRINSIC_LOCK) {
+                contentUri = sContentUri;
+                if (null == contentUri) {
+                    @NonNull final String authority = ContentProviderUtil.getContentAuthorityString
+                            (context);
+                    sContentUri = contentUri = new Uri.Builder()
+                            .scheme(ContentResolver.SCHEME_CONTENT).authority(authority)
+                            .appendPath(TABLE_NAME).build();
+                }
+            }
+        }
+
+        return contentUri;
+    }
+
+    /**
+     * Creates ContentValues for the table.
+     *
+     * @param time  Time to associate with {@link #COLUMN_LONG_TIME}.
+     * @param value String to associate with {@link #COLUMN_STRING_VALUE}.
+     * @return Initialized ContentValues.
+     */
+    @NonNull
+    public static ContentValues getContentValues(final long time, @NonNull final String value) {
+        assertNotNull(value, "value"); //$NON-NLS-1$
+
+        @NonNull final ContentValues values = new ContentValues(2);
+        values.put(COLUMN_LONG_TIME, time);
+        values.put(COLUMN_STRING_VALUE, value);
+
+        return values;
+    }
+
+    /**
+     * Private constructor prevents instantiation.
+     *
+     * @throws UnsupportedOperationException because this class cannot be instantiated.
+     */
+    private TestHistoryContract() {
+        throw new UnsupportedOperationException("This class is non-instantiable"); //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.test.main_process.contract;
+
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.net.Uri;
+import android.provider.BaseColumns;
+
+import com.twofortyfouram.memento.test.main_process.provider.ContentProviderUtil;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Contract for a table of plugin instances, whose data is stored as JSON text.
+ */
+@ThreadSafe
+public final class TestPluginInstanceContract implements BaseColumns {
+
+    /**
+     * Name of the template table.
+     */
+    @NonNull
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static final String TABLE_NAME = "plugin_instance"; //$NON-NLS-1$
+
+    /**
+     * Mimetype for the entire directory.
+     */
+    @NonNull
+    public static final String MIMETYPE_DIR = ContentResolver.CURSOR_DIR_BASE_TYPE
+            + ContentProviderUtil.MIME_PROVIDER_NAME_PART + ".plugin_instance"; //$NON-NLS-1$
+
+    /**
+     * Mimetype for individual items.
+     */
+    @NonNull
+    public static final String MIMETYPE_ITEM = ContentResolver.CURSOR_ITEM_BASE_TYPE
+            + ContentProviderUtil.MIME_PROVIDER_NAME_PART + ".plugin_instance"; //$NON-NLS-1$
+
+    /**
+     * Type: {@code String}.
+     * <p>
+     * JSON object containing the data of the plugin instance.  The {@link #JSON_PATH_PRIORITY}
+     * field is indexed.
+     * <p>
+     * Constraints: This column cannot be null.
+     */
+    @NonNull
+    public static final String COLUMN_STRING_JSON = "json"; //$NON-NLS-1$
+
+    /**
+     * JSON path of the integer priority field of {@link #COLUMN_STRING_JSON}.
+     */
+    @NonNull
+    public static final String JSON_PATH_PRIORITY = "$.priority"; //$NON-NLS-1$
+
+    /**
+     * JSON path of the boolean enabled field of {@link #COLUMN_STRING_JSON}.
+     */
+    @NonNull
+    public static final String JSON_PATH_ENABLED = "$.enabled"; //$NON-NLS-1$
+
+    /**
+     * Intrinsic lock for guarding {@link #sContentUri}.
+     */
+    @NonNull
+    private static final Object INTRINSIC_LOCK = new Object();
+
+    /**
+     * Content URI for {@link TestPluginInstanceContract}.
+     *
+     * @see #getContentUri(Context)
+     */
+    @GuardedBy("INTRINSIC_LOCK")
+    @Nullable
+    @SuppressWarnings("StaticNonFinalField")
+    private static volatile Uri sContentUri = null;
+
+    /**
+     * @param context Application context.
+     * @return The content URI for {@link TestPluginInstanceContract}.
+     */
+    @NonNull
+    public static Uri getContentUri(@NonNull final Context context) {
+        assertNotNull(context, "context"); //$NON-NLS-1$
+        /*
+         * Double-checked idiom for lazy initialization, Effective Java 2nd edition page 283.
+         */
+        @SuppressWarnings("FieldAccessNotGuarded")
+        @Nullable Uri contentUri = sContentUri;
+        if (null == contentUri) {
+            //noinspection SynchronizationOnStaticField
+            synchronized (INTRINSIC_LOCK) {
+                contentUri = sContentUri;
+                if (null == contentUri) {
+                    @NonNull final String authority = ContentProviderUtil.getContentAuthorityString
+                            (context);
+                    sContentUri = contentUri = new Uri.Builder()
+                            .scheme(ContentResolver.SCHEME_CONTENT).authority(authority)
+                            .appendPath(TABLE_NAME).build();
+                }
+            }
+        }
+
+        return contentUri;
+    }
+
+    /**
+     * Creates ContentValues for the table.
+     *
+     * @param json JSON to associate with {@link #COLUMN_STRING_JSON}.
+     * @return Initialized ContentValues.
+     */
+    @NonNull
+    public static ContentValues getContentValues(@NonNull final String json) {
+        assertNotNull(json, "json"); //$NON-NLS-1$
+
+        @NonNull final ContentValues values = new ContentValues(1);
+        values.put(COLUMN_STRING_JSON, json);
+
+        return values;
+    }
+
+    /**
+     * Private constructor prevents instantiation.
+     *
+     * @throws UnsupportedOperationException because this class cannot be instantiated.
+     */
+    private TestPluginInstanceContract() {
+        throw new UnsupportedOperationException("This class is non-instantiable"); //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.test.main_process.contract;
+
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.net.Uri;
+import android.provider.BaseColumns;
+
+import com.twofortyfouram.memento.test.main_process.provider.ContentProviderUtil;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Contract for a table of rectangular regions, with a spatial index for bounding box queries.
+ */
+@ThreadSafe
+public final class TestRegionContract implements BaseColumns {
+
+    /**
+     * Name of the template table.
+     */
+    @NonNull
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static final String TABLE_NAME = "region"; //$NON-NLS-1$
+
+    /**
+     * Name of the spatial index shadow table.
+     */
+    @NonNull
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static final String SPATIAL_TABLE_NAME = "region_spatial"; //$NON-NLS-1$
+
+    /**
+     * Path segment appended to the content URI for bounding box queries.
+     */
+    @NonNull
+    public static final String PATH_BOUNDING_BOX = "box"; //$NON-NLS-1$
+
+    /**
+     * Mimetype for the entire directory.
+     */
+    @NonNull
+    public static final String MIMETYPE_DIR = ContentResolver.CURSOR_DIR_BASE_TYPE
+            + ContentProviderUtil.MIME_PROVIDER_NAME_PART + ".region"; //$NON-NLS-1$
+
+    /**
+     * Type: {@code double}.
+     * <p>
+     * Western edge of the region, in degrees.
+     * <p>
+     * Constraints: This column cannot be null.
+     */
+    @NonNull
+    public static final String COLUMN_DOUBLE_MIN_LONGITUDE = "min_longitude"; //$NON-NLS-1$
+
+    /**
+     * Type: {@code double}.
+     * <p>
+     * Eastern edge of the region, in degrees.
+     * <p>
+     * Constraints: This column cannot be null.
+     */
+    @NonNull
+    public static final String COLUMN_DOUBLE_MAX_LONGITUDE = "max_longitude"; //$NON-NLS-1$
+
+    /**
+     * Type: {@code double}.
+     * <p>
+     * Southern edge of the region, in degrees.
+     * <p>
+     * Constraints: This column cannot be null.
+     */
+    @NonNull
+    public static final String COLUMN_DOUBLE_MIN_LATITUDE = "min_latitude"; //$NON-NLS-1$
+
+    /**
+     * Type: {@code double}.
+     * <p>
+     * Northern edge of the region, in degrees.
+     * <p>
+     * Constraints: This column cannot be null.
+     */
+    @NonNull
+    public static final String COLUMN_DOUBLE_MAX_LATITUDE = "max_latitude"; //$NON-NLS-1$
+
+    /**
+     * Type: {@code String}.
+     * <p>
+     * Name of the region.
+     */
+    @NonNull
+    public static final String COLUMN_STRING_NAME = "name"; //$NON-NLS-1$
+
+    /**
+     * Intrinsic lock for guarding {@link #sContentUri}.
+     */
+    @NonNull
+    private static final Object INTRINSIC_LOCK = new Object();
+
+    /**
+     * Content URI for {@link TestRegionContract}.
+     *
+     * @see #getContentUri(Context)
+     */
+    @GuardedBy("INTRINSIC_LOCK")
+    @Nullable
+    @SuppressWarnings("StaticNonFinalField")
+    private static volatile Uri sContentUri = null;
+
+    /**
+     * @param context Application context.
+     * @return The content URI for {@link TestRegionContract}.
+     */
+    @NonNull
+    public static Uri getContentUri(@NonNull final Context context) {
+        assertNotNull(context, "context"); //$NON-NLS-1$
+        /*
+         * Double-checked idiom for lazy initialization, Effective Java 2nd edition page 283.
+         */
+        @SuppressWarnings("FieldAccessNotGuarded")
+        @Nullable Uri contentUri = sContentUri;
+        if (null == contentUri) {
+            //noinspection SynchronizationOnStaticField
+            synchronized (INTRINSIC_LOCK) {
+                contentUri = sContentUri;
+                if (null == contentUri) {
+                    @NonNull final String authority = ContentProviderUtil.getContentAuthorityString
+                            (context);
+                    sContentUri = contentUri = new Uri.Builder()
+                            .scheme(ContentResolver.SCHEME_CONTENT).authority(authority)
+                            .appendPath(TABLE_NAME).build();
+                }
+            }
+        }
+
+        return contentUri;
+    }
+
+    /**
+     * @param context Application context.
+     * @return The content URI for bounding box queries of {@link TestRegionContract}.
+     */
+    @NonNull
+    public static Uri getBoundingBoxUri(@NonNull final Context context) {
+        return Uri.withAppendedPath(getContentUri(context), PATH_BOUNDING_BOX);
+    }
+
+    /**
+     * Creates ContentValues for the table.
+     *
+     * @param minLongitude Value to associate with {@link #COLUMN_DOUBLE_MIN_LONGITUDE}.
+     * @param maxLongitude Value to associate with {@link #COLUMN_DOUBLE_MAX_LONGITUDE}.
+     * @param minLatitude  Value to associate with {@link #COLUMN_DOUBLE_MIN_LATITUDE}.
+     * @param maxLatitude  Value to associate with {@link #COLUMN_DOUBLE_MAX_LATITUDE}.
+     * @param name         String to associate with {@link #COLUMN_STRING_NAME}.
+     * @return Initialized ContentValues.
+     */
+    @NonNull
+    public static ContentValues getContentValues(final double minLongitude,
+            final double maxLongitude, final double minLatitude, final double maxLatitude,
+            @NonNull final String name) {
+        assertNotNull(name, "name"); //$NON-NLS-1$
+
+        @NonNull final ContentValues values = new ContentValues(5);
+        values.put(COLUMN_DOUBLE_MIN_LONGITUDE, minLongitude);
+        values.put(COLUMN_DOUBLE_MAX_LONGITUDE, maxLongitude);
+        values.put(COLUMN_DOUBLE_MIN_LATITUDE, minLatitude);
+        values.put(COLUMN_DOUBLE_MAX_LATITUDE, maxLatitude);
+        values.put(COLUMN_STRING_NAME, name);
+
+        return values;
+    }
+
+    /**
+     * Private constructor prevents instantiation.
+     *
+     * @throws UnsupportedOperationException because this class cannot be instantiated.
+     */
+    private TestRegionContract() {
+        throw new UnsupportedOperationException("This class is non-instantiable"); //$NON-NLS-1$
+    }
+}
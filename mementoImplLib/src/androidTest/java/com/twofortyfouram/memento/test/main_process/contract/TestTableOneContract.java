@@ -72,6 +72,28 @@ public final class TestTableOneContract implements BaseColumns {
     @NonNull
     public static final String COLUMN_STRING_COLUMN_ONE = "column_one"; //$NON-NLS-1$
 
+    /**
+     * Type: {@code byte[]}.
+     * <p>
+     * Optional binary column.  Its name also identifies the value streamed via
+     * {@link #getBlobUri(Context, long)}, which is stored separately.
+     */
+    @NonNull
+    public static final String COLUMN_BLOB_COLUMN_TWO = "column_two"; //$NON-NLS-1$
+
+    /**
+     * Path segment for Uris streaming {@link #COLUMN_BLOB_COLUMN_TWO}.
+     */
+    @NonNull
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static final String PATH_BLOB = "blob"; //$NON-NLS-1$
+
+    /**
+     * Mimetype for {@link #COLUMN_BLOB_COLUMN_TWO}.
+     */
+    @NonNull
+    public static final String MIMETYPE_BLOB = "application/octet-stream"; //$NON-NLS-1$
+
     /**
      * Intrinsic lock for guarding {@link #sContentUri}.
      */
@@ -117,6 +139,19 @@ public final class TestTableOneContract implements BaseColumns {
         return contentUri;
     }
 
+    /**
+     * @param context Application context.
+     * @param id      Id of the row.
+     * @return Uri streaming {@link #COLUMN_BLOB_COLUMN_TWO} of the row.
+     */
+    @NonNull
+    public static Uri getBlobUri(@NonNull final Context context, final long id) {
+        assertNotNull(context, "context"); //$NON-NLS-1$
+
+        return getContentUri(context).buildUpon().appendPath(PATH_BLOB)
+                .appendPath(Long.toString(id)).build();
+    }
+
     /**
      * Creates ContentValues for the table.
      *
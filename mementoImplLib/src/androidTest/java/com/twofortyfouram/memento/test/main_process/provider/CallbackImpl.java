@@ -24,9 +24,14 @@ import androidx.annotation.NonNull;
 
 import com.twofortyfouram.log.Lumberjack;
 import com.twofortyfouram.memento.model.SqliteColumnBuilder;
+import com.twofortyfouram.memento.model.SqliteIndexBuilder;
 import com.twofortyfouram.memento.model.SqliteLatestViewBuilder;
+import com.twofortyfouram.memento.model.SqliteSpatialIndexVersion;
 import com.twofortyfouram.memento.model.SqliteStorageClass;
 import com.twofortyfouram.memento.model.SqliteTableBuilder;
+import com.twofortyfouram.memento.test.main_process.contract.TestHistoryContract;
+import com.twofortyfouram.memento.test.main_process.contract.TestPluginInstanceContract;
+import com.twofortyfouram.memento.test.main_process.contract.TestRegionContract;
 import com.twofortyfouram.memento.test.main_process.contract.TestKeyValueColumns;
 import com.twofortyfouram.memento.test.main_process.contract.KeyValueContract;
 import com.twofortyfouram.memento.test.main_process.contract.LatestKeyValueContractView;
@@ -50,6 +55,9 @@ public final class CallbackImpl extends SupportSQLiteOpenHelper.Callback {
         createTableOne(db);
         createKeyValueTable(db);
         createLatestKeyValueView(db);
+        createHistoryTable(db);
+        createRegionTable(db);
+        createPluginInstanceTable(db);
     }
 
     @Override
@@ -72,6 +80,9 @@ public final class CallbackImpl extends SupportSQLiteOpenHelper.Callback {
         tableBuilder.addColumn(new SqliteColumnBuilder()
                 .setName(TestTableOneContract.COLUMN_STRING_COLUMN_ONE)
                 .setType(SqliteStorageClass.TEXT).setConstraintNotNull());
+        tableBuilder.addColumn(new SqliteColumnBuilder()
+                .setName(TestTableOneContract.COLUMN_BLOB_COLUMN_TWO)
+                .setType(SqliteStorageClass.BLOB));
 
         db.execSQL(tableBuilder.build());
     }
@@ -101,4 +112,71 @@ public final class CallbackImpl extends SupportSQLiteOpenHelper.Callback {
 
         db.execSQL(viewBuilder.build());
     }
+
+    private static void createHistoryTable(@NonNull final SupportSQLiteDatabase db) {
+        // Template for the partitions, which are created by the provider as rows are inserted
+        @NonNull final SqliteTableBuilder tableBuilder = new SqliteTableBuilder()
+                .setName(TestHistoryContract.TABLE_NAME);
+        tableBuilder.addColumn(new SqliteColumnBuilder().setName(TestHistoryContract._ID)
+                .setType(SqliteStorageClass.INTEGER)
+                .setAutoincrementPrimaryKey());
+        tableBuilder.addColumn(new SqliteColumnBuilder()
+                .setName(TestHistoryContract.COLUMN_LONG_TIME)
+                .setType(SqliteStorageClass.INTEGER).setConstraintNotNull());
+        tableBuilder.addColumn(new SqliteColumnBuilder()
+                .setName(TestHistoryContract.COLUMN_STRING_VALUE)
+                .setType(SqliteStorageClass.TEXT));
+
+        db.execSQL(tableBuilder.build());
+        db.execSQL(new SqliteIndexBuilder().setTableName(TestHistoryContract.TABLE_NAME)
+                .setColumnName(TestHistoryContract.COLUMN_LONG_TIME).build());
+    }
+
+    private static void createRegionTable(@NonNull final SupportSQLiteDatabase db) {
+        @NonNull final SqliteTableBuilder tableBuilder = new SqliteTableBuilder()
+                .setName(TestRegionContract.TABLE_NAME);
+        tableBuilder.addColumn(new SqliteColumnBuilder().setName(TestRegionContract._ID)
+                .setType(SqliteStorageClass.INTEGER)
+                .setAutoincrementPrimaryKey());
+        for (@NonNull final String columnName : new String[]{
+                TestRegionContract.COLUMN_DOUBLE_MIN_LONGITUDE,
+                TestRegionContract.COLUMN_DOUBLE_MAX_LONGITUDE,
+                TestRegionContract.COLUMN_DOUBLE_MIN_LATITUDE,
+                TestRegionContract.COLUMN_DOUBLE_MAX_LATITUDE}) {
+            tableBuilder.addColumn(new SqliteColumnBuilder().setName(columnName)
+                    .setType(SqliteStorageClass.REAL).setConstraintNotNull());
+        }
+        tableBuilder.addColumn(new SqliteColumnBuilder()
+                .setName(TestRegionContract.COLUMN_STRING_NAME)
+                .setType(SqliteStorageClass.TEXT));
+
+        // The B-tree fallback works on every platform SQLite build, unlike the R*Tree module
+        tableBuilder.setSpatialIndex(SqliteSpatialIndexVersion.BTREE,
+                TestRegionContract.SPATIAL_TABLE_NAME,
+                TestRegionContract.COLUMN_DOUBLE_MIN_LONGITUDE,
+                TestRegionContract.COLUMN_DOUBLE_MAX_LONGITUDE,
+                TestRegionContract.COLUMN_DOUBLE_MIN_LATITUDE,
+                TestRegionContract.COLUMN_DOUBLE_MAX_LATITUDE);
+
+        db.execSQL(tableBuilder.build());
+        for (@NonNull final String sql : tableBuilder.buildSpatialIndex()) {
+            db.execSQL(sql);
+        }
+    }
+
+    private static void createPluginInstanceTable(@NonNull final SupportSQLiteDatabase db) {
+        @NonNull final SqliteTableBuilder tableBuilder = new SqliteTableBuilder()
+                .setName(TestPluginInstanceContract.TABLE_NAME);
+        tableBuilder.addColumn(new SqliteColumnBuilder().setName(TestPluginInstanceContract._ID)
+                .setType(SqliteStorageClass.INTEGER)
+                .setAutoincrementPrimaryKey());
+        tableBuilder.addColumn(new SqliteColumnBuilder()
+                .setName(TestPluginInstanceContract.COLUMN_STRING_JSON)
+                .setType(SqliteStorageClass.TEXT).setConstraintNotNull());
+
+        db.execSQL(tableBuilder.build());
+        db.execSQL(new SqliteIndexBuilder().setTableName(TestPluginInstanceContract.TABLE_NAME)
+                .setColumnName(TestPluginInstanceContract.COLUMN_STRING_JSON)
+                .setJsonPath(TestPluginInstanceContract.JSON_PATH_PRIORITY).build());
+    }
 }
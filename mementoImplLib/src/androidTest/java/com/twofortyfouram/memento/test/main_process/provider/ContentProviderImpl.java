@@ -24,11 +24,18 @@ import android.content.Context;
 import android.net.Uri;
 import androidx.annotation.NonNull;
 
+import com.twofortyfouram.memento.model.SqliteConfiguration;
+import com.twofortyfouram.memento.model.SqliteConfigurationBuilder;
 import com.twofortyfouram.memento.model.SqliteUriMatcher;
 import com.twofortyfouram.memento.provider.MementoContentProvider;
+import com.twofortyfouram.memento.test.main_process.contract.TestPluginInstanceContract;
 
 import net.jcip.annotations.ThreadSafe;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+
 import static com.twofortyfouram.assertion.Assertions.assertNotNull;
 
 /**
@@ -41,6 +48,16 @@ public final class ContentProviderImpl extends MementoContentProvider {
     private static final String DB_FILE_NAME = "com.twofortyfouram.memento.debug.sqlite3";
     //$NON-NLS-1$
 
+    /**
+     * Cache size applied by {@link #newSqliteConfiguration()}.
+     */
+    public static final long CACHE_SIZE_KIBIBYTES = 4096;
+
+    /**
+     * Page size applied by {@link #newSqliteConfiguration()}, which differs from the SQLite default.
+     */
+    public static final int PAGE_SIZE_BYTES = 8192;
+
     @NonNull
     @Override
     public SqliteUriMatcher newSqliteUriMatcher() {
@@ -56,8 +73,37 @@ public final class ContentProviderImpl extends MementoContentProvider {
 
         config.name(DB_FILE_NAME);
 
-        config.callback(new CallbackImpl());
+        config.callback(newConfiguredCallback(new CallbackImpl()));
 
         return new FrameworkSQLiteOpenHelperFactory().create(config.build());
     }
+
+    @NonNull
+    @Override
+    protected SqliteConfiguration newSqliteConfiguration() {
+        return new SqliteConfigurationBuilder()
+                .setSynchronous(SqliteConfiguration.Synchronous.NORMAL)
+                .setTempStore(SqliteConfiguration.TempStore.MEMORY)
+                .setCacheSizeKibibytes(CACHE_SIZE_KIBIBYTES)
+                .setPageSizeBytes(PAGE_SIZE_BYTES)
+                .build();
+    }
+
+    @NonNull
+    @Override
+    protected Collection<String> getChangeLogTableNames() {
+        return Collections.singleton(TestPluginInstanceContract.TABLE_NAME);
+    }
+
+    @Override
+    protected boolean isWarmOpenEnabled() {
+        return true;
+    }
+
+    @NonNull
+    @Override
+    protected Collection<String> getHotStatements() {
+        return Collections.singleton(String.format(Locale.US,
+                "SELECT COUNT(*) FROM %s", TestPluginInstanceContract.TABLE_NAME)); //$NON-NLS-1$
+    }
 }
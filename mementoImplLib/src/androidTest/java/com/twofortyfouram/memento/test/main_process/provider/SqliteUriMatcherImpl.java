@@ -20,6 +20,7 @@ package com.twofortyfouram.memento.test.main_process.provider;
 import android.content.Context;
 import android.content.UriMatcher;
 import android.net.Uri;
+import android.provider.BaseColumns;
 import android.util.SparseArray;
 
 import androidx.annotation.NonNull;
@@ -27,10 +28,14 @@ import androidx.annotation.NonNull;
 import com.twofortyfouram.log.Lumberjack;
 import com.twofortyfouram.memento.internal.ImmutableUriMatcher;
 import com.twofortyfouram.memento.model.Operation;
+import com.twofortyfouram.memento.model.SqlitePartitionInterval;
 import com.twofortyfouram.memento.model.SqliteUriMatch;
 import com.twofortyfouram.memento.model.SqliteUriMatcher;
 import com.twofortyfouram.memento.test.main_process.contract.KeyValueContract;
 import com.twofortyfouram.memento.test.main_process.contract.LatestKeyValueContractView;
+import com.twofortyfouram.memento.test.main_process.contract.TestHistoryContract;
+import com.twofortyfouram.memento.test.main_process.contract.TestPluginInstanceContract;
+import com.twofortyfouram.memento.test.main_process.contract.TestRegionContract;
 import com.twofortyfouram.memento.test.main_process.contract.TestTableOneContract;
 import com.twofortyfouram.memento.test.main_process.contract.TestYouCanHazNoContract;
 import com.twofortyfouram.spackle.ContextUtil;
@@ -64,7 +69,7 @@ public final class SqliteUriMatcherImpl implements SqliteUriMatcher {
 
         @NonNull final String contentAuthority = ContentProviderUtil.getContentAuthorityString(ctx);
         @NonNull final UriMatcher uriMatcher = new UriMatcher(UriMatcher.NO_MATCH);
-        @NonNull final SparseArray<SqliteUriMatch> uriMatches = new SparseArray<>(8);
+        @NonNull final SparseArray<SqliteUriMatch> uriMatches = new SparseArray<>(14);
 
         // Danger zone: This code is quite repetitive and it is easy to mix up getting this right
 
@@ -79,6 +84,11 @@ public final class SqliteUriMatcherImpl implements SqliteUriMatcher {
         uriMatches.put(index, newTableOneItemMatch(ctx));
         index++;
 
+        uriMatcher.addURI(contentAuthority, TestTableOneContract.TABLE_NAME + "/" //$NON-NLS-1$
+                + TestTableOneContract.PATH_BLOB + "/#", index); //$NON-NLS-1$
+        uriMatches.put(index, newTableOneBlobMatch(ctx));
+        index++;
+
         uriMatcher.addURI(contentAuthority, TestYouCanHazNoContract.TABLE_NAME, index);
         uriMatches.put(index, newCanHazNoDirMatch(ctx));
         index++;
@@ -108,6 +118,28 @@ public final class SqliteUriMatcherImpl implements SqliteUriMatcher {
         uriMatches.put(index, newLatestKeyValueItemMatch(ctx));
         index++;
 
+        uriMatcher.addURI(contentAuthority, TestHistoryContract.TABLE_NAME, index);
+        uriMatches.put(index, newHistoryDirMatch(ctx));
+        index++;
+
+        uriMatcher.addURI(contentAuthority, TestRegionContract.TABLE_NAME, index);
+        uriMatches.put(index, newRegionDirMatch(ctx));
+        index++;
+
+        uriMatcher.addURI(contentAuthority, TestRegionContract.TABLE_NAME + "/" //$NON-NLS-1$
+                + TestRegionContract.PATH_BOUNDING_BOX, index);
+        uriMatches.put(index, newRegionBoundingBoxMatch(ctx));
+        index++;
+
+        uriMatcher.addURI(contentAuthority, TestPluginInstanceContract.TABLE_NAME, index);
+        uriMatches.put(index, newPluginInstanceDirMatch(ctx));
+        index++;
+
+        uriMatcher.addURI(contentAuthority,
+                TestPluginInstanceContract.TABLE_NAME + "/#", index); //$NON-NLS-1$
+        uriMatches.put(index, newPluginInstanceItemMatch(ctx));
+        index++;
+
         mUriMatcher = new ImmutableUriMatcher(uriMatcher);
         mUriMatches = uriMatches;
     }
@@ -160,9 +192,32 @@ public final class SqliteUriMatcherImpl implements SqliteUriMatcher {
         final String mimeType = TestTableOneContract.MIMETYPE_ITEM;
         final boolean isIdUri = true;
 
+        // Inserting an existing id replaces the values of that row
         return new SqliteUriMatch(baseUri, notifyUris, EnumSet.allOf(Operation.class), tableName,
                 mimeType, isIdUri
-        );
+        ).withUpsert(BaseColumns._ID);
+    }
+
+    /**
+     * @param context Application context.
+     * @return A new match object streaming
+     * {@link TestTableOneContract#COLUMN_BLOB_COLUMN_TWO} of an item in
+     * {@link TestTableOneContract}.
+     */
+    @NonNull
+    private static SqliteUriMatch newTableOneBlobMatch(@NonNull final Context context) {
+        final Uri baseUri = TestTableOneContract.getContentUri(context);
+
+        final Collection<Uri> notifyUris = new ArrayList<>(1);
+        notifyUris.add(baseUri);
+
+        final String tableName = TestTableOneContract.TABLE_NAME;
+        final String mimeType = TestTableOneContract.MIMETYPE_BLOB;
+        final boolean isIdUri = true;
+
+        return new SqliteUriMatch(baseUri, notifyUris, EnumSet.of(Operation.QUERY,
+                Operation.UPDATE), tableName, mimeType, isIdUri
+        ).withBlobColumn(TestTableOneContract.COLUMN_BLOB_COLUMN_TWO);
     }
 
     @NonNull
@@ -262,4 +317,104 @@ public final class SqliteUriMatcherImpl implements SqliteUriMatcher {
                 mimeType, isIdUri
         );
     }
+
+    /**
+     * @param context Application context.
+     * @return A new match object for {@link TestHistoryContract}, partitioned by day.
+     */
+    @NonNull
+    private static SqliteUriMatch newHistoryDirMatch(@NonNull final Context context) {
+        final Uri baseUri = TestHistoryContract.getContentUri(context);
+
+        final Collection<Uri> notifyUris = new ArrayList<>(1);
+        notifyUris.add(baseUri);
+
+        final String tableName = TestHistoryContract.TABLE_NAME;
+        final String mimeType = TestHistoryContract.MIMETYPE_DIR;
+        final boolean isIdUri = false;
+
+        return new SqliteUriMatch(baseUri, notifyUris, EnumSet.allOf(Operation.class), tableName,
+                mimeType, isIdUri
+        ).withTimePartitions(TestHistoryContract.COLUMN_LONG_TIME, SqlitePartitionInterval.DAILY);
+    }
+
+    /**
+     * @param context Application context.
+     * @return A new match object for {@link TestRegionContract}.
+     */
+    @NonNull
+    private static SqliteUriMatch newRegionDirMatch(@NonNull final Context context) {
+        final Uri baseUri = TestRegionContract.getContentUri(context);
+
+        final Collection<Uri> notifyUris = new ArrayList<>(1);
+        notifyUris.add(baseUri);
+
+        final String tableName = TestRegionContract.TABLE_NAME;
+        final String mimeType = TestRegionContract.MIMETYPE_DIR;
+        final boolean isIdUri = false;
+
+        return new SqliteUriMatch(baseUri, notifyUris, EnumSet.allOf(Operation.class), tableName,
+                mimeType, isIdUri
+        );
+    }
+
+    /**
+     * @param context Application context.
+     * @return A new match object for bounding box queries of {@link TestRegionContract}.
+     */
+    @NonNull
+    private static SqliteUriMatch newRegionBoundingBoxMatch(@NonNull final Context context) {
+        final Uri baseUri = TestRegionContract.getBoundingBoxUri(context);
+
+        final Collection<Uri> notifyUris = new ArrayList<>(1);
+        notifyUris.add(TestRegionContract.getContentUri(context));
+
+        final String tableName = TestRegionContract.TABLE_NAME;
+        final String mimeType = TestRegionContract.MIMETYPE_DIR;
+        final boolean isIdUri = false;
+
+        return new SqliteUriMatch(baseUri, notifyUris, EnumSet.of(Operation.QUERY), tableName,
+                mimeType, isIdUri
+        ).withBoundingBox(TestRegionContract.SPATIAL_TABLE_NAME);
+    }
+
+    /**
+     * @param context Application context.
+     * @return A new match object for {@link TestPluginInstanceContract}.
+     */
+    @NonNull
+    private static SqliteUriMatch newPluginInstanceDirMatch(@NonNull final Context context) {
+        final Uri baseUri = TestPluginInstanceContract.getContentUri(context);
+
+        final Collection<Uri> notifyUris = new ArrayList<>(1);
+        notifyUris.add(baseUri);
+
+        final String tableName = TestPluginInstanceContract.TABLE_NAME;
+        final String mimeType = TestPluginInstanceContract.MIMETYPE_DIR;
+        final boolean isIdUri = false;
+
+        return new SqliteUriMatch(baseUri, notifyUris, EnumSet.allOf(Operation.class), tableName,
+                mimeType, isIdUri
+        );
+    }
+
+    /**
+     * @param context Application context.
+     * @return A new match object for items of {@link TestPluginInstanceContract}.
+     */
+    @NonNull
+    private static SqliteUriMatch newPluginInstanceItemMatch(@NonNull final Context context) {
+        final Uri baseUri = TestPluginInstanceContract.getContentUri(context);
+
+        final Collection<Uri> notifyUris = new ArrayList<>(1);
+        notifyUris.add(baseUri);
+
+        final String tableName = TestPluginInstanceContract.TABLE_NAME;
+        final String mimeType = TestPluginInstanceContract.MIMETYPE_ITEM;
+        final boolean isIdUri = true;
+
+        return new SqliteUriMatch(baseUri, notifyUris, EnumSet.allOf(Operation.class), tableName,
+                mimeType, isIdUri
+        );
+    }
 }
@@ -17,24 +17,32 @@
 
 package com.twofortyfouram.memento.internal;
 
+import android.annotation.TargetApi;
 import android.content.ContentResolver;
+import android.content.ContentUris;
 import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
+import android.os.Build;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 
 import com.twofortyfouram.annotation.NonNullElt;
 import com.twofortyfouram.log.Lumberjack;
+import com.twofortyfouram.memento.contract.ChangePayloadContract;
+import com.twofortyfouram.spackle.AndroidSdkVersion;
+import com.twofortyfouram.spackle.Clock;
 import com.twofortyfouram.spackle.ContextUtil;
 
 import net.jcip.annotations.NotThreadSafe;
 
-import java.util.LinkedHashSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
+import static com.twofortyfouram.assertion.Assertions.assertInRangeInclusive;
 import static com.twofortyfouram.assertion.Assertions.assertNotNull;
 
 /**
@@ -47,6 +55,24 @@ import static com.twofortyfouram.assertion.Assertions.assertNotNull;
  * in a batch, the notifications are coalesced.  In non-batch mode,
  * changes
  * are sent as soon as {@link #onContentChanged(android.net.Uri)} is called.
+ * <p>
+ * Changes may optionally carry a payload describing the operation and the row delta, as per
+ * {@link ChangePayloadContract}.  When coalesced in a batch, row deltas are summed.  If any change
+ * to a Uri lacks a payload, the coalesced notification for that Uri has no payload either.
+ * Payloads are only attached to ContentResolver notifications; {@link Intent#ACTION_PROVIDER_CHANGED}
+ * broadcasts always use the plain Uri.  If payloads are disabled, every notification uses the plain
+ * Uri, and payloads are only tracked internally to choose the notify flags of row changes.
+ * <p>
+ * Payloads are stamped with the time of {@link #startBatch()} in batch mode, or of the most recent
+ * {@link #onWriteStarted()} in non-batch mode.  Either is a lower bound on when the change was
+ * committed, which lets observers tell whether a change could already be reflected in a query.
+ * <p>
+ * Changes may also be reported for individual rows via
+ * {@link #onRowChanged(Uri, long, String, int)}, in which case notifications are sent for
+ * {@code base/<id>}, and on API 30 or later with {@link ContentResolver#NOTIFY_INSERT},
+ * {@link ContentResolver#NOTIFY_UPDATE}, or {@link ContentResolver#NOTIFY_DELETE}.  If more rows
+ * of a base Uri change in a batch than the row limit, or the base Uri also has a table-level change
+ * in the same batch, the row changes collapse into a single notification for the base Uri.
  */
 @NotThreadSafe
 @RestrictTo(RestrictTo.Scope.LIBRARY)
@@ -74,16 +100,39 @@ public final class ContentChangeNotificationQueue {
     private final boolean mIsExported;
 
     /**
-     * Uris that have changed.
+     * Uris that have changed, mapped to their coalesced payload.  A null value indicates that
+     * there is no payload.
      */
     @NonNull
-    private final Set<@NonNullElt Uri> mUris = new LinkedHashSet<>();
+    private final Map<@NonNullElt Uri, Payload> mUris = new LinkedHashMap<>();
+
+    /**
+     * Base Uris with row-level changes, mapped to the coalesced payload of each changed row.
+     */
+    @NonNull
+    private final Map<@NonNullElt Uri, Map<Long, Payload>> mRows = new LinkedHashMap<>();
+
+    /**
+     * Maximum number of row-level notifications per base Uri in a batch.
+     */
+    private final int mRowLimit;
+
+    /**
+     * Flag indicating whether payloads are attached to the notified Uris.
+     */
+    private final boolean mIsPayloadEnabled;
 
     /**
      * Flag indicating whether a batch transaction is active.
      */
     private boolean mIsBatch = false;
 
+    /**
+     * Real time at which the current write or batch started, which is a lower bound on when its
+     * changes are committed.
+     */
+    private long mWriteStartRealTimeMillis = 0;
+
     /**
      * Optional permission required to read the Content Provider.
      */
@@ -102,9 +151,50 @@ public final class ContentChangeNotificationQueue {
      */
     public ContentChangeNotificationQueue(@NonNull final Context context, final boolean isExported,
             @Nullable final String readPermission) {
+        this(context, isExported, readPermission, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param context        Application context.
+     * @param isExported     True if the provider is exported. False if the provider
+     *                       is not exported.  If true, {@link Intent#ACTION_PROVIDER_CHANGED}
+     *                       broadcasts will be set to be package-only (this only has an effect on
+     *                       API 14 or later).
+     * @param readPermission Optional read permission of the ContentProvider.  If provided, {@link
+     *                       Intent#ACTION_PROVIDER_CHANGED} broadcasts will have this permission
+     *                       set.
+     * @param rowLimit       Maximum number of row-level notifications per base Uri in a batch,
+     *                       beyond which a single notification for the base Uri is sent instead.
+     */
+    public ContentChangeNotificationQueue(@NonNull final Context context, final boolean isExported,
+            @Nullable final String readPermission, final int rowLimit) {
+        this(context, isExported, readPermission, rowLimit, true);
+    }
+
+    /**
+     * @param context          Application context.
+     * @param isExported       True if the provider is exported. False if the provider
+     *                         is not exported.  If true, {@link Intent#ACTION_PROVIDER_CHANGED}
+     *                         broadcasts will be set to be package-only (this only has an effect
+     *                         on API 14 or later).
+     * @param readPermission   Optional read permission of the ContentProvider.  If provided, {@link
+     *                         Intent#ACTION_PROVIDER_CHANGED} broadcasts will have this permission
+     *                         set.
+     * @param rowLimit         Maximum number of row-level notifications per base Uri in a batch,
+     *                         beyond which a single notification for the base Uri is sent instead.
+     * @param isPayloadEnabled True if notified Uris carry a payload, as per
+     *                         {@link ChangePayloadContract}.
+     */
+    public ContentChangeNotificationQueue(@NonNull final Context context, final boolean isExported,
+            @Nullable final String readPermission, final int rowLimit,
+            final boolean isPayloadEnabled) {
+        assertInRangeInclusive(rowLimit, 1, Integer.MAX_VALUE, "rowLimit"); //$NON-NLS-1$
+
         mContext = ContextUtil.cleanContext(context);
         mIsExported = isExported;
         mReadPermission = readPermission;
+        mRowLimit = rowLimit;
+        mIsPayloadEnabled = isPayloadEnabled;
     }
 
     /**
@@ -114,6 +204,17 @@ public final class ContentChangeNotificationQueue {
         return mIsBatch;
     }
 
+    /**
+     * Marks the start of a write in non-batch mode.  This must be called before the write executes,
+     * so that the change time of its payload is a lower bound on when it was committed.  In batch
+     * mode this has no effect, as the batch start is an earlier bound.
+     */
+    public void onWriteStarted() {
+        if (!mIsBatch) {
+            mWriteStartRealTimeMillis = Clock.getInstance().getRealTimeMillis();
+        }
+    }
+
     /**
      * @param uri Uri whose content changed.
      */
@@ -125,9 +226,72 @@ public final class ContentChangeNotificationQueue {
         }
 
         if (mIsBatch) {
-            mUris.add(uri);
+            mUris.put(uri, null);
+        } else {
+            notifyChange(uri, null);
+        }
+    }
+
+    /**
+     * @param uri       Uri whose content changed.
+     * @param operation Operation that caused the change, as per {@link ChangePayloadContract}.
+     * @param rowDelta  Net change in the number of rows at {@code uri}.
+     */
+    public void onContentChanged(@NonNull final Uri uri, @NonNull final String operation,
+                                 final int rowDelta) {
+        assertNotNull(uri, "uri"); //$NON-NLS-1$
+        assertNotNull(operation, "operation"); //$NON-NLS-1$
+
+        if (Constants.IS_LOGGING_ENABLED) {
+            Lumberjack.v("Content change at %s, operation=%s, rowDelta=%d", uri, operation, //$NON-NLS-1$
+                    rowDelta);
+        }
+
+        @NonNull final Payload payload = new Payload(operation, rowDelta,
+                mWriteStartRealTimeMillis);
+        if (mIsBatch) {
+            if (mUris.containsKey(uri)) {
+                @Nullable final Payload previous = mUris.get(uri);
+                mUris.put(uri, null == previous ? null : previous.merge(payload));
+            } else {
+                mUris.put(uri, payload);
+            }
+        } else {
+            notifyChange(uri, payload);
+        }
+    }
+
+    /**
+     * @param baseUri   Base Uri of the table containing the row.
+     * @param id        Id of the row that changed.
+     * @param operation Operation that caused the change, as per {@link ChangePayloadContract}.
+     * @param rowDelta  Net change in the number of rows, which is -1, 0, or 1.
+     */
+    public void onRowChanged(@NonNull final Uri baseUri, final long id,
+                             @NonNull final String operation, final int rowDelta) {
+        assertNotNull(baseUri, "baseUri"); //$NON-NLS-1$
+        assertNotNull(operation, "operation"); //$NON-NLS-1$
+
+        if (Constants.IS_LOGGING_ENABLED) {
+            Lumberjack.v("Row change at %s, id=%d, operation=%s", baseUri, id, //$NON-NLS-1$
+                    operation);
+        }
+
+        @NonNull final Payload payload = new Payload(operation, rowDelta,
+                mWriteStartRealTimeMillis);
+        if (mIsBatch) {
+            @Nullable Map<Long, Payload> rows = mRows.get(baseUri);
+            if (null == rows) {
+                rows = new LinkedHashMap<>();
+                mRows.put(baseUri, rows);
+            }
+
+            @Nullable final Payload previous = rows.get(id);
+            rows.put(id, null == previous ? payload : previous.merge(payload));
         } else {
-            notifyChange(uri);
+            @NonNull final Map<Long, Payload> rows = new LinkedHashMap<>(1);
+            rows.put(id, payload);
+            notifyRowsChanged(baseUri, rows);
         }
     }
 
@@ -154,6 +318,7 @@ public final class ContentChangeNotificationQueue {
         }
 
         mIsBatch = true;
+        mWriteStartRealTimeMillis = Clock.getInstance().getRealTimeMillis();
     }
 
     /**
@@ -170,19 +335,41 @@ public final class ContentChangeNotificationQueue {
         }
 
         if (shouldNotify) {
-            for (@NonNull final Uri uri : mUris) {
+            // Collapse row changes into the table-level notification where needed
+            @NonNull final List<Map.Entry<Uri, Map<Long, Payload>>> rowEntries = new ArrayList<>();
+            for (@NonNull final Map.Entry<Uri, Map<Long, Payload>> entry : mRows.entrySet()) {
+                @NonNull final Uri baseUri = entry.getKey();
+                @NonNull final Map<Long, Payload> rows = entry.getValue();
+
+                if (mUris.containsKey(baseUri)) {
+                    @Nullable final Payload payload = mUris.get(baseUri);
+                    mUris.put(baseUri,
+                            null == payload ? null : payload.merge(newSummaryPayload(rows)));
+                } else if (rows.size() > mRowLimit) {
+                    mUris.put(baseUri, newSummaryPayload(rows));
+                } else {
+                    rowEntries.add(entry);
+                }
+            }
+
+            for (@NonNull final Map.Entry<Uri, Map<Long, Payload>> entry : rowEntries) {
+                notifyRowsChanged(entry.getKey(), entry.getValue());
+            }
+
+            for (@NonNull final Map.Entry<Uri, Payload> entry : mUris.entrySet()) {
                 if (Constants.IS_LOGGING_ENABLED) {
-                    Lumberjack.v("Sending content change notification %s", uri); //$NON-NLS-1$
+                    Lumberjack.v("Sending content change notification %s", entry.getKey()); //$NON-NLS-1$
                 }
-                notifyChange(uri);
+                notifyChange(entry.getKey(), entry.getValue());
             }
         }
 
         mUris.clear();
+        mRows.clear();
         mIsBatch = false;
     }
 
-    private void notifyChange(@NonNull final Uri uri) {
+    private void notifyChange(@NonNull final Uri uri, @Nullable final Payload payload) {
         assertNotNull(uri, "uri"); //$NON-NLS-1$
 
         final ContentResolver resolver;
@@ -195,7 +382,12 @@ public final class ContentChangeNotificationQueue {
             return;
         }
 
-        resolver.notifyChange(uri, null);
+        if (null == payload || !mIsPayloadEnabled) {
+            resolver.notifyChange(uri, null);
+        } else {
+            resolver.notifyChange(ChangePayloadContract.withPayload(uri, payload.mOperation,
+                    payload.mRowDelta, payload.mChangeRealTimeMillis), null);
+        }
 
         try {
             mContext.sendBroadcast(getContentChangeNotificationIntent(uri),
@@ -208,6 +400,119 @@ public final class ContentChangeNotificationQueue {
         }
     }
 
+    /**
+     * Sends row-level notifications for {@code baseUri}, along with a single
+     * {@link Intent#ACTION_PROVIDER_CHANGED} broadcast for {@code baseUri}.
+     *
+     * @param baseUri Base Uri of the table.
+     * @param rows    Map of row id to payload.
+     */
+    private void notifyRowsChanged(@NonNull final Uri baseUri,
+                                   @NonNull final Map<Long, Payload> rows) {
+        final ContentResolver resolver;
+        try {
+            resolver = mContext.getContentResolver();
+        } catch (final UnsupportedOperationException e) {
+            /*
+             * This happens during unit tests with a mock context.
+             */
+            return;
+        }
+
+        if (AndroidSdkVersion.isAtLeastSdk(Build.VERSION_CODES.R)) {
+            notifyRowsChangedR(resolver, baseUri, rows, mIsPayloadEnabled);
+        } else {
+            for (@NonNull final Map.Entry<Long, Payload> entry : rows.entrySet()) {
+                resolver.notifyChange(newRowUri(baseUri, entry.getKey(), entry.getValue(),
+                        mIsPayloadEnabled), null);
+            }
+        }
+
+        try {
+            mContext.sendBroadcast(getContentChangeNotificationIntent(baseUri),
+                    mReadPermission);
+        } catch (final UnsupportedOperationException e) {
+            // This occurs during unit tests on API level 10 and below and API level 21 and above.
+        } catch (final RuntimeException e) {
+            // Fix for case 15288.
+            // Android can sometimes fail to send broadcasts and crash.
+        }
+    }
+
+    /**
+     * Sends row-level notifications grouped by operation, so that each group is a single call with
+     * the appropriate notify flag.
+     */
+    @TargetApi(Build.VERSION_CODES.R)
+    private static void notifyRowsChangedR(@NonNull final ContentResolver resolver,
+                                           @NonNull final Uri baseUri,
+                                           @NonNull final Map<Long, Payload> rows,
+                                           final boolean isPayloadEnabled) {
+        @NonNull final Map<String, List<Uri>> urisByOperation = new LinkedHashMap<>();
+        for (@NonNull final Map.Entry<Long, Payload> entry : rows.entrySet()) {
+            @NonNull final String operation = entry.getValue().mOperation;
+
+            @Nullable List<Uri> uris = urisByOperation.get(operation);
+            if (null == uris) {
+                uris = new ArrayList<>();
+                urisByOperation.put(operation, uris);
+            }
+            uris.add(newRowUri(baseUri, entry.getKey(), entry.getValue(), isPayloadEnabled));
+        }
+
+        for (@NonNull final Map.Entry<String, List<Uri>> entry : urisByOperation.entrySet()) {
+            resolver.notifyChange(entry.getValue(), null, getNotifyFlags(entry.getKey()));
+        }
+    }
+
+    /**
+     * @param operation Operation, as per {@link ChangePayloadContract}.
+     * @return Flags for {@link ContentResolver#notifyChange(java.util.Collection, android.database.ContentObserver, int)}.
+     */
+    @TargetApi(Build.VERSION_CODES.R)
+    private static int getNotifyFlags(@NonNull final String operation) {
+        switch (operation) {
+            case ChangePayloadContract.OPERATION_INSERT: {
+                return ContentResolver.NOTIFY_INSERT;
+            }
+            case ChangePayloadContract.OPERATION_UPDATE: {
+                return ContentResolver.NOTIFY_UPDATE;
+            }
+            case ChangePayloadContract.OPERATION_DELETE: {
+                return ContentResolver.NOTIFY_DELETE;
+            }
+            default: {
+                return 0;
+            }
+        }
+    }
+
+    @NonNull
+    private static Uri newRowUri(@NonNull final Uri baseUri, final long id,
+                                 @NonNull final Payload payload, final boolean isPayloadEnabled) {
+        @NonNull final Uri rowUri = ContentUris.withAppendedId(baseUri, id);
+        if (!isPayloadEnabled) {
+            return rowUri;
+        }
+
+        return ChangePayloadContract.withPayload(rowUri, payload.mOperation, payload.mRowDelta,
+                payload.mChangeRealTimeMillis);
+    }
+
+    /**
+     * @param rows Row changes.
+     * @return A single payload summarizing {@code rows}.
+     */
+    @NonNull
+    private static Payload newSummaryPayload(@NonNull final Map<Long, Payload> rows) {
+        @Nullable Payload result = null;
+        for (@NonNull final Payload payload : rows.values()) {
+            result = null == result ? payload : result.merge(payload);
+        }
+
+        return result;
+    }
+
     @NonNull
     private Intent getContentChangeNotificationIntent(
             @NonNull final Uri uri) {
@@ -233,4 +538,41 @@ public final class ContentChangeNotificationQueue {
 
         return intent;
     }
+
+    /**
+     * Describes a change to a Uri.
+     */
+    @NotThreadSafe
+    private static final class Payload {
+
+        @NonNull
+        private final String mOperation;
+
+        private final int mRowDelta;
+
+        /**
+         * Lower bound on when the change was committed.
+         */
+        private final long mChangeRealTimeMillis;
+
+        Payload(@NonNull final String operation, final int rowDelta,
+                final long changeRealTimeMillis) {
+            mOperation = operation;
+            mRowDelta = rowDelta;
+            mChangeRealTimeMillis = changeRealTimeMillis;
+        }
+
+        /**
+         * @param other Payload to merge with.
+         * @return A payload representing both this and {@code other}.
+         */
+        @NonNull
+        Payload merge(@NonNull final Payload other) {
+            @NonNull final String operation = mOperation.equals(other.mOperation) ? mOperation
+                    : ChangePayloadContract.OPERATION_MIXED;
+
+            return new Payload(operation, mRowDelta + other.mRowDelta,
+                    Math.min(mChangeRealTimeMillis, other.mChangeRealTimeMillis));
+        }
+    }
 }
@@ -0,0 +1,142 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.twofortyfouram.memento.internal;
+
+import android.database.DatabaseUtils;
+import android.provider.BaseColumns;
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.Locale;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotEmpty;
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Declares the table storing streamed BLOB values as a sequence of chunk rows.  Each chunk is
+ * its own row, so a chunk is read or written without loading the rest of the value.
+ */
+@ThreadSafe
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class SqliteBlobChunkUtil {
+
+    /**
+     * Name of the table holding the chunks.
+     */
+    @NonNull
+    public static final String TABLE_NAME = "memento_blob_chunk"; //$NON-NLS
+
+    /**
+     * Type: {@code String}.
+     * <p>
+     * Name of the table of the row owning the value.
+     */
+    @NonNull
+    public static final String COLUMN_STRING_TABLE_NAME = "table_name"; //$NON-NLS
+
+    /**
+     * Type: {@code String}.
+     * <p>
+     * Name of the streamed value.
+     */
+    @NonNull
+    public static final String COLUMN_STRING_COLUMN_NAME = "column_name"; //$NON-NLS
+
+    /**
+     * Type: {@code long}.
+     * <p>
+     * {@link BaseColumns#_ID} of the row owning the value.
+     */
+    @NonNull
+    public static final String COLUMN_LONG_ROW_ID = "row_id"; //$NON-NLS
+
+    /**
+     * Type: {@code long}.
+     * <p>
+     * Position of the chunk in the value, starting at 0 with no gaps.
+     */
+    @NonNull
+    public static final String COLUMN_LONG_CHUNK_INDEX = "chunk_index"; //$NON-NLS
+
+    /**
+     * Type: {@code byte[]}.
+     * <p>
+     * Bytes of the chunk.
+     */
+    @NonNull
+    public static final String COLUMN_BLOB_BYTES = "bytes"; //$NON-NLS
+
+    /**
+     * Statement to create {@link #TABLE_NAME} if it does not exist.
+     */
+    @NonNull
+    public static final String CREATE_TABLE = String.format(Locale.US,
+            "CREATE TABLE IF NOT EXISTS %1$s (%2$s TEXT NOT NULL, %3$s TEXT NOT NULL, %4$s INTEGER NOT NULL, %5$s INTEGER NOT NULL, %6$s BLOB NOT NULL, PRIMARY KEY (%2$s, %3$s, %4$s, %5$s))", //$NON-NLS
+            TABLE_NAME, COLUMN_STRING_TABLE_NAME, COLUMN_STRING_COLUMN_NAME, COLUMN_LONG_ROW_ID,
+            COLUMN_LONG_CHUNK_INDEX, COLUMN_BLOB_BYTES);
+
+    /**
+     * Selection of the chunks of a single value.  The arguments are the table name, the column
+     * name, and the row id.
+     */
+    @NonNull
+    public static final String WHERE_VALUE = String.format(Locale.US,
+            "%s = ? AND %s = ? AND %s = ?", //$NON-NLS
+            COLUMN_STRING_TABLE_NAME, COLUMN_STRING_COLUMN_NAME, COLUMN_LONG_ROW_ID);
+
+    /**
+     * @param tableName Name of a table whose rows own streamed values.
+     * @return Statement to create a trigger, if it does not exist, that deletes the chunks of a
+     * row of {@code tableName} when the row is deleted.
+     */
+    @NonNull
+    public static String newCreateDeleteTrigger(@NonNull final String tableName) {
+        assertNotEmpty(tableName, "tableName"); //$NON-NLS
+
+        return String.format(Locale.US,
+                "CREATE TRIGGER IF NOT EXISTS %1$s_%2$s_delete AFTER DELETE ON %2$s BEGIN DELETE FROM %1$s WHERE %3$s = %4$s AND %5$s = old.%6$s; END", //$NON-NLS
+                TABLE_NAME, tableName, COLUMN_STRING_TABLE_NAME,
+                DatabaseUtils.sqlEscapeString(tableName), COLUMN_LONG_ROW_ID, BaseColumns._ID);
+    }
+
+    /**
+     * @param tableName  Name of the table of the row.
+     * @param columnName Name of the streamed value.
+     * @param rowId      Id of the row.
+     * @return Arguments for {@link #WHERE_VALUE}.
+     */
+    @NonNull
+    public static Object[] newValueArgs(@NonNull final String tableName,
+                                        @NonNull final String columnName, final long rowId) {
+        assertNotEmpty(tableName, "tableName"); //$NON-NLS
+        assertNotNull(columnName, "columnName"); //$NON-NLS
+
+        return new Object[]{tableName, columnName, rowId};
+    }
+
+    /**
+     * Private constructor prevents instantiation.
+     *
+     * @throws UnsupportedOperationException because this class cannot be instantiated.
+     */
+    private SqliteBlobChunkUtil() {
+        throw new UnsupportedOperationException("This class is non-instantiable"); //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.internal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+
+import com.twofortyfouram.annotation.Slow;
+import com.twofortyfouram.annotation.Slow.Speed;
+import com.twofortyfouram.memento.model.SqliteConfiguration;
+
+import net.jcip.annotations.Immutable;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Open helper callback that applies a {@link SqliteConfiguration} in
+ * {@link #onConfigure(SupportSQLiteDatabase)}, before the database is created or upgraded, and
+ * otherwise delegates to the callback of the provider's open helper.  This is the only point at
+ * which the page size of a new database can still take effect.
+ */
+@Immutable
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class SqliteConfiguringCallback extends SupportSQLiteOpenHelper.Callback {
+
+    @NonNull
+    private final SqliteConfiguration mConfiguration;
+
+    @NonNull
+    private final SupportSQLiteOpenHelper.Callback mDelegate;
+
+    /**
+     * @param configuration Configuration to apply.
+     * @param delegate      Callback to delegate to.
+     */
+    public SqliteConfiguringCallback(@NonNull final SqliteConfiguration configuration,
+                                     @NonNull final SupportSQLiteOpenHelper.Callback delegate) {
+        super(delegate.version);
+
+        assertNotNull(configuration, "configuration"); //$NON-NLS-1$
+
+        mConfiguration = configuration;
+        mDelegate = delegate;
+    }
+
+    @Override
+    @Slow(Speed.MILLISECONDS)
+    public void onConfigure(@NonNull final SupportSQLiteDatabase db) {
+        // First, because enabling WAL in the delegate would fix the page size of a new database
+        mConfiguration.apply(db);
+
+        mDelegate.onConfigure(db);
+    }
+
+    @Override
+    public void onCreate(@NonNull final SupportSQLiteDatabase db) {
+        mDelegate.onCreate(db);
+    }
+
+    @Override
+    public void onUpgrade(@NonNull final SupportSQLiteDatabase db, final int oldVersion,
+                          final int newVersion) {
+        mDelegate.onUpgrade(db, oldVersion, newVersion);
+    }
+
+    @Override
+    public void onDowngrade(@NonNull final SupportSQLiteDatabase db, final int oldVersion,
+                            final int newVersion) {
+        mDelegate.onDowngrade(db, oldVersion, newVersion);
+    }
+
+    @Override
+    public void onOpen(@NonNull final SupportSQLiteDatabase db) {
+        mDelegate.onOpen(db);
+    }
+
+    @Override
+    public void onCorruption(@NonNull final SupportSQLiteDatabase db) {
+        mDelegate.onCorruption(db);
+    }
+}
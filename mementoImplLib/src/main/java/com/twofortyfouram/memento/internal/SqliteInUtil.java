@@ -0,0 +1,134 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.internal;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+import net.jcip.annotations.ThreadSafe;
+
+import static com.twofortyfouram.assertion.Assertions.assertInRangeInclusive;
+import static com.twofortyfouram.assertion.Assertions.assertNotEmpty;
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Builds {@code IN} clauses over a list of values, in chunks that stay below the SQLite limit on
+ * the number of bound variables.
+ */
+@ThreadSafe
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class SqliteInUtil {
+
+    /**
+     * Maximum number of values in a single {@code IN} clause.  SQLite versions before 3.32.0
+     * allow at most 999 bound variables per statement.  Using half of that leaves room for the
+     * arguments of a selection the clause is combined with.
+     */
+    public static final int MAX_CHUNK_SIZE = 499;
+
+    /**
+     * @param columnName Column to compare.
+     * @param count      Number of values.
+     * @return Selection {@code columnName IN (?,...)} with {@code count} placeholders.
+     */
+    @NonNull
+    public static String newInSelection(@NonNull final String columnName,
+                                        @IntRange(from = 1, to = MAX_CHUNK_SIZE) final int count) {
+        assertNotEmpty(columnName, "columnName"); //$NON-NLS
+        assertInRangeInclusive(count, 1, MAX_CHUNK_SIZE, "count"); //$NON-NLS
+
+        @NonNull final StringBuilder builder = new StringBuilder(columnName.length() + 6 + 2 * count);
+        builder.append(columnName).append(" IN (?"); //$NON-NLS
+        for (int x = 1; x < count; x++) {
+            builder.append(",?"); //$NON-NLS
+        }
+        builder.append(')');
+
+        return builder.toString();
+    }
+
+    /**
+     * @param values Values to bind.
+     * @param start  Index of the first value of the chunk.
+     * @param count  Number of values in the chunk.
+     * @return Arguments for {@link #newInSelection(String, int)}.  Values are bound as longs
+     * rather than converted to strings, so that no type affinity conversion is needed.
+     */
+    @NonNull
+    public static Object[] newInSelectionArgs(@NonNull final long[] values,
+                                              @IntRange(from = 0) final int start,
+                                              @IntRange(from = 1, to = MAX_CHUNK_SIZE) final int count) {
+        assertNotNull(values, "values"); //$NON-NLS
+        assertInRangeInclusive(count, 1, MAX_CHUNK_SIZE, "count"); //$NON-NLS
+        assertInRangeInclusive(start, 0, values.length - count, "start"); //$NON-NLS
+
+        @NonNull final Object[] args = new Object[count];
+        for (int x = 0; x < count; x++) {
+            args[x] = values[start + x];
+        }
+
+        return args;
+    }
+
+    /**
+     * @param columnName Column to order by.
+     * @param values     Values of the chunk, in the order the rows should be returned.
+     * @param start      Index of the first value of the chunk.
+     * @param count      Number of values in the chunk.
+     * @return Order by clause {@code CASE columnName WHEN value THEN index ... END}.  The values
+     * are longs, so they are inlined rather than bound, leaving the bound variables for
+     * {@link #newInSelectionArgs(long[], int, int)}.
+     */
+    @NonNull
+    public static String newCaseOrderBy(@NonNull final String columnName,
+                                        @NonNull final long[] values,
+                                        @IntRange(from = 0) final int start,
+                                        @IntRange(from = 1, to = MAX_CHUNK_SIZE) final int count) {
+        assertNotEmpty(columnName, "columnName"); //$NON-NLS
+        assertNotNull(values, "values"); //$NON-NLS
+        assertInRangeInclusive(count, 1, MAX_CHUNK_SIZE, "count"); //$NON-NLS
+        assertInRangeInclusive(start, 0, values.length - count, "start"); //$NON-NLS
+
+        @NonNull final StringBuilder builder = new StringBuilder(columnName.length() + 24 * count);
+        builder.append("CASE ").append(columnName); //$NON-NLS
+        for (int x = 0; x < count; x++) {
+            builder.append(" WHEN ").append(values[start + x]).append(" THEN ").append(x); //$NON-NLS
+        }
+        builder.append(" END"); //$NON-NLS
+
+        return builder.toString();
+    }
+
+    /**
+     * @param valueCount Total number of values.
+     * @param start      Index of the first value of the chunk.
+     * @return Number of values in the chunk starting at {@code start}.
+     */
+    public static int getChunkSize(final int valueCount, final int start) {
+        return Math.min(MAX_CHUNK_SIZE, valueCount - start);
+    }
+
+    /**
+     * Private constructor prevents instantiation.
+     *
+     * @throws UnsupportedOperationException because this class cannot be instantiated.
+     */
+    private SqliteInUtil() {
+        throw new UnsupportedOperationException("This class is non-instantiable"); //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,503 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.internal;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteException;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.twofortyfouram.annotation.Slow;
+import com.twofortyfouram.annotation.Slow.Speed;
+import com.twofortyfouram.log.Lumberjack;
+import com.twofortyfouram.memento.contract.MaintenanceContract;
+import com.twofortyfouram.memento.model.SqliteMaintenancePolicy;
+import com.twofortyfouram.memento.model.SqliteMaintenancePolicy.WalCheckpointMode;
+import com.twofortyfouram.spackle.AndroidSdkVersion;
+import com.twofortyfouram.spackle.Clock;
+import com.twofortyfouram.spackle.HandlerThreadFactory;
+import com.twofortyfouram.spackle.HandlerThreadFactory.ThreadPriority;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.Locale;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Runs database maintenance as described by {@link SqliteMaintenancePolicy} on a background
+ * thread, once the provider has been idle for the policy's idle delay.
+ * <p>
+ * Activity is reported via {@link #onActivity()}, which is cheap enough to call for every
+ * provider operation: it records a timestamp and only posts to the maintenance thread if no run
+ * is already pending.  When a pending run comes due, it checks the timestamp and postpones itself
+ * if there was activity in the meantime.
+ * <p>
+ * A run stops starting new tasks once it is over the policy's time budget or once the provider
+ * becomes active again.  The remaining tasks are deferred, and the next run begins with them.
+ */
+@ThreadSafe
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class SqliteMaintenanceScheduler {
+
+    /**
+     * Maintenance tasks, in the order they are run.
+     */
+    private enum Task {
+        @NonNull
+        WAL_CHECKPOINT(MaintenanceContract.TASK_WAL_CHECKPOINT),
+        @NonNull
+        INCREMENTAL_VACUUM(MaintenanceContract.TASK_INCREMENTAL_VACUUM),
+        @NonNull
+        OPTIMIZE(MaintenanceContract.TASK_OPTIMIZE);
+
+        @NonNull
+        private final String mName;
+
+        Task(@NonNull final String name) {
+            mName = name;
+        }
+    }
+
+    /**
+     * Value of {@code PRAGMA auto_vacuum} for incremental mode.
+     */
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    /**
+     * Value of {@link #mLastOptimizeRealTimeMillis} if statistics have not been refreshed.
+     */
+    private static final long NEVER = -1;
+
+    @NonNull
+    private final SqliteMaintenancePolicy mPolicy;
+
+    @NonNull
+    private final DatabaseSupplier mDatabaseSupplier;
+
+    @NonNull
+    private final Clock mClock;
+
+    @NonNull
+    private final TaskMetrics[] mMetrics = new TaskMetrics[Task.values().length];
+
+    @NonNull
+    private final Runnable mIdleRunnable = new Runnable() {
+        @Override
+        public void run() {
+            onIdle();
+        }
+    };
+
+    @NonNull
+    private final Object mLock = new Object();
+
+    /**
+     * Maintenance thread, started on first use.
+     */
+    @GuardedBy("mLock")
+    @Nullable
+    private HandlerThread mHandlerThread = null;
+
+    @GuardedBy("mLock")
+    @Nullable
+    private Handler mHandler = null;
+
+    @GuardedBy("mLock")
+    private boolean mIsShutdown = false;
+
+    /**
+     * Flag indicating {@link #mIdleRunnable} is posted.  Written while holding {@link #mLock}, but
+     * volatile so that {@link #onActivity()} can check it without locking.
+     */
+    private volatile boolean mIsRunPending = false;
+
+    private volatile long mLastActivityRealTimeMillis;
+
+    /**
+     * Index of the first task of the next run.  Only accessed by {@link #runMaintenance()}.
+     */
+    private int mNextTaskIndex = 0;
+
+    /**
+     * Only accessed by {@link #runMaintenance()}.
+     */
+    private long mLastOptimizeRealTimeMillis = NEVER;
+
+    /**
+     * @param policy           Maintenance policy.
+     * @param databaseSupplier Supplier of the database to maintain.
+     */
+    public SqliteMaintenanceScheduler(@NonNull final SqliteMaintenancePolicy policy,
+                                      @NonNull final DatabaseSupplier databaseSupplier) {
+        this(policy, databaseSupplier, Clock.getInstance());
+    }
+
+    @VisibleForTesting
+    /*package*/ SqliteMaintenanceScheduler(@NonNull final SqliteMaintenancePolicy policy,
+                                           @NonNull final DatabaseSupplier databaseSupplier,
+                                           @NonNull final Clock clock) {
+        assertNotNull(policy, "policy"); //$NON-NLS
+        assertNotNull(databaseSupplier, "databaseSupplier"); //$NON-NLS
+        assertNotNull(clock, "clock"); //$NON-NLS
+
+        mPolicy = policy;
+        mDatabaseSupplier = databaseSupplier;
+        mClock = clock;
+        mLastActivityRealTimeMillis = clock.getRealTimeMillis();
+
+        for (int x = 0; x < mMetrics.length; x++) {
+            mMetrics[x] = new TaskMetrics();
+        }
+    }
+
+    /**
+     * Records provider activity, and schedules maintenance for when the provider becomes idle.
+     */
+    public void onActivity() {
+        mLastActivityRealTimeMillis = mClock.getRealTimeMillis();
+
+        if (mIsRunPending) {
+            return;
+        }
+
+        scheduleRun(mPolicy.getIdleDelayMillis());
+    }
+
+    /**
+     * Stops the maintenance thread.  A task that is already running is allowed to finish.
+     */
+    public void shutdown() {
+        synchronized (mLock) {
+            mIsShutdown = true;
+            mIsRunPending = false;
+
+            if (null != mHandlerThread) {
+                mHandlerThread.quit();
+                mHandlerThread = null;
+                mHandler = null;
+            }
+        }
+    }
+
+    /**
+     * @return Metrics for each task, as per {@link MaintenanceContract}.
+     */
+    @NonNull
+    public Bundle getMetrics() {
+        @NonNull final Bundle result = new Bundle();
+        for (@NonNull final Task task : Task.values()) {
+            result.putBundle(task.mName, mMetrics[task.ordinal()].toBundle());
+        }
+
+        return result;
+    }
+
+    private void scheduleRun(final long delayMillis) {
+        synchronized (mLock) {
+            if (mIsRunPending || mIsShutdown) {
+                return;
+            }
+
+            if (null == mHandler) {
+                mHandlerThread = HandlerThreadFactory.newHandlerThread(
+                        SqliteMaintenanceScheduler.class.getName(), ThreadPriority.BACKGROUND);
+                mHandler = new Handler(mHandlerThread.getLooper());
+            }
+
+            mIsRunPending = true;
+            mHandler.postDelayed(mIdleRunnable, delayMillis);
+        }
+    }
+
+    @WorkerThread
+    private void onIdle() {
+        // Cleared first, so that activity from here on schedules another run
+        synchronized (mLock) {
+            mIsRunPending = false;
+        }
+
+        final long idleMillis = mClock.getRealTimeMillis() - mLastActivityRealTimeMillis;
+        final long remainingMillis = mPolicy.getIdleDelayMillis() - idleMillis;
+
+        if (0 < remainingMillis) {
+            scheduleRun(remainingMillis);
+            return;
+        }
+
+        if (runMaintenance()) {
+            // Deferred tasks run after another idle delay, whether or not there is new activity
+            scheduleRun(mPolicy.getIdleDelayMillis());
+        }
+    }
+
+    /**
+     * Runs pending maintenance tasks until the time budget is exhausted or there is provider
+     * activity.
+     *
+     * @return True if tasks were deferred.
+     */
+    @VisibleForTesting
+    @WorkerThread
+    @Slow(Speed.MILLISECONDS)
+    /*package*/ boolean runMaintenance() {
+        @NonNull final Task[] tasks = Task.values();
+        final long lastActivityRealTimeMillis = mLastActivityRealTimeMillis;
+        final long startRealTimeMillis = mClock.getRealTimeMillis();
+        final int firstTaskIndex = mNextTaskIndex;
+
+        for (int x = 0; x < tasks.length; x++) {
+            final int taskIndex = (firstTaskIndex + x) % tasks.length;
+
+            // The first task always runs, so that a task slower than the budget still makes progress
+            if (0 < x) {
+                final boolean isOverBudget = mClock.getRealTimeMillis() - startRealTimeMillis
+                        >= mPolicy.getTimeBudgetMillis();
+                final boolean isActive = lastActivityRealTimeMillis != mLastActivityRealTimeMillis;
+
+                if (isOverBudget || isActive) {
+                    for (int y = x; y < tasks.length; y++) {
+                        mMetrics[(firstTaskIndex + y) % tasks.length].onDeferred();
+                    }
+                    mNextTaskIndex = taskIndex;
+
+                    return true;
+                }
+            }
+
+            runTask(tasks[taskIndex]);
+        }
+
+        mNextTaskIndex = 0;
+
+        return false;
+    }
+
+    @WorkerThread
+    private void runTask(@NonNull final Task task) {
+        final long startRealTimeMillis = mClock.getRealTimeMillis();
+
+        try {
+            @NonNull final SupportSQLiteDatabase database = mDatabaseSupplier.getDatabase();
+
+            @Nullable final Long result;
+            switch (task) {
+                case WAL_CHECKPOINT:
+                    result = runWalCheckpoint(database);
+                    break;
+                case INCREMENTAL_VACUUM:
+                    result = runIncrementalVacuum(database);
+                    break;
+                case OPTIMIZE:
+                    result = runOptimize(database);
+                    break;
+                default:
+                    throw new AssertionError();
+            }
+
+            if (null != result) {
+                mMetrics[task.ordinal()].onRun(
+                        mClock.getRealTimeMillis() - startRealTimeMillis, result);
+            }
+        } catch (final SQLiteException | IllegalStateException e) {
+            // IllegalStateException if the database was closed concurrently
+            Lumberjack.w("Maintenance task %s failed: %s", task, e); //$NON-NLS
+            mMetrics[task.ordinal()].onFailure(mClock.getRealTimeMillis() - startRealTimeMillis);
+        }
+    }
+
+    /**
+     * @return Number of frames checkpointed, or null if not applicable.
+     */
+    @Nullable
+    private Long runWalCheckpoint(@NonNull final SupportSQLiteDatabase database) {
+        @Nullable final WalCheckpointMode mode = mPolicy.getWalCheckpointMode();
+        if (null == mode) {
+            return null;
+        }
+
+        // Checking the journal mode directly also covers WAL enabled without the framework's knowledge
+        if (!"wal".equalsIgnoreCase(queryString(database, "PRAGMA journal_mode"))) { //$NON-NLS
+            return null;
+        }
+
+        try (@NonNull final Cursor cursor = database.query(String.format(Locale.US,
+                "PRAGMA wal_checkpoint(%s)", mode.name()))) { //$NON-NLS
+            // Columns are busy, frames in the log, and frames checkpointed
+            if (cursor.moveToFirst()) {
+                return Math.max(0, cursor.getLong(2));
+            }
+        }
+
+        return 0L;
+    }
+
+    /**
+     * @return Number of pages freed, or null if not applicable.
+     */
+    @Nullable
+    private Long runIncrementalVacuum(@NonNull final SupportSQLiteDatabase database) {
+        final int pages = mPolicy.getIncrementalVacuumPages();
+        if (0 == pages) {
+            return null;
+        }
+
+        // Incremental vacuum does nothing unless the database was created for it
+        if (AUTO_VACUUM_INCREMENTAL != queryLong(database, "PRAGMA auto_vacuum")) { //$NON-NLS
+            return null;
+        }
+
+        final long freePagesBefore = queryLong(database, "PRAGMA freelist_count"); //$NON-NLS
+        if (0 == freePagesBefore) {
+            return 0L;
+        }
+
+        // Moving to the first row steps the statement, which frees the pages
+        try (@NonNull final Cursor cursor = database.query(String.format(Locale.US,
+                "PRAGMA incremental_vacuum(%d)", pages))) { //$NON-NLS
+            cursor.moveToFirst();
+        }
+
+        return freePagesBefore - queryLong(database, "PRAGMA freelist_count"); //$NON-NLS
+    }
+
+    /**
+     * @return 0, or null if not applicable.
+     */
+    @Nullable
+    private Long runOptimize(@NonNull final SupportSQLiteDatabase database) {
+        if (!mPolicy.isOptimizeEnabled()) {
+            return null;
+        }
+
+        final long nowRealTimeMillis = mClock.getRealTimeMillis();
+        if (NEVER != mLastOptimizeRealTimeMillis && nowRealTimeMillis
+                - mLastOptimizeRealTimeMillis < mPolicy.getOptimizeIntervalMillis()) {
+            return null;
+        }
+
+        // PRAGMA optimize requires SQLite 3.18, first bundled with Android O
+        if (AndroidSdkVersion.isAtLeastSdk(Build.VERSION_CODES.O)) {
+            try (@NonNull final Cursor cursor = database.query("PRAGMA optimize")) { //$NON-NLS
+                cursor.moveToFirst();
+            }
+        } else {
+            database.execSQL("ANALYZE"); //$NON-NLS
+        }
+
+        mLastOptimizeRealTimeMillis = nowRealTimeMillis;
+
+        return 0L;
+    }
+
+    @Nullable
+    private static String queryString(@NonNull final SupportSQLiteDatabase database,
+                                      @NonNull final String sql) {
+        try (@NonNull final Cursor cursor = database.query(sql)) {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        }
+    }
+
+    private static long queryLong(@NonNull final SupportSQLiteDatabase database,
+                                  @NonNull final String sql) {
+        try (@NonNull final Cursor cursor = database.query(sql)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    /**
+     * Supplies the database to maintain.  Obtaining the database must not count as provider
+     * activity.
+     */
+    public interface DatabaseSupplier {
+
+        /**
+         * @return The writable database.
+         */
+        @NonNull
+        @Slow(Speed.MILLISECONDS)
+        SupportSQLiteDatabase getDatabase();
+    }
+
+    /**
+     * Metrics for a single task.  Written on the maintenance thread and read on binder threads.
+     */
+    @ThreadSafe
+    private static final class TaskMetrics {
+
+        @GuardedBy("this")
+        private long mRunCount = 0;
+
+        @GuardedBy("this")
+        private long mFailureCount = 0;
+
+        @GuardedBy("this")
+        private long mDeferredCount = 0;
+
+        @GuardedBy("this")
+        private long mTotalDurationMillis = 0;
+
+        @GuardedBy("this")
+        private long mLastDurationMillis = 0;
+
+        @GuardedBy("this")
+        private long mLastResult = 0;
+
+        synchronized void onRun(final long durationMillis, final long result) {
+            mRunCount++;
+            mTotalDurationMillis += durationMillis;
+            mLastDurationMillis = durationMillis;
+            mLastResult = result;
+        }
+
+        synchronized void onFailure(final long durationMillis) {
+            mFailureCount++;
+            mTotalDurationMillis += durationMillis;
+            mLastDurationMillis = durationMillis;
+        }
+
+        synchronized void onDeferred() {
+            mDeferredCount++;
+        }
+
+        @NonNull
+        synchronized Bundle toBundle() {
+            @NonNull final Bundle bundle = new Bundle();
+            bundle.putLong(MaintenanceContract.EXTRA_LONG_RUN_COUNT, mRunCount);
+            bundle.putLong(MaintenanceContract.EXTRA_LONG_FAILURE_COUNT, mFailureCount);
+            bundle.putLong(MaintenanceContract.EXTRA_LONG_DEFERRED_COUNT, mDeferredCount);
+            bundle.putLong(MaintenanceContract.EXTRA_LONG_TOTAL_DURATION_MILLIS,
+                    mTotalDurationMillis);
+            bundle.putLong(MaintenanceContract.EXTRA_LONG_LAST_DURATION_MILLIS,
+                    mLastDurationMillis);
+            bundle.putLong(MaintenanceContract.EXTRA_LONG_LAST_RESULT, mLastResult);
+
+            return bundle;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.internal;
+
+import android.database.sqlite.SQLiteException;
+import android.os.Handler;
+import android.os.HandlerThread;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.WorkerThread;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.twofortyfouram.log.Lumberjack;
+import com.twofortyfouram.memento.internal.SqliteMaintenanceScheduler.DatabaseSupplier;
+import com.twofortyfouram.memento.model.SqliteTableMigration;
+import com.twofortyfouram.spackle.HandlerThreadFactory;
+import com.twofortyfouram.spackle.HandlerThreadFactory.ThreadPriority;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Runs pending {@link SqliteTableMigration}s on a background thread, one chunk at a time.
+ * <p>
+ * Each chunk is copied in a transaction of its own, and the thread pauses between chunks so that
+ * the provider's own operations are not starved of the database.
+ */
+@ThreadSafe
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class SqliteMigrationRunner {
+
+    /**
+     * Delay between chunks.
+     */
+    private static final long CHUNK_DELAY_MILLIS = 50;
+
+    @NonNull
+    private final List<SqliteTableMigration> mMigrations;
+
+    @NonNull
+    private final DatabaseSupplier mDatabaseSupplier;
+
+    @NonNull
+    private final Runnable mOnFinished;
+
+    @NonNull
+    private final Runnable mChunkRunnable = new Runnable() {
+        @Override
+        public void run() {
+            onChunk();
+        }
+    };
+
+    @NonNull
+    private final Object mLock = new Object();
+
+    @GuardedBy("mLock")
+    @Nullable
+    private HandlerThread mHandlerThread = null;
+
+    @GuardedBy("mLock")
+    @Nullable
+    private Handler mHandler = null;
+
+    @GuardedBy("mLock")
+    private boolean mIsShutdown = false;
+
+    /**
+     * Index of the migration being run.  Only accessed by {@link #onChunk()}.
+     */
+    private int mMigrationIndex = 0;
+
+    /**
+     * @param migrations       Migrations to run, in order.
+     * @param databaseSupplier Supplier of the database to migrate.
+     * @param onFinished       Called on the background thread after each migration is finished.
+     */
+    public SqliteMigrationRunner(@NonNull final Collection<SqliteTableMigration> migrations,
+                                 @NonNull final DatabaseSupplier databaseSupplier,
+                                 @NonNull final Runnable onFinished) {
+        assertNotNull(migrations, "migrations"); //$NON-NLS
+        assertNotNull(databaseSupplier, "databaseSupplier"); //$NON-NLS
+        assertNotNull(onFinished, "onFinished"); //$NON-NLS
+
+        mMigrations = new ArrayList<>(migrations);
+        mDatabaseSupplier = databaseSupplier;
+        mOnFinished = onFinished;
+    }
+
+    /**
+     * Starts running the migrations, if they are not already running.
+     */
+    public void start() {
+        synchronized (mLock) {
+            if (null != mHandler || mIsShutdown) {
+                return;
+            }
+
+            mHandlerThread = HandlerThreadFactory.newHandlerThread(
+                    SqliteMigrationRunner.class.getName(), ThreadPriority.BACKGROUND);
+            mHandler = new Handler(mHandlerThread.getLooper());
+            mHandler.post(mChunkRunnable);
+        }
+    }
+
+    /**
+     * Stops the migration thread.  A chunk that is already being copied is allowed to finish, and
+     * the migration resumes from there the next time it is started.
+     */
+    public void shutdown() {
+        synchronized (mLock) {
+            mIsShutdown = true;
+
+            if (null != mHandlerThread) {
+                mHandlerThread.quit();
+                mHandlerThread = null;
+                mHandler = null;
+            }
+        }
+    }
+
+    @WorkerThread
+    private void onChunk() {
+        if (mMigrationIndex >= mMigrations.size()) {
+            stop();
+            return;
+        }
+
+        @NonNull final SqliteTableMigration migration = mMigrations.get(mMigrationIndex);
+        try {
+            @NonNull final SupportSQLiteDatabase database = mDatabaseSupplier.getDatabase();
+
+            if (!migration.isPending(database)) {
+                mMigrationIndex++;
+            } else if (0 == migration.copyChunk(database)) {
+                migration.finish(database);
+                mMigrationIndex++;
+
+                Lumberjack.v("Finished migration of %s", migration.getTableName()); //$NON-NLS
+                mOnFinished.run();
+            }
+        } catch (final SQLiteException | IllegalStateException e) {
+            // The migration resumes the next time the database is opened
+            Lumberjack.w("Migration of %s failed: %s", migration.getTableName(), e); //$NON-NLS
+            stop();
+            return;
+        }
+
+        synchronized (mLock) {
+            if (null != mHandler) {
+                mHandler.postDelayed(mChunkRunnable, CHUNK_DELAY_MILLIS);
+            }
+        }
+    }
+
+    @WorkerThread
+    private void stop() {
+        synchronized (mLock) {
+            if (null != mHandlerThread) {
+                mHandlerThread.quit();
+                mHandlerThread = null;
+                mHandler = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.internal;
+
+import android.os.Bundle;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import com.twofortyfouram.memento.contract.OpenContract;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Records the phases of opening the database, as per {@link OpenContract}.
+ */
+@ThreadSafe
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class SqliteOpenMetrics {
+
+    @GuardedBy("this")
+    private long mOpenCount = 0;
+
+    @GuardedBy("this")
+    private boolean mIsWarmOpen = false;
+
+    @GuardedBy("this")
+    private long mOpenDurationMillis = 0;
+
+    @GuardedBy("this")
+    private long mConfigureDurationMillis = 0;
+
+    @GuardedBy("this")
+    private long mPrepareDurationMillis = 0;
+
+    @GuardedBy("this")
+    private long mPreparedStatementCount = 0;
+
+    @GuardedBy("this")
+    private long mWaitCount = 0;
+
+    @GuardedBy("this")
+    private long mTotalWaitDurationMillis = 0;
+
+    /**
+     * @param durationMillis Time spent by the open helper opening the database.
+     * @param isWarmOpen     True if the database was opened in the background.
+     */
+    public synchronized void onOpened(final long durationMillis, final boolean isWarmOpen) {
+        mOpenCount++;
+        mIsWarmOpen = isWarmOpen;
+        mOpenDurationMillis = durationMillis;
+        mConfigureDurationMillis = 0;
+        mPrepareDurationMillis = 0;
+    }
+
+    /**
+     * @param durationMillis Time spent configuring the database after it was opened.
+     */
+    public synchronized void onConfigured(final long durationMillis) {
+        mConfigureDurationMillis = durationMillis;
+    }
+
+    /**
+     * @param durationMillis Time spent compiling hot statements.
+     * @param count          Number of statements compiled successfully.
+     */
+    public synchronized void onPrepared(final long durationMillis, final int count) {
+        mPrepareDurationMillis = durationMillis;
+        mPreparedStatementCount += count;
+    }
+
+    /**
+     * @param durationMillis Time a caller spent blocked on an in-flight background open.
+     */
+    public synchronized void onWaited(final long durationMillis) {
+        mWaitCount++;
+        mTotalWaitDurationMillis += durationMillis;
+    }
+
+    /**
+     * @return Metrics as per {@link OpenContract}.  Empty if the database has not been opened.
+     */
+    @NonNull
+    public synchronized Bundle toBundle() {
+        @NonNull final Bundle bundle = new Bundle();
+        if (0 == mOpenCount) {
+            return bundle;
+        }
+
+        bundle.putLong(OpenContract.EXTRA_LONG_OPEN_COUNT, mOpenCount);
+        bundle.putBoolean(OpenContract.EXTRA_BOOLEAN_IS_WARM_OPEN, mIsWarmOpen);
+        bundle.putLong(OpenContract.EXTRA_LONG_OPEN_DURATION_MILLIS, mOpenDurationMillis);
+        bundle.putLong(OpenContract.EXTRA_LONG_CONFIGURE_DURATION_MILLIS,
+                mConfigureDurationMillis);
+        bundle.putLong(OpenContract.EXTRA_LONG_PREPARE_DURATION_MILLIS, mPrepareDurationMillis);
+        bundle.putLong(OpenContract.EXTRA_LONG_PREPARED_STATEMENT_COUNT,
+                mPreparedStatementCount);
+        bundle.putLong(OpenContract.EXTRA_LONG_WAIT_COUNT, mWaitCount);
+        bundle.putLong(OpenContract.EXTRA_LONG_TOTAL_WAIT_DURATION_MILLIS,
+                mTotalWaitDurationMillis);
+
+        return bundle;
+    }
+}
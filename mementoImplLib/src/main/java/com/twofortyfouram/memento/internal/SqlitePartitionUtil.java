@@ -0,0 +1,289 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.internal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import com.twofortyfouram.annotation.NonNullElt;
+import net.jcip.annotations.ThreadSafe;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static com.twofortyfouram.assertion.Assertions.assertNoNullElements;
+import static com.twofortyfouram.assertion.Assertions.assertNotEmpty;
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Names the bucket tables of a time-partitioned table, derives their schema from the template
+ * table, and combines them into a single table expression for queries.
+ */
+@ThreadSafe
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class SqlitePartitionUtil {
+
+    /**
+     * Maximum number of terms in a single compound {@code SELECT}.  This is the default of
+     * {@code SQLITE_MAX_COMPOUND_SELECT}.  Larger unions are nested in subqueries.
+     */
+    /*package*/ static final int MAX_COMPOUND_SELECT = 500;
+
+    /**
+     * Name of the table holding the id sequence of each time-partitioned table.  Like
+     * {@code sqlite_sequence}, dropping bucket tables doesn't lower a sequence, so ids are not
+     * reused.
+     */
+    @NonNull
+    public static final String SEQUENCE_TABLE_NAME = "memento_partition_sequence"; //$NON-NLS
+
+    /**
+     * Type: {@code String}.
+     * <p>
+     * Name of the template table of the sequence.
+     */
+    @NonNull
+    public static final String SEQUENCE_COLUMN_NAME = "name"; //$NON-NLS
+
+    /**
+     * Type: {@code long}.
+     * <p>
+     * Last id assigned in any bucket of the template table.
+     */
+    @NonNull
+    public static final String SEQUENCE_COLUMN_SEQ = "seq"; //$NON-NLS
+
+    /**
+     * Statement to create {@link #SEQUENCE_TABLE_NAME} if it does not exist.
+     */
+    @NonNull
+    public static final String CREATE_SEQUENCE_TABLE = String.format(Locale.US,
+            "CREATE TABLE IF NOT EXISTS %s (%s TEXT PRIMARY KEY NOT NULL, %s INTEGER NOT NULL)", //$NON-NLS
+            SEQUENCE_TABLE_NAME, SEQUENCE_COLUMN_NAME, SEQUENCE_COLUMN_SEQ);
+
+    /**
+     * Format of the bucket start, as a UTC date, in the name of a bucket table.
+     */
+    @NonNull
+    private static final String DATE_FORMAT = "yyyyMMdd"; //$NON-NLS
+
+    /**
+     * @param tableName   Name of the template table.
+     * @param bucketStart Start of the bucket.
+     * @return Name of the bucket table.
+     */
+    @NonNull
+    public static String newPartitionTableName(@NonNull final String tableName,
+                                               final long bucketStart) {
+        assertNotEmpty(tableName, "tableName"); //$NON-NLS
+
+        return tableName + '_' + newDateFormat().format(new Date(bucketStart));
+    }
+
+    /**
+     * @param tableName          Name of the template table.
+     * @param partitionTableName Name of a table that may be a bucket of {@code tableName}.
+     * @return The start of the bucket, or null if {@code partitionTableName} is not a bucket of
+     * {@code tableName}.
+     */
+    @Nullable
+    public static Long getBucketStart(@NonNull final String tableName,
+                                      @NonNull final String partitionTableName) {
+        assertNotEmpty(tableName, "tableName"); //$NON-NLS
+        assertNotNull(partitionTableName, "partitionTableName"); //$NON-NLS
+
+        if (partitionTableName.length() != tableName.length() + 1 + DATE_FORMAT.length()
+                || !partitionTableName.startsWith(tableName)
+                || '_' != partitionTableName.charAt(tableName.length())) {
+            return null;
+        }
+
+        @NonNull final String date = partitionTableName.substring(tableName.length() + 1);
+        for (int x = 0; x < date.length(); x++) {
+            if ('0' > date.charAt(x) || '9' < date.charAt(x)) {
+                return null;
+            }
+        }
+
+        @NonNull final SimpleDateFormat format = newDateFormat();
+        format.setLenient(false);
+        @Nullable final Date result = format.parse(date, new ParsePosition(0));
+        if (null == result) {
+            return null;
+        }
+
+        return result.getTime();
+    }
+
+    /**
+     * @param templateSql        {@code CREATE TABLE} statement of the template table, as stored
+     *                           in {@code sqlite_master}.
+     * @param partitionTableName Name of the bucket table.
+     * @return {@code CREATE TABLE} statement for the bucket table.
+     * @throws IllegalArgumentException If {@code templateSql} has no column definitions.
+     */
+    @NonNull
+    public static String newCreatePartitionTable(@NonNull final String templateSql,
+                                                 @NonNull final String partitionTableName) {
+        assertNotNull(templateSql, "templateSql"); //$NON-NLS
+        assertNotEmpty(partitionTableName, "partitionTableName"); //$NON-NLS
+
+        // Everything before the column definitions is the CREATE TABLE prefix with the name
+        return String.format(Locale.US, "CREATE TABLE %s %s", //$NON-NLS
+                partitionTableName, getDefinitions(templateSql));
+    }
+
+    /**
+     * @param templateSql        {@code CREATE INDEX} statement of an index of the template
+     *                           table, as stored in {@code sqlite_master}.
+     * @param indexName          Name of the index.
+     * @param partitionTableName Name of the bucket table.
+     * @return {@code CREATE INDEX} statement for the same index of the bucket table.
+     * @throws IllegalArgumentException If {@code templateSql} has no indexed columns.
+     */
+    @NonNull
+    public static String newCreatePartitionIndex(@NonNull final String templateSql,
+                                                 @NonNull final String indexName,
+                                                 @NonNull final String partitionTableName) {
+        assertNotNull(templateSql, "templateSql"); //$NON-NLS
+        assertNotEmpty(indexName, "indexName"); //$NON-NLS
+        assertNotEmpty(partitionTableName, "partitionTableName"); //$NON-NLS
+
+        @NonNull final String definitions = getDefinitions(templateSql);
+
+        return String.format(Locale.US, "CREATE %sINDEX %s_%s ON %s%s", //$NON-NLS
+                isUniqueIndex(templateSql) ? "UNIQUE " : "", //$NON-NLS
+                partitionTableName, indexName, partitionTableName, definitions);
+    }
+
+    /**
+     * @param sql {@code CREATE INDEX} statement.
+     * @return True if the token after {@code CREATE} is {@code UNIQUE}.  Index and table names
+     * that merely contain "unique" are not matched.
+     */
+    /*package*/ static boolean isUniqueIndex(@NonNull final String sql) {
+        @NonNull final String[] tokens = sql.trim().split("\\s+", 3); //$NON-NLS
+
+        return 3 == tokens.length
+                && "CREATE".equalsIgnoreCase(tokens[0]) //$NON-NLS
+                && "UNIQUE".equalsIgnoreCase(tokens[1]); //$NON-NLS
+    }
+
+    /**
+     * @param timeColumnName Column containing the time of each row.
+     * @param start          Inclusive start of the time range, or null for no lower bound.
+     * @param end            Exclusive end of the time range, or null for no upper bound.
+     * @return Selection restricting {@code timeColumnName} to the range, or null if there are no
+     * bounds.  The bounds are longs, so they are inlined rather than bound, leaving the bound
+     * variables for the caller's selection.
+     */
+    @Nullable
+    public static String newTimeRangeSelection(@NonNull final String timeColumnName,
+                                               @Nullable final Long start,
+                                               @Nullable final Long end) {
+        assertNotEmpty(timeColumnName, "timeColumnName"); //$NON-NLS
+
+        if (null == start && null == end) {
+            return null;
+        } else if (null == end) {
+            return String.format(Locale.US, "%s >= %d", timeColumnName, start); //$NON-NLS
+        } else if (null == start) {
+            return String.format(Locale.US, "%s < %d", timeColumnName, end); //$NON-NLS
+        }
+
+        return String.format(Locale.US, "%1$s >= %2$d AND %1$s < %3$d", //$NON-NLS
+                timeColumnName, start, end);
+    }
+
+    /**
+     * @param selects {@code SELECT} statements with the same columns.
+     * @return A {@code UNION ALL} of {@code selects}.  If there are more than
+     * {@link #MAX_COMPOUND_SELECT} statements, they are nested in subqueries.
+     */
+    @NonNull
+    public static String newUnionAll(@NonNull final List<@NonNullElt String> selects) {
+        assertNotNull(selects, "selects"); //$NON-NLS
+        assertNotEmpty(selects, "selects"); //$NON-NLS
+        assertNoNullElements(selects, "selects"); //$NON-NLS
+
+        if (MAX_COMPOUND_SELECT >= selects.size()) {
+            return join(selects);
+        }
+
+        @NonNull final List<String> nested = new ArrayList<>(
+                (selects.size() + MAX_COMPOUND_SELECT - 1) / MAX_COMPOUND_SELECT);
+        for (int start = 0; start < selects.size(); start += MAX_COMPOUND_SELECT) {
+            @NonNull final List<String> chunk = selects.subList(start,
+                    Math.min(selects.size(), start + MAX_COMPOUND_SELECT));
+            nested.add(String.format(Locale.US, "SELECT * FROM (%s)", join(chunk))); //$NON-NLS
+        }
+
+        return newUnionAll(nested);
+    }
+
+    @NonNull
+    private static String join(@NonNull final List<String> selects) {
+        @NonNull final StringBuilder builder = new StringBuilder();
+        for (int x = 0; x < selects.size(); x++) {
+            if (0 < x) {
+                builder.append(" UNION ALL "); //$NON-NLS
+            }
+            builder.append(selects.get(x));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * @param sql {@code CREATE} statement.
+     * @return The statement from its first opening parenthesis onwards.
+     */
+    @NonNull
+    private static String getDefinitions(@NonNull final String sql) {
+        final int index = sql.indexOf('(');
+        if (-1 == index) {
+            throw new IllegalArgumentException(String.format(Locale.US,
+                    "%s has no column definitions", sql)); //$NON-NLS
+        }
+
+        return sql.substring(index);
+    }
+
+    @NonNull
+    private static SimpleDateFormat newDateFormat() {
+        // SimpleDateFormat is not thread safe, so a new instance is used for each call
+        @NonNull final SimpleDateFormat format = new SimpleDateFormat(DATE_FORMAT, Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC")); //$NON-NLS
+
+        return format;
+    }
+
+    /**
+     * Private constructor prevents instantiation.
+     *
+     * @throws UnsupportedOperationException because this class cannot be instantiated.
+     */
+    private SqlitePartitionUtil() {
+        throw new UnsupportedOperationException("This class is non-instantiable"); //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.internal;
+
+import android.os.Bundle;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import com.twofortyfouram.log.Lumberjack;
+import com.twofortyfouram.memento.contract.TrimMemoryContract;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Records each tier of releasing memory, as per {@link TrimMemoryContract}.
+ */
+@ThreadSafe
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class SqliteTrimMemoryMetrics {
+
+    /**
+     * Map of {@code TrimMemoryContract.TIER_*} to its metrics.  The map itself is never modified
+     * after construction.
+     */
+    @NonNull
+    private final Map<String, TierMetrics> mMetrics = new LinkedHashMap<>();
+
+    public SqliteTrimMemoryMetrics() {
+        mMetrics.put(TrimMemoryContract.TIER_SHRINK, new TierMetrics());
+        mMetrics.put(TrimMemoryContract.TIER_RELEASE, new TierMetrics());
+    }
+
+    /**
+     * @param tier                    Tier that ran, as per {@link TrimMemoryContract}.
+     * @param durationMillis          Time spent running the tier.
+     * @param nativeHeapBytesReleased Decrease of the native heap over the run.
+     * @param sqliteBytesReleased     Number of bytes SQLite reported releasing.
+     * @throws IllegalArgumentException If {@code tier} is not a tier of
+     *                                  {@link TrimMemoryContract}.
+     */
+    public void onTrimmed(@NonNull final String tier, final long durationMillis,
+                          final long nativeHeapBytesReleased, final long sqliteBytesReleased) {
+        assertNotNull(tier, "tier"); //$NON-NLS
+
+        @Nullable final TierMetrics metrics = mMetrics.get(tier);
+        if (null == metrics) {
+            throw new IllegalArgumentException(Lumberjack.formatMessage(
+                    "Unknown tier %s", tier)); //$NON-NLS
+        }
+
+        metrics.onTrimmed(durationMillis, nativeHeapBytesReleased, sqliteBytesReleased);
+    }
+
+    /**
+     * @return Metrics as per {@link TrimMemoryContract}.
+     */
+    @NonNull
+    public Bundle toBundle() {
+        @NonNull final Bundle result = new Bundle();
+        for (@NonNull final Map.Entry<String, TierMetrics> entry : mMetrics.entrySet()) {
+            result.putBundle(entry.getKey(), entry.getValue().toBundle());
+        }
+
+        return result;
+    }
+
+    @ThreadSafe
+    private static final class TierMetrics {
+
+        @GuardedBy("this")
+        private long mRunCount = 0;
+
+        @GuardedBy("this")
+        private long mTotalDurationMillis = 0;
+
+        @GuardedBy("this")
+        private long mLastDurationMillis = 0;
+
+        @GuardedBy("this")
+        private long mLastNativeHeapBytesReleased = 0;
+
+        @GuardedBy("this")
+        private long mLastSqliteBytesReleased = 0;
+
+        synchronized void onTrimmed(final long durationMillis,
+                                    final long nativeHeapBytesReleased,
+                                    final long sqliteBytesReleased) {
+            mRunCount++;
+            mTotalDurationMillis += durationMillis;
+            mLastDurationMillis = durationMillis;
+            mLastNativeHeapBytesReleased = nativeHeapBytesReleased;
+            mLastSqliteBytesReleased = sqliteBytesReleased;
+        }
+
+        @NonNull
+        synchronized Bundle toBundle() {
+            @NonNull final Bundle bundle = new Bundle();
+            bundle.putLong(TrimMemoryContract.EXTRA_LONG_RUN_COUNT, mRunCount);
+            bundle.putLong(TrimMemoryContract.EXTRA_LONG_TOTAL_DURATION_MILLIS,
+                    mTotalDurationMillis);
+            bundle.putLong(TrimMemoryContract.EXTRA_LONG_LAST_DURATION_MILLIS,
+                    mLastDurationMillis);
+            bundle.putLong(TrimMemoryContract.EXTRA_LONG_LAST_NATIVE_HEAP_BYTES_RELEASED,
+                    mLastNativeHeapBytesReleased);
+            bundle.putLong(TrimMemoryContract.EXTRA_LONG_LAST_SQLITE_BYTES_RELEASED,
+                    mLastSqliteBytesReleased);
+
+            return bundle;
+        }
+    }
+}
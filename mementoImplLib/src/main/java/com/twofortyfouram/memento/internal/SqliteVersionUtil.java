@@ -0,0 +1,93 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.internal;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.twofortyfouram.annotation.Slow;
+import com.twofortyfouram.log.Lumberjack;
+
+import net.jcip.annotations.ThreadSafe;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Determines the version of the SQLite library, so that features can be used based on what the
+ * library supports rather than on the Android version.  Versions are numbers in the format of
+ * {@code SQLITE_VERSION_NUMBER}, for example 3024000 for 3.24.0.
+ */
+@ThreadSafe
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class SqliteVersionUtil {
+
+    /**
+     * First version supporting {@code INSERT ... ON CONFLICT}.
+     */
+    public static final int VERSION_UPSERT = 3024000;
+
+    /**
+     * @param database Database to query.
+     * @return Version of the SQLite library of {@code database}.
+     */
+    @Slow(Slow.Speed.MILLISECONDS)
+    public static int queryVersion(@NonNull final SupportSQLiteDatabase database) {
+        assertNotNull(database, "database"); //$NON-NLS
+
+        try (@NonNull final Cursor cursor = database.query("SELECT sqlite_version()")) { //$NON-NLS
+            cursor.moveToFirst();
+
+            return parseVersion(cursor.getString(0));
+        }
+    }
+
+    /**
+     * @param version Version as returned by {@code sqlite_version()}, for example "3.24.0".
+     * @return {@code version} as a number.
+     * @throws IllegalArgumentException If {@code version} is not a valid version.
+     */
+    public static int parseVersion(@NonNull final String version) {
+        assertNotNull(version, "version"); //$NON-NLS
+
+        @NonNull final String[] parts = version.split("\\."); //$NON-NLS
+        if (3 > parts.length) {
+            throw new IllegalArgumentException(Lumberjack.formatMessage(
+                    "Invalid SQLite version %s", version)); //$NON-NLS
+        }
+
+        try {
+            return Integer.parseInt(parts[0]) * 1000000 + Integer.parseInt(parts[1]) * 1000
+                    + Integer.parseInt(parts[2]);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException(Lumberjack.formatMessage(
+                    "Invalid SQLite version %s", version), e); //$NON-NLS
+        }
+    }
+
+    /**
+     * Private constructor prevents instantiation.
+     *
+     * @throws UnsupportedOperationException because this class cannot be instantiated.
+     */
+    private SqliteVersionUtil() {
+        throw new UnsupportedOperationException("This class is non-instantiable"); //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.Size;
+import com.twofortyfouram.annotation.Incubating;
+import com.twofortyfouram.memento.contract.ChangeLogContract;
+import com.twofortyfouram.memento.contract.ChangePayloadContract;
+import net.jcip.annotations.NotThreadSafe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Builds SQL statements to record the changes of a table in the change log, as per
+ * {@link ChangeLogContract}.  Triggers append an entry for every insert, update, and delete of the
+ * table, so entries are written by the same transaction as the change, including changes of many
+ * rows by a single statement.
+ * <p>
+ * The statements are idempotent, so they can be executed every time the database is opened.  The
+ * table must have an {@code _id} column that is an alias of the rowid.
+ */
+@NotThreadSafe
+@Incubating
+public final class SqliteChangeLogBuilder {
+
+    /**
+     * Name of the change log table, which is shared by all tables that record changes.
+     */
+    @NonNull
+    public static final String TABLE_NAME = ChangeLogContract.PATH_CHANGE_LOG;
+
+    /**
+     * The name of the table whose changes are recorded.
+     */
+    @Nullable
+    private String mTableName = null;
+
+    /**
+     * Sets the name of the table whose changes are recorded.
+     *
+     * @param tableName Name of the table.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteChangeLogBuilder setTableName(@NonNull @Size(min = 1) final String tableName) {
+        assertNotNull(tableName, "tableName"); //$NON-NLS-1$
+        mTableName = tableName;
+
+        return this;
+    }
+
+    /**
+     * @return The SQL statements to create the change log table if it does not exist, followed by
+     * the insert, delete, and update triggers of the table if they do not exist.
+     * @throws IllegalStateException If {@link #setTableName(String)} has not been called.
+     */
+    @NonNull
+    public List<String> build() {
+        if (null == mTableName) {
+            throw new IllegalStateException("table name has not been set"); //$NON-NLS-1$
+        }
+
+        @NonNull final List<String> result = new ArrayList<>(4);
+
+        result.add(String.format(Locale.US,
+                "CREATE TABLE IF NOT EXISTS %s (%s INTEGER PRIMARY KEY AUTOINCREMENT, %s TEXT NOT NULL, %s INTEGER NOT NULL, %s TEXT NOT NULL)", //$NON-NLS-1$
+                TABLE_NAME, ChangeLogContract.COLUMN_LONG_SEQUENCE,
+                ChangeLogContract.COLUMN_STRING_TABLE_NAME, ChangeLogContract.COLUMN_LONG_ROW_ID,
+                ChangeLogContract.COLUMN_STRING_OPERATION));
+
+        result.add(newTrigger("after_insert", "AFTER INSERT", //$NON-NLS-1$ //$NON-NLS-2$
+                newInsertEntry("new", ChangePayloadContract.OPERATION_INSERT))); //$NON-NLS-1$
+        result.add(newTrigger("after_delete", "AFTER DELETE", //$NON-NLS-1$ //$NON-NLS-2$
+                newInsertEntry("old", ChangePayloadContract.OPERATION_DELETE))); //$NON-NLS-1$
+
+        // An update that changes the _id removes the old row as far as a client is concerned
+        result.add(newTrigger("after_update", "AFTER UPDATE", //$NON-NLS-1$ //$NON-NLS-2$
+                String.format(Locale.US,
+                        "INSERT INTO %1$s(%2$s, %3$s, %4$s) SELECT '%5$s', old._id, '%6$s' WHERE old._id != new._id; %7$s", //$NON-NLS-1$
+                        TABLE_NAME, ChangeLogContract.COLUMN_STRING_TABLE_NAME,
+                        ChangeLogContract.COLUMN_LONG_ROW_ID,
+                        ChangeLogContract.COLUMN_STRING_OPERATION, mTableName,
+                        ChangePayloadContract.OPERATION_DELETE,
+                        newInsertEntry("new", ChangePayloadContract.OPERATION_UPDATE)))); //$NON-NLS-1$
+
+        return result;
+    }
+
+    @NonNull
+    private String newInsertEntry(@NonNull final String row, @NonNull final String operation) {
+        return String.format(Locale.US,
+                "INSERT INTO %s(%s, %s, %s) VALUES ('%s', %s._id, '%s');", //$NON-NLS-1$
+                TABLE_NAME, ChangeLogContract.COLUMN_STRING_TABLE_NAME,
+                ChangeLogContract.COLUMN_LONG_ROW_ID, ChangeLogContract.COLUMN_STRING_OPERATION,
+                mTableName, row, operation);
+    }
+
+    @NonNull
+    private String newTrigger(@NonNull final String suffix, @NonNull final String event,
+            @NonNull final String body) {
+        return String.format(Locale.US,
+                "CREATE TRIGGER IF NOT EXISTS %s_change_log_%s %s ON %s BEGIN %s END", //$NON-NLS-1$
+                mTableName, suffix, event, mTableName, body);
+    }
+}
@@ -110,6 +110,12 @@ public final class SqliteColumnBuilder {
     @Nullable
     private String[] mConstraintSet = null;
 
+    /**
+     * Expression computing a generated column.
+     */
+    @Nullable
+    private String mGeneratedExpression = null;
+
     /**
      * Sets the column to be an autoincrement primary key.
      *
@@ -248,6 +254,27 @@ public final class SqliteColumnBuilder {
         return this;
     }
 
+    /**
+     * Makes the column a virtual generated column, whose value is computed from other columns of
+     * the row rather than stored.  For example with
+     * {@link com.twofortyfouram.memento.contract.MementoContract#jsonExtract(String, String)}, a
+     * field of a JSON text column becomes a column that can be projected, filtered, sorted, and
+     * indexed by name.  The column must not be written by inserts or updates.
+     * <p>
+     * Generated columns require SQLite 3.31 or later.  For older platform versions, consider an
+     * expression index from {@link SqliteIndexBuilder#setJsonPath(String)} instead.
+     *
+     * @param expression Expression computing the value of the column.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteColumnBuilder setGeneratedAs(@NonNull final String expression) {
+        assertNotEmpty(expression, "expression"); //$NON-NLS-1$
+        mGeneratedExpression = expression;
+
+        return this;
+    }
+
     /**
      * @return SQL to create the column.
      * @throws IllegalStateException If a column name or type has not been set.
@@ -272,6 +299,12 @@ public final class SqliteColumnBuilder {
             builder.append(" PRIMARY KEY AUTOINCREMENT"); //$NON-NLS-1$
         }
 
+        if (null != mGeneratedExpression) {
+            builder.append(" GENERATED ALWAYS AS ("); //$NON-NLS-1$
+            builder.append(mGeneratedExpression);
+            builder.append(") VIRTUAL"); //$NON-NLS-1$
+        }
+
         if (mIsNotNull) {
             builder.append(" NOT NULL"); //$NON-NLS-1$
         }
@@ -0,0 +1,293 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.model;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.twofortyfouram.annotation.Incubating;
+import com.twofortyfouram.annotation.Slow;
+import com.twofortyfouram.annotation.Slow.Speed;
+
+import net.jcip.annotations.Immutable;
+
+import java.util.Locale;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Declarative SQLite connection configuration, applied as a series of
+ * <a href="https://www.sqlite.org/pragma.html">PRAGMA</a> statements.  Instances are created with
+ * {@link SqliteConfigurationBuilder}, which validates the combination of settings.  Settings that
+ * are not set are left at the SQLite or Android framework default.
+ * <p>
+ * Most of these settings apply per connection.  When write-ahead logging is enabled, the Android
+ * framework opens additional read-only connections which are not configured by
+ * {@link #apply(SupportSQLiteDatabase)}; those connections use the SQLite defaults for the cache
+ * size, mmap size, and temp store.  The framework has no way to configure each of its
+ * connections, so these settings only apply to reads on the primary connection, such as reads
+ * within a transaction.
+ *
+ * @see com.twofortyfouram.memento.provider.MementoContentProvider#newSqliteConfiguration()
+ */
+@Immutable
+@Incubating
+public final class SqliteConfiguration {
+
+    /**
+     * Values for <a href="https://www.sqlite.org/pragma.html#pragma_journal_mode">journal_mode</a>.
+     */
+    @Immutable
+    public enum JournalMode {
+        @NonNull
+        DELETE,
+        @NonNull
+        TRUNCATE,
+        @NonNull
+        PERSIST,
+        @NonNull
+        MEMORY,
+        @NonNull
+        WAL,
+        @NonNull
+        OFF
+    }
+
+    /**
+     * Values for <a href="https://www.sqlite.org/pragma.html#pragma_synchronous">synchronous</a>.
+     * The ordinal of each value is the integer value reported by SQLite.
+     */
+    @Immutable
+    public enum Synchronous {
+        @NonNull
+        OFF,
+        @NonNull
+        NORMAL,
+        @NonNull
+        FULL,
+        @NonNull
+        EXTRA
+    }
+
+    /**
+     * Values for <a href="https://www.sqlite.org/pragma.html#pragma_temp_store">temp_store</a>.
+     * The ordinal of each value is the integer value reported by SQLite.
+     */
+    @Immutable
+    public enum TempStore {
+        @NonNull
+        DEFAULT,
+        @NonNull
+        FILE,
+        @NonNull
+        MEMORY
+    }
+
+    /**
+     * Values for <a href="https://www.sqlite.org/pragma.html#pragma_locking_mode">locking_mode</a>.
+     */
+    @Immutable
+    public enum LockingMode {
+        @NonNull
+        NORMAL,
+        @NonNull
+        EXCLUSIVE
+    }
+
+    @Nullable
+    private final Integer mPageSizeBytes;
+
+    @Nullable
+    private final JournalMode mJournalMode;
+
+    @Nullable
+    private final LockingMode mLockingMode;
+
+    @Nullable
+    private final Synchronous mSynchronous;
+
+    @Nullable
+    private final Long mCacheSize;
+
+    @Nullable
+    private final Long mMmapSizeBytes;
+
+    @Nullable
+    private final TempStore mTempStore;
+
+    @Nullable
+    private final Integer mWalAutocheckpointPages;
+
+    /*package*/ SqliteConfiguration(@Nullable final Integer pageSizeBytes,
+                                    @Nullable final JournalMode journalMode,
+                                    @Nullable final LockingMode lockingMode,
+                                    @Nullable final Synchronous synchronous,
+                                    @Nullable final Long cacheSize,
+                                    @Nullable final Long mmapSizeBytes,
+                                    @Nullable final TempStore tempStore,
+                                    @Nullable final Integer walAutocheckpointPages) {
+        mPageSizeBytes = pageSizeBytes;
+        mJournalMode = journalMode;
+        mLockingMode = lockingMode;
+        mSynchronous = synchronous;
+        mCacheSize = cacheSize;
+        mMmapSizeBytes = mmapSizeBytes;
+        mTempStore = tempStore;
+        mWalAutocheckpointPages = walAutocheckpointPages;
+    }
+
+    /**
+     * @return The page size in bytes, or null if not set.
+     */
+    @Nullable
+    public Integer getPageSizeBytes() {
+        return mPageSizeBytes;
+    }
+
+    /**
+     * @return The journal mode, or null if not set.
+     */
+    @Nullable
+    public JournalMode getJournalMode() {
+        return mJournalMode;
+    }
+
+    /**
+     * @return The locking mode, or null if not set.
+     */
+    @Nullable
+    public LockingMode getLockingMode() {
+        return mLockingMode;
+    }
+
+    /**
+     * @return The synchronous level, or null if not set.
+     */
+    @Nullable
+    public Synchronous getSynchronous() {
+        return mSynchronous;
+    }
+
+    /**
+     * @return The cache size, in pages if positive or in KiB if negative, or null if not set.
+     */
+    @Nullable
+    public Long getCacheSize() {
+        return mCacheSize;
+    }
+
+    /**
+     * @return The maximum memory-mapped I/O size in bytes, or null if not set.
+     */
+    @Nullable
+    public Long getMmapSizeBytes() {
+        return mMmapSizeBytes;
+    }
+
+    /**
+     * @return The temporary storage location, or null if not set.
+     */
+    @Nullable
+    public TempStore getTempStore() {
+        return mTempStore;
+    }
+
+    /**
+     * @return The WAL auto-checkpoint threshold in pages, or null if not set.
+     */
+    @Nullable
+    public Integer getWalAutocheckpointPages() {
+        return mWalAutocheckpointPages;
+    }
+
+    /**
+     * Applies this configuration to the primary connection of {@code database}.  This should be
+     * called from {@code SupportSQLiteOpenHelper.Callback#onConfigure(SupportSQLiteDatabase)},
+     * which is the only point at which the page size of a new database can still take effect.
+     * Otherwise the page size is silently left unchanged.  Applying the same configuration more
+     * than once has no additional effect.
+     * <p>
+     * This must not be called while a transaction is open.
+     *
+     * @param database Database to configure.
+     */
+    @Slow(Speed.MILLISECONDS)
+    public void apply(@NonNull final SupportSQLiteDatabase database) {
+        assertNotNull(database, "database"); //$NON-NLS
+
+        // Page size must come before the journal mode, as it cannot be changed once in WAL mode
+        if (null != mPageSizeBytes) {
+            runPragma(database, "page_size", mPageSizeBytes.toString()); //$NON-NLS
+        }
+
+        if (null != mJournalMode) {
+            if (JournalMode.WAL == mJournalMode) {
+                // Lets the framework size its connection pool for concurrent readers
+                if (!database.isWriteAheadLoggingEnabled()) {
+                    database.enableWriteAheadLogging();
+                }
+            } else {
+                if (database.isWriteAheadLoggingEnabled()) {
+                    database.disableWriteAheadLogging();
+                }
+                runPragma(database, "journal_mode", mJournalMode.name()); //$NON-NLS
+            }
+        }
+
+        if (null != mLockingMode) {
+            runPragma(database, "locking_mode", mLockingMode.name()); //$NON-NLS
+        }
+
+        if (null != mSynchronous) {
+            runPragma(database, "synchronous", mSynchronous.name()); //$NON-NLS
+        }
+
+        if (null != mCacheSize) {
+            runPragma(database, "cache_size", mCacheSize.toString()); //$NON-NLS
+        }
+
+        if (null != mMmapSizeBytes) {
+            runPragma(database, "mmap_size", mMmapSizeBytes.toString()); //$NON-NLS
+        }
+
+        if (null != mTempStore) {
+            runPragma(database, "temp_store", mTempStore.name()); //$NON-NLS
+        }
+
+        if (null != mWalAutocheckpointPages) {
+            runPragma(database, "wal_autocheckpoint", mWalAutocheckpointPages.toString()); //$NON-NLS
+        }
+    }
+
+    /*
+     * Some PRAGMA statements return a row, which the Android framework rejects for execSQL(), so
+     * they are all run as queries.  The cursor must be moved in order for the statement to be
+     * executed.
+     */
+    private static void runPragma(@NonNull final SupportSQLiteDatabase database,
+                                  @NonNull final String name, @NonNull final String value) {
+        try (@NonNull final Cursor cursor = database.query(String.format(Locale.US,
+                "PRAGMA %s = %s", name, value))) { //$NON-NLS
+            cursor.moveToFirst();
+        }
+    }
+
+}
@@ -0,0 +1,231 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.twofortyfouram.annotation.Incubating;
+import com.twofortyfouram.memento.model.SqliteConfiguration.JournalMode;
+import com.twofortyfouram.memento.model.SqliteConfiguration.LockingMode;
+import com.twofortyfouram.memento.model.SqliteConfiguration.Synchronous;
+import com.twofortyfouram.memento.model.SqliteConfiguration.TempStore;
+
+import net.jcip.annotations.NotThreadSafe;
+
+import static com.twofortyfouram.assertion.Assertions.assertInRangeInclusive;
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Builds an immutable {@link SqliteConfiguration}.  Each setting is optional; settings that are
+ * not set are left at the SQLite or Android framework default.
+ * <p>
+ * Individual values are validated when set.  Combinations of values are validated by
+ * {@link #build()}.
+ */
+@NotThreadSafe
+@Incubating
+public final class SqliteConfigurationBuilder {
+
+    /**
+     * Smallest page size supported by SQLite.
+     */
+    private static final int MIN_PAGE_SIZE_BYTES = 512;
+
+    /**
+     * Largest page size supported by SQLite.
+     */
+    private static final int MAX_PAGE_SIZE_BYTES = 65536;
+
+    @Nullable
+    private Integer mPageSizeBytes = null;
+
+    @Nullable
+    private JournalMode mJournalMode = null;
+
+    @Nullable
+    private LockingMode mLockingMode = null;
+
+    @Nullable
+    private Synchronous mSynchronous = null;
+
+    @Nullable
+    private Long mCacheSize = null;
+
+    @Nullable
+    private Long mMmapSizeBytes = null;
+
+    @Nullable
+    private TempStore mTempStore = null;
+
+    @Nullable
+    private Integer mWalAutocheckpointPages = null;
+
+    /**
+     * The page size only takes effect for a database that has not yet been created, or after a
+     * {@code VACUUM} of a database that is not in WAL mode.
+     *
+     * @param pageSizeBytes Page size, which must be a power of two between 512 and 65536.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteConfigurationBuilder setPageSizeBytes(final int pageSizeBytes) {
+        assertInRangeInclusive(pageSizeBytes, MIN_PAGE_SIZE_BYTES, MAX_PAGE_SIZE_BYTES,
+                "pageSizeBytes"); //$NON-NLS-1$
+        if (0 != (pageSizeBytes & (pageSizeBytes - 1))) {
+            throw new IllegalArgumentException("pageSizeBytes must be a power of two"); //$NON-NLS-1$
+        }
+
+        mPageSizeBytes = pageSizeBytes;
+
+        return this;
+    }
+
+    /**
+     * @param journalMode Journal mode to set.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteConfigurationBuilder setJournalMode(@NonNull final JournalMode journalMode) {
+        assertNotNull(journalMode, "journalMode"); //$NON-NLS-1$
+        mJournalMode = journalMode;
+
+        return this;
+    }
+
+    /**
+     * @param lockingMode Locking mode to set.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteConfigurationBuilder setLockingMode(@NonNull final LockingMode lockingMode) {
+        assertNotNull(lockingMode, "lockingMode"); //$NON-NLS-1$
+        mLockingMode = lockingMode;
+
+        return this;
+    }
+
+    /**
+     * @param synchronous Synchronous level to set.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteConfigurationBuilder setSynchronous(@NonNull final Synchronous synchronous) {
+        assertNotNull(synchronous, "synchronous"); //$NON-NLS-1$
+        mSynchronous = synchronous;
+
+        return this;
+    }
+
+    /**
+     * @param pages Size of the page cache, in pages.  Must be positive.
+     * @return The builder for chained calls.
+     * @see #setCacheSizeKibibytes(long)
+     */
+    @NonNull
+    public SqliteConfigurationBuilder setCacheSizePages(final long pages) {
+        assertInRangeInclusive(pages, 1, Long.MAX_VALUE, "pages"); //$NON-NLS-1$
+        mCacheSize = pages;
+
+        return this;
+    }
+
+    /**
+     * @param kibibytes Size of the page cache, in KiB.  Must be positive.  Unlike
+     *                  {@link #setCacheSizePages(long)}, the memory used does not depend on the
+     *                  page size.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteConfigurationBuilder setCacheSizeKibibytes(final long kibibytes) {
+        assertInRangeInclusive(kibibytes, 1, Long.MAX_VALUE, "kibibytes"); //$NON-NLS-1$
+
+        // SQLite interprets a negative cache size as KiB
+        mCacheSize = -kibibytes;
+
+        return this;
+    }
+
+    /**
+     * SQLite silently caps this value at its compile-time maximum, so the effective value may be
+     * lower than the value set.  0 disables memory-mapped I/O.
+     *
+     * @param mmapSizeBytes Maximum number of bytes of the database to memory map.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteConfigurationBuilder setMmapSizeBytes(final long mmapSizeBytes) {
+        assertInRangeInclusive(mmapSizeBytes, 0, Long.MAX_VALUE, "mmapSizeBytes"); //$NON-NLS-1$
+        mMmapSizeBytes = mmapSizeBytes;
+
+        return this;
+    }
+
+    /**
+     * @param tempStore Location of temporary tables and indices.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteConfigurationBuilder setTempStore(@NonNull final TempStore tempStore) {
+        assertNotNull(tempStore, "tempStore"); //$NON-NLS-1$
+        mTempStore = tempStore;
+
+        return this;
+    }
+
+    /**
+     * Requires the journal mode to be set to {@link JournalMode#WAL}.
+     *
+     * @param pages Number of WAL pages after which a checkpoint is run automatically.  0 disables
+     *              automatic checkpoints.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteConfigurationBuilder setWalAutocheckpointPages(final int pages) {
+        assertInRangeInclusive(pages, 0, Integer.MAX_VALUE, "pages"); //$NON-NLS-1$
+        mWalAutocheckpointPages = pages;
+
+        return this;
+    }
+
+    /**
+     * @return A new configuration.
+     * @throws IllegalStateException If the combination of settings is invalid: a WAL
+     *                               auto-checkpoint without WAL journal mode, or exclusive locking
+     *                               with WAL journal mode.
+     */
+    @NonNull
+    public SqliteConfiguration build() {
+        if (null != mWalAutocheckpointPages && JournalMode.WAL != mJournalMode) {
+            throw new IllegalStateException(
+                    "WAL auto-checkpoint requires WAL journal mode"); //$NON-NLS-1$
+        }
+
+        /*
+         * In WAL mode the Android framework reads on separate connections, which would fail as
+         * busy while the primary connection holds an exclusive lock.
+         */
+        if (LockingMode.EXCLUSIVE == mLockingMode && JournalMode.WAL == mJournalMode) {
+            throw new IllegalStateException(
+                    "Exclusive locking mode is incompatible with WAL journal mode"); //$NON-NLS-1$
+        }
+
+        return new SqliteConfiguration(mPageSizeBytes, mJournalMode, mLockingMode, mSynchronous,
+                mCacheSize, mMmapSizeBytes, mTempStore, mWalAutocheckpointPages);
+    }
+}
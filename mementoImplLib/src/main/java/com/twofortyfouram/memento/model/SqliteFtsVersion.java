@@ -0,0 +1,66 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.model;
+
+import androidx.annotation.NonNull;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * SQLite <a href="https://www.sqlite.org/fts5.html">full-text search</a> module used for a
+ * full-text search shadow table.
+ * <p>
+ * The SQLite bundled with the Android framework is compiled with FTS3 and FTS4, but not FTS5.
+ * FTS5 is only available when the database is opened with a SQLite build that includes it.
+ *
+ * @see SqliteTableBuilder#setFullTextSearch(SqliteFtsVersion, String, String...)
+ * @see SqliteUriMatch#withFullTextSearch(String, SqliteFtsVersion)
+ */
+@Immutable
+public enum SqliteFtsVersion {
+
+    /**
+     * The FTS4 module.  Search results are not ranked by relevance.
+     */
+    @NonNull
+    FTS4("fts4"), //$NON-NLS-1$
+
+    /**
+     * The FTS5 module.  Search results are ranked by the built-in BM25 {@code rank} column.
+     */
+    @NonNull
+    FTS5("fts5"); //$NON-NLS-1$
+
+    /**
+     * Name of the SQLite module.
+     */
+    @NonNull
+    private final String mModuleName;
+
+    SqliteFtsVersion(@NonNull final String moduleName) {
+        mModuleName = moduleName;
+    }
+
+    /**
+     * @return Name of the module for use in {@code CREATE VIRTUAL TABLE ... USING}.
+     */
+    @NonNull
+    /*package*/ String getModuleName() {
+        return mModuleName;
+    }
+}
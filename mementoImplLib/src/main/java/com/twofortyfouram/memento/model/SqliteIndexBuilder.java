@@ -20,6 +20,8 @@ package com.twofortyfouram.memento.model;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.twofortyfouram.memento.contract.MementoContract;
+
 import net.jcip.annotations.NotThreadSafe;
 
 import java.util.Locale;
@@ -33,6 +35,9 @@ import static com.twofortyfouram.assertion.Assertions.assertNotNull;
  * <p>
  * At a minimum, {@link #setTableName(String)} and {@link #setColumnName(String)} must be called
  * prior to calling {@link #build()}.
+ * <p>
+ * For a column containing JSON text, {@link #setJsonPath(String)} indexes a single field of the
+ * JSON rather than the entire column.
  */
 @NotThreadSafe
 public final class SqliteIndexBuilder {
@@ -49,6 +54,12 @@ public final class SqliteIndexBuilder {
     @Nullable
     private String mColumnName = null;
 
+    /**
+     * JSON path of the indexed field, or null to index the entire column.
+     */
+    @Nullable
+    private String mJsonPath = null;
+
     /**
      * Sets the name of the table.
      *
@@ -77,9 +88,25 @@ public final class SqliteIndexBuilder {
         return this;
     }
 
+    /**
+     * Sets the JSON path of the field to index, turning the index into an expression index over
+     * {@link MementoContract#jsonExtract(String, String)}.  Queries benefit from the index when
+     * their selection or sort order uses the same expression.
+     *
+     * @param jsonPath SQLite JSON path of the field, for example {@code "$.priority"}.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteIndexBuilder setJsonPath(@NonNull final String jsonPath) {
+        assertNotNull(jsonPath, "jsonPath"); //$NON-NLS-1$
+        mJsonPath = jsonPath;
+
+        return this;
+    }
+
     /**
      * @return The SQL statement to create the index. The name of the index will be
-     * tablename_columnname_index.
+     * tablename_columnname_index, or tablename_columnname_path_index when a JSON path is set.
      * @throws IllegalStateException If {@link #setTableName(String)} or
      *                               {@link #setColumnName(String)} have not been called.
      */
@@ -92,10 +119,30 @@ public final class SqliteIndexBuilder {
             throw new IllegalStateException("column name has not been set"); //$NON-NLS-1$
         }
 
+        if (null != mJsonPath) {
+            return String
+                    .format(Locale.US,
+                            "CREATE INDEX %s_%s_%s_index ON %s(%s)", //NON-NLS
+                            mTableName, mColumnName, newPathName(mJsonPath), mTableName,
+                            MementoContract.jsonExtract(mColumnName, mJsonPath));
+        }
+
         return String
                 .format(Locale.US,
                         "CREATE INDEX %s_%s_index ON %s(%s)", //NON-NLS
                         mTableName, mColumnName, mTableName,
                         mColumnName);
     }
+
+    /**
+     * @param jsonPath JSON path.
+     * @return {@code jsonPath} reduced to characters that are valid in an index name.
+     */
+    @NonNull
+    private static String newPathName(@NonNull final String jsonPath) {
+        @NonNull final String pathName = jsonPath.replaceAll("[^A-Za-z0-9]+", "_") //$NON-NLS-1$ //$NON-NLS-2$
+                .replaceAll("^_|_$", ""); //$NON-NLS-1$ //$NON-NLS-2$
+
+        return pathName.isEmpty() ? "json" : pathName; //$NON-NLS-1$
+    }
 }
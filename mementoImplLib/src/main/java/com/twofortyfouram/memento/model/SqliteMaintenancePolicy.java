@@ -0,0 +1,137 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.twofortyfouram.annotation.Incubating;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * Policy for database maintenance run while a provider is idle.  Instances are created with
+ * {@link SqliteMaintenancePolicyBuilder}.
+ * <p>
+ * Maintenance consists of the following tasks, run in order:
+ * <ol>
+ * <li>A WAL checkpoint, if the database is in WAL mode.  This keeps the -wal file from growing
+ * without bound under write bursts.</li>
+ * <li>An incremental vacuum, if the database was created with
+ * {@code PRAGMA auto_vacuum = INCREMENTAL}.</li>
+ * <li>{@code PRAGMA optimize}, or {@code ANALYZE} where the bundled SQLite is too old to support
+ * optimize, so that the query planner has fresh statistics.</li>
+ * </ol>
+ *
+ * @see com.twofortyfouram.memento.provider.MementoContentProvider#newSqliteMaintenancePolicy()
+ */
+@Immutable
+@Incubating
+public final class SqliteMaintenancePolicy {
+
+    /**
+     * Values for the argument of
+     * <a href="https://www.sqlite.org/pragma.html#pragma_wal_checkpoint">wal_checkpoint</a>.
+     */
+    @Immutable
+    public enum WalCheckpointMode {
+
+        /**
+         * Checkpoints as many frames as possible without waiting for readers or writers.
+         */
+        @NonNull
+        PASSIVE,
+
+        /**
+         * Waits for readers, checkpoints all frames, and truncates the -wal file to zero bytes.
+         */
+        @NonNull
+        TRUNCATE
+    }
+
+    private final long mIdleDelayMillis;
+
+    private final long mTimeBudgetMillis;
+
+    @Nullable
+    private final WalCheckpointMode mWalCheckpointMode;
+
+    private final int mIncrementalVacuumPages;
+
+    private final boolean mIsOptimizeEnabled;
+
+    private final long mOptimizeIntervalMillis;
+
+    /*package*/ SqliteMaintenancePolicy(final long idleDelayMillis, final long timeBudgetMillis,
+                                        @Nullable final WalCheckpointMode walCheckpointMode,
+                                        final int incrementalVacuumPages,
+                                        final boolean isOptimizeEnabled,
+                                        final long optimizeIntervalMillis) {
+        mIdleDelayMillis = idleDelayMillis;
+        mTimeBudgetMillis = timeBudgetMillis;
+        mWalCheckpointMode = walCheckpointMode;
+        mIncrementalVacuumPages = incrementalVacuumPages;
+        mIsOptimizeEnabled = isOptimizeEnabled;
+        mOptimizeIntervalMillis = optimizeIntervalMillis;
+    }
+
+    /**
+     * @return Time without provider activity after which maintenance runs.
+     */
+    public long getIdleDelayMillis() {
+        return mIdleDelayMillis;
+    }
+
+    /**
+     * @return Time budget for a single maintenance run.  A task is only started while the run is
+     * within budget; tasks that don't fit are deferred to the next idle period.
+     */
+    public long getTimeBudgetMillis() {
+        return mTimeBudgetMillis;
+    }
+
+    /**
+     * @return Mode of the WAL checkpoint, or null if WAL checkpoints are disabled.
+     */
+    @Nullable
+    public WalCheckpointMode getWalCheckpointMode() {
+        return mWalCheckpointMode;
+    }
+
+    /**
+     * @return Maximum number of pages freed by a single incremental vacuum, or 0 if incremental
+     * vacuum is disabled.
+     */
+    public int getIncrementalVacuumPages() {
+        return mIncrementalVacuumPages;
+    }
+
+    /**
+     * @return True if statistics for the query planner are refreshed.
+     */
+    public boolean isOptimizeEnabled() {
+        return mIsOptimizeEnabled;
+    }
+
+    /**
+     * @return Minimum time between refreshes of statistics for the query planner.
+     */
+    public long getOptimizeIntervalMillis() {
+        return mOptimizeIntervalMillis;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.model;
+
+import android.text.format.DateUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.twofortyfouram.annotation.Incubating;
+import com.twofortyfouram.memento.model.SqliteMaintenancePolicy.WalCheckpointMode;
+
+import net.jcip.annotations.NotThreadSafe;
+
+import static com.twofortyfouram.assertion.Assertions.assertInRangeInclusive;
+
+/**
+ * Builds an immutable {@link SqliteMaintenancePolicy}.  By default, maintenance runs after 30
+ * seconds of idle time within a budget of 250 milliseconds, with a passive WAL checkpoint, an
+ * incremental vacuum of up to 256 pages, and a daily refresh of query planner statistics.
+ */
+@NotThreadSafe
+@Incubating
+public final class SqliteMaintenancePolicyBuilder {
+
+    private long mIdleDelayMillis = 30 * DateUtils.SECOND_IN_MILLIS;
+
+    private long mTimeBudgetMillis = 250;
+
+    @Nullable
+    private WalCheckpointMode mWalCheckpointMode = WalCheckpointMode.PASSIVE;
+
+    private int mIncrementalVacuumPages = 256;
+
+    private boolean mIsOptimizeEnabled = true;
+
+    private long mOptimizeIntervalMillis = DateUtils.DAY_IN_MILLIS;
+
+    /**
+     * @param idleDelayMillis Time without provider activity after which maintenance runs.  Must
+     *                        be positive.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteMaintenancePolicyBuilder setIdleDelayMillis(final long idleDelayMillis) {
+        assertInRangeInclusive(idleDelayMillis, 1, Long.MAX_VALUE, "idleDelayMillis"); //$NON-NLS-1$
+        mIdleDelayMillis = idleDelayMillis;
+
+        return this;
+    }
+
+    /**
+     * @param timeBudgetMillis Time budget for a single maintenance run.  Must be positive.  The
+     *                         first pending task of a run is always started, so that a task
+     *                         which exceeds the budget on its own is not deferred forever.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteMaintenancePolicyBuilder setTimeBudgetMillis(final long timeBudgetMillis) {
+        assertInRangeInclusive(timeBudgetMillis, 1, Long.MAX_VALUE, "timeBudgetMillis"); //$NON-NLS-1$
+        mTimeBudgetMillis = timeBudgetMillis;
+
+        return this;
+    }
+
+    /**
+     * @param walCheckpointMode Mode of the WAL checkpoint, or null to disable WAL checkpoints.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteMaintenancePolicyBuilder setWalCheckpointMode(
+            @Nullable final WalCheckpointMode walCheckpointMode) {
+        mWalCheckpointMode = walCheckpointMode;
+
+        return this;
+    }
+
+    /**
+     * @param pages Maximum number of pages freed by a single incremental vacuum, or 0 to disable
+     *              incremental vacuum.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteMaintenancePolicyBuilder setIncrementalVacuumPages(final int pages) {
+        assertInRangeInclusive(pages, 0, Integer.MAX_VALUE, "pages"); //$NON-NLS-1$
+        mIncrementalVacuumPages = pages;
+
+        return this;
+    }
+
+    /**
+     * @param isOptimizeEnabled True to refresh statistics for the query planner.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteMaintenancePolicyBuilder setOptimizeEnabled(final boolean isOptimizeEnabled) {
+        mIsOptimizeEnabled = isOptimizeEnabled;
+
+        return this;
+    }
+
+    /**
+     * @param optimizeIntervalMillis Minimum time between refreshes of statistics for the query
+     *                               planner.  Must not be negative.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteMaintenancePolicyBuilder setOptimizeIntervalMillis(
+            final long optimizeIntervalMillis) {
+        assertInRangeInclusive(optimizeIntervalMillis, 0, Long.MAX_VALUE,
+                "optimizeIntervalMillis"); //$NON-NLS-1$
+        mOptimizeIntervalMillis = optimizeIntervalMillis;
+
+        return this;
+    }
+
+    /**
+     * @return A new policy.
+     */
+    @NonNull
+    public SqliteMaintenancePolicy build() {
+        return new SqliteMaintenancePolicy(mIdleDelayMillis, mTimeBudgetMillis,
+                mWalCheckpointMode, mIncrementalVacuumPages, mIsOptimizeEnabled,
+                mOptimizeIntervalMillis);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.model;
+
+import android.text.format.DateUtils;
+
+import androidx.annotation.NonNull;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * Length of the time buckets of a time-partitioned table.  Buckets are aligned to UTC, so that the
+ * bucket of a row does not depend on the time zone of the device.
+ *
+ * @see SqliteUriMatch#withTimePartitions(String, SqlitePartitionInterval)
+ */
+@Immutable
+public enum SqlitePartitionInterval {
+
+    /**
+     * Buckets of one day, starting at midnight UTC.
+     */
+    @NonNull
+    DAILY(DateUtils.DAY_IN_MILLIS, 0),
+
+    /**
+     * Buckets of one week, starting on Monday at midnight UTC.
+     */
+    @NonNull
+    WEEKLY(DateUtils.WEEK_IN_MILLIS, 4 * DateUtils.DAY_IN_MILLIS);
+
+    /**
+     * Length of a bucket in milliseconds.
+     */
+    private final long mLengthMillis;
+
+    /**
+     * Offset of the first bucket start from the Unix epoch, which was a Thursday.
+     */
+    private final long mOffsetMillis;
+
+    SqlitePartitionInterval(final long lengthMillis, final long offsetMillis) {
+        mLengthMillis = lengthMillis;
+        mOffsetMillis = offsetMillis;
+    }
+
+    /**
+     * @param epochMillis Time in milliseconds since the Unix epoch.
+     * @return Start of the bucket containing {@code epochMillis}, inclusive.
+     */
+    public long getBucketStart(final long epochMillis) {
+        final long offsetMillis = epochMillis - mOffsetMillis;
+
+        // Floor rather than truncate, so that times before the epoch are bucketed consistently
+        long bucketIndex = offsetMillis / mLengthMillis;
+        if (0 > offsetMillis && 0 != offsetMillis % mLengthMillis) {
+            bucketIndex--;
+        }
+
+        return bucketIndex * mLengthMillis + mOffsetMillis;
+    }
+
+    /**
+     * @param bucketStart Start of a bucket, as per {@link #getBucketStart(long)}.
+     * @return End of the bucket, exclusive.
+     */
+    public long getBucketEnd(final long bucketStart) {
+        return bucketStart + mLengthMillis;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.model;
+
+import androidx.annotation.NonNull;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * Implementation of a spatial index shadow table, which indexes a bounding box for each row of a
+ * table.
+ * <p>
+ * The <a href="https://www.sqlite.org/rtree.html">R*Tree</a> module is not compiled into every
+ * SQLite build, including the SQLite bundled with some versions of the Android framework.
+ * {@link #BTREE} works with every build, at the cost of only narrowing lookups on one axis.
+ * Both versions share the same columns, triggers, and queries, so one can be swapped for the
+ * other by recreating the shadow table.
+ *
+ * @see SqliteTableBuilder#setSpatialIndex(SqliteSpatialIndexVersion, String, String, String,
+ * String, String)
+ * @see SqliteUriMatch#withBoundingBox(String)
+ */
+@Immutable
+public enum SqliteSpatialIndexVersion {
+
+    /**
+     * The R*Tree module.  Bounding box lookups are logarithmic in the number of rows.
+     * Coordinates are stored as 32-bit floats rounded outward, so a lookup may also return rows
+     * within float precision of the box.
+     */
+    @NonNull
+    RTREE,
+
+    /**
+     * An ordinary table with a B-tree index on the x axis.  Bounding box lookups are narrowed by
+     * the x axis, then filtered by the y axis.
+     */
+    @NonNull
+    BTREE;
+
+    /**
+     * Column of the shadow table containing the {@link android.provider.BaseColumns#_ID} of the
+     * indexed row.
+     */
+    @NonNull
+    public static final String COLUMN_ID = "id"; //$NON-NLS-1$
+
+    /**
+     * Column of the shadow table containing the minimum x coordinate.
+     */
+    @NonNull
+    public static final String COLUMN_MIN_X = "min_x"; //$NON-NLS-1$
+
+    /**
+     * Column of the shadow table containing the maximum x coordinate.
+     */
+    @NonNull
+    public static final String COLUMN_MAX_X = "max_x"; //$NON-NLS-1$
+
+    /**
+     * Column of the shadow table containing the minimum y coordinate.
+     */
+    @NonNull
+    public static final String COLUMN_MIN_Y = "min_y"; //$NON-NLS-1$
+
+    /**
+     * Column of the shadow table containing the maximum y coordinate.
+     */
+    @NonNull
+    public static final String COLUMN_MAX_Y = "max_y"; //$NON-NLS-1$
+}
@@ -17,18 +17,25 @@
 
 package com.twofortyfouram.memento.model;
 
+import android.provider.BaseColumns;
+import android.text.TextUtils;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.Size;
 
 import com.twofortyfouram.annotation.NonNullElt;
 
 import net.jcip.annotations.NotThreadSafe;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 
+import static com.twofortyfouram.assertion.Assertions.assertNoNullElements;
+import static com.twofortyfouram.assertion.Assertions.assertNotEmpty;
 import static com.twofortyfouram.assertion.Assertions.assertNotNull;
 
 /**
@@ -40,6 +47,16 @@ import static com.twofortyfouram.assertion.Assertions.assertNotNull;
  * <p>
  * Although SQLite does not allow multiple columns with the same name, this class will not enforce
  * this limitation when calling {@link #addColumn(SqliteColumnBuilder)} or {@link #build()}.
+ * <p>
+ * Optionally, a full-text search shadow table can be declared with
+ * {@link #setFullTextSearch(SqliteFtsVersion, String, String...)}.  The SQL statements for the
+ * shadow table and the triggers keeping it synchronized are returned by
+ * {@link #buildFullTextSearch()}.
+ * <p>
+ * Optionally, a spatial index shadow table can be declared with
+ * {@link #setSpatialIndex(SqliteSpatialIndexVersion, String, String, String, String, String)}.
+ * The SQL statements for the shadow table and the triggers keeping it synchronized are returned
+ * by {@link #buildSpatialIndex()}.
  */
 @NotThreadSafe
 public final class SqliteTableBuilder {
@@ -56,6 +73,43 @@ public final class SqliteTableBuilder {
     @NonNull
     private final List<@NonNullElt SqliteColumnBuilder> mColumns = new LinkedList<>();
 
+    /**
+     * Full-text search module of the shadow table.
+     */
+    @Nullable
+    private SqliteFtsVersion mFtsVersion = null;
+
+    /**
+     * Name of the full-text search shadow table.
+     */
+    @Nullable
+    private String mFtsTableName = null;
+
+    /**
+     * Columns indexed by the full-text search shadow table.
+     */
+    @Nullable
+    private String[] mFtsColumnNames = null;
+
+    /**
+     * Implementation of the spatial index shadow table.
+     */
+    @Nullable
+    private SqliteSpatialIndexVersion mSpatialVersion = null;
+
+    /**
+     * Name of the spatial index shadow table.
+     */
+    @Nullable
+    private String mSpatialTableName = null;
+
+    /**
+     * Columns of this table containing the bounding box, in the order min x, max x, min y, and
+     * max y.
+     */
+    @Nullable
+    private String[] mSpatialColumnNames = null;
+
     /**
      * Sets the name of the table.
      *
@@ -70,6 +124,14 @@ public final class SqliteTableBuilder {
         return this;
     }
 
+    /**
+     * @return The name of the table, or null if {@link #setName(String)} has not been called.
+     */
+    @Nullable
+    /*package*/ String getName() {
+        return mTableName;
+    }
+
     /**
      * Adds a column to the table.
      * <p>
@@ -88,6 +150,237 @@ public final class SqliteTableBuilder {
         return this;
     }
 
+    /**
+     * Declares a full-text search shadow table for this table.  The shadow table is an external
+     * content table, so the text is only stored once in this table.  The shadow table is kept
+     * synchronized by triggers on this table, so inserts, updates, and deletes do not need to be
+     * aware of it.
+     * <p>
+     * This table must have a {@link BaseColumns#_ID} column that is an integer primary key.
+     *
+     * @param version      Full-text search module to use.
+     * @param ftsTableName Name of the shadow table.
+     * @param columnNames  Names of the columns in this table to index.
+     * @return The builder for chained calls.
+     * @see SqliteUriMatch#withFullTextSearch(String, SqliteFtsVersion)
+     */
+    @NonNull
+    public SqliteTableBuilder setFullTextSearch(@NonNull final SqliteFtsVersion version,
+            @NonNull final String ftsTableName,
+            @NonNull @Size(min = 1) final String... columnNames) {
+        assertNotNull(version, "version"); //$NON-NLS-1$
+        assertNotEmpty(ftsTableName, "ftsTableName"); //$NON-NLS-1$
+        assertNotNull(columnNames, "columnNames"); //$NON-NLS-1$
+        assertNotEmpty(columnNames, "columnNames"); //$NON-NLS-1$
+        assertNoNullElements(columnNames, "columnNames"); //$NON-NLS-1$
+
+        @NonNull final String[] arrayCopy = new String[columnNames.length];
+        System.arraycopy(columnNames, 0, arrayCopy, 0, columnNames.length);
+
+        mFtsVersion = version;
+        mFtsTableName = ftsTableName;
+        mFtsColumnNames = arrayCopy;
+
+        return this;
+    }
+
+    /**
+     * Declares a spatial index shadow table for this table, which indexes a bounding box for
+     * each row.  The shadow table is kept synchronized by triggers on this table, so inserts,
+     * updates, and deletes do not need to be aware of it.  A point is indexed as a box with equal
+     * minimum and maximum coordinates.
+     * <p>
+     * This table must have a {@link BaseColumns#_ID} column that is an integer primary key.  The
+     * bounding box columns must not be null, and each minimum must not be greater than its
+     * maximum.
+     *
+     * @param version          Implementation of the shadow table.
+     * @param spatialTableName Name of the shadow table.
+     * @param minXColumnName   Name of the column in this table containing the minimum x.
+     * @param maxXColumnName   Name of the column in this table containing the maximum x.
+     * @param minYColumnName   Name of the column in this table containing the minimum y.
+     * @param maxYColumnName   Name of the column in this table containing the maximum y.
+     * @return The builder for chained calls.
+     * @see SqliteUriMatch#withBoundingBox(String)
+     */
+    @NonNull
+    public SqliteTableBuilder setSpatialIndex(@NonNull final SqliteSpatialIndexVersion version,
+            @NonNull final String spatialTableName, @NonNull final String minXColumnName,
+            @NonNull final String maxXColumnName, @NonNull final String minYColumnName,
+            @NonNull final String maxYColumnName) {
+        assertNotNull(version, "version"); //$NON-NLS-1$
+        assertNotEmpty(spatialTableName, "spatialTableName"); //$NON-NLS-1$
+        assertNotEmpty(minXColumnName, "minXColumnName"); //$NON-NLS-1$
+        assertNotEmpty(maxXColumnName, "maxXColumnName"); //$NON-NLS-1$
+        assertNotEmpty(minYColumnName, "minYColumnName"); //$NON-NLS-1$
+        assertNotEmpty(maxYColumnName, "maxYColumnName"); //$NON-NLS-1$
+
+        mSpatialVersion = version;
+        mSpatialTableName = spatialTableName;
+        mSpatialColumnNames = new String[]{minXColumnName, maxXColumnName, minYColumnName,
+                maxYColumnName};
+
+        return this;
+    }
+
+    /**
+     * @return The SQL statements to create the spatial index shadow table and its triggers.
+     * These should be executed in order after the statement returned by {@link #build()}.  If
+     * this table already contains rows, the shadow table must also be populated with
+     * {@code INSERT INTO spatialTableName SELECT _id, minX, maxX, minY, maxY FROM tableName}.
+     * @throws IllegalStateException If {@link #setName(String)} or
+     *                               {@link #setSpatialIndex(SqliteSpatialIndexVersion, String,
+     *                               String, String, String, String)} has not been called.
+     */
+    @NonNull
+    public List<@NonNullElt String> buildSpatialIndex() {
+        if (null == mTableName) {
+            throw new IllegalStateException("table name has not been set"); //$NON-NLS-1$
+        }
+
+        if (null == mSpatialVersion || null == mSpatialTableName
+                || null == mSpatialColumnNames) {
+            throw new IllegalStateException("spatial index has not been set"); //$NON-NLS-1$
+        }
+
+        @NonNull final String spatialColumns = TextUtils.join(", ", new String[]{ //$NON-NLS-1$
+                SqliteSpatialIndexVersion.COLUMN_ID, SqliteSpatialIndexVersion.COLUMN_MIN_X,
+                SqliteSpatialIndexVersion.COLUMN_MAX_X, SqliteSpatialIndexVersion.COLUMN_MIN_Y,
+                SqliteSpatialIndexVersion.COLUMN_MAX_Y});
+
+        @NonNull final List<String> result = new ArrayList<>(5);
+        switch (mSpatialVersion) {
+            case RTREE: {
+                result.add(String.format(Locale.US,
+                        "CREATE VIRTUAL TABLE %s USING rtree(%s)", //$NON-NLS-1$
+                        mSpatialTableName, spatialColumns));
+                break;
+            }
+            case BTREE: {
+                result.add(String.format(Locale.US,
+                        "CREATE TABLE %s (%s INTEGER PRIMARY KEY, %s REAL NOT NULL, %s REAL NOT NULL, %s REAL NOT NULL, %s REAL NOT NULL)", //$NON-NLS-1$
+                        mSpatialTableName, SqliteSpatialIndexVersion.COLUMN_ID,
+                        SqliteSpatialIndexVersion.COLUMN_MIN_X,
+                        SqliteSpatialIndexVersion.COLUMN_MAX_X,
+                        SqliteSpatialIndexVersion.COLUMN_MIN_Y,
+                        SqliteSpatialIndexVersion.COLUMN_MAX_Y));
+                result.add(String.format(Locale.US, "CREATE INDEX %1$s_index ON %1$s(%2$s, %3$s)", //$NON-NLS-1$
+                        mSpatialTableName, SqliteSpatialIndexVersion.COLUMN_MIN_X,
+                        SqliteSpatialIndexVersion.COLUMN_MAX_X));
+                break;
+            }
+            default: {
+                throw new AssertionError(mSpatialVersion);
+            }
+        }
+
+        @NonNull final String insert = String.format(Locale.US,
+                "INSERT INTO %s(%s) VALUES (new.%s, %s);", //$NON-NLS-1$
+                mSpatialTableName, spatialColumns, BaseColumns._ID,
+                joinPrefixed("new.", mSpatialColumnNames)); //$NON-NLS-1$
+        @NonNull final String delete = String.format(Locale.US,
+                "DELETE FROM %s WHERE %s = old.%s;", //$NON-NLS-1$
+                mSpatialTableName, SqliteSpatialIndexVersion.COLUMN_ID, BaseColumns._ID);
+
+        result.add(newTrigger(mSpatialTableName, "after_insert", "AFTER INSERT", insert)); //$NON-NLS-1$ //$NON-NLS-2$
+        result.add(newTrigger(mSpatialTableName, "after_delete", "AFTER DELETE", delete)); //$NON-NLS-1$ //$NON-NLS-2$
+        result.add(newTrigger(mSpatialTableName, "after_update", "AFTER UPDATE", delete + " " + insert)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+        return result;
+    }
+
+    /**
+     * @return The SQL statements to create the full-text search shadow table and its triggers.
+     * These should be executed in order after the statement returned by {@link #build()}.  If
+     * this table already contains rows, the shadow table must also be rebuilt with
+     * {@code INSERT INTO ftsTableName(ftsTableName) VALUES('rebuild')}.
+     * @throws IllegalStateException If {@link #setName(String)} or
+     *                               {@link #setFullTextSearch(SqliteFtsVersion, String, String...)}
+     *                               has not been called.
+     */
+    @NonNull
+    public List<@NonNullElt String> buildFullTextSearch() {
+        if (null == mTableName) {
+            throw new IllegalStateException("table name has not been set"); //$NON-NLS-1$
+        }
+
+        if (null == mFtsVersion || null == mFtsTableName || null == mFtsColumnNames) {
+            throw new IllegalStateException("full-text search has not been set"); //$NON-NLS-1$
+        }
+
+        @NonNull final String columns = TextUtils.join(", ", mFtsColumnNames); //$NON-NLS-1$
+        @NonNull final String newValues = joinPrefixed("new.", mFtsColumnNames); //$NON-NLS-1$
+        @NonNull final String oldValues = joinPrefixed("old.", mFtsColumnNames); //$NON-NLS-1$
+
+        @NonNull final List<String> result = new ArrayList<>(5);
+        switch (mFtsVersion) {
+            case FTS5: {
+                result.add(String.format(Locale.US,
+                        "CREATE VIRTUAL TABLE %s USING %s(%s, content='%s', content_rowid='%s')", //$NON-NLS-1$
+                        mFtsTableName, mFtsVersion.getModuleName(), columns, mTableName,
+                        BaseColumns._ID));
+
+                @NonNull final String insert = String.format(Locale.US,
+                        "INSERT INTO %s(rowid, %s) VALUES (new.%s, %s);", //$NON-NLS-1$
+                        mFtsTableName, columns, BaseColumns._ID, newValues);
+                @NonNull final String delete = String.format(Locale.US,
+                        "INSERT INTO %1$s(%1$s, rowid, %2$s) VALUES ('delete', old.%3$s, %4$s);", //$NON-NLS-1$
+                        mFtsTableName, columns, BaseColumns._ID, oldValues);
+
+                result.add(newTrigger(mFtsTableName, "after_insert", "AFTER INSERT", insert)); //$NON-NLS-1$ //$NON-NLS-2$
+                result.add(newTrigger(mFtsTableName, "after_delete", "AFTER DELETE", delete)); //$NON-NLS-1$ //$NON-NLS-2$
+                result.add(newTrigger(mFtsTableName, "after_update", "AFTER UPDATE", delete + " " + insert)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                break;
+            }
+            case FTS4: {
+                result.add(String.format(Locale.US,
+                        "CREATE VIRTUAL TABLE %s USING %s(content='%s', %s)", //$NON-NLS-1$
+                        mFtsTableName, mFtsVersion.getModuleName(), mTableName, columns));
+
+                @NonNull final String insert = String.format(Locale.US,
+                        "INSERT INTO %s(docid, %s) VALUES (new.%s, %s);", //$NON-NLS-1$
+                        mFtsTableName, columns, BaseColumns._ID, newValues);
+                @NonNull final String delete = String.format(Locale.US,
+                        "DELETE FROM %s WHERE docid = old.%s;", //$NON-NLS-1$
+                        mFtsTableName, BaseColumns._ID);
+
+                result.add(newTrigger(mFtsTableName, "before_update", "BEFORE UPDATE", delete)); //$NON-NLS-1$ //$NON-NLS-2$
+                result.add(newTrigger(mFtsTableName, "before_delete", "BEFORE DELETE", delete)); //$NON-NLS-1$ //$NON-NLS-2$
+                result.add(newTrigger(mFtsTableName, "after_update", "AFTER UPDATE", insert)); //$NON-NLS-1$ //$NON-NLS-2$
+                result.add(newTrigger(mFtsTableName, "after_insert", "AFTER INSERT", insert)); //$NON-NLS-1$ //$NON-NLS-2$
+                break;
+            }
+            default: {
+                throw new AssertionError(mFtsVersion);
+            }
+        }
+
+        return result;
+    }
+
+    @NonNull
+    private String newTrigger(@NonNull final String shadowTableName, @NonNull final String suffix,
+            @NonNull final String event, @NonNull final String body) {
+        return String.format(Locale.US, "CREATE TRIGGER %s_%s %s ON %s BEGIN %s END", //$NON-NLS-1$
+                shadowTableName, suffix, event, mTableName, body);
+    }
+
+    @NonNull
+    private static String joinPrefixed(@NonNull final String prefix,
+            @NonNull final String[] columnNames) {
+        @NonNull final StringBuilder builder = new StringBuilder();
+
+        for (int x = 0; x < columnNames.length; x++) {
+            if (0 != x) {
+                builder.append(", "); //$NON-NLS-1$
+            }
+            builder.append(prefix);
+            builder.append(columnNames[x]);
+        }
+
+        return builder.toString();
+    }
+
     /**
      * @return The SQL statement to create the table.
      * @throws IllegalStateException If {@link #setName(String)} has not been called.
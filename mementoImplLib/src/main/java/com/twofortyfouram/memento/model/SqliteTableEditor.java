@@ -41,6 +41,8 @@ import static com.twofortyfouram.assertion.Assertions.assertNotNull;
  * <p>
  * Although SQLite does not allow multiple columns with the same name, this class will not enforce
  * this limitation when calling {@link #addColumn(SqliteColumnBuilder)} or {@link #build()}.
+ * <p>
+ * For changes other than adding columns, see {@link SqliteTableMigrationBuilder}.
  */
 @NotThreadSafe
 public final class SqliteTableEditor {
@@ -0,0 +1,391 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.model;
+
+import android.database.Cursor;
+import android.provider.BaseColumns;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.twofortyfouram.annotation.Incubating;
+import com.twofortyfouram.annotation.Slow;
+import com.twofortyfouram.annotation.Slow.Speed;
+
+import net.jcip.annotations.Immutable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Rebuilds a table with a new definition by copying its rows into a migration table in bounded
+ * chunks, and then swapping the migration table in for the existing table.  Instances are built by
+ * {@link SqliteTableMigrationBuilder}.
+ * <p>
+ * Unlike a copy-table migration performed entirely in
+ * {@code SupportSQLiteOpenHelper.Callback#onUpgrade(SupportSQLiteDatabase, int, int)}, only
+ * {@link #start(SupportSQLiteDatabase)} needs to run during the upgrade.  The existing table
+ * remains in use until {@link #finish(SupportSQLiteDatabase)}, and triggers keep the rows already
+ * copied in sync with writes to it.  Progress is the largest {@code _id} copied, so the copy
+ * resumes where it left off after the process is restarted.  {@link MementoContentProvider}
+ * resumes the migrations returned by
+ * {@code MementoContentProvider#newSqliteTableMigrations()} on a background thread.
+ * <p>
+ * Tables referenced by foreign keys can only be migrated with foreign key enforcement disabled,
+ * because the existing table is dropped.
+ */
+@Immutable
+@Incubating
+public final class SqliteTableMigration {
+
+    @NonNull
+    private final String mTableName;
+
+    @NonNull
+    private final String mMigrationTableName;
+
+    @NonNull
+    private final String mCreateSql;
+
+    @NonNull
+    private final Map<String, String> mColumnExpressions;
+
+    @NonNull
+    private final List<String> mStatementsAfterSwap;
+
+    private final int mChunkSize;
+
+    /**
+     * @param tableName Name of a table.
+     * @return Name of the migration table for {@code tableName}.
+     */
+    @NonNull
+    /*package*/ static String newMigrationTableName(@NonNull final String tableName) {
+        return tableName + "_migration"; //$NON-NLS-1$
+    }
+
+    /*package*/ SqliteTableMigration(@NonNull final String tableName,
+            @NonNull final String createSql, @NonNull final Map<String, String> columnExpressions,
+            @NonNull final List<String> statementsAfterSwap, final int chunkSize) {
+        mTableName = tableName;
+        mMigrationTableName = newMigrationTableName(tableName);
+        mCreateSql = createSql;
+        mColumnExpressions = Collections.unmodifiableMap(new LinkedHashMap<>(columnExpressions));
+        mStatementsAfterSwap = Collections.unmodifiableList(new ArrayList<>(statementsAfterSwap));
+        mChunkSize = chunkSize;
+    }
+
+    /**
+     * @return Name of the table being migrated.
+     */
+    @NonNull
+    public String getTableName() {
+        return mTableName;
+    }
+
+    /**
+     * @return Name of the table the rows are copied into, until it replaces the existing table.
+     */
+    @NonNull
+    public String getMigrationTableName() {
+        return mMigrationTableName;
+    }
+
+    /**
+     * Creates the migration table and the triggers that keep it in sync, if the migration has not
+     * already started.  This is fast regardless of the size of the table, so it is intended to be
+     * called from {@code onUpgrade()}.
+     *
+     * @param database Database to migrate.
+     */
+    @Slow(Speed.MILLISECONDS)
+    public void start(@NonNull final SupportSQLiteDatabase database) {
+        assertNotNull(database, "database"); //$NON-NLS-1$
+
+        if (isPending(database)) {
+            return;
+        }
+
+        database.beginTransaction();
+        try {
+            database.execSQL(mCreateSql);
+
+            @NonNull final String[][] mapping = queryColumnMapping(database);
+            @NonNull final String copyRow = String.format(Locale.US,
+                    "INSERT OR REPLACE INTO %s(%s) SELECT %s FROM %s WHERE %s = new.%s", //$NON-NLS-1$
+                    mMigrationTableName, join(mapping[0]), join(mapping[1]), mTableName,
+                    BaseColumns._ID, BaseColumns._ID);
+            @NonNull final String deleteRow = String.format(Locale.US,
+                    "DELETE FROM %s WHERE %s = old.%s", //$NON-NLS-1$
+                    mMigrationTableName, BaseColumns._ID, BaseColumns._ID);
+            @NonNull final String isCopied = String.format(Locale.US,
+                    "new.%s <= (SELECT MAX(%s) FROM %s)", //$NON-NLS-1$
+                    BaseColumns._ID, BaseColumns._ID, mMigrationTableName);
+
+            // Rows beyond the progress of the copy are picked up by later chunks as they are
+            database.execSQL(newTrigger("insert", //$NON-NLS-1$
+                    String.format(Locale.US, "AFTER INSERT ON %s WHEN %s", //$NON-NLS-1$
+                            mTableName, isCopied), copyRow + ";")); //$NON-NLS-1$
+            database.execSQL(newTrigger("update", //$NON-NLS-1$
+                    String.format(Locale.US, "AFTER UPDATE ON %s", mTableName), //$NON-NLS-1$
+                    deleteRow + "; " + copyRow + " AND " + isCopied + ";")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            database.execSQL(newTrigger("delete", //$NON-NLS-1$
+                    String.format(Locale.US, "AFTER DELETE ON %s", mTableName), //$NON-NLS-1$
+                    deleteRow + ";")); //$NON-NLS-1$
+
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    /**
+     * @param database Database to check.
+     * @return True if the migration has been started but not finished.
+     */
+    @Slow(Speed.MILLISECONDS)
+    public boolean isPending(@NonNull final SupportSQLiteDatabase database) {
+        assertNotNull(database, "database"); //$NON-NLS-1$
+
+        return isTable(database, mMigrationTableName);
+    }
+
+    /**
+     * Copies the next chunk of rows into the migration table, in a transaction of its own.
+     *
+     * @param database Database to migrate.
+     * @return Number of rows copied.  0 when all rows have been copied.
+     * @throws IllegalStateException If the migration is not pending.
+     */
+    @WorkerThread
+    @Slow(Speed.MILLISECONDS)
+    public int copyChunk(@NonNull final SupportSQLiteDatabase database) {
+        assertNotNull(database, "database"); //$NON-NLS-1$
+
+        if (!isPending(database)) {
+            throw new IllegalStateException("migration has not been started"); //$NON-NLS-1$
+        }
+
+        @NonNull final String[][] mapping = queryColumnMapping(database);
+
+        database.beginTransaction();
+        try {
+            @Nullable final Long progress = queryMaxId(database);
+
+            @NonNull final String sql = String.format(Locale.US,
+                    "INSERT INTO %s(%s) SELECT %s FROM %s %s ORDER BY %s LIMIT %d", //$NON-NLS-1$
+                    mMigrationTableName, join(mapping[0]), join(mapping[1]), mTableName,
+                    null == progress ? "" : "WHERE " + BaseColumns._ID + " > ?", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                    BaseColumns._ID, mChunkSize);
+
+            final int count;
+            try (@NonNull final SupportSQLiteStatement statement = database.compileStatement(sql)) {
+                if (null != progress) {
+                    statement.bindLong(1, progress);
+                }
+                count = statement.executeUpdateDelete();
+            } catch (final IOException e) {
+                throw new RuntimeException(e);
+            }
+
+            database.setTransactionSuccessful();
+
+            return count;
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    /**
+     * Copies the remaining rows, and then replaces the existing table with the migration table
+     * and executes the statements added by
+     * {@link SqliteTableMigrationBuilder#addStatementAfterSwap(String)}, in a single transaction.
+     * If the migration is not pending, this method has no effect.
+     *
+     * @param database Database to migrate.
+     */
+    @WorkerThread
+    @Slow(Speed.MILLISECONDS)
+    public void finish(@NonNull final SupportSQLiteDatabase database) {
+        assertNotNull(database, "database"); //$NON-NLS-1$
+
+        database.beginTransaction();
+        try {
+            if (!isPending(database)) {
+                return;
+            }
+
+            //noinspection StatementWithEmptyBody
+            while (0 < copyChunk(database)) {
+                // Copy until done
+            }
+
+            for (@NonNull final String suffix : new String[]{"insert", "update", "delete"}) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                database.execSQL(String.format(Locale.US, "DROP TRIGGER %s_%s", //$NON-NLS-1$
+                        mMigrationTableName, suffix));
+            }
+
+            // Deleted rows may have advanced the sequence beyond the largest id copied
+            if (isTable(database, "sqlite_sequence")) { //$NON-NLS-1$
+                database.execSQL(
+                        "INSERT INTO sqlite_sequence(name, seq) SELECT ?, seq FROM sqlite_sequence WHERE name = ? AND NOT EXISTS (SELECT 1 FROM sqlite_sequence WHERE name = ?)", //$NON-NLS-1$
+                        new Object[]{mMigrationTableName, mTableName, mMigrationTableName});
+                database.execSQL(
+                        "UPDATE sqlite_sequence SET seq = MAX(seq, IFNULL((SELECT seq FROM sqlite_sequence WHERE name = ?), 0)) WHERE name = ?", //$NON-NLS-1$
+                        new Object[]{mTableName, mMigrationTableName});
+            }
+
+            database.execSQL(String.format(Locale.US, "DROP TABLE %s", mTableName)); //$NON-NLS-1$
+            database.execSQL(String.format(Locale.US, "ALTER TABLE %s RENAME TO %s", //$NON-NLS-1$
+                    mMigrationTableName, mTableName));
+
+            for (@NonNull final String sql : mStatementsAfterSwap) {
+                database.execSQL(sql);
+            }
+
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    /**
+     * Runs the entire migration on the current thread.
+     *
+     * @param database Database to migrate.
+     */
+    @WorkerThread
+    @Slow(Speed.SECONDS)
+    public void run(@NonNull final SupportSQLiteDatabase database) {
+        start(database);
+
+        //noinspection StatementWithEmptyBody
+        while (0 < copyChunk(database)) {
+            // Copy until done
+        }
+
+        finish(database);
+    }
+
+    /**
+     * @param database Database to query.
+     * @return The columns of the migration table that are filled, and the expressions over the
+     * existing table that fill them.
+     * @throws IllegalStateException If either table lacks an {@code _id} column.
+     */
+    @NonNull
+    @VisibleForTesting
+    /*package*/ String[][] queryColumnMapping(@NonNull final SupportSQLiteDatabase database) {
+        @NonNull final Set<String> existingColumns = new HashSet<>(
+                queryColumnNames(database, mTableName));
+        if (!existingColumns.contains(BaseColumns._ID)) {
+            throw new IllegalStateException(String.format(Locale.US,
+                    "%s must have an %s column", mTableName, BaseColumns._ID)); //$NON-NLS-1$
+        }
+
+        @NonNull final List<String> columns = new ArrayList<>();
+        @NonNull final List<String> expressions = new ArrayList<>();
+        for (@NonNull final String column : queryColumnNames(database, mMigrationTableName)) {
+            @Nullable String expression = mColumnExpressions.get(column);
+            if (null == expression && existingColumns.contains(column)) {
+                expression = column;
+            }
+
+            if (null != expression) {
+                columns.add(column);
+                expressions.add(expression);
+            }
+        }
+
+        if (!columns.contains(BaseColumns._ID)) {
+            throw new IllegalStateException(String.format(Locale.US,
+                    "%s must have an %s column", mMigrationTableName, BaseColumns._ID)); //$NON-NLS-1$
+        }
+
+        return new String[][]{columns.toArray(new String[0]), expressions.toArray(new String[0])};
+    }
+
+    @Nullable
+    private Long queryMaxId(@NonNull final SupportSQLiteDatabase database) {
+        try (@NonNull final Cursor cursor = database.query(String.format(Locale.US,
+                "SELECT MAX(%s) FROM %s", BaseColumns._ID, mMigrationTableName))) { //$NON-NLS-1$
+            if (cursor.moveToFirst() && !cursor.isNull(0)) {
+                return cursor.getLong(0);
+            }
+        }
+
+        return null;
+    }
+
+    @NonNull
+    private String newTrigger(@NonNull final String suffix, @NonNull final String event,
+            @NonNull final String body) {
+        return String.format(Locale.US, "CREATE TRIGGER %s_%s %s BEGIN %s END", //$NON-NLS-1$
+                mMigrationTableName, suffix, event, body);
+    }
+
+    @NonNull
+    private static List<String> queryColumnNames(@NonNull final SupportSQLiteDatabase database,
+            @NonNull final String tableName) {
+        @NonNull final List<String> result = new ArrayList<>();
+        try (@NonNull final Cursor cursor = database.query(String.format(Locale.US,
+                "PRAGMA table_info(%s)", tableName))) { //$NON-NLS-1$
+            final int nameIndex = cursor.getColumnIndexOrThrow("name"); //$NON-NLS-1$
+            while (cursor.moveToNext()) {
+                result.add(cursor.getString(nameIndex));
+            }
+        }
+
+        return result;
+    }
+
+    private static boolean isTable(@NonNull final SupportSQLiteDatabase database,
+            @NonNull final String tableName) {
+        try (@NonNull final Cursor cursor = database.query(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?", //$NON-NLS-1$
+                new Object[]{tableName})) {
+            return cursor.moveToFirst();
+        }
+    }
+
+    @NonNull
+    private static String join(@NonNull final String[] values) {
+        @NonNull final StringBuilder builder = new StringBuilder();
+        for (int x = 0; x < values.length; x++) {
+            if (0 != x) {
+                builder.append(", "); //$NON-NLS-1$
+            }
+            builder.append(values[x]);
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.Size;
+
+import com.twofortyfouram.annotation.Incubating;
+
+import net.jcip.annotations.NotThreadSafe;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.twofortyfouram.assertion.Assertions.assertInRangeInclusive;
+import static com.twofortyfouram.assertion.Assertions.assertNotEmpty;
+import static com.twofortyfouram.assertion.Assertions.assertNotNull;
+
+/**
+ * Builds an immutable {@link SqliteTableMigration}, for schema changes that
+ * {@link SqliteTableEditor} cannot express.
+ * <p>
+ * The new table is described in full by {@link #setNewTable(SqliteTableBuilder)}, including any
+ * new constraints.  Columns of the new table are filled from the column of the existing table
+ * with the same name, unless {@link #renameColumn(String, String)} or
+ * {@link #setColumnExpression(String, String)} says otherwise.  Columns of the existing table that
+ * the new table lacks are dropped.  A column whose type changed is converted as per the type
+ * affinity of the new column, unless an expression such as {@code CAST(column AS INTEGER)} is set.
+ * <p>
+ * At a minimum, {@link #setExistingTableName(String)} and
+ * {@link #setNewTable(SqliteTableBuilder)} must be called prior to calling {@link #build()}.
+ */
+@NotThreadSafe
+@Incubating
+public final class SqliteTableMigrationBuilder {
+
+    @Nullable
+    private String mExistingTableName = null;
+
+    @Nullable
+    private SqliteTableBuilder mNewTable = null;
+
+    /**
+     * Map of new column name to the expression over the existing table that fills it.
+     */
+    @NonNull
+    private final Map<String, String> mColumnExpressions = new LinkedHashMap<>();
+
+    @NonNull
+    private final List<String> mStatementsAfterSwap = new ArrayList<>();
+
+    private int mChunkSize = 1000;
+
+    /**
+     * @param tableName Name of the table to migrate.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteTableMigrationBuilder setExistingTableName(
+            @NonNull @Size(min = 1) final String tableName) {
+        assertNotEmpty(tableName, "tableName"); //$NON-NLS-1$
+        mExistingTableName = tableName;
+
+        return this;
+    }
+
+    /**
+     * The new table must have the same name as the existing table, and both must have an
+     * {@code _id} column that is an alias of the rowid.  The SQL for the new table is captured by
+     * {@link #build()}, so later changes to {@code newTable} do not affect the migration.
+     *
+     * @param newTable Definition of the table after the migration.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteTableMigrationBuilder setNewTable(@NonNull final SqliteTableBuilder newTable) {
+        assertNotNull(newTable, "newTable"); //$NON-NLS-1$
+        mNewTable = newTable;
+
+        return this;
+    }
+
+    /**
+     * @param existingColumnName Name of the column in the existing table.
+     * @param newColumnName      Name of the column in the new table.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteTableMigrationBuilder renameColumn(
+            @NonNull @Size(min = 1) final String existingColumnName,
+            @NonNull @Size(min = 1) final String newColumnName) {
+        assertNotEmpty(existingColumnName, "existingColumnName"); //$NON-NLS-1$
+
+        return setColumnExpression(newColumnName, existingColumnName);
+    }
+
+    /**
+     * @param newColumnName Name of the column in the new table.
+     * @param expression    Expression over the columns of the existing table that fills
+     *                      {@code newColumnName}, for example {@code CAST(priority AS INTEGER)}.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteTableMigrationBuilder setColumnExpression(
+            @NonNull @Size(min = 1) final String newColumnName,
+            @NonNull @Size(min = 1) final String expression) {
+        assertNotEmpty(newColumnName, "newColumnName"); //$NON-NLS-1$
+        assertNotEmpty(expression, "expression"); //$NON-NLS-1$
+        mColumnExpressions.put(newColumnName, expression);
+
+        return this;
+    }
+
+    /**
+     * Adds a statement to execute right after the new table replaces the existing table, in the
+     * same transaction.  Indexes and triggers of the existing table are dropped along with it, so
+     * they must be recreated here.
+     *
+     * @param sql SQL statement, for example from {@link SqliteIndexBuilder#build()}.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteTableMigrationBuilder addStatementAfterSwap(
+            @NonNull @Size(min = 1) final String sql) {
+        assertNotEmpty(sql, "sql"); //$NON-NLS-1$
+        mStatementsAfterSwap.add(sql);
+
+        return this;
+    }
+
+    /**
+     * @param chunkSize Maximum number of rows copied per transaction.  Must be positive.
+     * @return The builder for chained calls.
+     */
+    @NonNull
+    public SqliteTableMigrationBuilder setChunkSize(final int chunkSize) {
+        assertInRangeInclusive(chunkSize, 1, Integer.MAX_VALUE, "chunkSize"); //$NON-NLS-1$
+        mChunkSize = chunkSize;
+
+        return this;
+    }
+
+    /**
+     * @return A new migration.
+     * @throws IllegalStateException If {@link #setExistingTableName(String)} or
+     *                               {@link #setNewTable(SqliteTableBuilder)} have not been called,
+     *                               or if the new table has a different name.
+     */
+    @NonNull
+    public SqliteTableMigration build() {
+        if (null == mExistingTableName) {
+            throw new IllegalStateException("existing table name has not been set"); //$NON-NLS-1$
+        }
+        if (null == mNewTable) {
+            throw new IllegalStateException("new table has not been set"); //$NON-NLS-1$
+        }
+        if (!mExistingTableName.equals(mNewTable.getName())) {
+            throw new IllegalStateException(
+                    "new table must have the name of the existing table"); //$NON-NLS-1$
+        }
+
+        // The migration table is created from the same definition under a different name
+        @NonNull final String migrationTableName = SqliteTableMigration
+                .newMigrationTableName(mExistingTableName);
+        @NonNull final String createSql = mNewTable.setName(migrationTableName).build();
+        mNewTable.setName(mExistingTableName);
+
+        return new SqliteTableMigration(mExistingTableName, createSql, mColumnExpressions,
+                mStatementsAfterSwap, mChunkSize);
+    }
+}
@@ -17,21 +17,33 @@
 
 package com.twofortyfouram.memento.model;
 
+import android.app.SearchManager;
+import android.database.sqlite.SQLiteDatabase;
 import android.net.Uri;
+import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import net.jcip.annotations.Immutable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 
+import static com.twofortyfouram.assertion.Assertions.assertInRangeInclusive;
+import static com.twofortyfouram.assertion.Assertions.assertNoNullElements;
+import static com.twofortyfouram.assertion.Assertions.assertNotEmpty;
 import static com.twofortyfouram.assertion.Assertions.assertNotNull;
 
 /**
  * Encapsulates details about a Uri match.
+ * <p>
+ * Optional behaviors of a match are added by the {@code with} methods, such as
+ * {@link #withFullTextSearch(String, SqliteFtsVersion)}.  Because this class is immutable, these
+ * methods return a new match rather than mutating this one.
  */
 @Immutable
 public final class SqliteUriMatch {
@@ -73,6 +85,55 @@ public final class SqliteUriMatch {
     @NonNull
     private final String mTableName;
 
+    /**
+     * Name of the full-text search shadow table, if this is a search match.
+     */
+    @Nullable
+    private final String mFtsTableName;
+
+    /**
+     * Full-text search module of {@link #mFtsTableName}, if this is a search match.
+     */
+    @Nullable
+    private final SqliteFtsVersion mFtsVersion;
+
+    /**
+     * Name of the BLOB column streamed by this match, if this is a blob match.
+     */
+    @Nullable
+    private final String mBlobColumnName;
+
+    /**
+     * Conflict algorithm for inserts and updates, one of the {@code CONFLICT} constants in
+     * {@link SQLiteDatabase}.
+     */
+    private final int mConflictAlgorithm;
+
+    /**
+     * Columns of the unique key that inserts are upserted on, if this is an upsert match.
+     * <p>This has been wrapped in a call to {@link Collections#unmodifiableList(java.util.List)}.</p>
+     */
+    @Nullable
+    private final List<String> mUpsertColumnNames;
+
+    /**
+     * Column containing the time rows are partitioned by, if this is a partitioned match.
+     */
+    @Nullable
+    private final String mPartitionTimeColumnName;
+
+    /**
+     * Length of the time buckets, if this is a partitioned match.
+     */
+    @Nullable
+    private final SqlitePartitionInterval mPartitionInterval;
+
+    /**
+     * Name of the spatial index shadow table, if this is a bounding box match.
+     */
+    @Nullable
+    private final String mSpatialTableName;
+
     /**
      * @param baseUri           The base Uri of the match.
      * @param notifyUris        List of Uris to notify when a change is made for this match.
@@ -99,6 +160,221 @@ public final class SqliteUriMatch {
         mIsIdUri = isIdUri;
         mMimeType = mimeType;
         mTableName = tableName;
+        mFtsTableName = null;
+        mFtsVersion = null;
+        mBlobColumnName = null;
+        mConflictAlgorithm = SQLiteDatabase.CONFLICT_ABORT;
+        mUpsertColumnNames = null;
+        mPartitionTimeColumnName = null;
+        mPartitionInterval = null;
+        mSpatialTableName = null;
+    }
+
+    /**
+     * Copy constructor used by the {@code with} methods.
+     *
+     * @param match          Match to copy.
+     * @param ftsTableName   Name of the full-text search shadow table.
+     * @param ftsVersion     Full-text search module of {@code ftsTableName}.
+     * @param blobColumnName    Name of the streamed BLOB column.
+     * @param conflictAlgorithm Conflict algorithm for inserts and updates.
+     * @param upsertColumnNames Columns of the unique key that inserts are upserted on.
+     * @param partitionTimeColumnName Column containing the time rows are partitioned by.
+     * @param partitionInterval Length of the time buckets.
+     * @param spatialTableName  Name of the spatial index shadow table.
+     */
+    private SqliteUriMatch(@NonNull final SqliteUriMatch match,
+            @Nullable final String ftsTableName, @Nullable final SqliteFtsVersion ftsVersion,
+            @Nullable final String blobColumnName, final int conflictAlgorithm,
+            @Nullable final List<String> upsertColumnNames,
+            @Nullable final String partitionTimeColumnName,
+            @Nullable final SqlitePartitionInterval partitionInterval,
+            @Nullable final String spatialTableName) {
+        mBaseUri = match.mBaseUri;
+        mNotifyUris = match.mNotifyUris;
+        mAllowedOperations = match.mAllowedOperations;
+        mIsIdUri = match.mIsIdUri;
+        mMimeType = match.mMimeType;
+        mTableName = match.mTableName;
+        mFtsTableName = ftsTableName;
+        mFtsVersion = ftsVersion;
+        mBlobColumnName = blobColumnName;
+        mConflictAlgorithm = conflictAlgorithm;
+        mUpsertColumnNames = upsertColumnNames;
+        mPartitionTimeColumnName = partitionTimeColumnName;
+        mPartitionInterval = partitionInterval;
+        mSpatialTableName = spatialTableName;
+    }
+
+    /**
+     * Creates a search match.  Queries to a search match select rows from {@link #getTableName()}
+     * that match the full-text search query supplied by
+     * {@code MementoContract#addSearchQuery(Uri.Builder, String)}.  The
+     * {@link SearchManager#SUGGEST_PARAMETER_LIMIT} is honored the same way as for other
+     * queries.  Unless a sort order is provided, {@link SqliteFtsVersion#FTS5} results are
+     * ordered by relevance.
+     *
+     * @param ftsTableName Name of the full-text search shadow table for {@link #getTableName()}.
+     * @param ftsVersion   Full-text search module of {@code ftsTableName}.
+     * @return A new match that is a copy of this match, with full-text search.
+     * @see SqliteTableBuilder#setFullTextSearch(SqliteFtsVersion, String, String...)
+     */
+    @NonNull
+    public SqliteUriMatch withFullTextSearch(@NonNull final String ftsTableName,
+            @NonNull final SqliteFtsVersion ftsVersion) {
+        assertNotEmpty(ftsTableName, "ftsTableName"); //$NON-NLS-1$
+        assertNotNull(ftsVersion, "ftsVersion"); //$NON-NLS-1$
+
+        return new SqliteUriMatch(this, ftsTableName, ftsVersion, mBlobColumnName,
+                mConflictAlgorithm, mUpsertColumnNames, mPartitionTimeColumnName,
+                mPartitionInterval, mSpatialTableName);
+    }
+
+    /**
+     * Creates a blob match.  A blob match streams a single BLOB value of the row identified by
+     * the last path segment of the Uri, through
+     * {@link android.content.ContentProvider#openFile(Uri, String)}.  This avoids copying large
+     * values through a CursorWindow, which is limited in size.  Reading requires
+     * {@link Operation#QUERY} and writing requires {@link Operation#UPDATE}.
+     * <p>
+     * The value is stored in chunks in a table managed by the provider rather than in a column
+     * of {@link #getTableName()}, so that streaming never loads or copies the whole value.  The
+     * chunks are deleted with the row.
+     *
+     * @param blobColumnName Name of the BLOB value, which is unique within
+     *                       {@link #getTableName()}.
+     * @return A new match that is a copy of this match, streaming {@code blobColumnName}.
+     * @throws IllegalStateException If this is not an id match, as per {@link #isIdUri()}.
+     */
+    @NonNull
+    public SqliteUriMatch withBlobColumn(@NonNull final String blobColumnName) {
+        assertNotEmpty(blobColumnName, "blobColumnName"); //$NON-NLS-1$
+
+        if (!mIsIdUri) {
+            throw new IllegalStateException("A blob match must be an id match"); //$NON-NLS-1$
+        }
+
+        return new SqliteUriMatch(this, mFtsTableName, mFtsVersion, blobColumnName,
+                mConflictAlgorithm, mUpsertColumnNames, mPartitionTimeColumnName,
+                mPartitionInterval, mSpatialTableName);
+    }
+
+    /**
+     * Sets the default conflict algorithm for inserts and updates, which is otherwise
+     * {@link SQLiteDatabase#CONFLICT_ABORT}.  A client can override the default for a single
+     * operation with {@code MementoContract#addConflictAlgorithm(Uri.Builder, int)}.
+     *
+     * @param conflictAlgorithm One of the {@code CONFLICT} constants in {@link SQLiteDatabase}.
+     * @return A new match that is a copy of this match, with {@code conflictAlgorithm}.
+     */
+    @NonNull
+    public SqliteUriMatch withConflictAlgorithm(
+            @IntRange(from = SQLiteDatabase.CONFLICT_NONE, to = SQLiteDatabase.CONFLICT_REPLACE)
+            final int conflictAlgorithm) {
+        assertInRangeInclusive(conflictAlgorithm, SQLiteDatabase.CONFLICT_NONE,
+                SQLiteDatabase.CONFLICT_REPLACE, "conflictAlgorithm"); //$NON-NLS-1$
+
+        return new SqliteUriMatch(this, mFtsTableName, mFtsVersion, mBlobColumnName,
+                conflictAlgorithm, mUpsertColumnNames, mPartitionTimeColumnName,
+                mPartitionInterval, mSpatialTableName);
+    }
+
+    /**
+     * Creates an upsert match.  An insert to an upsert match that conflicts with an existing row
+     * on {@code upsertColumnNames} updates that row with the inserted values instead, within a
+     * single transaction.  This replaces the query, then insert or update pattern for writing the
+     * latest state of something.  Unlike {@link SQLiteDatabase#CONFLICT_REPLACE}, the existing row
+     * is updated in place rather than deleted and reinserted, so its {@code _id} is preserved.
+     * {@link #getConflictAlgorithm()} applies to every constraint other than
+     * {@code upsertColumnNames}.  A conflict algorithm in the Uri of an insert disables the upsert
+     * for that insert.
+     * <p>
+     * {@code upsertColumnNames} must be the columns of a primary key or unique index of
+     * {@link #getTableName()}, and must be present in every insert.
+     *
+     * @param upsertColumnNames Columns of the unique key.
+     * @return A new match that is a copy of this match, upserting on {@code upsertColumnNames}.
+     */
+    @NonNull
+    public SqliteUriMatch withUpsert(@NonNull final String... upsertColumnNames) {
+        assertNotEmpty(upsertColumnNames, "upsertColumnNames"); //$NON-NLS-1$
+        assertNoNullElements(upsertColumnNames, "upsertColumnNames"); //$NON-NLS-1$
+
+        return new SqliteUriMatch(this, mFtsTableName, mFtsVersion, mBlobColumnName,
+                mConflictAlgorithm,
+                Collections.unmodifiableList(new ArrayList<>(Arrays.asList(upsertColumnNames))),
+                mPartitionTimeColumnName, mPartitionInterval, mSpatialTableName);
+    }
+
+    /**
+     * Creates a time-partitioned match.  Rows are stored in one physical table per time bucket,
+     * named {@link #getTableName()} followed by an underscore and the UTC date of the bucket
+     * start as {@code yyyyMMdd}.  {@link #getTableName()} itself is a template: it must be created
+     * like any other table, but is never written to.  A bucket table is created from the schema
+     * of the template, including its indexes, on the first insert of a row into that bucket.
+     * <p>
+     * Inserts are routed to the bucket of {@code timeColumnName}, which must be present in every
+     * insert.  Queries, updates, and deletes read or write every bucket, unless restricted to a
+     * time range with {@code MementoContract#addTimeRange(Uri.Builder, long, long)}, in which case
+     * only the buckets overlapping the range are read or written.  Old buckets are dropped as a
+     * whole with {@code PartitionContract#callDropPartitions(Context, Uri, long)}, which is far
+     * cheaper than deleting their rows.
+     * <p>
+     * The template must have a {@link android.provider.BaseColumns#_ID} column that is an integer
+     * primary key.  Every insert is assigned an {@code _id} that is unique across all buckets, so
+     * inserts must not contain {@code _id}.  Updates must not contain {@code timeColumnName} or
+     * {@code _id}, because a row never moves to another bucket.
+     *
+     * @param timeColumnName Column containing the time of each row, in milliseconds since the
+     *                       Unix epoch.
+     * @param interval       Length of the time buckets.
+     * @return A new match that is a copy of this match, partitioned by time.
+     * @throws IllegalStateException If this is an id, search, blob, upsert, or bounding box
+     *                               match.
+     */
+    @NonNull
+    public SqliteUriMatch withTimePartitions(@NonNull final String timeColumnName,
+            @NonNull final SqlitePartitionInterval interval) {
+        assertNotEmpty(timeColumnName, "timeColumnName"); //$NON-NLS-1$
+        assertNotNull(interval, "interval"); //$NON-NLS-1$
+
+        if (mIsIdUri || isSearchUri() || isBlobUri() || isUpsertUri() || isBoundingBoxUri()) {
+            throw new IllegalStateException(
+                    "A partitioned match must not be an id, search, blob, upsert, or bounding box match"); //$NON-NLS-1$
+        }
+
+        return new SqliteUriMatch(this, mFtsTableName, mFtsVersion, mBlobColumnName,
+                mConflictAlgorithm, mUpsertColumnNames, timeColumnName, interval,
+                mSpatialTableName);
+    }
+
+    /**
+     * Creates a bounding box match.  Queries to a bounding box match select rows from
+     * {@link #getTableName()} whose bounding box intersects the box supplied by
+     * {@code MementoContract#addBoundingBox(Uri.Builder, double, double, double, double)}.  A
+     * point lookup, such as finding the regions containing a location, is a box with equal
+     * minimum and maximum coordinates.  The lookup uses the spatial index rather than scanning
+     * the table.
+     *
+     * @param spatialTableName Name of the spatial index shadow table for
+     *                         {@link #getTableName()}.
+     * @return A new match that is a copy of this match, with bounding box queries.
+     * @throws IllegalStateException If this is a search or partitioned match.
+     * @see SqliteTableBuilder#setSpatialIndex(SqliteSpatialIndexVersion, String, String, String,
+     * String, String)
+     */
+    @NonNull
+    public SqliteUriMatch withBoundingBox(@NonNull final String spatialTableName) {
+        assertNotEmpty(spatialTableName, "spatialTableName"); //$NON-NLS-1$
+
+        if (isSearchUri() || isPartitionedUri()) {
+            throw new IllegalStateException(
+                    "A bounding box match must not be a search or partitioned match"); //$NON-NLS-1$
+        }
+
+        return new SqliteUriMatch(this, mFtsTableName, mFtsVersion, mBlobColumnName,
+                mConflictAlgorithm, mUpsertColumnNames, mPartitionTimeColumnName,
+                mPartitionInterval, spatialTableName);
     }
 
     /**
@@ -151,4 +427,115 @@ public final class SqliteUriMatch {
     public String getTableName() {
         return mTableName;
     }
+
+    /**
+     * @return True if this is a full-text search match.
+     * @see #withFullTextSearch(String, SqliteFtsVersion)
+     */
+    public boolean isSearchUri() {
+        return null != mFtsTableName;
+    }
+
+    /**
+     * @return The name of the full-text search shadow table, or null if this is not a search
+     * match.
+     */
+    @Nullable
+    public String getFtsTableName() {
+        return mFtsTableName;
+    }
+
+    /**
+     * @return The full-text search module, or null if this is not a search match.
+     */
+    @Nullable
+    public SqliteFtsVersion getFtsVersion() {
+        return mFtsVersion;
+    }
+
+    /**
+     * @return True if this is a blob match.
+     * @see #withBlobColumn(String)
+     */
+    public boolean isBlobUri() {
+        return null != mBlobColumnName;
+    }
+
+    /**
+     * @return The name of the streamed BLOB value, or null if this is not a blob match.
+     */
+    @Nullable
+    public String getBlobColumnName() {
+        return mBlobColumnName;
+    }
+
+    /**
+     * @return The default conflict algorithm for inserts and updates, one of the
+     * {@code CONFLICT} constants in {@link SQLiteDatabase}.
+     * @see #withConflictAlgorithm(int)
+     */
+    public int getConflictAlgorithm() {
+        return mConflictAlgorithm;
+    }
+
+    /**
+     * @return True if this is an upsert match.
+     * @see #withUpsert(String...)
+     */
+    public boolean isUpsertUri() {
+        return null != mUpsertColumnNames;
+    }
+
+    /**
+     * @return The columns of the unique key that inserts are upserted on, or null if this is not
+     * an upsert match.  The returned list will be wrapped in a call to
+     * {@link Collections#unmodifiableList(java.util.List)}.
+     */
+    @Nullable
+    public List<String> getUpsertColumnNames() {
+        //noinspection ReturnOfCollectionOrArrayField
+        return mUpsertColumnNames;
+    }
+
+    /**
+     * @return True if this is a time-partitioned match.
+     * @see #withTimePartitions(String, SqlitePartitionInterval)
+     */
+    public boolean isPartitionedUri() {
+        return null != mPartitionInterval;
+    }
+
+    /**
+     * @return The column containing the time rows are partitioned by, or null if this is not a
+     * partitioned match.
+     */
+    @Nullable
+    public String getPartitionTimeColumnName() {
+        return mPartitionTimeColumnName;
+    }
+
+    /**
+     * @return The length of the time buckets, or null if this is not a partitioned match.
+     */
+    @Nullable
+    public SqlitePartitionInterval getPartitionInterval() {
+        return mPartitionInterval;
+    }
+
+    /**
+     * @return True if this is a bounding box match.
+     * @see #withBoundingBox(String)
+     */
+    public boolean isBoundingBoxUri() {
+        return null != mSpatialTableName;
+    }
+
+    /**
+     * @return The name of the spatial index shadow table, or null if this is not a bounding box
+     * match.
+     */
+    @Nullable
+    public String getSpatialTableName() {
+        return mSpatialTableName;
+    }
 }
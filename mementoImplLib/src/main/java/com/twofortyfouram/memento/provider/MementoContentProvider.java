@@ -22,14 +22,22 @@ import android.app.SearchManager;
 import android.content.*;
 import android.content.pm.ProviderInfo;
 import android.database.Cursor;
+import android.database.CursorWindow;
 import android.database.DatabaseUtils;
+import android.database.MergeCursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
 import android.database.sqlite.SQLiteOpenHelper;
 import android.media.MediaScannerConnection;
 import android.net.Uri;
+import android.os.AsyncTask;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.CancellationSignal;
+import android.os.Debug;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.ParcelFileDescriptor;
 import android.os.SystemClock;
 import android.provider.BaseColumns;
 import android.text.TextUtils;
@@ -39,38 +47,87 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
 import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SimpleSQLiteQuery;
 import androidx.sqlite.db.SupportSQLiteOpenHelper;
 import androidx.sqlite.db.SupportSQLiteQuery;
 import androidx.sqlite.db.SupportSQLiteQueryBuilder;
+import androidx.sqlite.db.SupportSQLiteStatement;
 
 import com.twofortyfouram.annotation.Slow;
 import com.twofortyfouram.annotation.Slow.Speed;
 import com.twofortyfouram.assertion.BundleAssertions;
 import com.twofortyfouram.log.Lumberjack;
 import com.twofortyfouram.memento.contract.ExportContract;
+import com.twofortyfouram.memento.contract.BaseColumnsContract;
 import com.twofortyfouram.memento.contract.BatchContract;
+import com.twofortyfouram.memento.contract.ChangeLogContract;
+import com.twofortyfouram.memento.contract.BulkContract;
+import com.twofortyfouram.memento.contract.ChangePayloadContract;
+import com.twofortyfouram.memento.contract.MaintenanceContract;
 import com.twofortyfouram.memento.contract.MementoContract;
+import com.twofortyfouram.memento.contract.OpenContract;
+import com.twofortyfouram.memento.contract.TrimMemoryContract;
+import com.twofortyfouram.memento.contract.PartitionContract;
+import com.twofortyfouram.memento.contract.PragmaContract;
+import com.twofortyfouram.memento.contract.SnapshotContract;
 import com.twofortyfouram.memento.contract.TransactionContract;
 import com.twofortyfouram.memento.impl.BuildConfig;
 import com.twofortyfouram.memento.internal.Constants;
 import com.twofortyfouram.memento.internal.ExportTransactable;
+import com.twofortyfouram.memento.internal.LocalTransactionRunner;
 import com.twofortyfouram.memento.internal.ContentChangeNotificationQueue;
 import com.twofortyfouram.memento.internal.QueryStringUtil;
+import com.twofortyfouram.memento.internal.SqliteBlobChunkUtil;
+import com.twofortyfouram.memento.internal.SqliteConfiguringCallback;
+import com.twofortyfouram.memento.internal.SqliteInUtil;
+import com.twofortyfouram.memento.internal.SqliteMaintenanceScheduler;
+import com.twofortyfouram.memento.internal.SqliteMigrationRunner;
+import com.twofortyfouram.memento.internal.SqliteOpenMetrics;
+import com.twofortyfouram.memento.internal.SqliteTrimMemoryMetrics;
+import com.twofortyfouram.memento.internal.SqliteVersionUtil;
+import com.twofortyfouram.memento.internal.SqlitePartitionUtil;
 import com.twofortyfouram.memento.model.Operation;
+import com.twofortyfouram.memento.model.SqliteChangeLogBuilder;
+import com.twofortyfouram.memento.model.SqliteConfiguration;
+import com.twofortyfouram.memento.model.SqliteMaintenancePolicy;
+import com.twofortyfouram.memento.model.SqliteFtsVersion;
+import com.twofortyfouram.memento.model.SqlitePartitionInterval;
+import com.twofortyfouram.memento.model.SqliteSpatialIndexVersion;
+import com.twofortyfouram.memento.model.SqliteTableMigration;
 import com.twofortyfouram.memento.model.SqliteUriMatch;
 import com.twofortyfouram.memento.model.SqliteUriMatcher;
 import com.twofortyfouram.memento.util.Transactable;
 import com.twofortyfouram.spackle.AndroidSdkVersion;
 import com.twofortyfouram.spackle.Clock;
 import com.twofortyfouram.spackle.ContextUtil;
+import com.twofortyfouram.spackle.HandlerThreadFactory;
+import com.twofortyfouram.spackle.HandlerThreadFactory.ThreadPriority;
 import com.twofortyfouram.spackle.bundle.BundleScrubber;
 
+import net.jcip.annotations.Immutable;
 import net.jcip.annotations.ThreadSafe;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import static com.twofortyfouram.assertion.Assertions.assertNotEmpty;
 import static com.twofortyfouram.assertion.Assertions.assertNotNull;
@@ -103,14 +160,30 @@ import static java.util.Objects.requireNonNull;
  * will be sent if a call to {@link #applyBatch(java.util.ArrayList)} fails.  Also note that
  * content change notifications will be for the base URI of the item that changed and will not
  * contain /#ID as the last path segment.  Finally note that if the same URI changes more than once
- * in a batch operation, the multiple duplicate notifications are coalesced.</li>
+ * in a batch operation, the multiple duplicate notifications are coalesced.  Subclasses can opt
+ * into notifications carrying a {@link ChangePayloadContract} payload by overriding
+ * {@link #isChangePayloadEnabled()}, and into row-level notifications by overriding
+ * {@link #getRowChangeNotificationLimit()}.</li>
+ * <li>A change log for synchronization as per {@link ChangeLogContract}, for the tables returned
+ * by {@link #getChangeLogTableNames()}</li>
+ * <li>Chunked background table migrations, for the migrations returned by
+ * {@link #newSqliteTableMigrations()}</li>
+ * <li>Opening the database in the background when the provider is created, as per
+ * {@link #isWarmOpenEnabled()}</li>
  * <li>Support for the query parameter {@link SearchManager#SUGGEST_PARAMETER_LIMIT}</li>
  * <li>Support for {@link BaseColumns#_COUNT} queries</li>
+ * <li>Support for full-text search queries, for Uris matched by
+ * {@link SqliteUriMatch#withFullTextSearch(String, SqliteFtsVersion)}</li>
+ * <li>Tiered release of SQLite memory in {@link #onTrimMemory(int)}, without closing the
+ * database, with metrics as per {@link TrimMemoryContract}</li>
+ * <li>Support for streaming BLOB columns via {@link #openFile(Uri, String)}, for Uris matched by
+ * {@link SqliteUriMatch#withBlobColumn(String)}</li>
  * </ul>
  * <p>An example implementation can be found in the tests of the library.</p>
  */
 @ThreadSafe
-public abstract class MementoContentProvider extends ContentProvider {
+public abstract class MementoContentProvider extends ContentProvider
+        implements LocalTransactionRunner {
 
     /**
      * Debug flag to slow down ContentProvider methods. The primary purpose is to make it easier to
@@ -134,6 +207,14 @@ public abstract class MementoContentProvider extends ContentProvider {
     private static final String WHERE_ID = String.format(Locale.US, "%s = ?", //NON-NLS
             BaseColumns._ID);
 
+    /**
+     * Conflict clauses of an {@code INSERT}, indexed by the {@code CONFLICT} constants in
+     * {@link SQLiteDatabase}.
+     */
+    @NonNull
+    private static final String[] CONFLICT_CLAUSES = {"", " OR ROLLBACK", " OR ABORT", //$NON-NLS
+            " OR FAIL", " OR IGNORE", " OR REPLACE"}; //$NON-NLS
+
     @NonNull
     private static final String COUNT = String
             .format(Locale.US, "COUNT(*) AS %s", BaseColumns._COUNT); //$NON-NLS
@@ -141,6 +222,30 @@ public abstract class MementoContentProvider extends ContentProvider {
     @NonNull
     private static final String[] COUNT_COLUMNS = {COUNT};
 
+    /**
+     * Column alias for the rowid of a full-text search match.
+     */
+    @NonNull
+    private static final String SEARCH_ROWID = "memento_fts_rowid"; //$NON-NLS
+
+    /**
+     * Column alias for the relevance of a full-text search match.  Lower is more relevant.
+     */
+    @NonNull
+    private static final String SEARCH_RANK = "memento_fts_rank"; //$NON-NLS
+
+    /**
+     * Size of the chunks in which BLOB values are stored and streamed.  Each chunk read is copied
+     * through a CursorWindow, so this must be well below the CursorWindow size limit.
+     */
+    private static final int BLOB_CHUNK_SIZE_BYTES = 512 * 1024;
+
+    /**
+     * Size of the statement cache of each connection, which is the framework's default.  After
+     * {@link #onTrimMemory(int)} clears the statement caches, it restores this size.
+     */
+    private static final int STATEMENT_CACHE_SIZE = 25;
+
     /**
      * Helper to open the database.
      * <p>
@@ -157,6 +262,86 @@ public abstract class MementoContentProvider extends ContentProvider {
     @Nullable
     private volatile SqliteUriMatcher mSqliteUriMatcher = null;
 
+    /**
+     * Configuration to apply when the database is opened.  May be null if there is no
+     * configuration.
+     * <p>
+     * This field will be initialized in {@link #onCreate()}.
+     */
+    @Nullable
+    private volatile SqliteConfiguration mSqliteConfiguration = null;
+
+    /**
+     * The database to which {@link #mSqliteConfiguration} was last applied.  Compared by identity,
+     * so that the configuration is applied again if the database is closed and reopened.
+     */
+    @Nullable
+    private volatile SupportSQLiteDatabase mConfiguredDatabase = null;
+
+    /**
+     * The database last opened, so that memory can be trimmed without opening the database.
+     */
+    @Nullable
+    private volatile SupportSQLiteDatabase mOpenedDatabase = null;
+
+    /**
+     * Lock for applying {@link #mSqliteConfiguration}.
+     */
+    @NonNull
+    private final Object mConfigurationLock = new Object();
+
+    /**
+     * Names of the tables whose changes are recorded in the change log.  Empty if the change log
+     * is disabled.
+     * <p>
+     * This field will be initialized in {@link #onCreate()}.
+     */
+    @NonNull
+    private volatile Collection<String> mChangeLogTableNames = Collections.emptySet();
+
+    /**
+     * Scheduler for idle-time maintenance.  May be null if there is no maintenance policy.
+     * <p>
+     * This field will be initialized in {@link #onCreate()}.
+     */
+    @Nullable
+    private volatile SqliteMaintenanceScheduler mMaintenanceScheduler = null;
+
+    /**
+     * Table migrations to resume when the database is opened.
+     * <p>
+     * This field will be initialized in {@link #onCreate()}.
+     */
+    @NonNull
+    private volatile Collection<SqliteTableMigration> mSqliteTableMigrations
+            = Collections.emptyList();
+
+    /**
+     * Runner for pending table migrations.  May be null if no migration has been started.
+     */
+    @Nullable
+    private volatile SqliteMigrationRunner mMigrationRunner = null;
+
+    /**
+     * In-flight background open of the database.  Null if warm open is disabled or once a caller
+     * has waited for it.
+     * <p>
+     * This field will be initialized in {@link #onCreate()}.
+     */
+    @Nullable
+    private volatile FutureTask<SupportSQLiteDatabase> mWarmOpenTask = null;
+
+    @NonNull
+    private final SqliteOpenMetrics mOpenMetrics = new SqliteOpenMetrics();
+
+    /**
+     * Version of the SQLite library as per {@link SqliteVersionUtil}, or 0 until it is queried.
+     */
+    private volatile int mSqliteVersion = 0;
+
+    @NonNull
+    private final SqliteTrimMemoryMetrics mTrimMemoryMetrics = new SqliteTrimMemoryMetrics();
+
     /**
      * Thread-specific container for operation results.
      */
@@ -185,12 +370,73 @@ public abstract class MementoContentProvider extends ContentProvider {
          * thread-safe. No additional synchronization is required because onCreate() is guaranteed
          * to be called by the Android framework before any of the other methods that need these fields.
          */
+        // Before the open helper, which may apply it via newConfiguredCallback()
+        mSqliteConfiguration = newSqliteConfiguration();
         mSqliteOpenHelper = newSqliteOpenHelper();
         mSqliteUriMatcher = newSqliteUriMatcher();
+        mChangeLogTableNames = new ArrayList<>(getChangeLogTableNames());
+        mSqliteTableMigrations = new ArrayList<>(newSqliteTableMigrations());
+
+        @Nullable final SqliteMaintenancePolicy maintenancePolicy = newSqliteMaintenancePolicy();
+        if (null != maintenancePolicy) {
+            mMaintenanceScheduler = new SqliteMaintenanceScheduler(maintenancePolicy,
+                    this::getConfiguredDatabase);
+        }
+
+        if (isWarmOpenEnabled()) {
+            startWarmOpen();
+        }
 
         return true;
     }
 
+    /**
+     * Opens the database and compiles {@link #getHotStatements()} on a background thread.  Callers
+     * that need the database in the meantime block on this open via
+     * {@link #getConfiguredDatabase()}, rather than opening the database a second time.
+     */
+    private void startWarmOpen() {
+        @NonNull final FutureTask<SupportSQLiteDatabase> warmOpenTask
+                = new FutureTask<>(this::warmOpen);
+        mWarmOpenTask = warmOpenTask;
+
+        // Not background priority, because callers may be blocked on this thread
+        @NonNull final HandlerThread handlerThread = HandlerThreadFactory.newHandlerThread(
+                MementoContentProvider.class.getName() + ".warm_open", //$NON-NLS
+                ThreadPriority.DEFAULT);
+        new Handler(handlerThread.getLooper()).post(() -> {
+            try {
+                warmOpenTask.run();
+            } finally {
+                handlerThread.quit();
+            }
+        });
+    }
+
+    @NonNull
+    @WorkerThread
+    @Slow(Speed.MILLISECONDS)
+    private SupportSQLiteDatabase warmOpen() {
+        @NonNull final SupportSQLiteDatabase database = openConfiguredDatabase(true);
+
+        final long startRealTimeMillis = Clock.getInstance().getRealTimeMillis();
+        int count = 0;
+        for (@NonNull final String sql : getHotStatements()) {
+            // The framework keeps the compiled statement in the connection's statement cache
+            try (@NonNull final SupportSQLiteStatement statement = database.compileStatement(sql)) {
+                count++;
+            } catch (final SQLiteException | IOException e) {
+                Lumberjack.e("Failed to compile hot statement %s: %s", sql, e); //$NON-NLS
+            }
+        }
+        final long durationMillis = Clock.getInstance().getRealTimeMillis() - startRealTimeMillis;
+        mOpenMetrics.onPrepared(durationMillis, count);
+
+        Lumberjack.v("Compiled %d hot statements in %d milliseconds", count, durationMillis); //$NON-NLS
+
+        return database;
+    }
+
     @Override
     public void attachInfo(@NonNull final Context context, final ProviderInfo info) {
         super.attachInfo(context, info);
@@ -210,6 +456,21 @@ public abstract class MementoContentProvider extends ContentProvider {
     @Override
     @TargetApi(Build.VERSION_CODES.HONEYCOMB)
     public void shutdown() {
+        @Nullable final SqliteMaintenanceScheduler maintenanceScheduler = mMaintenanceScheduler;
+        if (null != maintenanceScheduler) {
+            maintenanceScheduler.shutdown();
+        }
+
+        @Nullable final FutureTask<SupportSQLiteDatabase> warmOpenTask = mWarmOpenTask;
+        if (null != warmOpenTask) {
+            warmOpenTask.cancel(false);
+        }
+
+        @Nullable final SqliteMigrationRunner migrationRunner = mMigrationRunner;
+        if (null != migrationRunner) {
+            migrationRunner.shutdown();
+        }
+
         mSqliteOpenHelper.close();
 
         if (AndroidSdkVersion.isAtLeastSdk(Build.VERSION_CODES.HONEYCOMB)) {
@@ -221,11 +482,133 @@ public abstract class MementoContentProvider extends ContentProvider {
     public void onLowMemory() {
         super.onLowMemory();
 
-        // Releasing memory isn't supported by non-platform implementations.
-        final int bytesReleased = SQLiteDatabase.releaseMemory();
-        if (Constants.IS_LOGGING_ENABLED) {
-            Lumberjack.v("Released %d bytes of memory", bytesReleased); //$NON-NLS-1$
+        trimMemoryAsync(TrimMemoryTier.RELEASE);
+    }
+
+    /**
+     * Responds to memory pressure in tiers, without closing the database:
+     * <ul>
+     * <li>{@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_MODERATE} and
+     * {@link ComponentCallbacks2#TRIM_MEMORY_UI_HIDDEN}: Nothing, as the database caches are still
+     * likely to be reused soon.</li>
+     * <li>{@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_LOW} and
+     * {@link ComponentCallbacks2#TRIM_MEMORY_BACKGROUND}: {@link TrimMemoryTier#SHRINK}.</li>
+     * <li>{@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_CRITICAL},
+     * {@link ComponentCallbacks2#TRIM_MEMORY_MODERATE}, and
+     * {@link ComponentCallbacks2#TRIM_MEMORY_COMPLETE}: {@link TrimMemoryTier#RELEASE}.</li>
+     * </ul>
+     * Trimming runs on a background thread, because it needs the database connection which may be
+     * held by a long-running transaction.  If the database hasn't been opened, there is nothing to
+     * trim and the database is not opened.  The duration and memory released by each tier can be
+     * read via {@link TrimMemoryContract}.
+     */
+    @Override
+    public void onTrimMemory(final int level) {
+        super.onTrimMemory(level);
+
+        @NonNull final TrimMemoryTier tier = getTrimMemoryTier(level);
+        if (TrimMemoryTier.NONE != tier) {
+            trimMemoryAsync(tier);
+        }
+    }
+
+    /**
+     * @param level Level passed to {@link #onTrimMemory(int)}.
+     * @return The tier of response to {@code level}.
+     */
+    @NonNull
+    @VisibleForTesting
+    /*package*/ static TrimMemoryTier getTrimMemoryTier(final int level) {
+        if (ComponentCallbacks2.TRIM_MEMORY_MODERATE <= level) {
+            return TrimMemoryTier.RELEASE;
+        }
+
+        if (ComponentCallbacks2.TRIM_MEMORY_BACKGROUND <= level) {
+            return TrimMemoryTier.SHRINK;
+        }
+
+        if (ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN <= level) {
+            return TrimMemoryTier.NONE;
+        }
+
+        if (ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL <= level) {
+            return TrimMemoryTier.RELEASE;
+        }
+
+        if (ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW <= level) {
+            return TrimMemoryTier.SHRINK;
+        }
+
+        return TrimMemoryTier.NONE;
+    }
+
+    private void trimMemoryAsync(@NonNull final TrimMemoryTier tier) {
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(() -> trimMemory(tier));
+    }
+
+    /**
+     * Releases memory for {@code tier}, and records how long it took and how much memory was
+     * released as per {@link TrimMemoryContract}.
+     *
+     * @param tier Tier of response to memory pressure.
+     * @return Number of bytes released, as far as SQLite reports them.  {@code PRAGMA
+     * shrink_memory} and clearing statement caches don't report the memory they free, so this
+     * may underestimate.
+     */
+    @VisibleForTesting
+    @Slow(Speed.MILLISECONDS)
+    /*package*/ int trimMemory(@NonNull final TrimMemoryTier tier) {
+        final long startRealTimeMillis = Clock.getInstance().getRealTimeMillis();
+        final long startNativeHeapBytes = Debug.getNativeHeapAllocatedSize();
+
+        @Nullable final SupportSQLiteDatabase database = mOpenedDatabase;
+        if (null != database && database.isOpen()) {
+            try {
+                /*
+                 * Frees the unused page cache of the connection that runs it, which is the
+                 * primary connection unless write-ahead logging lets the pool hand out a reader.
+                 */
+                try (@NonNull final Cursor cursor = database.query("PRAGMA shrink_memory")) { //$NON-NLS
+                    cursor.moveToFirst();
+                }
+
+                if (TrimMemoryTier.RELEASE == tier) {
+                    /*
+                     * Shrinking the statement cache size reconfigures the pool, which finalizes
+                     * the cached statements of idle connections immediately and of busy
+                     * connections once they are released.  A size of 0 isn't allowed.
+                     */
+                    database.setMaxSqlCacheSize(1);
+                    database.setMaxSqlCacheSize(STATEMENT_CACHE_SIZE);
+                }
+            } catch (final SQLiteException | IllegalStateException e) {
+                // IllegalStateException if the database was closed concurrently
+                Lumberjack.w("Failed to trim memory %s", e); //$NON-NLS
+            }
+        }
+
+        int bytesReleased = 0;
+        if (TrimMemoryTier.RELEASE == tier) {
+            /*
+             * Frees unused page cache memory of every framework SQLite connection in the process,
+             * including idle reader connections in WAL mode.  This doesn't close connections.
+             */
+            bytesReleased = SQLiteDatabase.releaseMemory();
+        }
+
+        final long durationMillis = Clock.getInstance().getRealTimeMillis() - startRealTimeMillis;
+        final long nativeHeapBytesReleased = startNativeHeapBytes
+                - Debug.getNativeHeapAllocatedSize();
+        @Nullable final String tierName = tier.getName();
+        if (null != tierName) {
+            mTrimMemoryMetrics.onTrimmed(tierName, durationMillis, nativeHeapBytesReleased,
+                    bytesReleased);
         }
+
+        Lumberjack.v("Trimmed memory for tier %s, releasing %d bytes reported by SQLite and %d bytes of native heap in %d milliseconds", //$NON-NLS
+                tier, bytesReleased, nativeHeapBytesReleased, durationMillis);
+
+        return bytesReleased;
     }
 
     @Override
@@ -251,7 +634,7 @@ public abstract class MementoContentProvider extends ContentProvider {
                     selectionArgs);
         }
 
-        @NonNull final SupportSQLiteDatabase database = mSqliteOpenHelper.getWritableDatabase();
+        @NonNull final SupportSQLiteDatabase database = getDatabase();
 
         int count = 0;
 
@@ -263,6 +646,8 @@ public abstract class MementoContentProvider extends ContentProvider {
                             uri, Operation.DELETE));
         }
 
+        getContentChangeNotificationQueue().onWriteStarted();
+
         if (match.isIdUri()) {
             @NonNull final String tableName = match.getTableName();
             @NonNull final String segment = uri.getLastPathSegment();
@@ -270,6 +655,8 @@ public abstract class MementoContentProvider extends ContentProvider {
             @NonNull final String[] idSelectionArgs = newAndIdSelectionArgs(segment, selectionArgs);
 
             count = database.delete(tableName, idSelectionArg, idSelectionArgs);
+        } else if (match.isPartitionedUri()) {
+            count = writePartitions(database, match, uri, null, selection, selectionArgs);
         } else {
             if (null == selection) {
                 // Per the docs, pass "1" to get a count returned.  It looks weird but is correct.
@@ -285,7 +672,8 @@ public abstract class MementoContentProvider extends ContentProvider {
 
         if (0 < count) {
             if (!QueryStringUtil.isSuppressNotification(uri)) {
-                getContentChangeNotificationQueue().onContentChanged(match.getNotifyUris());
+                onContentChanged(match, ChangePayloadContract.OPERATION_DELETE, -count,
+                        getRowId(match, uri));
             }
         }
 
@@ -303,7 +691,7 @@ public abstract class MementoContentProvider extends ContentProvider {
             Lumberjack.v("uri: %s, values: %s", uri, values); //$NON-NLS-1$
         }
 
-        @NonNull final SupportSQLiteDatabase database = mSqliteOpenHelper.getWritableDatabase();
+        @NonNull final SupportSQLiteDatabase database = getDatabase();
 
         @NonNull final SqliteUriMatch match = mSqliteUriMatcher.match(uri);
 
@@ -313,6 +701,8 @@ public abstract class MementoContentProvider extends ContentProvider {
                             uri, Operation.INSERT));
         }
 
+        getContentChangeNotificationQueue().onWriteStarted();
+
         @NonNull final ContentValues valuesToInsert;
         if (match.isIdUri()) {
             // Make a copy to avoid mutating the input parameter
@@ -325,8 +715,34 @@ public abstract class MementoContentProvider extends ContentProvider {
 
         @Nullable Uri resultUri = null;
 
-        final long rowID = database
-                .insert(match.getTableName(), SQLiteDatabase.CONFLICT_ABORT, valuesToInsert);
+        @Nullable final Integer conflictAlgorithm = QueryStringUtil.getConflictAlgorithm(uri);
+
+        final long rowID;
+        boolean isUpdated = false;
+        if (match.isUpsertUri() && null == conflictAlgorithm) {
+            final int sqliteVersion = getSqliteVersion(database);
+
+            // The conflicting row can't change in between the statements of the upsert
+            @NonNull final UpsertResult result;
+            database.beginTransaction();
+            try {
+                result = upsert(database, match, valuesToInsert, sqliteVersion);
+
+                database.setTransactionSuccessful();
+            } finally {
+                database.endTransaction();
+            }
+
+            rowID = result.mRowId;
+            isUpdated = result.mIsUpdated;
+        } else if (match.isPartitionedUri()) {
+            rowID = insertPartition(database, match, valuesToInsert,
+                    null == conflictAlgorithm ? match.getConflictAlgorithm() : conflictAlgorithm);
+        } else {
+            rowID = database.insert(match.getTableName(),
+                    null == conflictAlgorithm ? match.getConflictAlgorithm() : conflictAlgorithm,
+                    valuesToInsert);
+        }
 
         if (-1 != rowID) {
             resultUri = ContentUris.withAppendedId(match.getBaseUri(), rowID);
@@ -336,13 +752,189 @@ public abstract class MementoContentProvider extends ContentProvider {
             final boolean isSuppressNotification = uri.getBooleanQueryParameter(
                     MementoContract.QUERY_STRING_IS_SUPPRESS_NOTIFICATION, false);
             if (!isSuppressNotification) {
-                getContentChangeNotificationQueue().onContentChanged(match.getNotifyUris());
+                if (isUpdated) {
+                    onContentChanged(match, ChangePayloadContract.OPERATION_UPDATE, 0, rowID);
+                } else {
+                    onContentChanged(match, ChangePayloadContract.OPERATION_INSERT, 1, rowID);
+                }
             }
         }
 
         return resultUri;
     }
 
+    /**
+     * @param database Database to query.
+     * @param match    Upsert match.
+     * @param values   Values to insert, which contain every upsert column.
+     * @return The _id of the row that conflicts with {@code values}, or null if there is none.
+     */
+    @Nullable
+    @Slow(Speed.MILLISECONDS)
+    private static Long queryUpsertRowId(@NonNull final SupportSQLiteDatabase database,
+                                         @NonNull final SqliteUriMatch match,
+                                         @NonNull final ContentValues values) {
+        @NonNull final List<String> upsertColumnNames = requireNonNull(
+                match.getUpsertColumnNames());
+
+        @NonNull final StringBuilder selection = new StringBuilder();
+        @NonNull final Object[] selectionArgs = new Object[upsertColumnNames.size()];
+        for (int x = 0; x < selectionArgs.length; x++) {
+            @NonNull final String columnName = upsertColumnNames.get(x);
+
+            if (0 < x) {
+                selection.append(" AND "); //$NON-NLS
+            }
+            // IS rather than =, so that a null key matches as it would for the conflict target
+            selection.append(columnName).append(" IS ?"); //$NON-NLS
+            selectionArgs[x] = values.get(columnName);
+        }
+
+        @NonNull final SupportSQLiteQuery query = SupportSQLiteQueryBuilder
+                .builder(match.getTableName())
+                .columns(new String[]{BaseColumns._ID})
+                .selection(selection.toString(), selectionArgs)
+                .create();
+
+        try (@NonNull final Cursor cursor = database.query(query)) {
+            if (cursor.moveToFirst()) {
+                return cursor.getLong(0);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Inserts {@code values}, or updates the row that conflicts with them on the upsert columns.
+     * <p>
+     * On SQLite 3.24.0 or later, the row is inserted with
+     * {@code INSERT ... ON CONFLICT DO NOTHING}, and whether it was inserted is known from whether
+     * the statement changed a row.  Before SQLite 3.24.0, the conflicting row is looked up first.
+     * Either way, a conflicting row is looked up once by the upsert columns and then updated by
+     * _id.  The conflict algorithm of {@code match} applies to every constraint other than the
+     * upsert columns.
+     *
+     * @param database      Database to write, within a transaction so that the conflicting row
+     *                      can't change in between the statements.
+     * @param match         Upsert match.
+     * @param values        Values to upsert.
+     * @param sqliteVersion Version of the SQLite library, as per {@link SqliteVersionUtil}.
+     * @return The _id of the inserted or updated row, or -1 if an insert failed, and whether the
+     * row was updated.
+     * @throws IllegalArgumentException If {@code values} is missing an upsert column.
+     */
+    @NonNull
+    @Slow(Speed.MILLISECONDS)
+    private static UpsertResult upsert(@NonNull final SupportSQLiteDatabase database,
+                                       @NonNull final SqliteUriMatch match,
+                                       @NonNull final ContentValues values,
+                                       final int sqliteVersion) {
+        @NonNull final List<String> upsertColumnNames = requireNonNull(
+                match.getUpsertColumnNames());
+        for (@NonNull final String columnName : upsertColumnNames) {
+            if (!values.containsKey(columnName)) {
+                throw new IllegalArgumentException(Lumberjack.formatMessage(
+                        "values must contain the upsert column %s", columnName)); //$NON-NLS
+            }
+        }
+
+        final int conflictAlgorithm = match.getConflictAlgorithm();
+        final boolean isUpsertSupported = SqliteVersionUtil.VERSION_UPSERT <= sqliteVersion;
+
+        if (isUpsertSupported) {
+            final long rowId = insertOrNothing(database, match, values, conflictAlgorithm);
+            if (-1 != rowId) {
+                return new UpsertResult(rowId, false);
+            }
+        }
+
+        @Nullable final Long existingRowId = queryUpsertRowId(database, match, values);
+        if (null == existingRowId) {
+            if (isUpsertSupported) {
+                // Ignored by the conflict algorithm, for a constraint other than the upsert columns
+                return new UpsertResult(-1, false);
+            }
+
+            return new UpsertResult(database.insert(match.getTableName(), conflictAlgorithm,
+                    values), false);
+        }
+
+        @NonNull final ContentValues updateValues = new ContentValues(values);
+        for (@NonNull final String columnName : upsertColumnNames) {
+            updateValues.remove(columnName);
+        }
+
+        if (0 < updateValues.size()) {
+            database.update(match.getTableName(), conflictAlgorithm, updateValues, WHERE_ID,
+                    new Object[]{existingRowId});
+        }
+
+        return new UpsertResult(existingRowId, true);
+    }
+
+    /**
+     * Inserts {@code values}, unless they conflict with an existing row on the upsert columns.
+     * Requires SQLite 3.24.0 or later.
+     *
+     * @param database          Database to write.
+     * @param match             Upsert match.
+     * @param values            Values to insert.
+     * @param conflictAlgorithm Conflict algorithm for constraints other than the upsert columns.
+     * @return The _id of the inserted row, or -1 if no row was inserted.
+     */
+    @Slow(Speed.MILLISECONDS)
+    private static long insertOrNothing(@NonNull final SupportSQLiteDatabase database,
+                                        @NonNull final SqliteUriMatch match,
+                                        @NonNull final ContentValues values,
+                                        final int conflictAlgorithm) {
+        @NonNull final StringBuilder columns = new StringBuilder();
+        @NonNull final StringBuilder placeholders = new StringBuilder();
+        @NonNull final Object[] bindArgs = new Object[values.size()];
+        int index = 0;
+        for (@NonNull final String columnName : values.keySet()) {
+            if (0 < index) {
+                columns.append(',');
+                placeholders.append(',');
+            }
+            columns.append(columnName);
+            placeholders.append('?');
+            bindArgs[index] = values.get(columnName);
+            index++;
+        }
+
+        @NonNull final String sql = String.format(Locale.US,
+                "INSERT%s INTO %s (%s) VALUES (%s) ON CONFLICT (%s) DO NOTHING", //$NON-NLS
+                CONFLICT_CLAUSES[conflictAlgorithm], match.getTableName(), columns, placeholders,
+                TextUtils.join(",", requireNonNull(match.getUpsertColumnNames()))); //$NON-NLS
+
+        try (@NonNull final SupportSQLiteStatement statement = database.compileStatement(sql)) {
+            SimpleSQLiteQuery.bind(statement, bindArgs);
+
+            // -1 if the statement didn't change a row, rather than a stale last_insert_rowid()
+            return statement.executeInsert();
+        } catch (final IOException e) {
+            // Closing a statement doesn't actually throw
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param database Database to query.
+     * @return Version of the SQLite library, which is queried once and then cached.
+     */
+    @Slow(Speed.MILLISECONDS)
+    private int getSqliteVersion(@NonNull final SupportSQLiteDatabase database) {
+        int sqliteVersion = mSqliteVersion;
+        if (0 == sqliteVersion) {
+            // Benign race; every thread computes the same value
+            sqliteVersion = SqliteVersionUtil.queryVersion(database);
+            mSqliteVersion = sqliteVersion;
+        }
+
+        return sqliteVersion;
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -358,7 +950,7 @@ public abstract class MementoContentProvider extends ContentProvider {
             Lumberjack.v("uri: %s, values: %s", uri, values); //$NON-NLS-1$
         }
 
-        @NonNull final SupportSQLiteDatabase database = mSqliteOpenHelper.getWritableDatabase();
+        @NonNull final SupportSQLiteDatabase database = getDatabase();
         @NonNull final ContentChangeNotificationQueue contentChangeNotificationQueue
                 = getContentChangeNotificationQueue();
 
@@ -392,6 +984,9 @@ public abstract class MementoContentProvider extends ContentProvider {
      * This method supports {@link SearchManager#SUGGEST_PARAMETER_LIMIT} and queries with a
      * projection consisting only of {@link android.provider.BaseColumns#_COUNT}.</p>
      * <p>
+     * This method also supports {@link MementoContract#QUERY_STRING_IDS}, which queries many rows
+     * by id in a single call.</p>
+     * <p>
      * Note: The order of columns in the returned cursor are not guaranteed to be consistent from
      * call to call or guaranteed to match the order of the columns in {@code projection}.
      * </p>
@@ -413,7 +1008,8 @@ public abstract class MementoContentProvider extends ContentProvider {
 
         @Nullable final String limit = uri.getQueryParameter(SearchManager.SUGGEST_PARAMETER_LIMIT);
 
-        return queryHelper(uri, projection, selection, selectionArgs, sortOrder, limit, null);
+        return queryHelper(uri, projection, selection, selectionArgs, sortOrder, limit, null,
+                null);
     }
 
     @NonNull
@@ -421,12 +1017,18 @@ public abstract class MementoContentProvider extends ContentProvider {
     private Cursor queryHelper(@NonNull final Uri uri, @Nullable final String[] projection,
                                @Nullable final String selection,
                                @Nullable final String[] selectionArgs, @Nullable final String sortOrder,
-                               @Nullable final String limit, @Nullable final String offset) {
+                               @Nullable final String limit, @Nullable final String offset,
+                               @Nullable final CancellationSignal cancellationSignal) {
         if (null != offset && null == limit) {
             throw new AssertionError("Limit must be set when using offset parameter."); //$NON-NLS
         }
 
-        @NonNull final SupportSQLiteDatabase database = mSqliteOpenHelper.getWritableDatabase();
+        if (isChangeLogUri(uri)) {
+            return queryChangeLog(uri, projection, selection, selectionArgs, limit, offset,
+                    cancellationSignal);
+        }
+
+        @NonNull final SupportSQLiteDatabase database = getDatabase();
 
         @Nullable Cursor result = null;
 
@@ -438,12 +1040,38 @@ public abstract class MementoContentProvider extends ContentProvider {
                             uri, Operation.QUERY));
         }
 
-        @NonNull final SupportSQLiteQueryBuilder qb = SupportSQLiteQueryBuilder
-                .builder(match.getTableName());
+        @Nullable final long[] ids = QueryStringUtil.getIds(uri);
+        if (null != ids) {
+            return queryByIds(database, match, uri, ids, projection, selection, selectionArgs,
+                    sortOrder, limit, cancellationSignal);
+        }
+
+        @Nullable final String searchQuery;
+        @NonNull final SupportSQLiteQueryBuilder qb;
+        if (match.isSearchUri()) {
+            searchQuery = QueryStringUtil.getSearchQuery(uri);
+
+            if (null == searchQuery) {
+                throw new IllegalArgumentException(
+                        Lumberjack.formatMessage("Uri %s is missing query parameter %s", //$NON-NLS
+                                uri, MementoContract.QUERY_STRING_SEARCH_QUERY));
+            }
+
+            qb = SupportSQLiteQueryBuilder.builder(newSearchTables(match));
+        } else if (match.isBoundingBoxUri()) {
+            searchQuery = null;
+            qb = SupportSQLiteQueryBuilder.builder(newBoundingBoxTables(match));
+        } else {
+            searchQuery = null;
+            qb = SupportSQLiteQueryBuilder.builder(getQueryTables(database, match, uri));
+        }
 
         if (null != projection && 1 == projection.length
                 && BaseColumns._COUNT.equals(projection[0])) {
             qb.columns(COUNT_COLUMNS);
+        } else if (null == projection && (null != searchQuery || match.isBoundingBoxUri())) {
+            // Avoid returning the columns of the full-text search subquery or the spatial index
+            qb.columns(new String[]{match.getTableName() + ".*"}); //$NON-NLS
         } else {
             qb.columns(projection);
         }
@@ -459,8 +1087,23 @@ public abstract class MementoContentProvider extends ContentProvider {
             idSelectionArgs = selectionArgs;
         }
 
-        qb.selection(idSelectionArg, idSelectionArgs);
-        qb.orderBy(sortOrder);
+        if (match.isBoundingBoxUri()) {
+            qb.selection(DatabaseUtils.concatenateWhere(newBoundingBoxSelection(match, uri),
+                    idSelectionArg), idSelectionArgs);
+            qb.orderBy(sortOrder);
+        } else if (null == searchQuery) {
+            qb.selection(idSelectionArg, idSelectionArgs);
+            qb.orderBy(sortOrder);
+        } else {
+            // The MATCH argument in the FROM clause is bound before the WHERE clause arguments
+            qb.selection(idSelectionArg, newPrependedSelectionArgs(searchQuery, idSelectionArgs));
+
+            if (null == sortOrder && SqliteFtsVersion.FTS5 == match.getFtsVersion()) {
+                qb.orderBy(SEARCH_RANK);
+            } else {
+                qb.orderBy(sortOrder);
+            }
+        }
 
         //Counterintuitive but correct. When using the comma syntax, offset comes first.
         //When using the keyword syntax, "LIMIT 1 OFFSET 2" then the offset comes second.
@@ -473,7 +1116,7 @@ public abstract class MementoContentProvider extends ContentProvider {
 
         @NonNull final SupportSQLiteQuery query = qb.create();
 
-        result = database.query(query);
+        result = database.query(query, cancellationSignal);
 
         result.setNotificationUri(getContext().getContentResolver(), match.getBaseUri());
         // If implemented properly (which it is by memento) where the inserts, deletes, and updates
@@ -485,19 +1128,132 @@ public abstract class MementoContentProvider extends ContentProvider {
         return result;
     }
 
-    @Nullable
-    @Override
-    public Cursor query(@NonNull final Uri uri, @Nullable final String[] projection,
-                        @Nullable final String selection,
-                        @Nullable final String[] selectionArgs, @Nullable final String sortOrder,
-                        @Nullable final CancellationSignal cancellationSignal) {
+    /**
+     * Queries the rows for {@link MementoContract#QUERY_STRING_IDS}.  The ids are bound to
+     * {@code IN} clauses in chunks, and each chunk is ordered by the position of its ids, so that
+     * merging the chunks returns the rows in the order of {@code ids}.  The chunks are read within
+     * a single transaction begun by {@link #beginReadTransaction(SupportSQLiteDatabase)}, so that
+     * they are consistent with each other as long as each chunk fits in its first
+     * {@link CursorWindow}.
+     *
+     * @param database           Database to query.
+     * @param match              Match for {@code uri}.
+     * @param uri                Uri to query.
+     * @param ids                Ids to query.
+     * @param projection         Columns to return, which must not be {@link BaseColumns#_COUNT}.
+     * @param selection          Optional selection, which is combined with the ids.
+     * @param selectionArgs      Optional arguments for {@code selection}.
+     * @param sortOrder          Must be null.
+     * @param limit              Must be null, which also rules out an offset.
+     * @param cancellationSignal Optional signal to cancel the query.
+     * @return Cursor of the rows for {@code ids}.
+     * @throws IllegalArgumentException If the query has a sort order, limit, or count projection,
+     *                                  which can't be applied across the chunks.
+     */
+    @NonNull
+    @Slow(Speed.MILLISECONDS)
+    private Cursor queryByIds(@NonNull final SupportSQLiteDatabase database,
+                              @NonNull final SqliteUriMatch match, @NonNull final Uri uri,
+                              @NonNull final long[] ids, @Nullable final String[] projection,
+                              @Nullable final String selection,
+                              @Nullable final String[] selectionArgs,
+                              @Nullable final String sortOrder,
+                              @Nullable final String limit,
+                              @Nullable final CancellationSignal cancellationSignal) {
+        if (match.isIdUri() || match.isSearchUri()) {
+            throw new IllegalArgumentException(Lumberjack.formatMessage(
+                    "Uri %s does not support the query parameter %s", //$NON-NLS
+                    uri, MementoContract.QUERY_STRING_IDS));
+        }
 
-        @Nullable final String limit = uri.getQueryParameter(SearchManager.SUGGEST_PARAMETER_LIMIT);
+        if (null != sortOrder) {
+            throw new IllegalArgumentException(
+                    "Rows queried by id are returned in the order of the ids, so sortOrder must be null"); //$NON-NLS
+        }
 
-        return queryHelper(uri, projection, selection, selectionArgs, sortOrder, limit, null);
-    }
+        // Each chunk is a separate statement, so a limit, offset, or count would apply per chunk
+        if (null != limit) {
+            throw new IllegalArgumentException(
+                    "Rows queried by id can't be limited, so limit and offset must be null"); //$NON-NLS
+        }
 
-    /**
+        if (null != projection && 1 == projection.length
+                && BaseColumns._COUNT.equals(projection[0])) {
+            throw new IllegalArgumentException(Lumberjack.formatMessage(
+                    "Rows queried by id can't be counted with the projection %s", //$NON-NLS
+                    BaseColumns._COUNT));
+        }
+
+        final int selectionArgCount = null == selectionArgs ? 0 : selectionArgs.length;
+        @NonNull final String tables = getQueryTables(database, match, uri);
+
+        @NonNull final Cursor[] cursors = new Cursor[
+                (ids.length + SqliteInUtil.MAX_CHUNK_SIZE - 1) / SqliteInUtil.MAX_CHUNK_SIZE];
+        beginReadTransaction(database);
+        try {
+            for (int x = 0; x < cursors.length; x++) {
+                final int start = x * SqliteInUtil.MAX_CHUNK_SIZE;
+                final int chunkSize = SqliteInUtil.getChunkSize(ids.length, start);
+
+                @NonNull final Object[] chunkSelectionArgs = new Object[chunkSize
+                        + selectionArgCount];
+                System.arraycopy(SqliteInUtil.newInSelectionArgs(ids, start, chunkSize), 0,
+                        chunkSelectionArgs, 0, chunkSize);
+                if (0 < selectionArgCount) {
+                    System.arraycopy(selectionArgs, 0, chunkSelectionArgs, chunkSize,
+                            selectionArgCount);
+                }
+
+                @NonNull final SupportSQLiteQuery query = SupportSQLiteQueryBuilder
+                        .builder(tables)
+                        .columns(projection)
+                        .selection(DatabaseUtils.concatenateWhere(
+                                SqliteInUtil.newInSelection(BaseColumns._ID, chunkSize),
+                                selection), chunkSelectionArgs)
+                        .orderBy(SqliteInUtil.newCaseOrderBy(BaseColumns._ID, ids, start,
+                                chunkSize))
+                        .create();
+
+                cursors[x] = database.query(query, cancellationSignal);
+
+                // Cursors are filled lazily, so fill the window before the transaction ends
+                cursors[x].getCount();
+            }
+
+            // Nothing was written, but a failed nested transaction would roll back its parent
+            database.setTransactionSuccessful();
+        } catch (final RuntimeException e) {
+            for (@Nullable final Cursor cursor : cursors) {
+                if (null != cursor) {
+                    cursor.close();
+                }
+            }
+
+            throw e;
+        } finally {
+            database.endTransaction();
+        }
+
+        @NonNull final Cursor result = 1 == cursors.length ? cursors[0] : new MergeCursor(cursors);
+        result.setNotificationUri(getContext().getContentResolver(), match.getBaseUri());
+
+        return result;
+    }
+
+    @Nullable
+    @Override
+    public Cursor query(@NonNull final Uri uri, @Nullable final String[] projection,
+                        @Nullable final String selection,
+                        @Nullable final String[] selectionArgs, @Nullable final String sortOrder,
+                        @Nullable final CancellationSignal cancellationSignal) {
+
+        @Nullable final String limit = uri.getQueryParameter(SearchManager.SUGGEST_PARAMETER_LIMIT);
+
+        return queryHelper(uri, projection, selection, selectionArgs, sortOrder, limit, null,
+                cancellationSignal);
+    }
+
+    /**
      * {@inheritDoc}
      * <p>
      * This method supports {@link SearchManager#SUGGEST_PARAMETER_LIMIT} and queries with a
@@ -653,7 +1409,7 @@ public abstract class MementoContentProvider extends ContentProvider {
         }
 
         final Cursor resultCursor = queryHelper(uriToPass, projection, selection, selectionArgs,
-                sortOrder, limit, offset);
+                sortOrder, limit, offset, cancellationSignal);
 
         final Bundle honoredBundle;
         if (!honoredBundleArgs.isEmpty()) {
@@ -687,7 +1443,7 @@ public abstract class MementoContentProvider extends ContentProvider {
                             uri, values, selection, selectionArgs);
         }
 
-        @NonNull final SupportSQLiteDatabase database = mSqliteOpenHelper.getWritableDatabase();
+        @NonNull final SupportSQLiteDatabase database = getDatabase();
 
         @NonNull final SqliteUriMatch match = mSqliteUriMatcher.match(uri);
 
@@ -697,6 +1453,8 @@ public abstract class MementoContentProvider extends ContentProvider {
                             uri, Operation.UPDATE));
         }
 
+        getContentChangeNotificationQueue().onWriteStarted();
+
         int count = 0;
         final String idSelectionArg;
         final String[] idSelectionArgs;
@@ -709,9 +1467,17 @@ public abstract class MementoContentProvider extends ContentProvider {
             idSelectionArgs = selectionArgs;
         }
 
-        count = database
-                .update(match.getTableName(), SQLiteDatabase.CONFLICT_ABORT, values, idSelectionArg,
-                        idSelectionArgs);
+        @Nullable final Integer conflictAlgorithm = QueryStringUtil.getConflictAlgorithm(uri);
+
+        if (match.isPartitionedUri()) {
+            count = writePartitions(database, match, uri, values, idSelectionArg,
+                    idSelectionArgs);
+        } else {
+            count = database
+                    .update(match.getTableName(),
+                            null == conflictAlgorithm ? match.getConflictAlgorithm() : conflictAlgorithm,
+                            values, idSelectionArg, idSelectionArgs);
+        }
 
         if (Constants.IS_LOGGING_ENABLED) {
             Lumberjack.v("%s rows updated", count); //$NON-NLS-1$
@@ -719,7 +1485,8 @@ public abstract class MementoContentProvider extends ContentProvider {
 
         if (0 < count) {
             if (!QueryStringUtil.isSuppressNotification(uri)) {
-                getContentChangeNotificationQueue().onContentChanged(match.getNotifyUris());
+                onContentChanged(match, ChangePayloadContract.OPERATION_UPDATE, 0,
+                        getRowId(match, uri));
             }
         }
 
@@ -737,7 +1504,7 @@ public abstract class MementoContentProvider extends ContentProvider {
     public ContentProviderResult[] applyBatch(
             @NonNull final ArrayList<ContentProviderOperation> operations)
             throws OperationApplicationException {
-        @NonNull final SupportSQLiteDatabase database = mSqliteOpenHelper.getWritableDatabase();
+        @NonNull final SupportSQLiteDatabase database = getDatabase();
 
         @NonNull final ContentChangeNotificationQueue contentChangeNotificationQueue
                 = getContentChangeNotificationQueue();
@@ -766,6 +1533,345 @@ public abstract class MementoContentProvider extends ContentProvider {
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * For Uris matched by {@link SqliteUriMatch#withBlobColumn(String)}, this streams the BLOB
+     * value of the row through a pipe, so that large values never need to fit in a CursorWindow
+     * or a {@link ContentValues}.  The value is stored as rows of fixed-size chunks in a table
+     * managed by the provider, so each chunk is read or written once and streaming is linear in
+     * the size of the value.  The supported modes are:
+     * <ul>
+     * <li>{@code "r"} reads the value.  A value that was never written reads as empty.  Each
+     * chunk is read separately, so a concurrent write to the value may be observed part way
+     * through, in which case the read fails.</li>
+     * <li>{@code "w"} and {@code "wt"} replace the value.</li>
+     * <li>{@code "wa"} appends to the value.</li>
+     * </ul>
+     * A write is spooled to a temporary file in the cache directory until the writer closes the
+     * pipe, and is then applied in a single transaction.  Nothing is written if the writer closes
+     * the pipe with an error or dies, or if the row was deleted in the meantime.  A content change
+     * notification is sent after the write succeeds.  The chunks of a row are deleted with the
+     * row.
+     * <p>
+     * Other Uris are handled by the superclass.
+     *
+     * @throws FileNotFoundException If the row does not exist or the mode is not supported.
+     */
+    @Nullable
+    @Override
+    @Slow(Speed.MILLISECONDS)
+    public ParcelFileDescriptor openFile(@NonNull final Uri uri, @NonNull final String mode)
+            throws FileNotFoundException {
+        assertNotNull(uri, "uri"); //$NON-NLS-1$
+        assertNotNull(mode, "mode"); //$NON-NLS-1$
+
+        if (Constants.IS_LOGGING_ENABLED) {
+            Lumberjack.v("uri: %s, mode: %s", uri, mode); //$NON-NLS-1$
+        }
+
+        @NonNull final SqliteUriMatch match = mSqliteUriMatcher.match(uri);
+        if (!match.isBlobUri()) {
+            return super.openFile(uri, mode);
+        }
+
+        final boolean isRead = "r".equals(mode); //$NON-NLS-1$
+        final boolean isAppend = "wa".equals(mode); //$NON-NLS-1$
+        if (!isRead && !isAppend && !"w".equals(mode) && !"wt".equals(mode)) { //$NON-NLS-1$ //$NON-NLS-2$
+            throw new FileNotFoundException(Lumberjack.formatMessage(
+                    "Uri %s does not support the mode %s", uri, mode)); //$NON-NLS-1$
+        }
+
+        @NonNull final Operation operation = isRead ? Operation.QUERY : Operation.UPDATE;
+        if (!match.isOperationAllowed(operation)) {
+            throw new IllegalArgumentException(
+                    Lumberjack.formatMessage("Uri %s does not support the operation %s", //$NON-NLS
+                            uri, operation));
+        }
+
+        @NonNull final SupportSQLiteDatabase database = getDatabase();
+        @Nullable final Long id = getRowId(match, uri);
+        if (null == id) {
+            throw new FileNotFoundException(Lumberjack.formatMessage(
+                    "Uri %s does not identify a row", uri)); //$NON-NLS-1$
+        }
+
+        createBlobChunks(database, match);
+
+        // Check synchronously, so that a missing row fails fast rather than as a broken pipe
+        final long chunkCount = queryBlobChunkCount(database, match, id);
+
+        @NonNull final ParcelFileDescriptor[] pipe;
+        try {
+            pipe = ParcelFileDescriptor.createReliablePipe();
+        } catch (final IOException e) {
+            throw new FileNotFoundException(e.getMessage());
+        }
+
+        if (isRead) {
+            AsyncTask.THREAD_POOL_EXECUTOR.execute(
+                    () -> writeBlobToPipe(database, match, id, chunkCount, pipe[1]));
+
+            return pipe[0];
+        }
+
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(
+                () -> readBlobFromPipe(database, match, uri, id, isAppend, pipe[0]));
+
+        return pipe[1];
+    }
+
+    /**
+     * Creates the table of BLOB chunks, and the trigger deleting the chunks of a row of the table
+     * of {@code match} with the row, if they do not exist.
+     *
+     * @param database Database to write.
+     * @param match    Blob match.
+     */
+    @Slow(Speed.MILLISECONDS)
+    private static void createBlobChunks(@NonNull final SupportSQLiteDatabase database,
+                                         @NonNull final SqliteUriMatch match) {
+        database.beginTransaction();
+        try {
+            database.execSQL(SqliteBlobChunkUtil.CREATE_TABLE);
+            database.execSQL(SqliteBlobChunkUtil.newCreateDeleteTrigger(match.getTableName()));
+
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    /**
+     * @param database Database to query.
+     * @param match    Blob match.
+     * @param id       Id of the row.
+     * @return The number of chunks of the BLOB value, which is 0 if it was never written.
+     * @throws FileNotFoundException If the row does not exist.
+     */
+    @Slow(Speed.MILLISECONDS)
+    private static long queryBlobChunkCount(@NonNull final SupportSQLiteDatabase database,
+                                            @NonNull final SqliteUriMatch match, final long id)
+            throws FileNotFoundException {
+        assertRowExists(database, match, id);
+
+        try (@NonNull final Cursor cursor = database.query(String.format(Locale.US,
+                "SELECT count(*) FROM %s WHERE %s", //$NON-NLS-1$
+                SqliteBlobChunkUtil.TABLE_NAME, SqliteBlobChunkUtil.WHERE_VALUE),
+                SqliteBlobChunkUtil.newValueArgs(match.getTableName(),
+                        requireNonNull(match.getBlobColumnName()), id))) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+
+    /**
+     * @param database Database to query.
+     * @param match    Blob match.
+     * @param id       Id of the row.
+     * @throws FileNotFoundException If the row does not exist.
+     */
+    @Slow(Speed.MILLISECONDS)
+    private static void assertRowExists(@NonNull final SupportSQLiteDatabase database,
+                                        @NonNull final SqliteUriMatch match, final long id)
+            throws FileNotFoundException {
+        try (@NonNull final Cursor cursor = database.query(String.format(Locale.US,
+                "SELECT 1 FROM %s WHERE %s", match.getTableName(), WHERE_ID), //$NON-NLS-1$
+                new Object[]{id})) {
+            if (!cursor.moveToFirst()) {
+                throw new FileNotFoundException(Lumberjack.formatMessage(
+                        "Row %s of %s does not exist", id, match.getTableName())); //$NON-NLS-1$
+            }
+        }
+    }
+
+    /**
+     * Streams the chunks of a BLOB value to {@code pipe}, then closes {@code pipe}.  Each chunk is
+     * looked up by its index, so only that chunk is loaded.
+     */
+    @Slow(Speed.SECONDS)
+    private static void writeBlobToPipe(@NonNull final SupportSQLiteDatabase database,
+                                        @NonNull final SqliteUriMatch match, final long id,
+                                        final long chunkCount,
+                                        @NonNull final ParcelFileDescriptor pipe) {
+        @NonNull final String sql = String.format(Locale.US,
+                "SELECT %s FROM %s WHERE %s AND %s = ?", //$NON-NLS-1$
+                SqliteBlobChunkUtil.COLUMN_BLOB_BYTES, SqliteBlobChunkUtil.TABLE_NAME,
+                SqliteBlobChunkUtil.WHERE_VALUE, SqliteBlobChunkUtil.COLUMN_LONG_CHUNK_INDEX);
+        @NonNull final String columnName = requireNonNull(match.getBlobColumnName());
+
+        // The stream does not own the file descriptor, so that the pipe can be closed with status
+        @NonNull final OutputStream outputStream = new FileOutputStream(pipe.getFileDescriptor());
+        try {
+            for (long chunkIndex = 0; chunkIndex < chunkCount; chunkIndex++) {
+                try (@NonNull final Cursor cursor = database.query(sql,
+                        new Object[]{match.getTableName(), columnName, id, chunkIndex})) {
+                    if (!cursor.moveToFirst()) {
+                        throw new IOException(Lumberjack.formatMessage(
+                                "Row %s of %s changed while reading", //$NON-NLS-1$
+                                id, match.getTableName()));
+                    }
+
+                    outputStream.write(cursor.getBlob(0));
+                }
+            }
+
+            outputStream.flush();
+            pipe.close();
+        } catch (final IOException | RuntimeException e) {
+            Lumberjack.w("Failed to stream blob %s", e); //$NON-NLS-1$
+            closeWithError(pipe, e);
+        }
+    }
+
+    /**
+     * Spools {@code pipe} to a temporary file, then writes it to the BLOB value of the row in a
+     * single transaction, in chunks of {@link #BLOB_CHUNK_SIZE_BYTES}.  Spooling first means that
+     * the transaction is never held open while waiting on the writer.
+     */
+    @Slow(Speed.SECONDS)
+    private void readBlobFromPipe(@NonNull final SupportSQLiteDatabase database,
+                                  @NonNull final SqliteUriMatch match, @NonNull final Uri uri,
+                                  final long id, final boolean isAppend,
+                                  @NonNull final ParcelFileDescriptor pipe) {
+        boolean isSuccessful = false;
+        @Nullable File spoolFile = null;
+        try {
+            spoolFile = File.createTempFile("blob", null, getContext().getCacheDir()); //$NON-NLS-1$
+
+            // The stream does not own the file descriptor, so that the pipe can be closed with status
+            @NonNull final InputStream pipeInputStream = new FileInputStream(
+                    pipe.getFileDescriptor());
+            @NonNull final byte[] buffer = new byte[BLOB_CHUNK_SIZE_BYTES];
+            try (@NonNull final OutputStream spoolOutputStream = new FileOutputStream(spoolFile)) {
+                int count;
+                while (0 < (count = readFully(pipeInputStream, buffer))) {
+                    spoolOutputStream.write(buffer, 0, count);
+                }
+            }
+
+            // Throws if the writer closed with an error or died, before anything is written
+            pipe.checkError();
+
+            getContentChangeNotificationQueue().onWriteStarted();
+            try (@NonNull final InputStream spoolInputStream = new FileInputStream(spoolFile)) {
+                writeBlob(database, match, id, isAppend, spoolInputStream, buffer);
+            }
+            isSuccessful = true;
+
+            pipe.close();
+        } catch (final IOException | RuntimeException e) {
+            Lumberjack.w("Failed to write blob %s", e); //$NON-NLS-1$
+            closeWithError(pipe, e);
+        } finally {
+            if (null != spoolFile && !spoolFile.delete()) {
+                Lumberjack.w("Failed to delete %s", spoolFile); //$NON-NLS-1$
+            }
+        }
+
+        if (isSuccessful && !QueryStringUtil.isSuppressNotification(uri)) {
+            onContentChanged(match, ChangePayloadContract.OPERATION_UPDATE, 0,
+                    getRowId(match, uri));
+        }
+    }
+
+    /**
+     * Writes {@code inputStream} to the BLOB value of the row in a single transaction.  Each
+     * chunk is inserted as its own row, so existing chunks are never copied.
+     *
+     * @param database    Database to write to.
+     * @param match       Blob match.
+     * @param id          Id of the row.
+     * @param isAppend    True to append to the value, false to replace it.
+     * @param inputStream Stream of a local file to write.
+     * @param buffer      Buffer of {@link #BLOB_CHUNK_SIZE_BYTES}.
+     * @throws FileNotFoundException If the row no longer exists.
+     */
+    @Slow(Speed.SECONDS)
+    private static void writeBlob(@NonNull final SupportSQLiteDatabase database,
+                                  @NonNull final SqliteUriMatch match, final long id,
+                                  final boolean isAppend, @NonNull final InputStream inputStream,
+                                  @NonNull final byte[] buffer) throws IOException {
+        @NonNull final Object[] valueArgs = SqliteBlobChunkUtil.newValueArgs(
+                match.getTableName(), requireNonNull(match.getBlobColumnName()), id);
+
+        database.beginTransaction();
+        try {
+            // Chunks of a deleted row would never be deleted
+            assertRowExists(database, match, id);
+
+            long chunkIndex = 0;
+            if (isAppend) {
+                try (@NonNull final Cursor cursor = database.query(String.format(Locale.US,
+                        "SELECT ifnull(max(%s) + 1, 0) FROM %s WHERE %s", //$NON-NLS-1$
+                        SqliteBlobChunkUtil.COLUMN_LONG_CHUNK_INDEX,
+                        SqliteBlobChunkUtil.TABLE_NAME, SqliteBlobChunkUtil.WHERE_VALUE),
+                        valueArgs)) {
+                    cursor.moveToFirst();
+                    chunkIndex = cursor.getLong(0);
+                }
+            } else {
+                database.delete(SqliteBlobChunkUtil.TABLE_NAME, SqliteBlobChunkUtil.WHERE_VALUE,
+                        valueArgs);
+            }
+
+            try (@NonNull final SupportSQLiteStatement statement = database.compileStatement(
+                    String.format(Locale.US,
+                            "INSERT INTO %s (%s, %s, %s, %s, %s) VALUES (?, ?, ?, ?, ?)", //$NON-NLS-1$
+                            SqliteBlobChunkUtil.TABLE_NAME,
+                            SqliteBlobChunkUtil.COLUMN_STRING_TABLE_NAME,
+                            SqliteBlobChunkUtil.COLUMN_STRING_COLUMN_NAME,
+                            SqliteBlobChunkUtil.COLUMN_LONG_ROW_ID,
+                            SqliteBlobChunkUtil.COLUMN_LONG_CHUNK_INDEX,
+                            SqliteBlobChunkUtil.COLUMN_BLOB_BYTES))) {
+                int count;
+                while (0 < (count = readFully(inputStream, buffer))) {
+                    @NonNull final byte[] chunk = count == buffer.length ? buffer
+                            : Arrays.copyOf(buffer, count);
+
+                    SimpleSQLiteQuery.bind(statement, valueArgs);
+                    statement.bindLong(4, chunkIndex++);
+                    statement.bindBlob(5, chunk);
+                    statement.executeInsert();
+                }
+            }
+
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    /**
+     * @param inputStream Stream to read.
+     * @param buffer      Buffer to fill.
+     * @return Number of bytes read, which is less than the length of {@code buffer} only at the
+     * end of the stream.
+     */
+    private static int readFully(@NonNull final InputStream inputStream,
+                                 @NonNull final byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            final int count = inputStream.read(buffer, total, buffer.length - total);
+            if (-1 == count) {
+                break;
+            }
+            total += count;
+        }
+
+        return total;
+    }
+
+    private static void closeWithError(@NonNull final ParcelFileDescriptor pipe,
+                                       @NonNull final Exception e) {
+        try {
+            // The message must not be null
+            pipe.closeWithError(String.valueOf(e));
+        } catch (final IOException closeException) {
+            Lumberjack.w("Failed to close pipe %s", closeException); //$NON-NLS-1$
+        }
+    }
+
     @Nullable
     @Override
     @SuppressWarnings("unchecked")
@@ -836,7 +1942,7 @@ public abstract class MementoContentProvider extends ContentProvider {
                     return result;
                 }
 
-                @Nullable final String databasePath = mSqliteOpenHelper.getWritableDatabase().getPath();
+                @Nullable final String databasePath = getDatabase().getPath();
 
                 if (null == databasePath) {
                     Lumberjack.e("Database filename is null, indicating an in-memory database"); //NON-NLS
@@ -862,6 +1968,112 @@ public abstract class MementoContentProvider extends ContentProvider {
                 result.putBoolean(ExportContract.RESULT_EXTRA_BOOLEAN_IS_SUCCESS, operationValid);
 
                 return result;
+            case PragmaContract.METHOD_GET_PRAGMAS:
+                if (!isSelfPackage) {
+                    throw new SecurityException("This method must be performed within the same package as the content provider."); //$NON-NLS
+                }
+
+                return newPragmaBundle(getDatabase());
+            case MaintenanceContract.METHOD_GET_MAINTENANCE_METRICS:
+                if (!isSelfPackage) {
+                    throw new SecurityException("This method must be performed within the same package as the content provider."); //$NON-NLS
+                }
+
+                @Nullable final SqliteMaintenanceScheduler maintenanceScheduler = mMaintenanceScheduler;
+
+                return null == maintenanceScheduler ? new Bundle() : maintenanceScheduler.getMetrics();
+            case OpenContract.METHOD_GET_OPEN_METRICS:
+                if (!isSelfPackage) {
+                    throw new SecurityException("This method must be performed within the same package as the content provider."); //$NON-NLS
+                }
+
+                return mOpenMetrics.toBundle();
+            case TrimMemoryContract.METHOD_GET_TRIM_MEMORY_METRICS:
+                if (!isSelfPackage) {
+                    throw new SecurityException("This method must be performed within the same package as the content provider."); //$NON-NLS
+                }
+
+                return mTrimMemoryMetrics.toBundle();
+            case BulkContract.METHOD_DELETE_BY_IDS:
+            case BulkContract.METHOD_UPDATE_BY_IDS:
+                // As with batches, delete and update permissions are bypassed from within call().
+                if (!isSelfPackage) {
+                    throw new SecurityException("This method must be performed within the same package as the content provider."); //$NON-NLS
+                }
+
+                if (null == extras || null == arg) {
+                    return super.call(method, arg, extras);
+                }
+
+                @NonNull final long[] ids = requireNonNull(
+                        extras.getLongArray(BulkContract.EXTRA_LONG_ARRAY_IDS));
+                @Nullable final ContentValues bulkValues
+                        = BulkContract.METHOD_UPDATE_BY_IDS.equals(method)
+                        ? requireNonNull(extras.<ContentValues>getParcelable(
+                        BulkContract.EXTRA_PARCELABLE_CONTENT_VALUES))
+                        : null;
+
+                @NonNull final Bundle bulkResult = new Bundle();
+                bulkResult.putInt(BulkContract.RESULT_EXTRA_INT_COUNT,
+                        writeByIds(Uri.parse(arg), ids, bulkValues));
+
+                return bulkResult;
+            case PartitionContract.METHOD_DROP_PARTITIONS:
+                // As with batches, delete permissions are bypassed from within call().
+                if (!isSelfPackage) {
+                    throw new SecurityException("This method must be performed within the same package as the content provider."); //$NON-NLS
+                }
+
+                if (null == extras || null == arg) {
+                    return super.call(method, arg, extras);
+                }
+
+                @NonNull final Bundle dropResult = new Bundle();
+                dropResult.putInt(PartitionContract.RESULT_EXTRA_INT_COUNT,
+                        dropPartitions(Uri.parse(arg),
+                                extras.getLong(PartitionContract.EXTRA_LONG_CUTOFF_MILLIS)));
+
+                return dropResult;
+            case ChangeLogContract.METHOD_COMPACT:
+                // As with batches, delete permissions are bypassed from within call().
+                if (!isSelfPackage) {
+                    throw new SecurityException("This method must be performed within the same package as the content provider."); //$NON-NLS
+                }
+
+                if (null == extras || null == arg || mChangeLogTableNames.isEmpty()) {
+                    return super.call(method, arg, extras);
+                }
+
+                @NonNull final Bundle compactResult = new Bundle();
+                compactResult.putInt(ChangeLogContract.RESULT_EXTRA_INT_COUNT,
+                        compactChangeLog(extras.getLong(ChangeLogContract.EXTRA_LONG_SEQUENCE)));
+
+                return compactResult;
+            case BaseColumnsContract.METHOD_QUERY_COLUMN:
+                // As with batches, query permissions are bypassed from within call().
+                if (!isSelfPackage) {
+                    throw new SecurityException("This method must be performed within the same package as the content provider."); //$NON-NLS
+                }
+
+                if (null == extras || null == arg) {
+                    return super.call(method, arg, extras);
+                }
+
+                return queryColumn(Uri.parse(arg), extras);
+            case SnapshotContract.METHOD_QUERY_SNAPSHOT:
+                // As with batches, query permissions are bypassed from within call().
+                if (!isSelfPackage) {
+                    throw new SecurityException("This method must be performed within the same package as the content provider."); //$NON-NLS
+                }
+
+                if (null == extras) {
+                    return super.call(method, arg, extras);
+                }
+
+                @NonNull final ArrayList<Bundle> queries = requireNonNull(extras
+                        .getParcelableArrayList(SnapshotContract.EXTRA_ARRAY_LIST_OF_BUNDLE_QUERIES));
+
+                return querySnapshot(queries);
             case TransactionContract.METHOD_RUN_IN_TRANSACTION:
                 // We can't rely on the ContentProvider's default security, because security checks for
                 // query, insert, update, and delete will be bypassed once they are being initiated
@@ -887,44 +2099,1131 @@ public abstract class MementoContentProvider extends ContentProvider {
     }
 
     /**
-     * @return Whether the calling package is the current package.
+     * Deletes or updates the rows of {@code uri} with the given ids, in chunks bound to
+     * {@code IN} clauses within a single transaction.  A single content change notification is
+     * sent for all of the chunks.
+     *
+     * @param uri    Table Uri.
+     * @param ids    Ids of the rows.
+     * @param values Values to update the rows with, or null to delete the rows.
+     * @return The number of rows deleted or updated.
      */
-    protected boolean isSelfPackage() {
-        final boolean isSelfPackage;
-        if (BuildConfig.DEBUG && ContextUtil.isTestContext(getContext())) {
-            isSelfPackage = true;
-        } else {
-            isSelfPackage = getContext().getPackageName().equals(getCallingPackage());
+    @Slow(Speed.MILLISECONDS)
+    private int writeByIds(@NonNull final Uri uri, @NonNull final long[] ids,
+                           @Nullable final ContentValues values) {
+        if (Constants.IS_LOGGING_ENABLED) {
+            Lumberjack.v("uri: %s, ids: %d, values: %s", uri, ids.length, values); //$NON-NLS-1$
         }
 
-        return isSelfPackage;
-    }
+        @NonNull final SqliteUriMatch match = mSqliteUriMatcher.match(uri);
 
-    /**
-     * Takes a collection of batch operations and applies them one at a time in order until one of
-     * them succeeds.
-     *
-     * @param operations Collection of batch operations to try performing.
-     * @see BatchContract#applyBatchWithAlternatives(Context,
-     * Uri, ArrayList)
-     */
-    @RestrictTo(RestrictTo.Scope.LIBRARY)
-    public void applyBatchWithAlternatives(
-            @NonNull final ArrayList<ArrayList<ContentProviderOperation>> operations) {
-        assertNotNull(operations, "operations"); //$NON-NLS
+        @NonNull final Operation operation = null == values ? Operation.DELETE : Operation.UPDATE;
+        if (!match.isOperationAllowed(operation)) {
+            throw new IllegalArgumentException(
+                    Lumberjack.formatMessage("Uri %s does not support the operation %s", //$NON-NLS
+                            uri, operation));
+        }
 
-        @NonNull final SupportSQLiteDatabase database = mSqliteOpenHelper.getWritableDatabase();
+        if (match.isIdUri()) {
+            throw new IllegalArgumentException(Lumberjack.formatMessage(
+                    "Uri %s must not be an id Uri", uri)); //$NON-NLS
+        }
 
-        @NonNull final ContentChangeNotificationQueue contentChangeNotificationQueue
-                = getContentChangeNotificationQueue();
-        if (contentChangeNotificationQueue.isBatch()) {
-            throw new IllegalStateException("Transaction is already in progress"); //$NON-NLS
+        if (null != values && match.isPartitionedUri()) {
+            assertPartitionUpdate(match, values);
         }
 
-        boolean isSuccessful = false;
-        try {
-            database.beginTransaction();
-            database.execSQL("SAVEPOINT outersavepoint"); //$NON-NLS
+        @Nullable final Integer conflictAlgorithm = QueryStringUtil.getConflictAlgorithm(uri);
+
+        @NonNull final SupportSQLiteDatabase database = getDatabase();
+
+        getContentChangeNotificationQueue().onWriteStarted();
+
+        int count = 0;
+        database.beginTransaction();
+        try {
+            @NonNull final List<String> tableNames = getWriteTableNames(database, match, uri);
+            @Nullable final String timeRangeSelection = getTimeRangeSelection(match, uri);
+
+            for (int start = 0; start < ids.length; start += SqliteInUtil.MAX_CHUNK_SIZE) {
+                final int chunkSize = SqliteInUtil.getChunkSize(ids.length, start);
+                @NonNull final String selection = DatabaseUtils.concatenateWhere(
+                        SqliteInUtil.newInSelection(BaseColumns._ID, chunkSize),
+                        timeRangeSelection);
+                @NonNull final Object[] selectionArgs = SqliteInUtil.newInSelectionArgs(ids, start,
+                        chunkSize);
+
+                for (@NonNull final String tableName : tableNames) {
+                    if (null == values) {
+                        count += database.delete(tableName, selection, selectionArgs);
+                    } else {
+                        count += database.update(tableName, null == conflictAlgorithm
+                                        ? match.getConflictAlgorithm() : conflictAlgorithm, values,
+                                selection, selectionArgs);
+                    }
+                }
+            }
+
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+
+        if (Constants.IS_LOGGING_ENABLED) {
+            Lumberjack.v("%s rows actually written", count); //$NON-NLS-1$
+        }
+
+        if (0 < count) {
+            if (!QueryStringUtil.isSuppressNotification(uri)) {
+                if (null == values) {
+                    onContentChanged(match, ChangePayloadContract.OPERATION_DELETE, -count, null);
+                } else {
+                    onContentChanged(match, ChangePayloadContract.OPERATION_UPDATE, 0, null);
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Deletes or updates the rows of a partitioned match, in every bucket table overlapping the
+     * time range of {@code uri}.
+     *
+     * @param database      Database to write.
+     * @param match         Partitioned match.
+     * @param uri           Uri that is written.
+     * @param values        Values to update the rows with, or null to delete the rows.
+     * @param selection     Optional selection.
+     * @param selectionArgs Optional arguments for {@code selection}.
+     * @return The number of rows deleted or updated.
+     * @throws IllegalArgumentException If {@code values} contains the time column or
+     *                                  {@link BaseColumns#_ID}.
+     */
+    @Slow(Speed.MILLISECONDS)
+    private static int writePartitions(@NonNull final SupportSQLiteDatabase database,
+                                       @NonNull final SqliteUriMatch match, @NonNull final Uri uri,
+                                       @Nullable final ContentValues values,
+                                       @Nullable final String selection,
+                                       @Nullable final String[] selectionArgs) {
+        if (null != values) {
+            assertPartitionUpdate(match, values);
+        }
+
+        @Nullable final Integer conflictAlgorithm = QueryStringUtil.getConflictAlgorithm(uri);
+
+        @Nullable final String partitionSelection = DatabaseUtils
+                .concatenateWhere(getTimeRangeSelection(match, uri), selection);
+
+        int count = 0;
+        database.beginTransaction();
+        try {
+            for (@NonNull final String tableName : getWriteTableNames(database, match, uri)) {
+                if (null == values) {
+                    // Per the docs, pass "1" to get a count returned.
+                    count += database.delete(tableName,
+                            null == partitionSelection ? "1" : partitionSelection, //$NON-NLS-1$
+                            selectionArgs);
+                } else {
+                    count += database.update(tableName, null == conflictAlgorithm
+                                    ? match.getConflictAlgorithm() : conflictAlgorithm, values,
+                            partitionSelection, selectionArgs);
+                }
+            }
+
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+
+        return count;
+    }
+
+    /**
+     * Asserts that an update of a partitioned match doesn't change the time column or the id of a
+     * row.  The row would stay in its old bucket, or could collide with a row in another bucket.
+     *
+     * @param match  Partitioned match.
+     * @param values Values to update the rows with.
+     * @throws IllegalArgumentException If {@code values} contains the time column or
+     *                                  {@link BaseColumns#_ID}.
+     */
+    private static void assertPartitionUpdate(@NonNull final SqliteUriMatch match,
+                                              @NonNull final ContentValues values) {
+        @NonNull final String timeColumnName = requireNonNull(match.getPartitionTimeColumnName());
+        if (values.containsKey(timeColumnName) || values.containsKey(BaseColumns._ID)) {
+            throw new IllegalArgumentException(Lumberjack.formatMessage(
+                    "Updates of %s can't change the columns %s or %s", //$NON-NLS
+                    match.getBaseUri(), timeColumnName, BaseColumns._ID));
+        }
+    }
+
+    /**
+     * Inserts a row into the bucket table of a partitioned match, creating the bucket table if
+     * necessary.
+     *
+     * @param database          Database to write.
+     * @param match             Partitioned match.
+     * @param values            Values to insert, which must contain the time column and must
+     *                          not contain {@link BaseColumns#_ID}.
+     * @param conflictAlgorithm Conflict algorithm for the insert.
+     * @return The row id of the inserted row, or -1 if the row was not inserted.
+     * @throws IllegalArgumentException If {@code values} is missing the time column or contains
+     *                                  {@link BaseColumns#_ID}.
+     */
+    @Slow(Speed.MILLISECONDS)
+    private static long insertPartition(@NonNull final SupportSQLiteDatabase database,
+                                        @NonNull final SqliteUriMatch match,
+                                        @NonNull final ContentValues values,
+                                        final int conflictAlgorithm) {
+        @NonNull final String timeColumnName = requireNonNull(match.getPartitionTimeColumnName());
+        @Nullable final Long time = values.getAsLong(timeColumnName);
+        if (null == time) {
+            throw new IllegalArgumentException(Lumberjack.formatMessage(
+                    "Values for %s must contain the long column %s", //$NON-NLS
+                    match.getBaseUri(), timeColumnName));
+        }
+        if (values.containsKey(BaseColumns._ID)) {
+            // Each bucket has its own primary key, so a caller-chosen id isn't unique
+            throw new IllegalArgumentException(Lumberjack.formatMessage(
+                    "Values for %s must not contain the column %s", //$NON-NLS
+                    match.getBaseUri(), BaseColumns._ID));
+        }
+
+        final long rowId;
+        database.beginTransaction();
+        try {
+            @NonNull final String partitionTableName = getOrCreatePartition(database, match, time);
+
+            // Each bucket table has its own rowid sequence, so ids are assigned across buckets
+            @NonNull final ContentValues valuesToInsert = new ContentValues(values.size() + 1);
+            valuesToInsert.putAll(values);
+            valuesToInsert.put(BaseColumns._ID, updatePartitionSequence(database, match,
+                    SqlitePartitionUtil.SEQUENCE_COLUMN_SEQ + " + 1")); //$NON-NLS
+
+            rowId = database.insert(partitionTableName, conflictAlgorithm, valuesToInsert);
+
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+
+        return rowId;
+    }
+
+    /**
+     * Drops the bucket tables of a partitioned match that end at or before {@code cutoffMillis}.
+     *
+     * @param uri          Partitioned Uri.
+     * @param cutoffMillis Cutoff time in milliseconds since the Unix epoch.
+     * @return The number of bucket tables dropped.
+     */
+    @Slow(Speed.MILLISECONDS)
+    private int dropPartitions(@NonNull final Uri uri, final long cutoffMillis) {
+        if (Constants.IS_LOGGING_ENABLED) {
+            Lumberjack.v("uri: %s, cutoffMillis: %d", uri, cutoffMillis); //$NON-NLS-1$
+        }
+
+        @NonNull final SqliteUriMatch match = mSqliteUriMatcher.match(uri);
+
+        if (!match.isOperationAllowed(Operation.DELETE)) {
+            throw new IllegalArgumentException(
+                    Lumberjack.formatMessage("Uri %s does not support the operation %s", //$NON-NLS
+                            uri, Operation.DELETE));
+        }
+
+        if (!match.isPartitionedUri()) {
+            throw new IllegalArgumentException(Lumberjack.formatMessage(
+                    "Uri %s is not partitioned", uri)); //$NON-NLS
+        }
+
+        @NonNull final SqlitePartitionInterval interval = requireNonNull(
+                match.getPartitionInterval());
+        @NonNull final SupportSQLiteDatabase database = getDatabase();
+
+        int count = 0;
+        database.beginTransaction();
+        try {
+            for (@NonNull final Map.Entry<Long, String> partition : queryPartitions(database,
+                    match).entrySet()) {
+                if (interval.getBucketEnd(partition.getKey()) > cutoffMillis) {
+                    break;
+                }
+
+                database.execSQL(String.format(Locale.US, "DROP TABLE %s", //$NON-NLS
+                        partition.getValue()));
+                count++;
+            }
+
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+
+        if (Constants.IS_LOGGING_ENABLED) {
+            Lumberjack.v("%s partitions dropped", count); //$NON-NLS-1$
+        }
+
+        if (0 < count) {
+            if (!QueryStringUtil.isSuppressNotification(uri)) {
+                // Counting the dropped rows would cost as much as deleting them, so no payload
+                getContentChangeNotificationQueue().onContentChanged(match.getNotifyUris());
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * @param database Database to query.
+     * @param match    Partitioned match.
+     * @return Map of bucket start to bucket table name, in ascending order of time.
+     */
+    @NonNull
+    @Slow(Speed.MILLISECONDS)
+    private static TreeMap<Long, String> queryPartitions(
+            @NonNull final SupportSQLiteDatabase database, @NonNull final SqliteUriMatch match) {
+        @NonNull final String tableName = match.getTableName();
+        @NonNull final TreeMap<Long, String> result = new TreeMap<>();
+
+        try (@NonNull final Cursor cursor = database.query(
+                "SELECT name FROM sqlite_master WHERE type = 'table'")) { //$NON-NLS
+            while (cursor.moveToNext()) {
+                @NonNull final String name = cursor.getString(0);
+                @Nullable final Long bucketStart = SqlitePartitionUtil.getBucketStart(tableName,
+                        name);
+                if (null != bucketStart) {
+                    result.put(bucketStart, name);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @param database Database to query.
+     * @param match    Match for {@code uri}.
+     * @param uri      Uri that is written.
+     * @return Names of the tables to write: the table of {@code match}, or for a partitioned match
+     * the bucket tables overlapping the time range of {@code uri}.
+     */
+    @NonNull
+    @Slow(Speed.MILLISECONDS)
+    private static List<String> getWriteTableNames(@NonNull final SupportSQLiteDatabase database,
+                                                   @NonNull final SqliteUriMatch match,
+                                                   @NonNull final Uri uri) {
+        if (!match.isPartitionedUri()) {
+            return Collections.singletonList(match.getTableName());
+        }
+
+        @NonNull final SqlitePartitionInterval interval = requireNonNull(
+                match.getPartitionInterval());
+        @Nullable final Long start = QueryStringUtil.getTimeRangeStart(uri);
+        @Nullable final Long end = QueryStringUtil.getTimeRangeEnd(uri);
+
+        @NonNull final List<String> result = new ArrayList<>();
+        for (@NonNull final Map.Entry<Long, String> partition : queryPartitions(database, match)
+                .entrySet()) {
+            final long bucketStart = partition.getKey();
+            if ((null == end || bucketStart < end)
+                    && (null == start || interval.getBucketEnd(bucketStart) > start)) {
+                result.add(partition.getValue());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @param database Database to query.
+     * @param match    Match for {@code uri}.
+     * @param uri      Uri that is queried.
+     * @return The table expression to query: the table of {@code match}, or for a partitioned
+     * match a {@code UNION ALL} of the bucket tables overlapping the time range of {@code uri},
+     * aliased to the table of {@code match}.
+     */
+    @NonNull
+    @Slow(Speed.MILLISECONDS)
+    private static String getQueryTables(@NonNull final SupportSQLiteDatabase database,
+                                         @NonNull final SqliteUriMatch match,
+                                         @NonNull final Uri uri) {
+        if (!match.isPartitionedUri()) {
+            return match.getTableName();
+        }
+
+        @NonNull final List<String> tableNames = getWriteTableNames(database, match, uri);
+        if (tableNames.isEmpty()) {
+            // The template table has the columns of the buckets, but never has any rows
+            return match.getTableName();
+        }
+
+        @Nullable final String timeRangeSelection = getTimeRangeSelection(match, uri);
+
+        @NonNull final List<String> selects = new ArrayList<>(tableNames.size());
+        for (@NonNull final String tableName : tableNames) {
+            if (null == timeRangeSelection) {
+                selects.add(String.format(Locale.US, "SELECT * FROM %s", tableName)); //$NON-NLS
+            } else {
+                // Filtering each bucket lets its indexes be used for the range
+                selects.add(String.format(Locale.US, "SELECT * FROM %s WHERE %s", //$NON-NLS
+                        tableName, timeRangeSelection));
+            }
+        }
+
+        return String.format(Locale.US, "(%s) AS %s", //$NON-NLS
+                SqlitePartitionUtil.newUnionAll(selects), match.getTableName());
+    }
+
+    /**
+     * @param match Match for {@code uri}.
+     * @param uri   Uri that is queried or written.
+     * @return Selection restricting a partitioned match to the time range of {@code uri}, or null
+     * if {@code match} is not partitioned or {@code uri} has no time range.
+     */
+    @Nullable
+    private static String getTimeRangeSelection(@NonNull final SqliteUriMatch match,
+                                                @NonNull final Uri uri) {
+        if (!match.isPartitionedUri()) {
+            return null;
+        }
+
+        return SqlitePartitionUtil.newTimeRangeSelection(
+                requireNonNull(match.getPartitionTimeColumnName()),
+                QueryStringUtil.getTimeRangeStart(uri), QueryStringUtil.getTimeRangeEnd(uri));
+    }
+
+    /**
+     * @param database Database to write.
+     * @param match    Partitioned match.
+     * @param time     Time of a row.
+     * @return Name of the bucket table for {@code time}, which is created from the template table
+     * if it does not exist yet.  Must be called within a transaction.
+     */
+    @NonNull
+    @Slow(Speed.MILLISECONDS)
+    private static String getOrCreatePartition(@NonNull final SupportSQLiteDatabase database,
+                                               @NonNull final SqliteUriMatch match,
+                                               final long time) {
+        @NonNull final String tableName = match.getTableName();
+        @NonNull final String partitionTableName = SqlitePartitionUtil.newPartitionTableName(
+                tableName, requireNonNull(match.getPartitionInterval()).getBucketStart(time));
+
+        boolean isPartitionPresent = false;
+        boolean isSequencePresent = false;
+        try (@NonNull final Cursor cursor = database.query(
+                "SELECT name FROM sqlite_master WHERE type = 'table' AND name IN (?, ?)", //$NON-NLS
+                new Object[]{partitionTableName, SqlitePartitionUtil.SEQUENCE_TABLE_NAME})) {
+            while (cursor.moveToNext()) {
+                if (partitionTableName.equals(cursor.getString(0))) {
+                    isPartitionPresent = true;
+                } else {
+                    isSequencePresent = true;
+                }
+            }
+        }
+
+        if (!isSequencePresent) {
+            database.execSQL(SqlitePartitionUtil.CREATE_SEQUENCE_TABLE);
+        }
+
+        if (isPartitionPresent) {
+            return partitionTableName;
+        }
+
+        @NonNull final List<String> statements = new LinkedList<>();
+        // The table sorts before its indexes, so it is created first
+        try (@NonNull final Cursor cursor = database.query(
+                "SELECT type, name, sql FROM sqlite_master WHERE tbl_name = ? AND type IN ('table', 'index') AND sql IS NOT NULL ORDER BY type DESC", //$NON-NLS
+                new Object[]{tableName})) {
+            while (cursor.moveToNext()) {
+                if ("table".equals(cursor.getString(0))) { //$NON-NLS
+                    statements.add(SqlitePartitionUtil.newCreatePartitionTable(
+                            cursor.getString(2), partitionTableName));
+                } else {
+                    statements.add(SqlitePartitionUtil.newCreatePartitionIndex(
+                            cursor.getString(2), cursor.getString(1), partitionTableName));
+                }
+            }
+        }
+
+        if (statements.isEmpty()) {
+            throw new IllegalStateException(Lumberjack.formatMessage(
+                    "Template table %s does not exist", tableName)); //$NON-NLS
+        }
+
+        for (@NonNull final String statement : statements) {
+            database.execSQL(statement);
+        }
+
+        return partitionTableName;
+    }
+
+    /**
+     * Advances the id sequence of a partitioned match.  The sequence is a single row, so that
+     * assigning an id doesn't depend on the number of bucket tables.  Dropping bucket tables
+     * never lowers the sequence, so ids are not reused after retention.
+     *
+     * @param database Database to write, within a transaction.  The sequence table must exist.
+     * @param match    Partitioned match.
+     * @param seqExpression Expression of the new value of the sequence, in terms of
+     *                      {@link SqlitePartitionUtil#SEQUENCE_COLUMN_SEQ}.
+     * @return The new value of the sequence.
+     */
+    @Slow(Speed.MILLISECONDS)
+    private static long updatePartitionSequence(@NonNull final SupportSQLiteDatabase database,
+                                                @NonNull final SqliteUriMatch match,
+                                                @NonNull final String seqExpression) {
+        @NonNull final String tableName = match.getTableName();
+
+        final int count;
+        try (@NonNull final SupportSQLiteStatement statement = database.compileStatement(
+                String.format(Locale.US, "UPDATE %1$s SET %2$s = %3$s WHERE %4$s = ?", //$NON-NLS
+                        SqlitePartitionUtil.SEQUENCE_TABLE_NAME,
+                        SqlitePartitionUtil.SEQUENCE_COLUMN_SEQ, seqExpression,
+                        SqlitePartitionUtil.SEQUENCE_COLUMN_NAME))) {
+            statement.bindString(1, tableName);
+            count = statement.executeUpdateDelete();
+        } catch (final IOException e) {
+            // Closing a statement doesn't actually throw
+            throw new IllegalStateException(e);
+        }
+
+        if (0 == count) {
+            // Buckets created before the sequence existed are scanned once to seed it
+            @NonNull final ContentValues sequenceValues = new ContentValues(2);
+            sequenceValues.put(SqlitePartitionUtil.SEQUENCE_COLUMN_NAME, tableName);
+            sequenceValues.put(SqlitePartitionUtil.SEQUENCE_COLUMN_SEQ,
+                    queryMaxPartitionId(database, match));
+            database.insert(SqlitePartitionUtil.SEQUENCE_TABLE_NAME,
+                    SQLiteDatabase.CONFLICT_ABORT, sequenceValues);
+
+            return updatePartitionSequence(database, match, seqExpression);
+        }
+
+        try (@NonNull final Cursor cursor = database.query(String.format(Locale.US,
+                "SELECT %s FROM %s WHERE %s = ?", //$NON-NLS
+                SqlitePartitionUtil.SEQUENCE_COLUMN_SEQ, SqlitePartitionUtil.SEQUENCE_TABLE_NAME,
+                SqlitePartitionUtil.SEQUENCE_COLUMN_NAME), new Object[]{tableName})) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+
+    /**
+     * @param database Database to query.
+     * @param match    Partitioned match.
+     * @return The largest {@code _id} across all bucket tables, or 0 if there are no rows.
+     */
+    @Slow(Speed.MILLISECONDS)
+    private static long queryMaxPartitionId(@NonNull final SupportSQLiteDatabase database,
+                                            @NonNull final SqliteUriMatch match) {
+        @NonNull final Map<Long, String> partitions = queryPartitions(database, match);
+        if (partitions.isEmpty()) {
+            return 0;
+        }
+
+        // Each MAX() is a single seek to the end of the rowid b-tree of a bucket
+        @NonNull final List<String> selects = new ArrayList<>(partitions.size());
+        for (@NonNull final String tableName : partitions.values()) {
+            selects.add(String.format(Locale.US, "SELECT MAX(%1$s) AS %1$s FROM %2$s", //$NON-NLS
+                    BaseColumns._ID, tableName));
+        }
+
+        try (@NonNull final Cursor cursor = database.query(String.format(Locale.US,
+                "SELECT MAX(%s) FROM (%s)", BaseColumns._ID, //$NON-NLS
+                SqlitePartitionUtil.newUnionAll(selects)))) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    /**
+     * Queries a single column into a primitive array, so no Cursor is marshalled to the caller and
+     * no values are boxed.  For a caller in the same process, {@link #call(String, String, Bundle)}
+     * is a direct method call, so the array itself is handed back.
+     * <p>
+     * The values are still read through the database cursor's {@link CursorWindow}.
+     * {@link SupportSQLiteDatabase} only steps compiled statements for a single value, and
+     * running one statement per row would cost more than the window it saves.
+     *
+     * @param uri    Uri to query.
+     * @param extras Extras, as per {@link BaseColumnsContract#METHOD_QUERY_COLUMN}.
+     * @return Bundle containing {@link BaseColumnsContract#RESULT_EXTRA_ARRAY_VALUES}.
+     * @throws IllegalStateException If the field type is integer or float and a value is null,
+     *                               which a primitive array can't represent.
+     */
+    @NonNull
+    @Slow(Speed.MILLISECONDS)
+    private Bundle queryColumn(@NonNull final Uri uri, @NonNull final Bundle extras) {
+        @NonNull final String columnName = requireNonNull(
+                extras.getString(BaseColumnsContract.EXTRA_STRING_COLUMN_NAME));
+        final int fieldType = extras.getInt(BaseColumnsContract.EXTRA_INT_FIELD_TYPE);
+
+        @NonNull final Bundle result = new Bundle();
+        try (@Nullable final Cursor cursor = query(uri, new String[]{columnName},
+                extras.getString(BaseColumnsContract.EXTRA_STRING_SELECTION),
+                extras.getStringArray(BaseColumnsContract.EXTRA_STRING_ARRAY_SELECTION_ARGS),
+                extras.getString(BaseColumnsContract.EXTRA_STRING_SORT_ORDER))) {
+            if (null == cursor) {
+                throw new IllegalArgumentException(Lumberjack.formatMessage(
+                        "Query for uri %s returned null", uri)); //$NON-NLS
+            }
+
+            // The provider may reorder columns, so the index is not necessarily 0
+            final int columnIndex = cursor.getColumnIndexOrThrow(columnName);
+
+            switch (fieldType) {
+                case Cursor.FIELD_TYPE_INTEGER: {
+                    @NonNull final long[] values = new long[cursor.getCount()];
+                    while (cursor.moveToNext()) {
+                        assertColumnNotNull(cursor, columnIndex, columnName);
+                        values[cursor.getPosition()] = cursor.getLong(columnIndex);
+                    }
+                    result.putLongArray(BaseColumnsContract.RESULT_EXTRA_ARRAY_VALUES, values);
+                    break;
+                }
+                case Cursor.FIELD_TYPE_FLOAT: {
+                    @NonNull final double[] values = new double[cursor.getCount()];
+                    while (cursor.moveToNext()) {
+                        assertColumnNotNull(cursor, columnIndex, columnName);
+                        values[cursor.getPosition()] = cursor.getDouble(columnIndex);
+                    }
+                    result.putDoubleArray(BaseColumnsContract.RESULT_EXTRA_ARRAY_VALUES, values);
+                    break;
+                }
+                case Cursor.FIELD_TYPE_STRING: {
+                    @NonNull final String[] values = new String[cursor.getCount()];
+                    while (cursor.moveToNext()) {
+                        values[cursor.getPosition()] = cursor.getString(columnIndex);
+                    }
+                    result.putStringArray(BaseColumnsContract.RESULT_EXTRA_ARRAY_VALUES, values);
+                    break;
+                }
+                default: {
+                    throw new IllegalArgumentException(Lumberjack.formatMessage(
+                            "Field type %d is not supported", fieldType)); //$NON-NLS
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @param cursor      Cursor positioned on a row.
+     * @param columnIndex Index of the column in {@code cursor}.
+     * @param columnName  Name of the column, for the error message.
+     * @throws IllegalStateException If the value of the column is null.
+     */
+    private static void assertColumnNotNull(@NonNull final Cursor cursor, final int columnIndex,
+                                            @NonNull final String columnName) {
+        if (cursor.isNull(columnIndex)) {
+            throw new IllegalStateException(Lumberjack.formatMessage(
+                    "Column %s is null at row %d; exclude null values with the selection", //$NON-NLS
+                    columnName, cursor.getPosition()));
+        }
+    }
+
+    /**
+     * Runs {@code queries} in a single transaction begun by
+     * {@link #beginReadTransaction(SupportSQLiteDatabase)}, so that the results are consistent with
+     * each other.  Results are copied into {@link CursorWindow}s before the transaction ends, because
+     * cursors are otherwise filled lazily.
+     *
+     * @param queries Queries, as per {@link SnapshotContract}.
+     * @return Bundle of results, as per {@link SnapshotContract}.
+     */
+    @NonNull
+    @Slow(Speed.MILLISECONDS)
+    private Bundle querySnapshot(@NonNull final ArrayList<Bundle> queries) {
+        @NonNull final ArrayList<Bundle> results = new ArrayList<>(queries.size());
+
+        @NonNull final SupportSQLiteDatabase database = getDatabase();
+
+        beginReadTransaction(database);
+        try {
+            for (@NonNull final Bundle query : queries) {
+                results.add(querySnapshotResult(query));
+            }
+
+            // Nothing was written, but a failed nested transaction would roll back its parent
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+
+        @NonNull final Bundle result = new Bundle();
+        result.putParcelableArrayList(SnapshotContract.RESULT_EXTRA_ARRAY_LIST_OF_BUNDLE_RESULTS,
+                results);
+
+        return result;
+    }
+
+    /**
+     * @param query Query, as per {@link SnapshotContract}.
+     * @return Result of {@code query}, as per {@link SnapshotContract}.
+     */
+    @NonNull
+    @Slow(Speed.MILLISECONDS)
+    private Bundle querySnapshotResult(@NonNull final Bundle query) {
+        @NonNull final Uri uri = requireNonNull(
+                query.getParcelable(SnapshotContract.QUERY_EXTRA_PARCELABLE_URI));
+
+        @NonNull final Bundle result = new Bundle();
+        try (@Nullable final Cursor cursor = query(uri,
+                query.getStringArray(SnapshotContract.QUERY_EXTRA_STRING_ARRAY_PROJECTION),
+                query.getString(SnapshotContract.QUERY_EXTRA_STRING_SELECTION),
+                query.getStringArray(SnapshotContract.QUERY_EXTRA_STRING_ARRAY_SELECTION_ARGS),
+                query.getString(SnapshotContract.QUERY_EXTRA_STRING_SORT_ORDER))) {
+            if (null == cursor) {
+                throw new IllegalArgumentException(Lumberjack.formatMessage(
+                        "Query for uri %s returned null", uri)); //$NON-NLS
+            }
+
+            if (query.getBoolean(SnapshotContract.QUERY_EXTRA_BOOLEAN_IS_LONG)) {
+                if (cursor.moveToFirst() && !cursor.isNull(0)) {
+                    result.putLong(SnapshotContract.RESULT_EXTRA_LONG_VALUE, cursor.getLong(0));
+                }
+            } else {
+                result.putStringArray(SnapshotContract.RESULT_EXTRA_STRING_ARRAY_COLUMN_NAMES,
+                        cursor.getColumnNames());
+                result.putParcelableArrayList(
+                        SnapshotContract.RESULT_EXTRA_ARRAY_LIST_OF_CURSOR_WINDOW_WINDOWS,
+                        newCursorWindows(cursor));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @param cursor Cursor to copy.
+     * @return Windows containing all of the rows of {@code cursor}, each starting at position 0.
+     * There is always at least one window, even if {@code cursor} is empty.
+     */
+    @NonNull
+    @Slow(Speed.MILLISECONDS)
+    private static ArrayList<CursorWindow> newCursorWindows(@NonNull final Cursor cursor) {
+        @NonNull final ArrayList<CursorWindow> windows = new ArrayList<>();
+
+        final int count = cursor.getCount();
+        int position = 0;
+        do {
+            @NonNull final CursorWindow window = new CursorWindow(SnapshotContract.class.getName());
+            try {
+                DatabaseUtils.cursorFillWindow(cursor, position, window);
+
+                final int rowCount = window.getNumRows();
+                if (0 == rowCount && position < count) {
+                    throw new IllegalStateException(Lumberjack.formatMessage(
+                            "Row %d is too large for a CursorWindow", position)); //$NON-NLS
+                }
+
+                position += rowCount;
+                window.setStartPosition(0);
+            } catch (final RuntimeException e) {
+                window.close();
+                for (@NonNull final CursorWindow w : windows) {
+                    w.close();
+                }
+
+                throw e;
+            }
+
+            windows.add(window);
+        } while (position < count);
+
+        return windows;
+    }
+
+    /**
+     * @param database Database to read.  PRAGMA statements always run on the primary connection.
+     * @return Bundle of effective PRAGMA values, as per {@link PragmaContract}.
+     */
+    @NonNull
+    @Slow(Speed.MILLISECONDS)
+    private static Bundle newPragmaBundle(@NonNull final SupportSQLiteDatabase database) {
+        @NonNull final Bundle result = new Bundle();
+
+        result.putString(PragmaContract.RESULT_EXTRA_STRING_JOURNAL_MODE,
+                queryPragma(database, "journal_mode")); //$NON-NLS
+        result.putInt(PragmaContract.RESULT_EXTRA_INT_SYNCHRONOUS,
+                Integer.parseInt(queryPragma(database, "synchronous"))); //$NON-NLS
+        result.putLong(PragmaContract.RESULT_EXTRA_LONG_MMAP_SIZE,
+                Long.parseLong(queryPragma(database, "mmap_size"))); //$NON-NLS
+        result.putLong(PragmaContract.RESULT_EXTRA_LONG_CACHE_SIZE,
+                Long.parseLong(queryPragma(database, "cache_size"))); //$NON-NLS
+        result.putInt(PragmaContract.RESULT_EXTRA_INT_TEMP_STORE,
+                Integer.parseInt(queryPragma(database, "temp_store"))); //$NON-NLS
+        result.putInt(PragmaContract.RESULT_EXTRA_INT_WAL_AUTOCHECKPOINT,
+                Integer.parseInt(queryPragma(database, "wal_autocheckpoint"))); //$NON-NLS
+        result.putInt(PragmaContract.RESULT_EXTRA_INT_PAGE_SIZE,
+                Integer.parseInt(queryPragma(database, "page_size"))); //$NON-NLS
+        result.putString(PragmaContract.RESULT_EXTRA_STRING_LOCKING_MODE,
+                queryPragma(database, "locking_mode")); //$NON-NLS
+        result.putBoolean(PragmaContract.RESULT_EXTRA_BOOLEAN_IS_PRIMARY_CONNECTION_ONLY,
+                database.isWriteAheadLoggingEnabled());
+
+        return result;
+    }
+
+    /**
+     * @param database Database to read.
+     * @param name     Name of the PRAGMA to read.
+     * @return The value of the PRAGMA, as text.  mmap_size reports no row when memory mapping
+     * isn't compiled into SQLite, in which case "0" is returned.
+     */
+    @NonNull
+    private static String queryPragma(@NonNull final SupportSQLiteDatabase database,
+                                      @NonNull final String name) {
+        try (@NonNull final Cursor cursor = database.query("PRAGMA " + name)) { //$NON-NLS
+            if (cursor.moveToFirst() && !cursor.isNull(0)) {
+                return cursor.getString(0);
+            }
+        }
+
+        return "0"; //$NON-NLS
+    }
+
+    /**
+     * Gets the database for a provider operation, which counts as activity for idle-time
+     * maintenance.
+     *
+     * @return The writable database.
+     */
+    @NonNull
+    @Slow(Speed.MILLISECONDS)
+    private SupportSQLiteDatabase getDatabase() {
+        @NonNull final SupportSQLiteDatabase database = getConfiguredDatabase();
+
+        @Nullable final SqliteMaintenanceScheduler maintenanceScheduler = mMaintenanceScheduler;
+        if (null != maintenanceScheduler) {
+            maintenanceScheduler.onActivity();
+        }
+
+        return database;
+    }
+
+    /**
+     * Gets the database, waiting for the background open if one is in flight.
+     *
+     * @return The writable database.
+     * @see #isWarmOpenEnabled()
+     */
+    @NonNull
+    @Slow(Speed.MILLISECONDS)
+    private SupportSQLiteDatabase getConfiguredDatabase() {
+        @Nullable final FutureTask<SupportSQLiteDatabase> warmOpenTask = mWarmOpenTask;
+        if (null != warmOpenTask) {
+            awaitWarmOpen(warmOpenTask);
+        }
+
+        return openConfiguredDatabase(false);
+    }
+
+    /**
+     * Blocks until {@code warmOpenTask} completes.  If the background open failed, the caller
+     * opens the database itself, so that the failure is reported to the caller.
+     *
+     * @param warmOpenTask In-flight background open.
+     */
+    @Slow(Speed.MILLISECONDS)
+    private void awaitWarmOpen(@NonNull final FutureTask<SupportSQLiteDatabase> warmOpenTask) {
+        if (!warmOpenTask.isDone()) {
+            final long startRealTimeMillis = Clock.getInstance().getRealTimeMillis();
+            try {
+                warmOpenTask.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (final ExecutionException e) {
+                Lumberjack.w("Warm open failed: %s", e.getCause()); //$NON-NLS
+            } catch (final CancellationException e) {
+                Lumberjack.w("Warm open was canceled"); //$NON-NLS
+            }
+            mOpenMetrics.onWaited(Clock.getInstance().getRealTimeMillis() - startRealTimeMillis);
+        }
+
+        if (warmOpenTask.isDone()) {
+            mWarmOpenTask = null;
+        }
+    }
+
+    /**
+     * Gets the database, applying {@link #newSqliteConfiguration()}, creating the change log
+     * triggers, and resuming pending table migrations the first time the database is opened.
+     *
+     * @param isWarmOpen True if called by the background open.
+     * @return The writable database.
+     */
+    @NonNull
+    @Slow(Speed.MILLISECONDS)
+    private SupportSQLiteDatabase openConfiguredDatabase(final boolean isWarmOpen) {
+        final long openStartRealTimeMillis = Clock.getInstance().getRealTimeMillis();
+        @NonNull final SupportSQLiteDatabase database = mSqliteOpenHelper.getWritableDatabase();
+        if (database != mOpenedDatabase) {
+            final long durationMillis = Clock.getInstance().getRealTimeMillis()
+                    - openStartRealTimeMillis;
+            mOpenMetrics.onOpened(durationMillis, isWarmOpen);
+
+            Lumberjack.v("Opened database in %d milliseconds, warm=%b", durationMillis, isWarmOpen); //$NON-NLS
+        }
+
+        @Nullable final SqliteConfiguration configuration = mSqliteConfiguration;
+        @NonNull final Collection<String> changeLogTableNames = mChangeLogTableNames;
+        @NonNull final Collection<SqliteTableMigration> migrations = mSqliteTableMigrations;
+        if ((null != configuration || !changeLogTableNames.isEmpty() || !migrations.isEmpty())
+                && database != mConfiguredDatabase) {
+            synchronized (mConfigurationLock) {
+                if (database != mConfiguredDatabase) {
+                    final long configureStartRealTimeMillis = Clock.getInstance()
+                            .getRealTimeMillis();
+                    if (null != configuration) {
+                        // Idempotent if already applied by newConfiguredCallback()
+                        configuration.apply(database);
+                        warnIneffectiveConfiguration(database, configuration);
+                    }
+                    createChangeLog(database, changeLogTableNames);
+                    startMigrations(database, migrations);
+                    mConfiguredDatabase = database;
+
+                    final long durationMillis = Clock.getInstance().getRealTimeMillis()
+                            - configureStartRealTimeMillis;
+                    mOpenMetrics.onConfigured(durationMillis);
+
+                    Lumberjack.v("Configured database in %d milliseconds", durationMillis); //$NON-NLS
+                }
+            }
+        }
+
+        mOpenedDatabase = database;
+
+        return database;
+    }
+
+    /**
+     * Logs the settings of {@code configuration} that did not take effect for every connection
+     * of {@code database}.
+     *
+     * @param database      Database to which {@code configuration} was applied.
+     * @param configuration Configuration that was applied.
+     */
+    @Slow(Speed.MILLISECONDS)
+    private static void warnIneffectiveConfiguration(
+            @NonNull final SupportSQLiteDatabase database,
+            @NonNull final SqliteConfiguration configuration) {
+        @Nullable final Integer pageSizeBytes = configuration.getPageSizeBytes();
+        if (null != pageSizeBytes) {
+            final int effectivePageSizeBytes = Integer.parseInt(queryPragma(database,
+                    "page_size")); //$NON-NLS
+            if (pageSizeBytes != effectivePageSizeBytes) {
+                Lumberjack.w("Page size %d did not take effect and remains %d; it must be applied via newConfiguredCallback() before the database is created", //$NON-NLS
+                        pageSizeBytes, effectivePageSizeBytes);
+            }
+        }
+
+        if (database.isWriteAheadLoggingEnabled() && (null != configuration.getCacheSize()
+                || null != configuration.getMmapSizeBytes()
+                || null != configuration.getTempStore())) {
+            Lumberjack.w("Cache size, mmap size, and temp store only apply to the primary connection; reads on the framework's WAL connections use the SQLite defaults"); //$NON-NLS
+        }
+    }
+
+    /**
+     * Creates the change log and the triggers recording the changes of {@code tableNames}, if they
+     * do not exist.  The triggers are created every time the database is opened, so that they are
+     * restored if an upgrade of the open helper recreated a table.
+     *
+     * @param database   Database to create the change log in.
+     * @param tableNames Names of the tables whose changes are recorded.
+     */
+    @Slow(Speed.MILLISECONDS)
+    private static void createChangeLog(@NonNull final SupportSQLiteDatabase database,
+                                        @NonNull final Collection<String> tableNames) {
+        if (tableNames.isEmpty()) {
+            return;
+        }
+
+        database.beginTransaction();
+        try {
+            for (@NonNull final String tableName : tableNames) {
+                for (@NonNull final String sql : new SqliteChangeLogBuilder()
+                        .setTableName(tableName).build()) {
+                    database.execSQL(sql);
+                }
+            }
+
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    /**
+     * Starts {@link #mMigrationRunner} if any of {@code migrations} is pending.
+     *
+     * @param database   Database to migrate.
+     * @param migrations Migrations to resume.
+     */
+    @Slow(Speed.MILLISECONDS)
+    private void startMigrations(@NonNull final SupportSQLiteDatabase database,
+                                 @NonNull final Collection<SqliteTableMigration> migrations) {
+        for (@NonNull final SqliteTableMigration migration : migrations) {
+            if (migration.isPending(database)) {
+                @Nullable SqliteMigrationRunner migrationRunner = mMigrationRunner;
+                if (null == migrationRunner) {
+                    // Swapping a table drops its change log triggers, so they are recreated
+                    migrationRunner = new SqliteMigrationRunner(migrations,
+                            this::getConfiguredDatabase,
+                            () -> createChangeLog(getConfiguredDatabase(), mChangeLogTableNames));
+                    mMigrationRunner = migrationRunner;
+                }
+                migrationRunner.start();
+
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param uri Uri to check.
+     * @return True if the change log is enabled and {@code uri} is the change log Uri.
+     */
+    private boolean isChangeLogUri(@NonNull final Uri uri) {
+        if (mChangeLogTableNames.isEmpty()) {
+            return false;
+        }
+
+        @NonNull final List<String> pathSegments = uri.getPathSegments();
+
+        return 1 == pathSegments.size()
+                && ChangeLogContract.PATH_CHANGE_LOG.equals(pathSegments.get(0));
+    }
+
+    /**
+     * Queries the change log entries after {@link ChangeLogContract#QUERY_STRING_SINCE}, in the
+     * order of their sequence numbers.
+     *
+     * @param uri                Change log Uri.
+     * @param projection         Columns to return.
+     * @param selection          Optional selection, which is combined with the sequence number.
+     * @param selectionArgs      Optional arguments for {@code selection}.
+     * @param limit              Optional limit.
+     * @param offset             Optional offset.
+     * @param cancellationSignal Optional signal to cancel the query.
+     * @return Cursor of the change log entries.
+     */
+    @NonNull
+    @Slow(Speed.MILLISECONDS)
+    private Cursor queryChangeLog(@NonNull final Uri uri, @Nullable final String[] projection,
+                                  @Nullable final String selection,
+                                  @Nullable final String[] selectionArgs,
+                                  @Nullable final String limit, @Nullable final String offset,
+                                  @Nullable final CancellationSignal cancellationSignal) {
+        // As with batches, the change log spans tables with different permissions
+        if (!isSelfPackage()) {
+            throw new SecurityException("The change log must be queried within the same package as the content provider."); //$NON-NLS
+        }
+
+        final long since = QueryStringUtil.getChangesSince(uri);
+
+        @NonNull final SupportSQLiteQueryBuilder qb = SupportSQLiteQueryBuilder
+                .builder(SqliteChangeLogBuilder.TABLE_NAME);
+        qb.columns(projection);
+        //noinspection CallToNumericToString
+        qb.selection(DatabaseUtils.concatenateWhere(
+                ChangeLogContract.COLUMN_LONG_SEQUENCE + " > ?", selection), //$NON-NLS
+                newPrependedSelectionArgs(Long.toString(since), selectionArgs));
+        qb.orderBy(ChangeLogContract.COLUMN_LONG_SEQUENCE);
+
+        if (null == offset) {
+            qb.limit(limit);
+        } else {
+            qb.limit(String.format(Locale.US, "%s,%s", offset, limit)); //NON-NLS
+        }
+
+        return getDatabase().query(qb.create(), cancellationSignal);
+    }
+
+    /**
+     * Removes the change log entries through {@code sequence}, and then all but the latest of the
+     * remaining entries of each row.
+     *
+     * @param sequence Sequence number through which the entries have been processed.
+     * @return The number of entries removed.
+     */
+    @Slow(Speed.MILLISECONDS)
+    private int compactChangeLog(final long sequence) {
+        if (Constants.IS_LOGGING_ENABLED) {
+            Lumberjack.v("sequence: %d", sequence); //$NON-NLS-1$
+        }
+
+        @NonNull final SupportSQLiteDatabase database = getDatabase();
+
+        int count = 0;
+        database.beginTransaction();
+        try {
+            //noinspection CallToNumericToString
+            count += database.delete(SqliteChangeLogBuilder.TABLE_NAME,
+                    ChangeLogContract.COLUMN_LONG_SEQUENCE + " <= ?", //$NON-NLS
+                    new String[]{Long.toString(sequence)});
+            count += database.delete(SqliteChangeLogBuilder.TABLE_NAME,
+                    String.format(Locale.US, "%1$s NOT IN (SELECT MAX(%1$s) FROM %2$s GROUP BY %3$s, %4$s)", //$NON-NLS
+                            ChangeLogContract.COLUMN_LONG_SEQUENCE,
+                            SqliteChangeLogBuilder.TABLE_NAME,
+                            ChangeLogContract.COLUMN_STRING_TABLE_NAME,
+                            ChangeLogContract.COLUMN_LONG_ROW_ID), null);
+
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+
+        if (Constants.IS_LOGGING_ENABLED) {
+            Lumberjack.v("%d change log entries removed", count); //$NON-NLS-1$
+        }
+
+        return count;
+    }
+
+    /**
+     * @return Whether the calling package is the current package.
+     */
+    protected boolean isSelfPackage() {
+        final boolean isSelfPackage;
+        if (BuildConfig.DEBUG && ContextUtil.isTestContext(getContext())) {
+            isSelfPackage = true;
+        } else {
+            isSelfPackage = getContext().getPackageName().equals(getCallingPackage());
+        }
+
+        return isSelfPackage;
+    }
+
+    /**
+     * Takes a collection of batch operations and applies them one at a time in order until one of
+     * them succeeds.
+     *
+     * @param operations Collection of batch operations to try performing.
+     * @see BatchContract#applyBatchWithAlternatives(Context,
+     * Uri, ArrayList)
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public void applyBatchWithAlternatives(
+            @NonNull final ArrayList<ArrayList<ContentProviderOperation>> operations) {
+        assertNotNull(operations, "operations"); //$NON-NLS
+
+        @NonNull final SupportSQLiteDatabase database = getDatabase();
+
+        @NonNull final ContentChangeNotificationQueue contentChangeNotificationQueue
+                = getContentChangeNotificationQueue();
+        if (contentChangeNotificationQueue.isBatch()) {
+            throw new IllegalStateException("Transaction is already in progress"); //$NON-NLS
+        }
+
+        boolean isSuccessful = false;
+        try {
+            database.beginTransaction();
+            database.execSQL("SAVEPOINT outersavepoint"); //$NON-NLS
 
             for (@NonNull final ArrayList<ContentProviderOperation> ops : operations) {
 
@@ -1006,6 +3305,105 @@ public abstract class MementoContentProvider extends ContentProvider {
         return result;
     }
 
+    /**
+     * @param arg  Argument to prepend.
+     * @param args Selection arguments.
+     * @return New selection arguments starting with {@code arg}.
+     */
+    @NonNull
+    private static String[] newPrependedSelectionArgs(@NonNull final String arg,
+                                                      @Nullable final String[] args) {
+        if (null == args || 0 == args.length) {
+            return new String[]{arg};
+        }
+
+        @NonNull final String[] result = new String[args.length + 1];
+        result[0] = arg;
+
+        System.arraycopy(args, 0, result, 1, args.length);
+
+        return result;
+    }
+
+    /**
+     * @param match Full-text search match.
+     * @return FROM clause joining the table of {@code match} with the rows of its full-text search
+     * shadow table that match a bound search query.
+     */
+    @NonNull
+    private static String newSearchTables(@NonNull final SqliteUriMatch match) {
+        @NonNull final String tableName = match.getTableName();
+        @NonNull final String ftsTableName = requireNonNull(match.getFtsTableName());
+
+        @NonNull final String searchColumns;
+        if (SqliteFtsVersion.FTS5 == match.getFtsVersion()) {
+            searchColumns = String.format(Locale.US, "rowid AS %s, rank AS %s", //$NON-NLS
+                    SEARCH_ROWID, SEARCH_RANK);
+        } else {
+            searchColumns = String.format(Locale.US, "docid AS %s", SEARCH_ROWID); //$NON-NLS
+        }
+
+        return String.format(Locale.US,
+                "%1$s INNER JOIN (SELECT %3$s FROM %2$s WHERE %2$s MATCH ?) ON %1$s.%4$s = %5$s", //$NON-NLS
+                tableName, ftsTableName, searchColumns, BaseColumns._ID, SEARCH_ROWID);
+    }
+
+    /**
+     * @param match Bounding box match.
+     * @return FROM clause joining the table of {@code match} with its spatial index shadow table.
+     */
+    @NonNull
+    private static String newBoundingBoxTables(@NonNull final SqliteUriMatch match) {
+        @NonNull final String tableName = match.getTableName();
+        @NonNull final String spatialTableName = requireNonNull(match.getSpatialTableName());
+
+        return String.format(Locale.US, "%1$s INNER JOIN %2$s ON %1$s.%3$s = %2$s.%4$s", //$NON-NLS
+                tableName, spatialTableName, BaseColumns._ID,
+                SqliteSpatialIndexVersion.COLUMN_ID);
+    }
+
+    /**
+     * @param match Bounding box match.
+     * @param uri   Uri that is queried.
+     * @return Selection for the rows whose bounding box intersects the box of {@code uri}.  The
+     * coordinates are finite doubles, so they are inlined rather than bound, leaving the bound
+     * variables for the caller's selection.
+     */
+    @NonNull
+    private static String newBoundingBoxSelection(@NonNull final SqliteUriMatch match,
+                                                  @NonNull final Uri uri) {
+        @Nullable final double[] box = QueryStringUtil.getBoundingBox(uri);
+        if (null == box) {
+            throw new IllegalArgumentException(
+                    Lumberjack.formatMessage("Uri %s is missing query parameter %s", //$NON-NLS
+                            uri, MementoContract.QUERY_STRING_BOUNDING_BOX));
+        }
+
+        return String.format(Locale.US,
+                "%1$s.%2$s >= %6$s AND %1$s.%3$s <= %7$s AND %1$s.%4$s >= %8$s AND %1$s.%5$s <= %9$s", //$NON-NLS
+                requireNonNull(match.getSpatialTableName()),
+                SqliteSpatialIndexVersion.COLUMN_MAX_X, SqliteSpatialIndexVersion.COLUMN_MIN_X,
+                SqliteSpatialIndexVersion.COLUMN_MAX_Y, SqliteSpatialIndexVersion.COLUMN_MIN_Y,
+                Double.toString(box[0]), Double.toString(box[1]), Double.toString(box[2]),
+                Double.toString(box[3]));
+    }
+
+    /**
+     * Entry point for {@link TransactionContract#runInTransaction(Context, Uri, Transactable,
+     * Bundle)} when called from the provider's own process.  This skips the class loader setup,
+     * scrubbing, and unmarshalling of {@link #call(String, String, Bundle)}.  A caller in the same
+     * process already runs with the provider's identity, so the package check of
+     * {@link #call(String, String, Bundle)} adds nothing.
+     */
+    @Override
+    @Slow(Speed.MILLISECONDS)
+    @Nullable
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public final Bundle runLocalTransaction(@NonNull final Transactable transactable,
+                                            @NonNull final Bundle data) {
+        return runInTransaction(transactable, data);
+    }
+
     /**
      * Runs a block of code inside a single atomic transaction. For the most part, multiple
      * operations should be performed using {@link #applyBatch(ArrayList)}. In certain cases where
@@ -1021,7 +3419,7 @@ public abstract class MementoContentProvider extends ContentProvider {
         assertNotNull(transactable, "transactable"); //$NON-NLS-1$
         assertNotNull(data, "data"); //$NON-NLS-1$
 
-        @NonNull final SupportSQLiteDatabase database = mSqliteOpenHelper.getWritableDatabase();
+        @NonNull final SupportSQLiteDatabase database = getDatabase();
         @NonNull final ContentChangeNotificationQueue contentChangeNotificationQueue
                 = getContentChangeNotificationQueue();
 
@@ -1049,6 +3447,122 @@ public abstract class MementoContentProvider extends ContentProvider {
         return result;
     }
 
+    /**
+     * Enqueues content change notifications for a write to {@code match}.  If
+     * {@link #isChangePayloadEnabled()}, the notification for the base Uri of {@code match} carries a
+     * payload.  If row-level notifications are enabled and the affected row is known, the base Uri
+     * notification is instead for that row.  Other notify Uris may be affected in ways that can't
+     * be described by a row delta, so they are always plain table-level notifications.
+     *
+     * @param match     Match that was written to.
+     * @param operation Operation, as per {@link ChangePayloadContract}.
+     * @param rowDelta  Net change in the number of rows of the base Uri.
+     * @param rowId     Id of the single affected row, or null if unknown.
+     */
+    private void onContentChanged(@NonNull final SqliteUriMatch match,
+                                  @NonNull final String operation, final int rowDelta,
+                                  @Nullable final Long rowId) {
+        @NonNull final ContentChangeNotificationQueue queue = getContentChangeNotificationQueue();
+
+        final boolean isRowLevel = null != rowId && 0 < getRowChangeNotificationLimit();
+        if (!isRowLevel && !isChangePayloadEnabled()) {
+            queue.onContentChanged(match.getNotifyUris());
+            return;
+        }
+
+        @NonNull final Uri baseUri = match.getBaseUri();
+        for (@NonNull final Uri notifyUri : match.getNotifyUris()) {
+            if (!baseUri.equals(notifyUri)) {
+                queue.onContentChanged(notifyUri);
+            } else if (isRowLevel) {
+                queue.onRowChanged(notifyUri, rowId, operation, rowDelta);
+            } else {
+                queue.onContentChanged(notifyUri, operation, rowDelta);
+            }
+        }
+    }
+
+    /**
+     * @param match Match for {@code uri}.
+     * @param uri   Uri that was written to.
+     * @return The row id of {@code uri}, or null if {@code uri} is not an id Uri.
+     */
+    @Nullable
+    private static Long getRowId(@NonNull final SqliteUriMatch match, @NonNull final Uri uri) {
+        if (!match.isIdUri()) {
+            return null;
+        }
+
+        try {
+            return Long.valueOf(uri.getLastPathSegment());
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Subclasses may override this method to send row-level change notifications for
+     * {@code base/<id>}, as described by {@link ContentChangeNotificationQueue}.  Row-level
+     * notifications are sent when the affected row is known without additional queries: inserts,
+     * and updates or deletes through an id Uri.  Other writes remain table-level.  Observers
+     * registered for the base Uri must set {@code notifyForDescendants} in order to continue
+     * receiving notifications.  Row Uris only carry a payload if {@link #isChangePayloadEnabled()}.
+     *
+     * @return Maximum number of row-level notifications per base Uri in a batch, beyond which a
+     * single table-level notification is sent.  0 disables row-level notifications, which is the
+     * default.
+     */
+    protected int getRowChangeNotificationLimit() {
+        return 0;
+    }
+
+    /**
+     * Subclasses may override this method to record the changes of tables in a change log, as per
+     * {@link ChangeLogContract}.  The provider creates the change log and its triggers via
+     * {@link SqliteChangeLogBuilder} when the database is opened.  Because the triggers record
+     * changes inside SQLite, every change is recorded, including changes made without going through
+     * the provider.  Partitioned tables are not supported, because their buckets do not copy the
+     * triggers of the template table.
+     *
+     * @return Names of the tables whose changes are recorded.  Empty disables the change log, which
+     * is the default.
+     */
+    @NonNull
+    protected Collection<String> getChangeLogTableNames() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Subclasses may override this method to attach payloads to content change notifications, as
+     * per {@link ChangePayloadContract}.  This is disabled by default, because observers that
+     * compare notified Uris for equality would see Uris with additional query parameters.
+     *
+     * @return True if content change notifications should carry a payload.
+     */
+    protected boolean isChangePayloadEnabled() {
+        return false;
+    }
+
+    /**
+     * Subclasses may override this method to begin the transaction that groups several reads into
+     * one consistent snapshot, such as {@link SnapshotContract} queries.  The transaction is only
+     * read from, and is ended with {@link SupportSQLiteDatabase#endTransaction()}.
+     * <p>
+     * Ideally this is a deferred transaction, which only takes a read lock and so doesn't block
+     * writers while journaling with WAL.  {@link SupportSQLiteDatabase} has no way to begin one,
+     * and the framework's {@code SQLiteDatabase} turns a {@code BEGIN} statement into
+     * {@code BEGIN EXCLUSIVE}, so the default begins an immediate transaction via
+     * {@link SupportSQLiteDatabase#beginTransactionNonExclusive()}.  That takes the write lock for
+     * the duration of the reads.  Subclasses whose {@link #newSqliteOpenHelper()} can begin a
+     * deferred transaction should override this method to do so.
+     *
+     * @param database Database to read.
+     */
+    @Slow(Speed.MILLISECONDS)
+    protected void beginReadTransaction(@NonNull final SupportSQLiteDatabase database) {
+        database.beginTransactionNonExclusive();
+    }
+
     /**
      * @return Gets a {@link ContentChangeNotificationQueue} for the current thread.
      */
@@ -1058,7 +3572,9 @@ public abstract class MementoContentProvider extends ContentProvider {
                 .get();
 
         if (null == queue) {
-            queue = new ContentChangeNotificationQueue(getContext(), mIsExported, mReadPermission);
+            final int rowLimit = getRowChangeNotificationLimit();
+            queue = new ContentChangeNotificationQueue(getContext(), mIsExported, mReadPermission,
+                    0 < rowLimit ? rowLimit : Integer.MAX_VALUE, isChangePayloadEnabled());
             mThreadLocalContentChangeNotificationQueue.set(queue);
         }
 
@@ -1071,6 +3587,184 @@ public abstract class MementoContentProvider extends ContentProvider {
         }
     }
 
+    /**
+     * Subclasses may override this method to tune the database, instead of writing PRAGMA
+     * statements by hand in the open helper's callback.  Subclasses should also pass the callback
+     * of {@link #newSqliteOpenHelper()} through {@link #newConfiguredCallback(SupportSQLiteOpenHelper.Callback)}, so that
+     * the configuration is applied before the database is created or upgraded.  Otherwise the
+     * configuration is only applied after the database is opened, when a page size can no longer
+     * take effect.  Either way the configuration is applied again each time the database is
+     * opened.
+     * <p>
+     * The configuration is applied to the primary connection of the database.  When write-ahead
+     * logging is enabled, the Android framework reads on additional connections, which don't get
+     * the cache size, mmap size, or temp store.  Settings that don't take effect are logged as
+     * warnings.
+     * <p>
+     * The effective values can be read via {@link PragmaContract}.
+     *
+     * @return Configuration to apply, or null to leave the database as configured by the open
+     * helper, which is the default.
+     */
+    @Nullable
+    protected SqliteConfiguration newSqliteConfiguration() {
+        return null;
+    }
+
+    /**
+     * Wraps the callback of the open helper created by {@link #newSqliteOpenHelper()}, so that
+     * {@link #newSqliteConfiguration()} is applied in
+     * {@link SupportSQLiteOpenHelper.Callback#onConfigure(SupportSQLiteDatabase)}.  This runs before
+     * the database is created or upgraded, which is the only point at which the page size of a new
+     * database can still take effect.  This must be called from {@link #newSqliteOpenHelper()}.
+     *
+     * @param callback Callback of the open helper.
+     * @return {@code callback}, or a callback that applies the configuration and otherwise
+     * delegates to {@code callback}.
+     */
+    @NonNull
+    protected final SupportSQLiteOpenHelper.Callback newConfiguredCallback(
+            @NonNull final SupportSQLiteOpenHelper.Callback callback) {
+        assertNotNull(callback, "callback"); //$NON-NLS-1$
+
+        @Nullable final SqliteConfiguration configuration = mSqliteConfiguration;
+        if (null == configuration) {
+            return callback;
+        }
+
+        return new SqliteConfiguringCallback(configuration, callback);
+    }
+
+    /**
+     * Subclasses may override this method to enable database maintenance while the provider is
+     * idle: WAL checkpoints, incremental vacuum, and refreshing statistics for the query planner.
+     * Maintenance runs on a dedicated background thread.
+     * <p>
+     * Metrics for each maintenance task can be read via {@link MaintenanceContract}.
+     *
+     * @return Maintenance policy, or null to disable maintenance, which is the default.
+     */
+    @Nullable
+    protected SqliteMaintenancePolicy newSqliteMaintenancePolicy() {
+        return null;
+    }
+
+    /**
+     * Subclasses may override this method to open the database on a background thread as soon as
+     * the provider is created, instead of on the thread of the first caller.  This moves the cost
+     * of creating or upgrading the schema, recovering the write-ahead log, and applying
+     * {@link #newSqliteConfiguration()} off of the main thread during a cold start.  Callers that
+     * need the database before the background open completes block until it completes, rather
+     * than opening the database a second time.
+     * <p>
+     * The phases of the open can be read via {@link OpenContract}.
+     *
+     * @return True to open the database in the background.  The default is false.
+     * @see #getHotStatements()
+     */
+    protected boolean isWarmOpenEnabled() {
+        return false;
+    }
+
+    /**
+     * Subclasses may override this method to compile frequently used statements as part of the
+     * background open enabled by {@link #isWarmOpenEnabled()}.  The compiled statements are kept
+     * in the statement cache of the database's primary connection, so the first use of each
+     * statement skips compiling it.  Statements that fail to compile are logged and skipped.
+     *
+     * @return SQL of the statements to compile.  The default is none.
+     */
+    @NonNull
+    protected Collection<String> getHotStatements() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Subclasses may override this method to resume table migrations in the background.  Each
+     * migration is started by calling {@link SqliteTableMigration#start(SupportSQLiteDatabase)}
+     * from {@code SupportSQLiteOpenHelper.Callback#onUpgrade(SupportSQLiteDatabase, int, int)}.
+     * Whenever the database is opened with a migration pending, the rows are copied in chunks on
+     * a dedicated background thread, and the migrated table is swapped in once the copy is
+     * complete.  Until then, the existing table continues to be used.
+     *
+     * @return Table migrations, in the order they are run.  The default is none.
+     */
+    @NonNull
+    protected Collection<SqliteTableMigration> newSqliteTableMigrations() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Tiers of response to memory pressure.
+     *
+     * @see #onTrimMemory(int)
+     */
+    @VisibleForTesting
+    /*package*/ enum TrimMemoryTier {
+
+        /**
+         * Nothing is trimmed.
+         */
+        @NonNull
+        NONE(null),
+
+        /**
+         * {@code PRAGMA shrink_memory} frees the unused page cache of the connection that runs
+         * it.  That is the primary connection, unless write-ahead logging is enabled, in which
+         * case it may be a reader connection.
+         */
+        @NonNull
+        SHRINK(TrimMemoryContract.TIER_SHRINK),
+
+        /**
+         * In addition to {@link #SHRINK}, this clears the statement caches of the connection
+         * pool, including any hot statements.  Then {@link SQLiteDatabase#releaseMemory()} frees
+         * the unused page cache of every framework SQLite connection in the process.  Idle reader
+         * connections are not closed.  Through {@link SupportSQLiteDatabase}, the only way to
+         * close them is to disable and re-enable write-ahead logging.  Re-enabling fails whenever
+         * another thread holds a connection, which would leave the database out of WAL mode.
+         */
+        @NonNull
+        RELEASE(TrimMemoryContract.TIER_RELEASE);
+
+        /**
+         * Name of the tier as per {@link TrimMemoryContract}, or null if nothing is trimmed.
+         */
+        @Nullable
+        private final String mName;
+
+        TrimMemoryTier(@Nullable final String name) {
+            mName = name;
+        }
+
+        @Nullable
+        /*package*/ String getName() {
+            return mName;
+        }
+    }
+
+    /**
+     * Result of an upsert.
+     */
+    @Immutable
+    private static final class UpsertResult {
+
+        /**
+         * The _id of the inserted or updated row, or -1 if an insert failed.
+         */
+        private final long mRowId;
+
+        /**
+         * True if an existing row was updated, false if a row was inserted.
+         */
+        private final boolean mIsUpdated;
+
+        UpsertResult(final long rowId, final boolean isUpdated) {
+            mRowId = rowId;
+            mIsUpdated = isUpdated;
+        }
+    }
+
     /**
      * @return An {@link SqliteUriMatcher} appropriate for the current ContentProvider. The object
      * returned by this method must be thread-safe.
@@ -1080,7 +3774,8 @@ public abstract class MementoContentProvider extends ContentProvider {
 
     /**
      * @return A {@link SQLiteOpenHelper} appropriate for the current ContentProvider. The object
-     * returned by this method must be thread-safe.
+     * returned by this method must be thread-safe.  Its callback should be wrapped with
+     * {@link #newConfiguredCallback(SupportSQLiteOpenHelper.Callback)}.
      */
     @NonNull
     protected abstract SupportSQLiteOpenHelper newSqliteOpenHelper();
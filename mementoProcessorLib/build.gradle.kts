@@ -0,0 +1,52 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+// Annotation processors run in the compiler's JVM, so this is a plain Java library rather than
+// an Android library.  The processor refers to the annotations of annotationLib by name, because
+// a JVM library cannot depend on an Android library.
+plugins {
+    `java-library`
+    `maven-publish`
+}
+
+group = "com.twofortyfouram"
+version = run {
+    val libraryVersionName: String by project
+    libraryVersionName
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+publishing {
+    publications {
+        create("release", MavenPublication::class) {
+            from(components["java"])
+            artifactId = "android-memento-processor"
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.processor;
+
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Java types supported for columns, and how each is read from a Cursor and declared in SQLite.
+ */
+/*package*/ enum ColumnType {
+
+    LONG("long", "java.lang.Long", "getLong", "INTEGER"), //$NON-NLS
+    INT("int", "java.lang.Integer", "getInt", "INTEGER"), //$NON-NLS
+    SHORT("short", "java.lang.Short", "getShort", "INTEGER"), //$NON-NLS
+    DOUBLE("double", "java.lang.Double", "getDouble", "REAL"), //$NON-NLS
+    FLOAT("float", "java.lang.Float", "getFloat", "REAL"), //$NON-NLS
+    BOOLEAN("boolean", "java.lang.Boolean", "getInt", "INTEGER"), //$NON-NLS
+    STRING(null, "java.lang.String", "getString", "TEXT"), //$NON-NLS
+    BLOB(null, "byte[]", "getBlob", "BLOB"); //$NON-NLS
+
+    /**
+     * Name of the primitive type, or null if the type has no primitive form.
+     */
+    /*package*/ final String mPrimitiveName;
+
+    /**
+     * Name of the object type.
+     */
+    /*package*/ final String mObjectName;
+
+    /**
+     * Name of the Cursor getter.
+     */
+    /*package*/ final String mGetterName;
+
+    /**
+     * Name of the SqliteStorageClass constant.
+     */
+    /*package*/ final String mStorageClass;
+
+    ColumnType(final String primitiveName, final String objectName, final String getterName,
+               final String storageClass) {
+        mPrimitiveName = primitiveName;
+        mObjectName = objectName;
+        mGetterName = getterName;
+        mStorageClass = storageClass;
+    }
+
+    /**
+     * @param typeMirror Type of a field.
+     * @return The column type for {@code typeMirror}, or null if the type is not supported.
+     */
+    /*package*/ static ColumnType valueOf(final TypeMirror typeMirror) {
+        if (typeMirror.getKind().isPrimitive()) {
+            final String name = typeMirror.toString();
+            for (final ColumnType type : values()) {
+                if (name.equals(type.mPrimitiveName)) {
+                    return type;
+                }
+            }
+
+            return null;
+        }
+
+        if (TypeKind.ARRAY == typeMirror.getKind()) {
+            return TypeKind.BYTE == ((ArrayType) typeMirror).getComponentType().getKind()
+                    ? BLOB : null;
+        }
+
+        final String name = typeMirror.toString();
+        for (final ColumnType type : values()) {
+            if (name.equals(type.mObjectName)) {
+                return type;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param cursorName Name of the Cursor variable.
+     * @param indexName  Name of the variable holding the column index.
+     * @return Expression reading the column in its non-null form.
+     */
+    /*package*/ String newReadExpression(final String cursorName, final String indexName) {
+        final String read = String.format("%s.%s(%s)", cursorName, mGetterName, indexName); //$NON-NLS
+
+        if (BOOLEAN == this) {
+            return String.format("(0 != %s)", read); //$NON-NLS
+        }
+
+        return read;
+    }
+}
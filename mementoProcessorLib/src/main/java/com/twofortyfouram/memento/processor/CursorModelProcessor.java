@@ -0,0 +1,574 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.twofortyfouram.memento.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Annotation processor for {@code com.twofortyfouram.annotation.CursorModel}.  It also claims
+ * {@code com.twofortyfouram.annotation.CursorColumn}, which is only read from the fields of a
+ * model, so that compilers don't warn that no processor claimed it.
+ * <p>
+ * For each annotated class, generates a Cursor parser, a ContentValues writer, and optionally a
+ * table declaration.  The generated code reads and writes the annotated fields directly, so no
+ * reflection is used at runtime.
+ */
+@SupportedAnnotationTypes({CursorModelProcessor.CURSOR_MODEL, CursorModelProcessor.CURSOR_COLUMN})
+public final class CursorModelProcessor extends AbstractProcessor {
+
+    /*package*/ static final String CURSOR_MODEL
+            = "com.twofortyfouram.annotation.CursorModel"; //$NON-NLS
+
+    /*package*/ static final String CURSOR_COLUMN
+            = "com.twofortyfouram.annotation.CursorColumn"; //$NON-NLS
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations,
+                           final RoundEnvironment roundEnv) {
+        for (final TypeElement annotation : annotations) {
+            if (!annotation.getQualifiedName().contentEquals(CURSOR_MODEL)) {
+                // Columns are processed as part of their model
+                continue;
+            }
+
+            for (final Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                try {
+                    final Model model = newModel(element);
+
+                    writeCursorParser(model);
+                    writeContentValuesWriter(model);
+                    if (!model.mTableName.isEmpty()) {
+                        writeTable(model);
+                    }
+                } catch (final ModelException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            e.getMessage(), e.mElement);
+                } catch (final IOException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            "Failed to write generated source: " + e.getMessage(), //$NON-NLS
+                            element);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private Model newModel(final Element element) throws ModelException {
+        if (ElementKind.CLASS != element.getKind()) {
+            throw new ModelException(element, "@CursorModel must annotate a class"); //$NON-NLS
+        }
+
+        final TypeElement typeElement = (TypeElement) element;
+        if (typeElement.getModifiers().contains(Modifier.PRIVATE)
+                || typeElement.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new ModelException(element,
+                    "@CursorModel class must be non-private and concrete"); //$NON-NLS
+        }
+
+        if (NestingKind.TOP_LEVEL != typeElement.getNestingKind()
+                && !typeElement.getModifiers().contains(Modifier.STATIC)) {
+            throw new ModelException(element,
+                    "@CursorModel class must be top-level or static"); //$NON-NLS
+        }
+
+        final List<Column> columns = new ArrayList<>();
+        Column keyColumn = null;
+        for (final VariableElement field : ElementFilter
+                .fieldsIn(typeElement.getEnclosedElements())) {
+            final AnnotationMirror columnAnnotation = getAnnotationMirror(field, CURSOR_COLUMN);
+            if (null == columnAnnotation) {
+                continue;
+            }
+
+            final Column column = newColumn(field, columnAnnotation);
+            if (column.mIsKey) {
+                if (null != keyColumn) {
+                    throw new ModelException(field, "Only one column may be the key"); //$NON-NLS
+                }
+                keyColumn = column;
+            }
+
+            columns.add(column);
+        }
+
+        if (columns.isEmpty()) {
+            throw new ModelException(element,
+                    "@CursorModel class must have at least one @CursorColumn"); //$NON-NLS
+        }
+
+        assertConstructorExists(typeElement, columns);
+
+        final AnnotationMirror modelAnnotation = getAnnotationMirror(element, CURSOR_MODEL);
+        final String tableName = (String) getAnnotationValue(modelAnnotation, "tableName"); //$NON-NLS
+
+        return new Model(typeElement, getPackageName(typeElement), getSimpleNamePrefix(typeElement),
+                tableName, columns, keyColumn);
+    }
+
+    private Column newColumn(final VariableElement field,
+                             final AnnotationMirror columnAnnotation) throws ModelException {
+        if (field.getModifiers().contains(Modifier.PRIVATE)
+                || field.getModifiers().contains(Modifier.STATIC)) {
+            throw new ModelException(field,
+                    "@CursorColumn field must be non-private and non-static"); //$NON-NLS
+        }
+
+        final ColumnType type = ColumnType.valueOf(field.asType());
+        if (null == type) {
+            throw new ModelException(field, "Unsupported @CursorColumn type " //$NON-NLS
+                    + field.asType());
+        }
+
+        final boolean isPrimitive = field.asType().getKind().isPrimitive();
+        final boolean isKey = (Boolean) getAnnotationValue(columnAnnotation, "isKey"); //$NON-NLS
+        if (isKey && (ColumnType.LONG != type || !isPrimitive)) {
+            throw new ModelException(field, "Key column must be a long"); //$NON-NLS
+        }
+
+        final boolean isNullable = !isPrimitive && !hasNonNullAnnotation(field);
+
+        return new Column(field.getSimpleName().toString(),
+                (String) getAnnotationValue(columnAnnotation, "value"), //$NON-NLS
+                type, isNullable, isKey);
+    }
+
+    private void assertConstructorExists(final TypeElement typeElement,
+                                         final List<Column> columns) throws ModelException {
+        final List<VariableElement> fields = new ArrayList<>();
+        for (final VariableElement field : ElementFilter
+                .fieldsIn(typeElement.getEnclosedElements())) {
+            if (null != getAnnotationMirror(field, CURSOR_COLUMN)) {
+                fields.add(field);
+            }
+        }
+
+        constructors:
+        for (final ExecutableElement constructor : ElementFilter
+                .constructorsIn(typeElement.getEnclosedElements())) {
+            if (constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                continue;
+            }
+
+            final List<? extends VariableElement> parameters = constructor.getParameters();
+            if (parameters.size() != columns.size()) {
+                continue;
+            }
+
+            for (int i = 0; i < parameters.size(); i++) {
+                if (!processingEnv.getTypeUtils().isSameType(parameters.get(i).asType(),
+                        fields.get(i).asType())) {
+                    continue constructors;
+                }
+            }
+
+            return;
+        }
+
+        throw new ModelException(typeElement,
+                "@CursorModel class must have a non-private constructor whose parameters " //$NON-NLS
+                        + "match the @CursorColumn fields in declaration order"); //$NON-NLS
+    }
+
+    private void writeCursorParser(final Model model) throws IOException {
+        final String className = model.mSimpleNamePrefix + "CursorParser"; //$NON-NLS
+        final String modelName = model.mTypeElement.getQualifiedName().toString();
+
+        try (PrintWriter out = newSourceWriter(model, className)) {
+            writeFileHeader(out, model);
+            out.println("import android.database.Cursor;"); //$NON-NLS
+            out.println("import androidx.annotation.NonNull;"); //$NON-NLS
+            out.println("import com.twofortyfouram.memento.util.IndexedCursorParser;"); //$NON-NLS
+            out.println("import com.twofortyfouram.memento.util.KeyedCursorParser;"); //$NON-NLS
+            out.println();
+            out.println("/**"); //$NON-NLS
+            out.printf(" * Parses {@link %s} from a Cursor.%n", modelName); //$NON-NLS
+            out.println(" */"); //$NON-NLS
+            out.printf("public final class %s%n", className); //$NON-NLS
+            out.printf("        extends IndexedCursorParser<%s, %s.ColumnIndices>", //$NON-NLS
+                    modelName, className);
+            if (null != model.mKeyColumn) {
+                out.printf("%n        implements KeyedCursorParser<%s>", modelName); //$NON-NLS
+            }
+            out.println(" {"); //$NON-NLS
+            out.println();
+
+            out.println("    /**"); //$NON-NLS
+            out.println("     * Projection of the columns read by this parser."); //$NON-NLS
+            out.println("     */"); //$NON-NLS
+            out.println("    @NonNull"); //$NON-NLS
+            out.print("    public static final String[] PROJECTION = {"); //$NON-NLS
+            for (int i = 0; i < model.mColumns.size(); i++) {
+                out.print(0 == i ? "" : ", "); //$NON-NLS
+                out.print(quote(model.mColumns.get(i).mColumnName));
+            }
+            out.println("};"); //$NON-NLS
+            out.println();
+
+            out.println("    @NonNull"); //$NON-NLS
+            out.println("    @Override"); //$NON-NLS
+            out.println("    public ColumnIndices newColumnIndices(@NonNull final Cursor cursor) {"); //$NON-NLS
+            out.println("        return new ColumnIndices("); //$NON-NLS
+            for (int i = 0; i < model.mColumns.size(); i++) {
+                out.printf("                cursor.getColumnIndexOrThrow(%s)%s%n", //$NON-NLS
+                        quote(model.mColumns.get(i).mColumnName),
+                        i + 1 < model.mColumns.size() ? "," : ");"); //$NON-NLS
+            }
+            out.println("    }"); //$NON-NLS
+            out.println();
+
+            out.println("    @NonNull"); //$NON-NLS
+            out.println("    @Override"); //$NON-NLS
+            out.printf("    public %s newObject(@NonNull final Cursor cursor,%n", modelName); //$NON-NLS
+            out.println("            @NonNull final ColumnIndices indices) {"); //$NON-NLS
+            out.printf("        return new %s(%n", modelName); //$NON-NLS
+            for (int i = 0; i < model.mColumns.size(); i++) {
+                final Column column = model.mColumns.get(i);
+                final String index = "indices.mIndex" + i; //$NON-NLS
+                final String read = column.mType.newReadExpression("cursor", index); //$NON-NLS
+                out.print("                "); //$NON-NLS
+                if (column.mIsNullable) {
+                    out.printf("cursor.isNull(%s) ? null : %s", index, read); //$NON-NLS
+                } else {
+                    out.print(read);
+                }
+                out.println(i + 1 < model.mColumns.size() ? "," : ");"); //$NON-NLS
+            }
+            out.println("    }"); //$NON-NLS
+
+            if (null != model.mKeyColumn) {
+                out.println();
+                out.println("    @Override"); //$NON-NLS
+                out.println("    public long getKey(@NonNull final Cursor cursor) {"); //$NON-NLS
+                out.printf("        return cursor.getLong(getColumnIndices(cursor).mIndex%d);%n", //$NON-NLS
+                        model.mColumns.indexOf(model.mKeyColumn));
+                out.println("    }"); //$NON-NLS
+            }
+
+            out.println();
+            out.println("    /**"); //$NON-NLS
+            out.println("     * Column indices of a Cursor, in the order of {@link #PROJECTION}."); //$NON-NLS
+            out.println("     */"); //$NON-NLS
+            out.println("    public static final class ColumnIndices {"); //$NON-NLS
+            for (int i = 0; i < model.mColumns.size(); i++) {
+                out.println();
+                out.printf("        /*package*/ final int mIndex%d;%n", i); //$NON-NLS
+            }
+            out.println();
+            out.print("        /*package*/ ColumnIndices("); //$NON-NLS
+            for (int i = 0; i < model.mColumns.size(); i++) {
+                out.printf("%sfinal int index%d", 0 == i ? "" : ", ", i); //$NON-NLS
+            }
+            out.println(") {"); //$NON-NLS
+            for (int i = 0; i < model.mColumns.size(); i++) {
+                out.printf("            mIndex%d = index%d;%n", i, i); //$NON-NLS
+            }
+            out.println("        }"); //$NON-NLS
+            out.println("    }"); //$NON-NLS
+            out.println("}"); //$NON-NLS
+        }
+    }
+
+    private void writeContentValuesWriter(final Model model) throws IOException {
+        final String className = model.mSimpleNamePrefix + "ContentValuesWriter"; //$NON-NLS
+        final String modelName = model.mTypeElement.getQualifiedName().toString();
+
+        int valueCount = 0;
+        for (final Column column : model.mColumns) {
+            valueCount += column.mIsKey ? 0 : 1;
+        }
+
+        try (PrintWriter out = newSourceWriter(model, className)) {
+            writeFileHeader(out, model);
+            out.println("import android.content.ContentValues;"); //$NON-NLS
+            out.println("import androidx.annotation.NonNull;"); //$NON-NLS
+            out.println();
+            out.println("/**"); //$NON-NLS
+            out.printf(" * Writes {@link %s} to ContentValues.", modelName); //$NON-NLS
+            if (null != model.mKeyColumn) {
+                out.printf("  The key column %s is not written.", //$NON-NLS
+                        model.mKeyColumn.mColumnName);
+            }
+            out.println();
+            out.println(" */"); //$NON-NLS
+            out.printf("public final class %s {%n", className); //$NON-NLS
+            out.println();
+
+            out.println("    @NonNull"); //$NON-NLS
+            out.printf("    public static ContentValues newContentValues(@NonNull final %s model) {%n", //$NON-NLS
+                    modelName);
+            out.printf("        final ContentValues values = new ContentValues(%d);%n", //$NON-NLS
+                    valueCount);
+            out.println("        writeContentValues(model, values);"); //$NON-NLS
+            out.println();
+            out.println("        return values;"); //$NON-NLS
+            out.println("    }"); //$NON-NLS
+            out.println();
+
+            out.printf("    public static void writeContentValues(@NonNull final %s model,%n", //$NON-NLS
+                    modelName);
+            out.println("            @NonNull final ContentValues values) {"); //$NON-NLS
+            for (final Column column : model.mColumns) {
+                if (!column.mIsKey) {
+                    out.printf("        values.put(%s, model.%s);%n", //$NON-NLS
+                            quote(column.mColumnName), column.mFieldName);
+                }
+            }
+            out.println("    }"); //$NON-NLS
+            out.println();
+
+            writePrivateConstructor(out, className);
+            out.println("}"); //$NON-NLS
+        }
+    }
+
+    private void writeTable(final Model model) throws IOException {
+        final String className = model.mSimpleNamePrefix + "Table"; //$NON-NLS
+        final String modelName = model.mTypeElement.getQualifiedName().toString();
+
+        try (PrintWriter out = newSourceWriter(model, className)) {
+            writeFileHeader(out, model);
+            out.println("import androidx.annotation.NonNull;"); //$NON-NLS
+            out.println("import com.twofortyfouram.memento.model.SqliteColumnBuilder;"); //$NON-NLS
+            out.println("import com.twofortyfouram.memento.model.SqliteStorageClass;"); //$NON-NLS
+            out.println("import com.twofortyfouram.memento.model.SqliteTableBuilder;"); //$NON-NLS
+            out.println();
+            out.println("/**"); //$NON-NLS
+            out.printf(" * Declares the table storing {@link %s}.%n", modelName); //$NON-NLS
+            out.println(" */"); //$NON-NLS
+            out.printf("public final class %s {%n", className); //$NON-NLS
+            out.println();
+            out.println("    @NonNull"); //$NON-NLS
+            out.printf("    public static final String TABLE_NAME = %s;%n", //$NON-NLS
+                    quote(model.mTableName));
+            out.println();
+
+            out.println("    /**"); //$NON-NLS
+            out.println("     * @return A new builder for the table, to which further columns or"); //$NON-NLS
+            out.println("     * full-text search may be added."); //$NON-NLS
+            out.println("     */"); //$NON-NLS
+            out.println("    @NonNull"); //$NON-NLS
+            out.println("    public static SqliteTableBuilder newTableBuilder() {"); //$NON-NLS
+            out.println("        return new SqliteTableBuilder().setName(TABLE_NAME)"); //$NON-NLS
+            for (int i = 0; i < model.mColumns.size(); i++) {
+                final Column column = model.mColumns.get(i);
+                out.printf("                .addColumn(new SqliteColumnBuilder().setName(%s)%n", //$NON-NLS
+                        quote(column.mColumnName));
+                out.printf("                        .setType(SqliteStorageClass.%s)", //$NON-NLS
+                        column.mType.mStorageClass);
+                if (column.mIsKey) {
+                    out.print(".setAutoincrementPrimaryKey()"); //$NON-NLS
+                } else if (!column.mIsNullable) {
+                    out.print(".setConstraintNotNull()"); //$NON-NLS
+                }
+                out.println(i + 1 < model.mColumns.size() ? ")" : ");"); //$NON-NLS
+            }
+            out.println("    }"); //$NON-NLS
+            out.println();
+
+            writePrivateConstructor(out, className);
+            out.println("}"); //$NON-NLS
+        }
+    }
+
+    private PrintWriter newSourceWriter(final Model model, final String className)
+            throws IOException {
+        final String qualifiedName = model.mPackageName.isEmpty() ? className
+                : model.mPackageName + "." + className; //$NON-NLS
+        final JavaFileObject file = processingEnv.getFiler()
+                .createSourceFile(qualifiedName, model.mTypeElement);
+        final Writer writer = file.openWriter();
+
+        return new PrintWriter(writer);
+    }
+
+    private static void writeFileHeader(final PrintWriter out, final Model model) {
+        out.printf("// Generated by %s from %s.  Do not edit.%n", //$NON-NLS
+                CursorModelProcessor.class.getName(), model.mTypeElement.getQualifiedName());
+        if (!model.mPackageName.isEmpty()) {
+            out.printf("package %s;%n", model.mPackageName); //$NON-NLS
+        }
+        out.println();
+    }
+
+    private static void writePrivateConstructor(final PrintWriter out, final String className) {
+        out.println("    /**"); //$NON-NLS
+        out.println("     * Private constructor prevents instantiation."); //$NON-NLS
+        out.println("     *"); //$NON-NLS
+        out.println("     * @throws UnsupportedOperationException because this class cannot be instantiated."); //$NON-NLS
+        out.println("     */"); //$NON-NLS
+        out.printf("    private %s() {%n", className); //$NON-NLS
+        out.println("        throw new UnsupportedOperationException(\"This class is non-instantiable\");"); //$NON-NLS
+        out.println("    }"); //$NON-NLS
+    }
+
+    private String getPackageName(final TypeElement typeElement) {
+        return processingEnv.getElementUtils().getPackageOf(typeElement).getQualifiedName()
+                .toString();
+    }
+
+    /**
+     * @return Simple name of {@code typeElement}, prefixed by the names of enclosing classes so
+     * that generated classes for nested models do not collide.
+     */
+    private static String getSimpleNamePrefix(final TypeElement typeElement) {
+        final StringBuilder builder = new StringBuilder(typeElement.getSimpleName());
+
+        Element enclosing = typeElement.getEnclosingElement();
+        while (enclosing instanceof TypeElement) {
+            builder.insert(0, '_').insert(0, enclosing.getSimpleName());
+            enclosing = enclosing.getEnclosingElement();
+        }
+
+        return builder.toString();
+    }
+
+    private static AnnotationMirror getAnnotationMirror(final Element element,
+                                                       final String annotationName) {
+        for (final AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            final TypeElement annotationElement = (TypeElement) mirror.getAnnotationType()
+                    .asElement();
+            if (annotationElement.getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+
+        return null;
+    }
+
+    private Object getAnnotationValue(final AnnotationMirror mirror, final String name) {
+        for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror)
+                .entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+
+        throw new AssertionError("Unknown annotation value " + name); //$NON-NLS
+    }
+
+    /**
+     * @return True if {@code field} has an annotation named {@code NonNull}, such as
+     * {@code androidx.annotation.NonNull}.
+     */
+    private static boolean hasNonNullAnnotation(final VariableElement field) {
+        for (final AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().asElement().getSimpleName()
+                    .contentEquals("NonNull")) { //$NON-NLS
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static String quote(final String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\""; //$NON-NLS
+    }
+
+    private static final class Model {
+
+        private final TypeElement mTypeElement;
+
+        private final String mPackageName;
+
+        private final String mSimpleNamePrefix;
+
+        private final String mTableName;
+
+        private final List<Column> mColumns;
+
+        private final Column mKeyColumn;
+
+        Model(final TypeElement typeElement, final String packageName,
+              final String simpleNamePrefix, final String tableName, final List<Column> columns,
+              final Column keyColumn) {
+            mTypeElement = typeElement;
+            mPackageName = packageName;
+            mSimpleNamePrefix = simpleNamePrefix;
+            mTableName = tableName;
+            mColumns = columns;
+            mKeyColumn = keyColumn;
+        }
+    }
+
+    private static final class Column {
+
+        private final String mFieldName;
+
+        private final String mColumnName;
+
+        private final ColumnType mType;
+
+        private final boolean mIsNullable;
+
+        private final boolean mIsKey;
+
+        Column(final String fieldName, final String columnName, final ColumnType type,
+               final boolean isNullable, final boolean isKey) {
+            mFieldName = fieldName;
+            mColumnName = columnName;
+            mType = type;
+            mIsNullable = isNullable;
+            mIsKey = isKey;
+        }
+    }
+
+    /**
+     * Reports an invalid model, attributed to the offending element.
+     */
+    private static final class ModelException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Element mElement;
+
+        ModelException(final Element element, final String message) {
+            super(message);
+            mElement = element;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * android-memento
+ * https://github.com/twofortyfouram/android-monorepo
+ * Copyright (C) 2008–2018 two forty four a.m. LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.twofortyfouram.memento.processor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Runs {@link CursorModelProcessor} in the compiler of the JDK.  Generated sources refer to
+ * Android classes that are not on the classpath, so only processing is performed, and
+ * diagnostics reported against generated sources are ignored.
+ */
+public final class CursorModelProcessorTest {
+
+    private static final String CURSOR_MODEL_SOURCE
+            = "package com.twofortyfouram.annotation;\n" //$NON-NLS
+            + "public @interface CursorModel { String tableName() default \"\"; }"; //$NON-NLS
+
+    private static final String CURSOR_COLUMN_SOURCE
+            = "package com.twofortyfouram.annotation;\n" //$NON-NLS
+            + "public @interface CursorColumn { String value(); boolean isKey() default false; }"; //$NON-NLS
+
+    @Rule
+    public final TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void process_generates_sources() throws IOException {
+        final Result result = process("package test;\n" //$NON-NLS
+                + "import com.twofortyfouram.annotation.*;\n" //$NON-NLS
+                + "@CursorModel(tableName = \"model\")\n" //$NON-NLS
+                + "final class Model {\n" //$NON-NLS
+                + "    @CursorColumn(value = \"_id\", isKey = true) final long mId;\n" //$NON-NLS
+                + "    @CursorColumn(\"name\") final String mName;\n" //$NON-NLS
+                + "    Model(final long id, final String name) { mId = id; mName = name; }\n" //$NON-NLS
+                + "}"); //$NON-NLS
+
+        assertThat(result.mDiagnostics.toString(), result.mDiagnostics.isEmpty(), is(true));
+        assertThat(result.isGenerated("test/ModelCursorParser.java"), is(true)); //$NON-NLS
+        assertThat(result.isGenerated("test/ModelContentValuesWriter.java"), is(true)); //$NON-NLS
+        assertThat(result.isGenerated("test/ModelTable.java"), is(true)); //$NON-NLS
+    }
+
+    @Test
+    public void process_no_table_name() throws IOException {
+        final Result result = process("package test;\n" //$NON-NLS
+                + "import com.twofortyfouram.annotation.*;\n" //$NON-NLS
+                + "@CursorModel\n" //$NON-NLS
+                + "final class Model {\n" //$NON-NLS
+                + "    @CursorColumn(\"name\") final String mName;\n" //$NON-NLS
+                + "    Model(final String name) { mName = name; }\n" //$NON-NLS
+                + "}"); //$NON-NLS
+
+        assertThat(result.mDiagnostics.toString(), result.mDiagnostics.isEmpty(), is(true));
+        assertThat(result.isGenerated("test/ModelCursorParser.java"), is(true)); //$NON-NLS
+        assertThat(result.isGenerated("test/ModelTable.java"), is(false)); //$NON-NLS
+    }
+
+    @Test
+    public void process_column_without_model() throws IOException {
+        // With -Xlint:processing, an unclaimed annotation is reported as a warning
+        final Result result = process("package test;\n" //$NON-NLS
+                + "import com.twofortyfouram.annotation.*;\n" //$NON-NLS
+                + "final class NotAModel {\n" //$NON-NLS
+                + "    @CursorColumn(\"name\") final String mName = null;\n" //$NON-NLS
+                + "}"); //$NON-NLS
+
+        assertThat(result.mDiagnostics.toString(), result.mDiagnostics.isEmpty(), is(true));
+        assertThat(result.isGenerated("test/NotAModelCursorParser.java"), is(false)); //$NON-NLS
+    }
+
+    @Test
+    public void process_no_columns() throws IOException {
+        assertError(process("package test;\n" //$NON-NLS
+                        + "import com.twofortyfouram.annotation.*;\n" //$NON-NLS
+                        + "@CursorModel final class Model { }"), //$NON-NLS
+                "at least one @CursorColumn"); //$NON-NLS
+    }
+
+    @Test
+    public void process_two_keys() throws IOException {
+        assertError(process("package test;\n" //$NON-NLS
+                        + "import com.twofortyfouram.annotation.*;\n" //$NON-NLS
+                        + "@CursorModel\n" //$NON-NLS
+                        + "final class Model {\n" //$NON-NLS
+                        + "    @CursorColumn(value = \"a\", isKey = true) final long mA;\n" //$NON-NLS
+                        + "    @CursorColumn(value = \"b\", isKey = true) final long mB;\n" //$NON-NLS
+                        + "    Model(final long a, final long b) { mA = a; mB = b; }\n" //$NON-NLS
+                        + "}"), //$NON-NLS
+                "Only one column may be the key"); //$NON-NLS
+    }
+
+    @Test
+    public void process_key_not_long() throws IOException {
+        assertError(process("package test;\n" //$NON-NLS
+                        + "import com.twofortyfouram.annotation.*;\n" //$NON-NLS
+                        + "@CursorModel\n" //$NON-NLS
+                        + "final class Model {\n" //$NON-NLS
+                        + "    @CursorColumn(value = \"_id\", isKey = true) final int mId;\n" //$NON-NLS
+                        + "    Model(final int id) { mId = id; }\n" //$NON-NLS
+                        + "}"), //$NON-NLS
+                "Key column must be a long"); //$NON-NLS
+    }
+
+    @Test
+    public void process_private_field() throws IOException {
+        assertError(process("package test;\n" //$NON-NLS
+                        + "import com.twofortyfouram.annotation.*;\n" //$NON-NLS
+                        + "@CursorModel\n" //$NON-NLS
+                        + "final class Model {\n" //$NON-NLS
+                        + "    @CursorColumn(\"name\") private final String mName;\n" //$NON-NLS
+                        + "    Model(final String name) { mName = name; }\n" //$NON-NLS
+                        + "}"), //$NON-NLS
+                "non-private and non-static"); //$NON-NLS
+    }
+
+    @Test
+    public void process_no_matching_constructor() throws IOException {
+        final Result result = process("package test;\n" //$NON-NLS
+                + "import com.twofortyfouram.annotation.*;\n" //$NON-NLS
+                + "@CursorModel\n" //$NON-NLS
+                + "final class Model {\n" //$NON-NLS
+                + "    @CursorColumn(\"name\") final String mName;\n" //$NON-NLS
+                + "    Model(final int name) { mName = null; }\n" //$NON-NLS
+                + "}"); //$NON-NLS
+
+        assertThat(result.mDiagnostics.size(), is(1));
+        assertThat(result.mDiagnostics.get(0).getKind(), is(Diagnostic.Kind.ERROR));
+    }
+
+    private static void assertError(final Result result, final String message) {
+        assertThat(result.mDiagnostics.toString(), result.mDiagnostics.size(), is(1));
+        assertThat(result.mDiagnostics.get(0).getKind(), is(Diagnostic.Kind.ERROR));
+        assertThat(result.mDiagnostics.get(0).getMessage(Locale.US), containsString(message));
+    }
+
+    /**
+     * @param modelSource Source of the compilation unit {@code test.Model}, or another class in
+     *                    the package {@code test}.
+     * @return Result of processing {@code modelSource}, with all lint warnings enabled.
+     */
+    private Result process(final String modelSource) throws IOException {
+        final File generatedDir = mTemporaryFolder.newFolder();
+
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+                Arrays.asList("-proc:only", "-Xlint:all", "-s", //$NON-NLS
+                        generatedDir.getAbsolutePath()), null,
+                Arrays.asList(
+                        newSource("com/twofortyfouram/annotation/CursorModel", //$NON-NLS
+                                CURSOR_MODEL_SOURCE),
+                        newSource("com/twofortyfouram/annotation/CursorColumn", //$NON-NLS
+                                CURSOR_COLUMN_SOURCE),
+                        newSource("test/Model", modelSource))); //$NON-NLS
+        task.setProcessors(Collections.singletonList(new CursorModelProcessor()));
+        task.call();
+
+        final List<Diagnostic<? extends JavaFileObject>> result = new ArrayList<>();
+        for (final Diagnostic<? extends JavaFileObject> diagnostic : diagnostics
+                .getDiagnostics()) {
+            final JavaFileObject source = diagnostic.getSource();
+            if (null != source && source.toUri().getPath()
+                    .startsWith(generatedDir.toURI().getPath())) {
+                continue;
+            }
+
+            result.add(diagnostic);
+        }
+
+        return new Result(generatedDir, result);
+    }
+
+    private static JavaFileObject newSource(final String path, final String source) {
+        return new SimpleJavaFileObject(URI.create("string:///" + path + ".java"), //$NON-NLS
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+    }
+
+    private static final class Result {
+
+        private final File mGeneratedDir;
+
+        private final List<Diagnostic<? extends JavaFileObject>> mDiagnostics;
+
+        Result(final File generatedDir,
+               final List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+            mGeneratedDir = generatedDir;
+            mDiagnostics = diagnostics;
+        }
+
+        boolean isGenerated(final String path) {
+            return new File(mGeneratedDir, path).isFile();
+        }
+    }
+}
@@ -45,6 +45,7 @@ dependencyResolutionManagement {
             val androidTestJunitVersion: String by settings
             val espressoVersion: String by settings
             val jcipVersion: String by settings
+            val junitVersion: String by settings
             val kotlinVersion: String by settings
 
             alias("androidx-appcompat").to("androidx.appcompat:appcompat:${androidAppcompatVersion}")
@@ -73,6 +74,8 @@ dependencyResolutionManagement {
 
             alias("jcip").to("net.jcip:jcip-annotations:${jcipVersion}")
 
+            alias("junit").to("junit:junit:${junitVersion}")
+
             alias("androidx-espresso-core").to("androidx.test.espresso:espresso-core:${espressoVersion}")
             alias("androidx-espresso-intents").to("androidx.test.espresso:espresso-intents:${espressoVersion}")
             alias("androidx-espresso-contrib").to("androidx.test.espresso:espresso-contrib:${espressoVersion}")
@@ -95,6 +98,7 @@ include(":annotationLib")
 include(":assertionLib")
 include(":mementoApiLib")
 include(":mementoImplLib")
+include(":mementoProcessorLib")
 include(":pluginApiLib")
 include(":pluginClientSdkLib")
 include(":pluginHostSdkLib")